@@ -0,0 +1,80 @@
+package org.folio.rest.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.CQL2PgJSONException;
+import org.folio.cql2pgjson.model.SqlSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CQL to SQL translation of typical front-end queries against the instance table of
+ * templates/db_scripts/schema.json, with and without the SqlSelectCache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Cql2PgJsonBenchmark {
+
+  /** cql.allRecords, exact match, fulltext, truncation, id lookup, boolean and sort */
+  static final String[] QUERIES = {
+      "cql.allRecords=1",
+      "cql.allRecords=1 sortBy title",
+      "id==6c5a2c8f-5a9f-4a0e-b4a5-0e5bb3f3f6a1",
+      "hrid==in00000000042",
+      "title=\"the art of computer programming\"",
+      "title=comput*",
+      "title==\"The Art of Computer Programming\" sortBy title/sort.descending",
+      "contributors=knuth",
+      "identifiers=\"0-201-03801-3\"",
+      "statusId==(26f5208e-110a-4394-be29-1569a8c84a65 or 2a340d34-6b70-443a-bb1b-1b8d1c65d862)",
+      "(title=programming or contributors=knuth) and statusId==26f5208e-110a-4394-be29-1569a8c84a65"
+          + " sortBy title",
+      "title=\"computer\" not contributors=\"knuth\"",
+  };
+
+  /** 0 disables the cache and measures the translation */
+  @Param({"0", "1000"})
+  int cacheSize;
+
+  private CQL2PgJSON cql2pgJson;
+
+  @Setup
+  public void setup() throws CQL2PgJSONException {
+    CQL2PgJSON.getSqlSelectCache().setMaxSize(cacheSize);
+    cql2pgJson = new CQL2PgJSON("instance.jsonb");
+  }
+
+  @TearDown
+  public void tearDown() {
+    CQL2PgJSON.getSqlSelectCache().setMaxSize(CQL2PgJSON.SQL_SELECT_CACHE_SIZE);
+  }
+
+  /**
+   * @return all translations so that the JIT cannot eliminate them
+   */
+  @Benchmark
+  @OperationsPerInvocation(12)
+  public SqlSelect[] toSql() throws CQL2PgJSONException {
+    SqlSelect[] result = new SqlSelect[QUERIES.length];
+    for (int i = 0; i < QUERIES.length; i++) {
+      result[i] = cql2pgJson.toSql(QUERIES[i]);
+    }
+    return result;
+  }
+}
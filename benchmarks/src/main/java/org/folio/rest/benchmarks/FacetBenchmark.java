@@ -0,0 +1,64 @@
+package org.folio.rest.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.persist.facets.FacetField;
+import org.folio.rest.persist.facets.FacetManager;
+import org.folio.rest.persist.facets.FacetQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.template.TemplateException;
+
+/**
+ * Facet SQL generation: the FreeMarker template of the deprecated {@link FacetManager}
+ * compared with the {@link FacetQuery} StringBuilder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FacetBenchmark {
+
+  private static final String SCHEMA = "diku_mod_inventory_storage";
+  private static final String TABLE = "instance";
+  private static final String WHERE =
+      "WHERE lower(f_unaccent(jsonb->>'title')) LIKE lower(f_unaccent('comput%'))";
+  private static final String MAIN_QUERY = "SELECT id, jsonb FROM " + SCHEMA + "." + TABLE + " " + WHERE;
+
+  private final List<FacetField> facets = Arrays.asList(
+      new FacetField("jsonb->>'statusId'", 5),
+      new FacetField("jsonb->>'instanceTypeId'", 10),
+      new FacetField("jsonb->>'source'", 5));
+
+  @Benchmark
+  @SuppressWarnings({"deprecation", "java:S1874"})  // generateFacetQuery() is deprecated, this is the code we compare against
+  public String facetManager() throws IOException, TemplateException {
+    FacetManager facetManager = new FacetManager(SCHEMA + "." + TABLE);
+    facetManager.setSupportFacets(facets);
+    facetManager.setWhere(WHERE);
+    facetManager.setMainQuery(MAIN_QUERY);
+    facetManager.setSchema(SCHEMA);
+    facetManager.setIdField("id");
+    facetManager.setLimitClause("LIMIT 10");
+    facetManager.setOffsetClause("OFFSET 0");
+    return facetManager.generateFacetQuery();
+  }
+
+  @Benchmark
+  public String facetQuery() {
+    return FacetQuery.build(SCHEMA, TABLE, MAIN_QUERY, false, facets);
+  }
+}
@@ -0,0 +1,78 @@
+package org.folio.rest.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.tools.client.Response;
+import org.folio.rest.tools.client.exceptions.ResponseNullPointer;
+import org.folio.rest.tools.parser.JsonPathParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * {@link JsonPathParser} path evaluation and the {@link Response#joinOn} of two
+ * HttpModuleClient2 responses, here users with their patron groups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonPathBenchmark {
+
+  private JsonObject users;
+  private JsonObject groups;
+
+  @Setup
+  public void setup() {
+    JsonArray groupArray = new JsonArray();
+    for (int i = 0; i < 10; i++) {
+      groupArray.add(new JsonObject().put("id", "g" + i).put("group", "group " + i)
+          .put("desc", "Patron group " + i));
+    }
+    groups = new JsonObject().put("usergroups", groupArray).put("totalRecords", groupArray.size());
+    JsonArray userArray = new JsonArray();
+    for (int i = 0; i < 100; i++) {
+      userArray.add(new JsonObject().put("id", "u" + i).put("username", "user" + i)
+          .put("patronGroup", "g" + (i % 10))
+          .put("personal", new JsonObject().put("lastName", "Last" + i).put("firstName", "First" + i)));
+    }
+    users = new JsonObject().put("users", userArray).put("totalRecords", userArray.size());
+  }
+
+  @Benchmark
+  public List<StringBuilder> getAbsolutePaths() {
+    return new JsonPathParser(users).getAbsolutePaths("users[*].personal.lastName");
+  }
+
+  @Benchmark
+  public Object getValueAt() {
+    return new JsonPathParser(users).getValueAt("users[42].personal.lastName");
+  }
+
+  /**
+   * Replace each patronGroup id by the name of the group, joinOn changes the body,
+   * therefore each invocation works on a copy.
+   */
+  @Benchmark
+  public JsonObject joinOn() throws ResponseNullPointer {
+    Response usersResponse = new Response();
+    usersResponse.setBody(users.copy());
+    Response groupsResponse = new Response();
+    groupsResponse.setBody(groups);
+    return usersResponse.joinOn("users[*].patronGroup", groupsResponse, "usergroups[*].id", "../group", false)
+        .getBody();
+  }
+}
@@ -0,0 +1,68 @@
+package org.folio.rest.benchmarks;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.rest.ValidationPlan;
+import org.folio.rest.jaxrs.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request body deserialization and validation of RestVerticle's parseParams using
+ * {@link ValidationPlan}, compared with full deserialization and validation it used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBodyBenchmark {
+
+  /** a client PUTs back what it has got by GET, including the read-only metadata */
+  static final String BOOK = "{"
+      + "\"data\":{\"id\":\"d1\",\"title\":\"Stiff: The Curious Lives of Human Cadavers\","
+      + "\"description\":\"A look inside the world of forensics\",\"genre\":\"science\","
+      + "\"author\":\"Mary Roach\",\"link\":\"http://e-bookmobile.com/books/Stiff\","
+      + "\"datetime\":{\"$date\":\"2003-04-01\"}},"
+      + "\"success\":true,\"status\":200,\"id\":\"SbBGk\",\"image\":\"stiff.png\","
+      + "\"metadata\":{\"createdDate\":\"2017-04-01T23:11:00.000+00:00\","
+      + "\"createdByUserId\":\"dee12548-9cee-45fa-bbae-675c1cc0ce3b\","
+      + "\"updatedDate\":\"2017-04-02T10:00:00.000+00:00\","
+      + "\"updatedByUserId\":\"dee12548-9cee-45fa-bbae-675c1cc0ce3b\"}"
+      + "}";
+
+  private ValidationPlan plan;
+  private Validator validator;
+
+  @Setup
+  public void setup() {
+    plan = ValidationPlan.of(Book.class);
+    validator = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Object>> validationPlan() throws IOException {
+    return plan.validate(plan.readValue(BOOK));
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Book>> fullValidation() throws IOException {
+    return validator.validate(ObjectMapperTool.getMapper().readValue(BOOK, Book.class));
+  }
+}
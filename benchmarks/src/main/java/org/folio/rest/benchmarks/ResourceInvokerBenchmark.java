@@ -0,0 +1,91 @@
+package org.folio.rest.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.ResourceInvoker;
+import org.folio.rest.annotations.SharedInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.vertx.core.Vertx;
+
+/**
+ * Compares the reflection based invocation of a resource implementation that RestVerticle
+ * used before with {@link ResourceInvoker}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceInvokerBenchmark {
+
+  /** stateless like most implementations in org.folio.rest.impl */
+  public static class BooksImpl {
+    public void getBooks(String query, int offset, int limit, Blackhole blackhole) {
+      blackhole.consume(query);
+      blackhole.consume(offset + limit);
+    }
+  }
+
+  @SharedInstance
+  public static class SharedBooksImpl extends BooksImpl {
+  }
+
+  private final Object[] args = new Object [4];
+  private Method method;
+  private ResourceInvoker invoker;
+  private ResourceInvoker sharedInvoker;
+
+  @Setup
+  public void setup(Blackhole blackhole) throws ReflectiveOperationException {
+    method = BooksImpl.class.getMethod("getBooks", String.class, int.class, int.class, Blackhole.class);
+    invoker = new ResourceInvoker(BooksImpl.class, method);
+    sharedInvoker = new ResourceInvoker(SharedBooksImpl.class, method);
+    args[0] = "title=abc";
+    args[1] = 0;
+    args[2] = 10;
+    args[3] = blackhole;
+  }
+
+  @Benchmark
+  @SuppressWarnings({"deprecation", "java:S1874"})  // newInstance() is deprecated, this is the code we compare against
+  public void reflection() throws Exception {
+    Object o;
+    try {
+      o = BooksImpl.class.getConstructor(Vertx.class, String.class).newInstance(null, "diku");
+    } catch (Exception e) {
+      o = BooksImpl.class.newInstance();
+    }
+    Method[] methods = BooksImpl.class.getMethods();
+    Method found = null;
+    for (Method m : methods) {
+      if (m.getName().equals("getBooks")) {
+        found = m;
+        break;
+      }
+    }
+    found.invoke(o, args);
+  }
+
+  @Benchmark
+  public void methodHandle() throws Throwable {
+    invoker.invoke(invoker.getInstance(null, "diku"), args);
+  }
+
+  @Benchmark
+  public void methodHandleSharedInstance() throws Throwable {
+    sharedInvoker.invoke(sharedInvoker.getInstance(null, "diku"), args);
+  }
+}
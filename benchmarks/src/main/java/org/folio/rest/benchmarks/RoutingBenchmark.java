@@ -0,0 +1,87 @@
+package org.folio.rest.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.RouteDescriptor;
+import org.folio.rest.RoutingTable;
+import org.folio.rest.tools.AnnotationGrabber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Request path to route lookup of RestVerticle using the RAML path templates of
+ * a storage module of typical size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+
+  private static final String[] RESOURCES = {
+      "instances", "holdings", "items", "instance-types", "instance-formats", "contributor-types",
+      "identifier-types", "locations", "location-units", "material-types", "loan-types",
+      "call-number-types", "statistical-codes", "nature-of-content-terms", "service-points",
+  };
+
+  private RoutingTable routingTable;
+
+  @Setup
+  public void setup() {
+    routingTable = new RoutingTable();
+    for (String resource : RESOURCES) {
+      String collection = "/inventory-storage/" + resource;
+      String item = collection + "/{id}";
+      add(collection, "GET", "POST", "DELETE");
+      add(item, "GET", "PUT", "DELETE");
+      add(item + "/source-record", "GET");
+      add(item + "/relationships/{relationshipId}", "GET", "DELETE");
+    }
+    add("/_/tenant", "POST", "DELETE");
+    add("/_/tenant/{operationId}", "GET", "DELETE");
+    add("/admin/health", "GET");
+    add("/admin/metrics", "GET");
+  }
+
+  private void add(String pathTemplate, String... httpMethods) {
+    for (String httpMethod : httpMethods) {
+      JsonObject mapping = new JsonObject()
+          .put(AnnotationGrabber.FUNCTION_NAME, httpMethod.toLowerCase() + pathTemplate.hashCode())
+          .put(AnnotationGrabber.METHOD_URL, "^" + pathTemplate);
+      routingTable.add(pathTemplate, httpMethod, new RouteDescriptor(mapping, null, null));
+    }
+  }
+
+  @Benchmark
+  public RouteDescriptor collection() {
+    return routingTable.match("/inventory-storage/service-points").getRoute("GET");
+  }
+
+  @Benchmark
+  public RoutingTable.Match item() {
+    return routingTable.match("/inventory-storage/items/3f6a8a6c-5e2b-4d53-9b3a-1d0f4a2e7c19");
+  }
+
+  @Benchmark
+  public RoutingTable.Match nested() {
+    return routingTable.match(
+        "/inventory-storage/instances/6c5a2c8f-5a9f-4a0e-b4a5-0e5bb3f3f6a1/relationships/a%20b");
+  }
+
+  @Benchmark
+  public RoutingTable.Match notFound() {
+    return routingTable.match("/inventory-storage/instances/6c5a2c8f-5a9f-4a0e-b4a5-0e5bb3f3f6a1/foo");
+  }
+}
@@ -0,0 +1,54 @@
+package org.folio.rest.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.dbschema.Schema;
+import org.folio.dbschema.TenantOperation;
+import org.folio.rest.persist.ddlgen.SchemaMaker;
+import org.folio.util.ResourceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.template.TemplateException;
+
+/**
+ * DDL generation of a tenant init for templates/db_scripts/schema.json, including parsing the json.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaMakerBenchmark {
+
+  @Param({"CREATE", "UPDATE"})
+  TenantOperation mode;
+
+  private String schemaJson;
+
+  @Setup
+  public void setup() {
+    schemaJson = ResourceUtil.asString("templates/db_scripts/schema.json");
+  }
+
+  @Benchmark
+  public String generateSchemas() throws IOException, TemplateException {
+    String previousVersion = mode == TenantOperation.UPDATE ? "mod-inventory-storage-0.9.0" : null;
+    SchemaMaker schemaMaker = new SchemaMaker("diku", "mod_inventory_storage", mode,
+        previousVersion, "mod-inventory-storage-1.0.0");
+    schemaMaker.setSchema(ObjectMapperTool.getMapper().readValue(schemaJson, Schema.class));
+    return schemaMaker.generateSchemas();
+  }
+}
@@ -0,0 +1,93 @@
+package org.folio.rest.persist;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.jaxrs.model.Book;
+import org.folio.rest.jaxrs.model.Books;
+import org.folio.rest.jaxrs.model.Data;
+import org.folio.rest.jaxrs.resource.Rmbtests.GetRmbtestsTestResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.Future;
+
+/**
+ * Response building of PgUtil after the database has replied: the reflective lookup of
+ * the respond methods, the creation of the collection and the invocation of the respond method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PgUtilBenchmark {
+
+  private final List<Book> list = new ArrayList<>();
+  private Method respond200;
+  private Method respond400;
+  private Method respond500;
+
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    for (int i = 0; i < 10; i++) {
+      Data data = new Data();
+      data.setTitle("Title " + i);
+      data.setAuthor("Author " + i);
+      Book book = new Book();
+      book.setStatus(200);
+      book.setSuccess(true);
+      book.setData(data);
+      list.add(book);
+    }
+    respond200 = GetRmbtestsTestResponse.class.getMethod("respond200WithApplicationJson", Books.class);
+    respond400 = GetRmbtestsTestResponse.class.getMethod("respond400WithTextPlain", Object.class);
+    respond500 = GetRmbtestsTestResponse.class.getMethod("respond500WithTextPlain", Object.class);
+  }
+
+  /**
+   * Everything PgUtil.get does with the list of records returned by PostgresClient.
+   */
+  @Benchmark
+  public Future<Response> getResponse() throws ReflectiveOperationException {
+    Method respond500Method = GetRmbtestsTestResponse.class.getMethod("respond500WithTextPlain", Object.class);
+    Method respond200Method = GetRmbtestsTestResponse.class.getMethod("respond200WithApplicationJson", Books.class);
+    Method setList = PgUtil.getListSetter(Books.class);
+    Books books = new Books();
+    setList.invoke(books, list);
+    books.setTotalRecords(list.size());
+    return PgUtil.response(books, respond200Method, respond500Method);
+  }
+
+  /**
+   * Response building only, the methods are looked up in advance.
+   */
+  @Benchmark
+  public Future<Response> response() {
+    Books books = new Books();
+    books.setBooks(list);
+    books.setTotalRecords(list.size());
+    return PgUtil.response(books, respond200, respond500);
+  }
+
+  /**
+   * Falls back to respond400 because the response class has no respond422WithApplicationJson(Errors).
+   */
+  @Benchmark
+  public Future<Response> invalidUuid() {
+    return PgUtil.responseInvalidUuid("id", "not-a-uuid", GetRmbtestsTestResponse.class, respond400, respond500);
+  }
+}
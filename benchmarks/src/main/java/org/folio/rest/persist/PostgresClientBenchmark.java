@@ -0,0 +1,81 @@
+package org.folio.rest.persist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.jaxrs.model.Book;
+import org.folio.rest.persist.helpers.LocalRowSet;
+import org.folio.rest.persist.interfaces.Results;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.impl.RowImpl;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.impl.RowDesc;
+
+/**
+ * Conversion of a SELECT id, jsonb result into POJOs as done by PostgresClient.get,
+ * using a stub RowSet, no database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostgresClientBenchmark {
+
+  @Param({"1", "10", "100"})
+  int rowCount;
+
+  private PostgresClient postgresClient;
+  private RowSet<Row> rowSet;
+
+  @Setup
+  public void setup() {
+    postgresClient = PostgresClient.testClient();
+    List<String> columns = Arrays.asList("id", "jsonb");
+    RowDesc rowDesc = new RowDesc(columns);
+    List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < rowCount; i++) {
+      UUID id = UUID.randomUUID();
+      JsonObject jsonb = new JsonObject()
+          .put("id", id.toString())
+          .put("data", new JsonObject()
+              .put("title", "Title " + i)
+              .put("description", "Description of book number " + i)
+              .put("genre", "science")
+              .put("author", "Author " + i)
+              .put("link", "http://e-bookmobile.com/books/" + i))
+          .put("success", true)
+          .put("status", 200)
+          .put("metadata", new JsonObject()
+              .put("createdDate", "2017-04-01T23:11:00.000+00:00")
+              .put("createdByUserId", "dee12548-9cee-45fa-bbae-675c1cc0ce3b"));
+      Row row = new RowImpl(rowDesc);
+      row.addUUID(id);
+      row.addValue(jsonb);
+      rows.add(row);
+    }
+    rowSet = new LocalRowSet(rowCount).withColumns(columns).withRows(rows);
+  }
+
+  @Benchmark
+  public Results<Book> processResults() {
+    return postgresClient.processResults(rowSet, null, 0, 10, Book.class);
+  }
+}
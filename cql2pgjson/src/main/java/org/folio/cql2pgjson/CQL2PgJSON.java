@@ -3,10 +3,9 @@ package org.folio.cql2pgjson;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -17,6 +16,7 @@ import org.folio.cql2pgjson.exception.CQLFeatureUnsupportedException;
 import org.folio.cql2pgjson.exception.FieldException;
 import org.folio.cql2pgjson.exception.QueryValidationException;
 import org.folio.cql2pgjson.exception.ServerChoiceIndexesException;
+import org.folio.cql2pgjson.model.CachedDbSchema;
 import org.folio.cql2pgjson.model.CqlAccents;
 import org.folio.cql2pgjson.model.CqlCase;
 import org.folio.cql2pgjson.model.CqlModifiers;
@@ -26,14 +26,13 @@ import org.folio.cql2pgjson.model.DbFkInfo;
 import org.folio.cql2pgjson.model.DbIndex;
 import org.folio.cql2pgjson.model.IndexTextAndJsonValues;
 import org.folio.cql2pgjson.model.SqlSelect;
+import org.folio.cql2pgjson.model.SqlSortKey;
 import org.folio.cql2pgjson.util.Cql2SqlUtil;
 import org.folio.cql2pgjson.util.DbSchemaUtils;
 import org.folio.dbschema.util.SqlUtil;
 import org.folio.dbschema.Index;
 import org.folio.dbschema.Schema;
 import org.folio.dbschema.Table;
-import org.folio.dbschema.ObjectMapperTool;
-import org.folio.util.ResourceUtil;
 import org.z3950.zing.cql.CQLAndNode;
 import org.z3950.zing.cql.CQLBooleanNode;
 import org.z3950.zing.cql.CQLNode;
@@ -66,6 +65,11 @@ public class CQL2PgJSON {
 
   private static final String JSONB_COLUMN_NAME = "jsonb";
 
+  /** default size of the {@link #getSqlSelectCache()} */
+  public static final int SQL_SELECT_CACHE_SIZE = 1000;
+
+  private static final SqlSelectCache sqlSelectCache = new SqlSelectCache(SQL_SELECT_CACHE_SIZE);
+
   private final Pattern uuidPattern = Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
 
   private String jsonField = null;
@@ -74,8 +78,8 @@ public class CQL2PgJSON {
   // leverage RMB and consider to merge cql2pgjson into RMB
   private Schema dbSchema;
   private Table dbTable;
-  /** Maps an index name to its DbIndex information */
-  private Map<String,DbIndex> dbIndexMap = new HashMap<>();
+  /** dbSchema indexed, maps an index name to its DbIndex information */
+  private CachedDbSchema cachedDbSchema;
 
   /**
    * Default index names to be used for cql.serverChoice.
@@ -172,9 +176,8 @@ public class CQL2PgJSON {
       if (schemaPath == null) {
         schemaPath = "templates/db_scripts/schema.json";
       }
-      String dbJson = ResourceUtil.asString(schemaPath, CQL2PgJSON.class);
-      logger.log(Level.INFO, "loadDbSchema: Loaded {0} OK", schemaPath);
-      dbSchema = ObjectMapperTool.getMapper().readValue(dbJson, Schema.class);
+      cachedDbSchema = CachedDbSchema.get(schemaPath);
+      dbSchema = cachedDbSchema.getSchema();
     } catch (IOException ex) {
       logger.log(Level.SEVERE, "No schema.json found", ex);
     }
@@ -189,11 +192,9 @@ public class CQL2PgJSON {
       // Remove the json blob field name, usually ".jsonb", but in tests also
       // ".user_data" etc.
       String tname = this.jsonField.replaceAll("\\.[^.]+$", "");
-      for (Table table : dbSchema.getTables()) {
-        if (tname.equalsIgnoreCase(table.getTableName())) {
-          dbTable = table;
-          break;
-        }
+      Table table = cachedDbSchema.getTable(tname);
+      if (table != null) {
+        dbTable = table;
       }
       if (dbTable == null) {
         logger.log(Level.SEVERE, "loadDbSchema loadDbSchema(): Table {0} NOT FOUND", tname);
@@ -285,15 +286,69 @@ public class CQL2PgJSON {
    * @throws QueryValidationException
    */
   public SqlSelect toSql(String cql) throws QueryValidationException {
+    SqlSelectKey key = new SqlSelectKey(this, cql);
+    SqlSelect sqlSelect = sqlSelectCache.get(key);
+    if (sqlSelect != null) {
+      return sqlSelect;
+    }
     try {
       CQLParser parser = new CQLParser();
       CQLNode node = parser.parse(cql);
-      return toSql(node);
+      sqlSelect = toSql(node);
+      sqlSelectCache.put(key, sqlSelect);
+      return sqlSelect;
     } catch (IOException|CQLParseException e) {
       throw new QueryValidationException(e);
     }
   }
 
+  /**
+   * The process-wide cache of {@link #toSql(String)} results, use it to get the hit and miss counts
+   * or to change the size. The default size is {@value #SQL_SELECT_CACHE_SIZE}.
+   */
+  public static SqlSelectCache getSqlSelectCache() {
+    return sqlSelectCache;
+  }
+
+  /**
+   * Everything the result of {@link #toSql(String)} depends on.
+   */
+  private static final class SqlSelectKey {
+    private final CachedDbSchema schema;
+    private final Table table;
+    private final String field;
+    private final List<String> fields;
+    private final List<String> serverChoice;
+    private final String cql;
+    private final int hashCode;
+
+    private SqlSelectKey(CQL2PgJSON cql2pgJson, String cql) {
+      schema = cql2pgJson.cachedDbSchema;
+      table = cql2pgJson.dbTable;
+      field = cql2pgJson.jsonField;
+      fields = cql2pgJson.jsonFields == null ? null : new ArrayList<>(cql2pgJson.jsonFields);
+      serverChoice = new ArrayList<>(cql2pgJson.serverChoiceIndexes);
+      this.cql = cql;
+      hashCode = Objects.hash(cql, field, fields, serverChoice);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (! (o instanceof SqlSelectKey)) {
+        return false;
+      }
+      SqlSelectKey other = (SqlSelectKey) o;
+      return schema == other.schema && table == other.table && Objects.equals(cql, other.cql)
+          && Objects.equals(field, other.field) && Objects.equals(fields, other.fields)
+          && serverChoice.equals(other.serverChoice);
+    }
+  }
+
   private SqlSelect toSql(CQLNode node) throws QueryValidationException {
     if (node instanceof CQLSortNode) {
       return toSql((CQLSortNode) node);
@@ -369,6 +424,7 @@ public class CQL2PgJSON {
   @SuppressWarnings("squid:S135")  // suppress "reduce to one continue in for loop"
   private SqlSelect toSql(CQLSortNode node) throws QueryValidationException {
     StringBuilder order = new StringBuilder();
+    List<SqlSortKey> sortKeys = new ArrayList<>();
     String where = pg(node.getSubtree());
 
     boolean firstIndex = true;
@@ -381,14 +437,16 @@ public class CQL2PgJSON {
 
       String desc = "";
       CqlModifiers modifiers = new CqlModifiers(modifierSet);
-      if (modifiers.getCqlSort() == CqlSort.DESCENDING) {
+      boolean descending = modifiers.getCqlSort() == CqlSort.DESCENDING;
+      if (descending) {
         desc = " DESC";
       }  // ASC not needed, it's Postgres' default
 
       String field = modifierSet.getBase();
-      DbIndex dbIndex = dbIndexMap.computeIfAbsent(field, f -> DbSchemaUtils.getDbIndex(dbTable, f));
+      DbIndex dbIndex = cachedDbSchema.getDbIndex(dbTable, field);
       if (dbIndex.isForeignKey() || "id".equals(field)) {
         order.append(field).append(desc);
+        sortKeys.add(new SqlSortKey(field, descending));
         continue;
       }
 
@@ -397,14 +455,18 @@ public class CQL2PgJSON {
       // if sort field is marked explicitly as number type
       if (modifiers.getCqlTermFormat() == CqlTermFormat.NUMBER) {
         order.append(vals.getIndexJson()).append(desc);
+        sortKeys.add(new SqlSortKey(vals.getIndexJson(), descending));
         continue;
       }
 
       // We assume that a CREATE INDEX for this has been installed.
-      order.append(wrapForLength(wrapInLowerUnaccent(vals.getIndexText(), modifiers))).append(desc).append(", ")
-      .append(wrapInLowerUnaccent(vals.getIndexText(), modifiers)).append(desc);
+      String wrapped = wrapInLowerUnaccent(vals.getIndexText(), modifiers);
+      order.append(wrapForLength(wrapped)).append(desc).append(", ")
+      .append(wrapped).append(desc);
+      sortKeys.add(new SqlSortKey(wrapForLength(wrapped), descending));
+      sortKeys.add(new SqlSortKey(wrapped, descending));
     }
-    return new SqlSelect(where, order.toString());
+    return new SqlSelect(where, order.toString(), sortKeys);
   }
 
   private static String sqlOperator(CQLBooleanNode node) throws CQLFeatureUnsupportedException {
@@ -735,9 +797,9 @@ public class CQL2PgJSON {
 
     DbIndex dbIndex;
     if (targetTable == null || dbTable.equals(targetTable)) {
-      dbIndex = dbIndexMap.computeIfAbsent(index              , i -> DbSchemaUtils.getDbIndex(dbTable, index));
+      dbIndex = cachedDbSchema.getDbIndex(dbTable, index);
     } else {  // foreign table
-      dbIndex = dbIndexMap.computeIfAbsent(vals.getIndexJson(), i -> DbSchemaUtils.getDbIndex(targetTable, index));
+      dbIndex = cachedDbSchema.getDbIndex(targetTable, index);
     }
 
     if (dbIndex.isForeignKey()) {
@@ -0,0 +1,115 @@
+package org.folio.cql2pgjson;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.folio.cql2pgjson.model.SqlSelect;
+
+/**
+ * Bounded least recently used cache of {@link SqlSelect} translation results.
+ *
+ * <p>Thread-safe. The key must contain everything the translation depends on.
+ */
+public class SqlSelectCache {
+
+  private final Map<Object, SqlSelect> map;
+  private volatile int maxSize;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param maxSize  maximum number of entries, 0 disables the cache
+   */
+  public SqlSelectCache(int maxSize) {
+    map = new LinkedHashMap<Object, SqlSelect>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, SqlSelect> eldest) {
+        return size() > SqlSelectCache.this.maxSize;
+      }
+    };
+    setMaxSize(maxSize);
+  }
+
+  /**
+   * @return the cached value, or null if not found
+   */
+  public SqlSelect get(Object key) {
+    SqlSelect sqlSelect;
+    synchronized (map) {
+      sqlSelect = map.get(key);
+    }
+    if (sqlSelect == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return sqlSelect;
+  }
+
+  public void put(Object key, SqlSelect sqlSelect) {
+    if (maxSize == 0) {
+      return;
+    }
+    synchronized (map) {
+      map.put(key, sqlSelect);
+    }
+  }
+
+  /**
+   * Set the maximum number of entries, 0 disables the cache. Reducing the size
+   * evicts the least recently used entries.
+   */
+  public void setMaxSize(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    synchronized (map) {
+      Iterator<Object> iterator = map.keySet().iterator();
+      while (map.size() > maxSize) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return current number of entries
+   */
+  public int size() {
+    synchronized (map) {
+      return map.size();
+    }
+  }
+
+  /**
+   * Remove all entries, don't reset the counters.
+   */
+  public void clear() {
+    synchronized (map) {
+      map.clear();
+    }
+  }
+
+  /**
+   * @return number of {@link #get(Object)} calls that found a value
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return number of {@link #get(Object)} calls that didn't find a value
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+}
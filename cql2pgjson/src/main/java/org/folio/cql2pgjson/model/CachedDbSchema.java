@@ -0,0 +1,123 @@
+package org.folio.cql2pgjson.model;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.folio.cql2pgjson.util.DbSchemaUtils;
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.dbschema.Schema;
+import org.folio.dbschema.Table;
+import org.folio.dbschema.View;
+import org.folio.util.ResourceUtil;
+
+/**
+ * A parsed schema.json with its tables and materialized views indexed by name and the {@link DbIndex}
+ * information of the table fields.
+ *
+ * <p>{@link #get(String)} loads and parses each schema.json resource only once, the instance is
+ * shared by all CQL2PgJSON instances. The {@link Schema} and {@link Table} objects must not be modified.
+ */
+public final class CachedDbSchema {
+
+  private static final Logger logger = Logger.getLogger(CachedDbSchema.class.getName());
+  private static final Map<String, CachedDbSchema> cache = new ConcurrentHashMap<>();
+
+  private final Schema schema;
+  /** lower case table name to table, lower case materialized view name to {@link View#getIndexTable()} */
+  private final Map<String, Table> tables;
+  /** table to map of index name to DbIndex */
+  private final Map<Table, Map<String, DbIndex>> dbIndexes;
+  /** index name to DbIndex for a null table */
+  private final Map<String, DbIndex> noTableDbIndexes = new ConcurrentHashMap<>();
+
+  /**
+   * Index the schema.
+   * @param schema  the schema, it must not be modified afterwards
+   */
+  public CachedDbSchema(Schema schema) {
+    this.schema = schema;
+    Map<String, Table> tableMap = new HashMap<>();
+    Map<Table, Map<String, DbIndex>> dbIndexMap = new IdentityHashMap<>();
+    if (schema.getTables() != null) {
+      for (Table table : schema.getTables()) {
+        // first table wins like in a sequential case insensitive search
+        tableMap.putIfAbsent(table.getTableName().toLowerCase(Locale.ROOT), table);
+        dbIndexMap.put(table, new ConcurrentHashMap<>());
+      }
+    }
+    if (schema.getViews() != null) {
+      for (View view : schema.getViews()) {
+        if (! view.isMaterialized()) {
+          continue;
+        }
+        // a materialized view has its own indexes, CQL2PgJSON uses them like the indexes of a table
+        Table table = view.getIndexTable();
+        tableMap.putIfAbsent(table.getTableName().toLowerCase(Locale.ROOT), table);
+        dbIndexMap.put(table, new ConcurrentHashMap<>());
+      }
+    }
+    tables = Collections.unmodifiableMap(tableMap);
+    dbIndexes = Collections.unmodifiableMap(dbIndexMap);
+  }
+
+  /**
+   * Return the CachedDbSchema of the schema.json resource, load and parse it
+   * on first invocation for this schemaPath.
+   *
+   * @param schemaPath  resource path like templates/db_scripts/schema.json
+   * @throws IOException  on parse error
+   * @throws java.io.UncheckedIOException  if the resource cannot be read
+   */
+  public static CachedDbSchema get(String schemaPath) throws IOException {
+    CachedDbSchema cachedDbSchema = cache.get(schemaPath);
+    if (cachedDbSchema != null) {
+      return cachedDbSchema;
+    }
+    String dbJson = ResourceUtil.asString(schemaPath, CachedDbSchema.class);
+    logger.log(Level.INFO, "loadDbSchema: Loaded {0} OK", schemaPath);
+    Schema schema = ObjectMapperTool.getMapper().readValue(dbJson, Schema.class);
+    cachedDbSchema = new CachedDbSchema(schema);
+    CachedDbSchema existing = cache.putIfAbsent(schemaPath, cachedDbSchema);
+    return existing == null ? cachedDbSchema : existing;
+  }
+
+  /**
+   * Remove all schemas from the cache so that {@link #get(String)} reloads them.
+   */
+  public static void clearCache() {
+    cache.clear();
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * @param tableName  name of the table or materialized view, case insensitive
+   * @return the table, or null if not found
+   */
+  public Table getTable(String tableName) {
+    return tables.get(tableName.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * @param table  the table of this schema, may be null
+   * @param indexName  the name of the field that is indexed
+   * @return index information of the table field
+   */
+  public DbIndex getDbIndex(Table table, String indexName) {
+    Map<String, DbIndex> map = table == null ? noTableDbIndexes : dbIndexes.get(table);
+    if (map == null) {
+      // table of a different schema
+      return DbSchemaUtils.getDbIndex(table, indexName);
+    }
+    return map.computeIfAbsent(indexName, i -> DbSchemaUtils.getDbIndex(table, indexName));
+  }
+}
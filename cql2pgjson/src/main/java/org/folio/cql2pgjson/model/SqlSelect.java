@@ -1,5 +1,8 @@
 package org.folio.cql2pgjson.model;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -8,6 +11,7 @@ import org.apache.commons.lang3.StringUtils;
 public class SqlSelect {
   private final String where;
   private final String orderBy;
+  private final List<SqlSortKey> sortKeys;
 
   /**
    * Set the values. A null value is converted to an empty String.
@@ -15,8 +19,20 @@ public class SqlSelect {
    * @param orderBy  the ORDER BY clause without "ORDER BY" keyword
    */
   public SqlSelect(String where, String orderBy) {
+    this(where, orderBy, null);
+  }
+
+  /**
+   * Set the values. A null where or orderBy is converted to an empty String,
+   * a null sortKeys to an empty List.
+   * @param where  the WHERE clause without "WHERE" keyword
+   * @param orderBy  the ORDER BY clause without "ORDER BY" keyword
+   * @param sortKeys  the expressions of orderBy
+   */
+  public SqlSelect(String where, String orderBy, List<SqlSortKey> sortKeys) {
     this.where = StringUtils.defaultString(where);
     this.orderBy = StringUtils.defaultString(orderBy);
+    this.sortKeys = sortKeys == null ? Collections.emptyList() : Collections.unmodifiableList(sortKeys);
   }
 
   /**
@@ -33,6 +49,13 @@ public class SqlSelect {
     return orderBy;
   }
 
+  /**
+   * @return the expressions of the ORDER BY clause, unmodifiable, empty List if none.
+   */
+  public List<SqlSortKey> getSortKeys() {
+    return sortKeys;
+  }
+
   /**
    * Concatenation of getWhere() and getOrderBy() and including "WHERE" and "ORDER BY" keywords if needed.
    */
@@ -0,0 +1,38 @@
+package org.folio.cql2pgjson.model;
+
+/**
+ * One SQL expression of an ORDER BY clause, for example <code>lower(f_unaccent(jsonb->>'title'))</code>,
+ * and its sort direction.
+ */
+public class SqlSortKey {
+  private final String expression;
+  private final boolean descending;
+
+  /**
+   * @param expression  SQL expression without ASC or DESC
+   * @param descending  true for DESC, false for ASC
+   */
+  public SqlSortKey(String expression, boolean descending) {
+    this.expression = expression;
+    this.descending = descending;
+  }
+
+  /**
+   * @return SQL expression without ASC or DESC
+   */
+  public String getExpression() {
+    return expression;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  /**
+   * @return the expression followed by " DESC" if descending
+   */
+  @Override
+  public String toString() {
+    return descending ? expression + " DESC" : expression;
+  }
+}
@@ -781,6 +781,17 @@ public class CQL2PgJSONTest extends DatabaseTestBase {
       + "left(lower(f_unaccent(users.user_data->>'name')),600) DESC, lower(f_unaccent(users.user_data->>'name')) DESC"));
   }
 
+  @Test
+  public void toSqlSortKeys() throws QueryValidationException {
+    SqlSelect s = cql2pgJson.toSql("cql.allRecords=1 sortBy name/sort.descending id");
+    assertThat(s.getSortKeys().toString(), is("["
+        + "left(lower(f_unaccent(users.user_data->>'name')),600) DESC, "
+        + "lower(f_unaccent(users.user_data->>'name')) DESC, "
+        + "id]"));
+    assertThat(s.getSortKeys().toString(), is("[" + s.getOrderBy() + "]"));
+    assertThat(cql2pgJson.toSql("cql.allRecords=1").getSortKeys().isEmpty(), is(true));
+  }
+
   @Test
   public void optimizedOR() throws QueryValidationException {
     SqlSelect s = cql2pgJson.toSql("name=* OR email=*");
@@ -0,0 +1,56 @@
+package org.folio.cql2pgjson;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.folio.cql2pgjson.model.SqlSelect;
+import org.junit.Test;
+
+public class SqlSelectCacheTest {
+
+  @Test
+  public void leastRecentlyUsed() {
+    SqlSelectCache cache = new SqlSelectCache(2);
+    SqlSelect a = new SqlSelect("a", null);
+    SqlSelect b = new SqlSelect("b", null);
+    cache.put("a", a);
+    cache.put("b", b);
+    assertThat(cache.get("a"), is(a));
+    cache.put("c", new SqlSelect("c", null));
+    assertThat(cache.get("b"), is(nullValue()));
+    assertThat(cache.get("a"), is(a));
+    assertThat(cache.size(), is(2));
+    assertThat(cache.getHitCount(), is(2L));
+    assertThat(cache.getMissCount(), is(1L));
+    cache.setMaxSize(1);
+    assertThat(cache.size(), is(1));
+    assertThat(cache.get("a"), is(a));
+    cache.setMaxSize(0);
+    cache.put("a", a);
+    assertThat(cache.get("a"), is(nullValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeSize() {
+    new SqlSelectCache(-1);
+  }
+
+  @Test
+  public void toSqlIsCached() throws Exception {
+    SqlSelectCache cache = CQL2PgJSON.getSqlSelectCache();
+    CQL2PgJSON users = new CQL2PgJSON("users.user_data");
+    SqlSelect sqlSelect = users.toSql("name=foo sortBy name");
+    long hits = cache.getHitCount();
+    assertThat(new CQL2PgJSON("users.user_data").toSql("name=foo sortBy name"), is(sameInstance(sqlSelect)));
+    assertThat(cache.getHitCount(), is(hits + 1));
+
+    CQL2PgJSON serverChoice = new CQL2PgJSON("users.user_data", Arrays.asList("name"));
+    assertThat(serverChoice.toSql("name=foo sortBy name"), is(not(sameInstance(sqlSelect))));
+    assertThat(new CQL2PgJSON("groups.jsonb").toSql("name=foo sortBy name"), is(not(sameInstance(sqlSelect))));
+  }
+}
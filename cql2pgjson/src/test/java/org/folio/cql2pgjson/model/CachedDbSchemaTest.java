@@ -0,0 +1,67 @@
+package org.folio.cql2pgjson.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.folio.dbschema.Index;
+import org.folio.dbschema.Schema;
+import org.folio.dbschema.Table;
+import org.folio.dbschema.View;
+import org.junit.Test;
+
+public class CachedDbSchemaTest {
+  private static final String SCHEMA = "templates/db_scripts/schema.json";
+
+  @Test
+  public void loadOnce() throws Exception {
+    CachedDbSchema cachedDbSchema = CachedDbSchema.get(SCHEMA);
+    assertThat(CachedDbSchema.get(SCHEMA), is(sameInstance(cachedDbSchema)));
+    CachedDbSchema.clearCache();
+    assertThat(CachedDbSchema.get(SCHEMA), is(not(sameInstance(cachedDbSchema))));
+  }
+
+  @Test
+  public void getTable() throws Exception {
+    CachedDbSchema cachedDbSchema = CachedDbSchema.get(SCHEMA);
+    assertThat(cachedDbSchema.getTable("users").getTableName(), is("users"));
+    assertThat(cachedDbSchema.getTable("USERS").getTableName(), is("users"));
+    assertThat(cachedDbSchema.getTable("foo"), is(nullValue()));
+  }
+
+  @Test
+  public void getDbIndex() throws Exception {
+    CachedDbSchema cachedDbSchema = CachedDbSchema.get(SCHEMA);
+    Table users = cachedDbSchema.getTable("users");
+    DbIndex dbIndex = cachedDbSchema.getDbIndex(users, "name");
+    assertThat(cachedDbSchema.getDbIndex(users, "name"), is(sameInstance(dbIndex)));
+    assertThat(cachedDbSchema.getDbIndex(null, "name").hasIndex(), is(false));
+    assertThat(cachedDbSchema.getDbIndex(new Table(), "name").hasIndex(), is(false));
+  }
+
+  private View view(String viewName, boolean materialized) {
+    Index index = new Index();
+    index.setFieldName("title");
+    View view = new View();
+    view.setViewName(viewName);
+    view.setMaterialized(materialized);
+    view.setGinIndex(List.of(index));
+    return view;
+  }
+
+  @Test
+  public void materializedView() {
+    Schema schema = new Schema();
+    schema.setViews(List.of(view("instance_mv", true), view("instance_view", false)));
+    CachedDbSchema cachedDbSchema = new CachedDbSchema(schema);
+    Table table = cachedDbSchema.getTable("INSTANCE_MV");
+    assertThat(table.getTableName(), is("instance_mv"));
+    assertThat(cachedDbSchema.getDbIndex(table, "title").hasGinIndex(), is(true));
+    assertThat(cachedDbSchema.getDbIndex(table, "foo").hasGinIndex(), is(false));
+    assertThat(cachedDbSchema.getTable("instance_view"), is(nullValue()));
+  }
+}
@@ -0,0 +1,24 @@
+package org.folio.dbschema;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * How the audit trigger of a table having "withAuditing": true writes the audit table.
+ */
+public enum AuditingMode {
+
+  /**
+   * A row-level trigger inserts one audit record per changed record into a plain audit table.
+   */
+  @JsonProperty("row")
+  ROW,
+
+  /**
+   * Statement-level triggers insert the audit records of all rows changed by a statement
+   * from the transition tables in one INSERT into an audit table partitioned by creation date,
+   * see {@link AuditingRetention}.
+   */
+  @JsonProperty("statement")
+  STATEMENT
+
+}
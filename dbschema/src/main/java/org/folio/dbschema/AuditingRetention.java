@@ -0,0 +1,89 @@
+package org.folio.dbschema;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Partitioning and retention of an audit table of {@link AuditingMode#STATEMENT}.
+ *
+ * <p>The audit table is partitioned by created_date, each partition covers one {@link #getInterval()}
+ * starting at midnight UTC. The partitions for the current and the next {@link #getPremake()} intervals
+ * are created in advance. A partition that is older than the latest {@link #getKeep()} intervals is
+ * detached, and dropped if {@link #isDropDetached()} is set.
+ */
+public class AuditingRetention {
+
+  public enum Interval {
+    @JsonProperty("day")
+    DAY,
+
+    @JsonProperty("week")
+    WEEK,
+
+    @JsonProperty("month")
+    MONTH
+  }
+
+  private Interval interval = Interval.MONTH;
+  private int keep;
+  private int premake = 2;
+  private boolean dropDetached;
+
+  /**
+   * @return time range of one partition, default is month
+   */
+  public Interval getInterval() {
+    return interval;
+  }
+
+  public void setInterval(Interval interval) {
+    this.interval = interval;
+  }
+
+  /**
+   * @return number of intervals that stay attached including the current one, 0 means forever
+   */
+  public int getKeep() {
+    return keep;
+  }
+
+  public void setKeep(int keep) {
+    this.keep = keep;
+  }
+
+  /**
+   * @return number of future partitions to create in advance, default is 2
+   */
+  public int getPremake() {
+    return premake;
+  }
+
+  public void setPremake(int premake) {
+    this.premake = premake;
+  }
+
+  /**
+   * @return whether to drop a partition after detaching it, default is false to allow archiving
+   */
+  public boolean isDropDetached() {
+    return dropDetached;
+  }
+
+  public void setDropDetached(boolean dropDetached) {
+    this.dropDetached = dropDetached;
+  }
+
+  /**
+   * @throws IllegalArgumentException if interval is null, keep or premake is negative
+   */
+  public void setup() {
+    if (interval == null) {
+      throw new IllegalArgumentException("auditingRetention interval must not be null");
+    }
+    if (keep < 0) {
+      throw new IllegalArgumentException("auditingRetention keep must not be negative: " + keep);
+    }
+    if (premake < 0) {
+      throw new IllegalArgumentException("auditingRetention premake must not be negative: " + premake);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package org.folio.dbschema;
+
+/**
+ * A field that facets are requested for, like "status.name".
+ *
+ * <p>The schemas.ftl template creates a count table {@link #getCountTableName(String)} with the
+ * number of records for each value of the field and a trigger that keeps it up to date on insert,
+ * update, delete and truncate. PostgresClient reads the facet counts of an unfiltered query from
+ * the count table instead of aggregating the records.
+ */
+public class FacetIndex extends TableIndexes {
+  private static final String JSONB = "jsonb";
+
+  /**
+   * Suffix of the name for the count table, its trigger and trigger function.
+   */
+  public static final String SUFFIX = "_facet";
+
+  /**
+   * @return fieldName with dots replaced by underscores, for example status_name
+   */
+  public String getName() {
+    return normalizeFieldName(getFieldName());
+  }
+
+  /**
+   * The SQL expression of the field value, for example {@code jsonb->'status'->>'name'}.
+   * This is the same expression that
+   * {@code org.folio.rest.persist.facets.FacetManager.convertFacetStrings2FacetFields} generates.
+   *
+   * @param column  the JSONB column, for example jsonb or NEW.jsonb
+   */
+  public String getSqlExpression(String column) {
+    String [] pathParts = getFieldName().split("\\.");
+    StringBuilder sb = new StringBuilder(column);
+    for (int i = 0; i < pathParts.length; i++) {
+      sb.append(i == pathParts.length - 1 ? "->>" : "->");
+      sb.append('\'').append(pathParts[i]).append('\'');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the name of the table with the counts, for example item_status_name_facet
+   */
+  public String getCountTableName(String tableName) {
+    return tableName + "_" + getName() + SUFFIX;
+  }
+
+  /**
+   * Set fieldPath to {@link #getSqlExpression(String)} of the jsonb column.
+   *
+   * @throws IllegalArgumentException if fieldName is an array path or contains several fields
+   */
+  public void setupFacetIndex() {
+    if (getFieldName().contains("[") || getFieldName().contains(",") || getFieldName().contains("'")) {
+      throw new IllegalArgumentException(
+          "facetIndex supports a single non-array field only: " + getFieldName());
+    }
+    setFieldPath(getSqlExpression(JSONB));
+  }
+}
@@ -18,6 +18,7 @@ public class Table extends Versioned {
   private boolean withMetadata;
   private boolean withAuditing;
   private OptimisticLockingMode withOptimisticLocking;
+  private boolean withSetWiseBatch;
   /**
    * indexes using text_pattern_ops
    * @see <a href="https://www.postgresql.org/docs/current/indexes-opclass.html">https://www.postgresql.org/docs/current/indexes-opclass.html</a>
@@ -37,6 +38,8 @@ public class Table extends Versioned {
    * @see <a href="https://www.postgresql.org/docs/current/textsearch-indexes.html">https://www.postgresql.org/docs/current/textsearch-indexes.html</a>
    */
   private List<Index> fullTextIndex;
+  /** fields with trigger-maintained facet count tables */
+  private List<FacetIndex> facetIndex;
   private List<ForeignKeys> foreignKeys;
   private String customSnippetPath;
   private List<AddFields> addFields;
@@ -44,6 +47,8 @@ public class Table extends Versioned {
   private AuditingSnippet auditingSnippet;
   private String auditingTableName;
   private String auditingFieldName;
+  private AuditingMode auditingMode;
+  private AuditingRetention auditingRetention;
 
   public String getTableName() {
     return tableName;
@@ -174,6 +179,28 @@ public class Table extends Versioned {
     this.auditingFieldName = auditingFieldName;
   }
 
+  /**
+   * @return how the audit table is written, {@link AuditingMode#ROW} if not set
+   */
+  public AuditingMode getAuditingMode() {
+    return auditingMode == null ? AuditingMode.ROW : auditingMode;
+  }
+
+  public void setAuditingMode(AuditingMode auditingMode) {
+    this.auditingMode = auditingMode;
+  }
+
+  /**
+   * @return partitioning and retention of the audit table of {@link AuditingMode#STATEMENT}
+   */
+  public AuditingRetention getAuditingRetention() {
+    return auditingRetention;
+  }
+
+  public void setAuditingRetention(AuditingRetention auditingRetention) {
+    this.auditingRetention = auditingRetention;
+  }
+
   /**
    * Name of the primary key field. This is no longer configurable and is always "id".
    * A basic table has these two fields: id UUID PRIMARY KEY, jsonb JSONB NOT NULL.
@@ -198,6 +225,14 @@ public class Table extends Versioned {
     this.fullTextIndex = fullTextIndex;
   }
 
+  public List<FacetIndex> getFacetIndex() {
+    return facetIndex;
+  }
+
+  public void setFacetIndex(List<FacetIndex> facetIndex) {
+    this.facetIndex = facetIndex;
+  }
+
   /**
    * Return an empty list if l is null, otherwise return l.
    */
@@ -228,6 +263,7 @@ public class Table extends Versioned {
     list(getUniqueIndex())  .forEach(Index::setupUniqueIndex);
     list(getGinIndex())     .forEach(Index::setupGinIndex);
     list(getFullTextIndex()).forEach(Index::setupFullTextIndex);
+    list(getFacetIndex())   .forEach(FacetIndex::setupFacetIndex);
     if (isWithAuditing()) {
       if (getAuditingTableName() == null) {
         throw new IllegalArgumentException(
@@ -237,7 +273,24 @@ public class Table extends Versioned {
         throw new IllegalArgumentException(
             "auditingFieldName missing for table " + getTableName() + " having \"withAuditing\": true");
       }
+      if (getAuditingMode() == AuditingMode.STATEMENT) {
+        setupStatementAuditing();
+      }
+    }
+  }
+
+  /**
+   * The auditingSnippet code runs for each row and cannot be used with statement-level triggers.
+   */
+  private void setupStatementAuditing() {
+    if (getAuditingSnippet() != null) {
+      throw new IllegalArgumentException("auditingSnippet not supported for table " + getTableName()
+          + " having \"auditingMode\": \"statement\"");
     }
+    if (getAuditingRetention() == null) {
+      setAuditingRetention(new AuditingRetention());
+    }
+    getAuditingRetention().setup();
   }
 
   public OptimisticLockingMode getWithOptimisticLocking() {
@@ -247,4 +300,16 @@ public class Table extends Versioned {
   public void setWithOptimisticLocking(OptimisticLockingMode withOptimisticLocking) {
     this.withOptimisticLocking = withOptimisticLocking;
   }
+
+  /**
+   * @return whether PostgresClient.saveBatch and upsertBatch maintain metadata and optimistic locking
+   *     version set-wise instead of using the row triggers
+   */
+  public boolean isWithSetWiseBatch() {
+    return withSetWiseBatch;
+  }
+
+  public void setWithSetWiseBatch(boolean withSetWiseBatch) {
+    this.withSetWiseBatch = withSetWiseBatch;
+  }
 }
@@ -2,6 +2,8 @@ package org.folio.dbschema;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * @author shale
  *
@@ -12,6 +14,19 @@ public class View extends Versioned {
   private String mode;
   private String joinType = "JOIN";
   private List<Join> join;
+  private boolean materialized;
+  private int refreshIntervalSeconds;
+  /** non-unique btree indexes, materialized view only */
+  private List<Index> index;
+  /** unique btree indexes, materialized view only */
+  private List<Index> uniqueIndex;
+  /** indexes using text_pattern_ops, materialized view only */
+  private List<Index> likeIndex;
+  /** indexes using gin_trgm_ops trigram matching, materialized view only */
+  private List<Index> ginIndex;
+  /** indexes using tsvector full text search, materialized view only */
+  private List<Index> fullTextIndex;
+  private Table indexTable;
 
   public String getViewName() {
     return viewName;
@@ -44,11 +59,94 @@ public class View extends Versioned {
   public void setJoin(List<Join> join) {
     this.join = join;
   }
+  /**
+   * @return whether to create a MATERIALIZED VIEW that can have indexes and is
+   *     updated using REFRESH MATERIALIZED VIEW CONCURRENTLY
+   */
+  public boolean isMaterialized() {
+    return materialized;
+  }
+  public void setMaterialized(boolean materialized) {
+    this.materialized = materialized;
+  }
+  /**
+   * @return minimum number of seconds between two scheduled refreshes of the materialized view,
+   *     0 for refresh on demand only
+   */
+  public int getRefreshIntervalSeconds() {
+    return refreshIntervalSeconds;
+  }
+  public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+    this.refreshIntervalSeconds = refreshIntervalSeconds;
+  }
+  public List<Index> getIndex() {
+    return index;
+  }
+  public void setIndex(List<Index> index) {
+    this.index = index;
+  }
+  public List<Index> getUniqueIndex() {
+    return uniqueIndex;
+  }
+  public void setUniqueIndex(List<Index> uniqueIndex) {
+    this.uniqueIndex = uniqueIndex;
+  }
+  public List<Index> getLikeIndex() {
+    return likeIndex;
+  }
+  public void setLikeIndex(List<Index> likeIndex) {
+    this.likeIndex = likeIndex;
+  }
+  public List<Index> getGinIndex() {
+    return ginIndex;
+  }
+  public void setGinIndex(List<Index> ginIndex) {
+    this.ginIndex = ginIndex;
+  }
+  public List<Index> getFullTextIndex() {
+    return fullTextIndex;
+  }
+  public void setFullTextIndex(List<Index> fullTextIndex) {
+    this.fullTextIndex = fullTextIndex;
+  }
+
+  /**
+   * A table with the name and the indexes of this view so that the index templates and
+   * CQL2PgJSON can handle the materialized view like a table. Always returns the same instance.
+   */
+  @JsonIgnore
+  public Table getIndexTable() {
+    if (indexTable == null) {
+      Table table = new Table();
+      table.setTableName(getViewName());
+      table.setMode(getMode());
+      table.setIndex(getIndex());
+      table.setUniqueIndex(getUniqueIndex());
+      table.setLikeIndex(getLikeIndex());
+      table.setGinIndex(getGinIndex());
+      table.setFullTextIndex(getFullTextIndex());
+      indexTable = table;
+    }
+    return indexTable;
+  }
+
+  private boolean hasIndex() {
+    return index != null || uniqueIndex != null || likeIndex != null || ginIndex != null || fullTextIndex != null;
+  }
 
   public void setup(List<Table> tables) {
     if (getMode() == null) {
       setMode("new");
     }
+    if (! isMaterialized() && hasIndex()) {
+      throw new IllegalArgumentException("Indexes require \"materialized\": true for view " + getViewName());
+    }
+    if (getRefreshIntervalSeconds() < 0) {
+      throw new IllegalArgumentException("refreshIntervalSeconds must not be negative for view " + getViewName());
+    }
+    if (isMaterialized()) {
+      getIndexTable().setup();
+    }
     List<Join> joins = getJoin();
     if (joins == null) {
       return;
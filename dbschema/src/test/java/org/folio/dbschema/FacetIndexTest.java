@@ -0,0 +1,46 @@
+package org.folio.dbschema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FacetIndexTest {
+
+  private FacetIndex facetIndex(String fieldName) {
+    FacetIndex facetIndex = new FacetIndex();
+    facetIndex.setFieldName(fieldName);
+    return facetIndex;
+  }
+
+  @Test
+  void setup() {
+    FacetIndex facetIndex = facetIndex("status.name");
+    facetIndex.setupFacetIndex();
+    assertEquals("status.name", facetIndex.getFieldName());
+    assertEquals("jsonb->'status'->>'name'", facetIndex.getFieldPath());
+    assertEquals("NEW.jsonb->'status'->>'name'", facetIndex.getSqlExpression("NEW.jsonb"));
+    assertEquals("status_name", facetIndex.getName());
+    assertEquals("item_status_name_facet", facetIndex.getCountTableName("item"));
+    assertEquals(TableOperation.ADD, facetIndex.gettOps());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "a[].b", "a[*]", "a,b", "a'b" })
+  void invalid(String fieldName) {
+    FacetIndex facetIndex = facetIndex(fieldName);
+    assertThrows(IllegalArgumentException.class, facetIndex::setupFacetIndex);
+  }
+
+  @Test
+  void tableSetup() {
+    Table table = new Table();
+    table.setTableName("item");
+    table.setFacetIndex(Collections.singletonList(facetIndex("a.b")));
+    table.setup();
+    assertEquals("jsonb->'a'->>'b'", table.getFacetIndex().get(0).getFieldPath());
+  }
+}
@@ -11,4 +11,48 @@ class TableTest {
     Table table = new Table();
     assertThrows(IllegalArgumentException.class, () -> table.setTableName("foo&bar"));
   }
+
+  private Table auditedTable(AuditingMode auditingMode) {
+    Table table = new Table();
+    table.setTableName("loan");
+    table.setWithAuditing(true);
+    table.setAuditingTableName("audit_loan");
+    table.setAuditingFieldName("loan");
+    table.setAuditingMode(auditingMode);
+    return table;
+  }
+
+  @Test
+  void auditingModeDefaultsToRow() {
+    Table table = auditedTable(null);
+    table.setup();
+    assertEquals(AuditingMode.ROW, table.getAuditingMode());
+    assertNull(table.getAuditingRetention());
+  }
+
+  @Test
+  void statementAuditingDefaultRetention() {
+    Table table = auditedTable(AuditingMode.STATEMENT);
+    table.setup();
+    AuditingRetention retention = table.getAuditingRetention();
+    assertEquals(AuditingRetention.Interval.MONTH, retention.getInterval());
+    assertEquals(0, retention.getKeep());
+    assertEquals(2, retention.getPremake());
+    assertFalse(retention.isDropDetached());
+  }
+
+  @Test
+  void statementAuditingWithSnippet() {
+    Table table = auditedTable(AuditingMode.STATEMENT);
+    table.setAuditingSnippet(new AuditingSnippet());
+    assertThrows(IllegalArgumentException.class, () -> table.setup());
+  }
+
+  @Test
+  void statementAuditingNegativeKeep() {
+    Table table = auditedTable(AuditingMode.STATEMENT);
+    table.setAuditingRetention(new AuditingRetention());
+    table.getAuditingRetention().setKeep(-1);
+    assertThrows(IllegalArgumentException.class, () -> table.setup());
+  }
 }
@@ -0,0 +1,44 @@
+package org.folio.dbschema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ViewTest {
+  private View view(boolean materialized) {
+    Index index = new Index();
+    index.setFieldName("title");
+    View view = new View();
+    view.setViewName("instance_mv");
+    view.setMaterialized(materialized);
+    view.setGinIndex(List.of(index));
+    return view;
+  }
+
+  @Test
+  void materializedViewIndexTable() {
+    View view = view(true);
+    view.setup(Collections.emptyList());
+    Table table = view.getIndexTable();
+    assertSame(table, view.getIndexTable());
+    assertEquals("instance_mv", table.getTableName());
+    assertEquals("title", table.getGinIndex().get(0).getFieldName());
+    assertNull(table.getIndex());
+  }
+
+  @Test
+  void indexRequiresMaterialized() {
+    View view = view(false);
+    assertThrows(IllegalArgumentException.class, () -> view.setup(Collections.emptyList()));
+  }
+
+  @Test
+  void negativeRefreshInterval() {
+    View view = view(true);
+    view.setRefreshIntervalSeconds(-1);
+    assertThrows(IllegalArgumentException.class, () -> view.setup(Collections.emptyList()));
+  }
+}
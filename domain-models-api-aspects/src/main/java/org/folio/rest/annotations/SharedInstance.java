@@ -0,0 +1,20 @@
+package org.folio.rest.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicate that a class implementing a generated interface is thread-safe and doesn't keep any
+ * per-request state, RMB then creates a single instance with the no parameter constructor and
+ * uses it for all requests.
+ *
+ * <p>Without this annotation RMB creates a new instance for each request.
+ */
+@Target( { ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SharedInstance {
+}
@@ -11,10 +11,17 @@ import java.lang.annotation.Target;
  * streamed to it (meaning calling the function multiple times - once each time a
  * chunk of data is read from the http request)
  *
+ * <p>With {@code @Stream(readStream = true)} the function is called only once, the InputStream
+ * parameter is an {@code org.folio.rest.tools.utils.BodyReadStream}, a {@code ReadStream<Buffer>}
+ * of the request body with backpressure (pause, resume, pipeTo).
  */
 @Target( { ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Stream {
 
+  /**
+   * @return true to call the function once with a BodyReadStream, false to call it for each chunk
+   */
+  boolean readStream() default false;
 }
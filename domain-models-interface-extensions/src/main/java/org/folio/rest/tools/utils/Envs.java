@@ -14,8 +14,15 @@ public enum Envs {
   DB_QUERYTIMEOUT,
   DB_CHARSET,
   DB_MAXPOOLSIZE,
+  DB_MAXSHAREDPOOLSIZE,
+  DB_MAXWAITQUEUESIZE,
   DB_CONNECTIONRELEASEDELAY,
-  DB_EXPLAIN_QUERY_THRESHOLD;
+  DB_EXPLAIN_QUERY_THRESHOLD,
+  DB_EXECUTE_BATCH_SIZE,
+  DB_COUNT_CACHE_TTL,
+  DB_INDEX_BUILD_PARALLELISM,
+  DB_PREPARED_STATEMENT_CACHE_SIZE,
+  DB_PREPARED_STATEMENT_CACHE_SQL_LIMIT;
 
   private static Map<String, String> env = System.getenv();
 
@@ -45,8 +52,15 @@ public enum Envs {
     switch (envs) {
     case DB_QUERYTIMEOUT:            return "queryTimeout";
     case DB_MAXPOOLSIZE:             return "maxPoolSize";
+    case DB_MAXSHAREDPOOLSIZE:       return "maxSharedPoolSize";
+    case DB_MAXWAITQUEUESIZE:        return "maxWaitQueueSize";
     case DB_CONNECTIONRELEASEDELAY:  return "connectionReleaseDelay";
     case DB_EXPLAIN_QUERY_THRESHOLD: return envs.name();
+    case DB_EXECUTE_BATCH_SIZE:      return envs.name();
+    case DB_COUNT_CACHE_TTL:         return envs.name();
+    case DB_INDEX_BUILD_PARALLELISM: return envs.name();
+    case DB_PREPARED_STATEMENT_CACHE_SIZE:      return "preparedStatementCacheMaxSize";
+    case DB_PREPARED_STATEMENT_CACHE_SQL_LIMIT: return "preparedStatementCacheSqlLimit";
     default:                         return envs.name().substring(3).toLowerCase();
     }
   }
@@ -57,9 +71,16 @@ public enum Envs {
       case DB_PORT:
       case DB_QUERYTIMEOUT:
       case DB_MAXPOOLSIZE:
+      case DB_MAXSHAREDPOOLSIZE:
+      case DB_MAXWAITQUEUESIZE:
       case DB_CONNECTIONRELEASEDELAY:
+      case DB_EXECUTE_BATCH_SIZE:
+      case DB_INDEX_BUILD_PARALLELISM:
+      case DB_PREPARED_STATEMENT_CACHE_SIZE:
+      case DB_PREPARED_STATEMENT_CACHE_SQL_LIMIT:
         return Integer.parseInt(value);
       case DB_EXPLAIN_QUERY_THRESHOLD:
+      case DB_COUNT_CACHE_TTL:
         return Long.parseLong(value);
       default:
         return value;
@@ -24,8 +24,15 @@ public class EnvsTest {
     map.put("DB_HOST", "example.com");
     map.put("DB_QUERYTIMEOUT", "8");
     map.put("DB_MAXPOOLSIZE", "5");
+    map.put("DB_MAXSHAREDPOOLSIZE", "20");
+    map.put("DB_MAXWAITQUEUESIZE", "100");
     map.put("DB_CONNECTIONRELEASEDELAY", "12345");
     map.put("DB_EXPLAIN_QUERY_THRESHOLD", "100");
+    map.put("DB_EXECUTE_BATCH_SIZE", "250");
+    map.put("DB_COUNT_CACHE_TTL", "60000");
+    map.put("DB_INDEX_BUILD_PARALLELISM", "3");
+    map.put("DB_PREPARED_STATEMENT_CACHE_SIZE", "64");
+    map.put("DB_PREPARED_STATEMENT_CACHE_SQL_LIMIT", "4096");
     // we dropped support for dot form. check that it is ignored
     map.put("db.username", "superwoman");
     map.put("DB.USERNAME", "superwoman");
@@ -71,12 +78,19 @@ public class EnvsTest {
   @Test
   public void allDBConfs() {
     JsonObject json = Envs.allDBConfs();
-    assertEquals(5, json.size());
+    assertEquals(12, json.size());
     assertEquals("example.com", json.getValue("host"));
     assertEquals(Integer.valueOf(8), json.getValue("queryTimeout"));
     assertEquals(Integer.valueOf(5), json.getValue("maxPoolSize"));
+    assertEquals(Integer.valueOf(20), json.getValue("maxSharedPoolSize"));
+    assertEquals(Integer.valueOf(100), json.getValue("maxWaitQueueSize"));
     assertEquals(Integer.valueOf(12345), json.getValue("connectionReleaseDelay"));
     assertEquals(Long.valueOf(100), json.getValue(Envs.DB_EXPLAIN_QUERY_THRESHOLD.name()));
+    assertEquals(Integer.valueOf(250), json.getValue(Envs.DB_EXECUTE_BATCH_SIZE.name()));
+    assertEquals(Long.valueOf(60000), json.getValue(Envs.DB_COUNT_CACHE_TTL.name()));
+    assertEquals(Integer.valueOf(3), json.getValue(Envs.DB_INDEX_BUILD_PARALLELISM.name()));
+    assertEquals(Integer.valueOf(64), json.getValue("preparedStatementCacheMaxSize"));
+    assertEquals(Integer.valueOf(4096), json.getValue("preparedStatementCacheSqlLimit"));
   }
 
   @Test
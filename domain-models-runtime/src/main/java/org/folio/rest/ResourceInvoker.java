@@ -0,0 +1,110 @@
+package org.folio.rest;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import org.folio.rest.annotations.SharedInstance;
+
+import io.vertx.core.Vertx;
+
+/**
+ * Invokes the function of a resource implementation class using {@link MethodHandle}s
+ * created once at startup.
+ *
+ * <p>The constructor of the implementation class is looked up once. Each request gets a new instance,
+ * unless the class is annotated with {@link SharedInstance}: Then a single instance created with the
+ * no parameter constructor is shared by all requests.
+ */
+public class ResourceInvoker {
+
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Vertx.class, String.class);
+  private static final MethodType DEFAULT_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+  /** (Vertx, String) constructor, null if not implemented */
+  private final MethodHandle constructor;
+  /** no parameter constructor, null if not implemented */
+  private final MethodHandle defaultConstructor;
+  /** (instance, Object[] arguments) */
+  private final MethodHandle invoker;
+  private final Object sharedInstance;
+
+  /**
+   * @param implClass  the class implementing the generated interface
+   * @param method  the method of implClass to invoke
+   * @throws ReflectiveOperationException  if method is not accessible
+   */
+  public ResourceInvoker(Class<?> implClass, Method method) throws ReflectiveOperationException {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    constructor = findConstructor(lookup, implClass, MethodType.methodType(void.class, Vertx.class, String.class),
+        CONSTRUCTOR_TYPE);
+    defaultConstructor = findConstructor(lookup, implClass, MethodType.methodType(void.class),
+        DEFAULT_CONSTRUCTOR_TYPE);
+    invoker = lookup.unreflect(method)
+        .asSpreader(Object[].class, method.getParameterCount())
+        .asType(INVOKER_TYPE);
+    if (implClass.isAnnotationPresent(SharedInstance.class)) {
+      if (defaultConstructor == null) {
+        throw new InstantiationException(implClass.getName() + " has @SharedInstance but no public no parameter "
+            + "constructor");
+      }
+      sharedInstance = newDefaultInstance();
+    } else {
+      sharedInstance = null;
+    }
+  }
+
+  private static MethodHandle findConstructor(MethodHandles.Lookup lookup, Class<?> clazz,
+      MethodType type, MethodType erasedType) {
+    try {
+      return lookup.findConstructor(clazz, type).asType(erasedType);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  private Object newDefaultInstance() throws ReflectiveOperationException {
+    try {
+      return defaultConstructor.invokeExact();
+    } catch (ReflectiveOperationException | RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new InstantiationException(e.getMessage());
+    }
+  }
+
+  /**
+   * Return an instance of the implementation class: the shared instance if {@link SharedInstance}, otherwise a new instance
+   * created with the (Vertx, String) constructor, falling back to the no parameter constructor if the former
+   * doesn't exist or fails.
+   */
+  public Object getInstance(Vertx vertx, String tenantId) throws ReflectiveOperationException {
+    if (sharedInstance != null) {
+      return sharedInstance;
+    }
+    if (constructor != null) {
+      try {
+        return constructor.invokeExact(vertx, tenantId);
+      } catch (Throwable e) {
+        // use no param constructor
+      }
+    }
+    if (defaultConstructor == null) {
+      throw new InstantiationException("No public constructor found");
+    }
+    return newDefaultInstance();
+  }
+
+  /**
+   * Invoke the method.
+   * @param instance  the object to invoke the method on
+   * @param args  all arguments of the method
+   * @throws Throwable  anything the method throws
+   */
+  @SuppressWarnings("squid:S00112")  // Generic exceptions should never be thrown
+  public void invoke(Object instance, Object[] args) throws Throwable {
+    invoker.invokeExact(instance, args);
+  }
+}
@@ -4,13 +4,14 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -18,16 +19,14 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
-import javax.validation.ValidatorFactory;
+import javax.validation.constraints.Null;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import com.google.common.base.Joiner;
 import com.google.common.io.ByteStreams;
@@ -40,7 +39,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
 import org.folio.okapi.common.logging.FolioLoggingContext;
-import org.folio.rest.annotations.Stream;
 import org.folio.rest.jaxrs.model.Error;
 import org.folio.rest.jaxrs.model.Errors;
 import org.folio.rest.jaxrs.model.Parameter;
@@ -53,9 +51,14 @@ import org.folio.rest.tools.client.exceptions.ResponseException;
 import org.folio.rest.tools.client.test.HttpClientMock2;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
+import org.folio.rest.tools.monitor.MetricsRegistry;
 import org.folio.rest.tools.utils.AsyncResponseResult;
 import org.folio.rest.tools.utils.BinaryOutStream;
+import org.folio.rest.tools.utils.BodyReadStream;
+import org.folio.rest.tools.utils.ChunkedOutputStream;
+import org.folio.rest.tools.utils.ImplementationIndex;
 import org.folio.rest.tools.utils.InterfaceToImpl;
+import org.folio.rest.tools.utils.JsonChunks;
 import org.folio.rest.tools.utils.JsonUtils;
 import org.folio.rest.tools.utils.LogUtil;
 import org.folio.rest.tools.utils.MetadataUtil;
@@ -63,7 +66,7 @@ import org.folio.dbschema.ObjectMapperTool;
 import org.folio.rest.tools.utils.OutStream;
 import org.folio.rest.tools.utils.ResponseImpl;
 import org.folio.rest.tools.utils.ValidationHelper;
-import org.folio.util.StringUtil;
+import io.netty.buffer.ByteBufInputStream;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
@@ -104,6 +107,9 @@ public class RestVerticle extends AbstractVerticle {
   private static String             className                       = RestVerticle.class.getName();
   private static final Logger       log                             = LogManager.getLogger(RestVerticle.class);
   private static final ObjectMapper MAPPER                          = ObjectMapperTool.getMapper();
+  private static final String       PRETTY_JSON_SETTING             = "pretty_json";
+  /** writes response entities as JSON, compact unless pretty_json=true was passed on the command line */
+  private static ObjectWriter       responseWriter                  = MAPPER.writer();
 
   private static final String[]     DATE_PATTERNS = {
     "yyyy-MM-dd'T'HH:mm:ss.SSSXXX",
@@ -115,17 +121,11 @@ public class RestVerticle extends AbstractVerticle {
     "yyyy"
   };
 
-  private static ValidatorFactory   validationFactory;
   private static String             deploymentId                     = "";
 
   private final Messages            messages                        = Messages.getInstance();
-
-  static {
-    //validationFactory used to validate the pojos which are created from the json
-    //passed in the request body in put and post requests. The constraints validated by this factory
-    //are the ones in the json schemas accompanying the raml files
-    validationFactory = Validation.buildDefaultValidatorFactory();
-  }
+  /** request paths whose function gets the RoutingContext as additional parameter */
+  private Set<String>               routingContextPaths             = Collections.emptySet();
 
   // https://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html
   // first match - no q val check
@@ -160,11 +160,11 @@ public class RestVerticle extends AbstractVerticle {
     // maps paths found in raml to the generated functions to route to when the paths are requested
     MappedClasses mappedURLs = populateConfig();
 
-    // set of exposed urls as declared in the raml
-    Set<String> urlPaths = mappedURLs.getAvailURLs();
+    // path-segment trie of the urls declared in the raml, resolves to the function to route to
+    RoutingTable routingTable = RoutingTable.compile(mappedURLs);
 
-    // create a map of regular expression to url path
-    Map<String, Pattern> regex2Pattern = mappedURLs.buildURLRegex();
+    routingContextPaths = parseRoutingContextPaths(
+        PomReader.INSTANCE.getProps().getProperty("generate_routing_context"));
 
     // Create a router object.
     Router router = Router.router(vertx);
@@ -190,7 +190,7 @@ public class RestVerticle extends AbstractVerticle {
         }
         //single handler for all url calls other then documentation
         //which is handled separately
-        router.routeWithRegex("^(?!.*apidocs).*$").handler(rc -> route(mappedURLs, urlPaths, regex2Pattern, rc));
+        router.routeWithRegex("^(?!.*apidocs).*$").handler(rc -> route(routingTable, rc));
         // routes requests on “/assets/*” to resources stored in the “assets”
         // directory.
         router.route("/assets/*").handler(StaticHandler.create("assets"));
@@ -257,187 +257,128 @@ public class RestVerticle extends AbstractVerticle {
   }
 
   /**
-   * Match the path agaist pattern.
-   * @return the matching groups urldecoded, may be an empty array, or null if the pattern doesn't match
+   * @param generateRoutingContext  comma separated list of request paths, may be null
+   * @return the set of request paths
    */
-  @SuppressWarnings("java:S1168")  // suppress "Empty arrays should be returned instead of null"
-  static String[] matchPath(String path, Pattern pattern) {
-    Matcher m = pattern.matcher(path);
-    if (! m.find()) {
-      return null;
+  static Set<String> parseRoutingContextPaths(String generateRoutingContext) {
+    if (generateRoutingContext == null) {
+      return Collections.emptySet();
     }
-
-    int groups = m.groupCount();
-    // pathParams are the place holders in the raml query string
-    // for example /admin/{admin_id}/yyy/{yyy_id} - the content in between the {} are path params
-    // they are replaced with actual values and are passed to the function which the url is mapped to
-    String[] pathParams = new String[groups];
-    for (int i = 0; i < groups; i++) {
-      pathParams[i] = StringUtil.urlDecode(m.group(i + 1));
-    }
-    return pathParams;
+    return new HashSet<>(Arrays.asList(generateRoutingContext.split(",")));
   }
 
   /**
    * Handler for all url calls other then documentation.
-   * @param mappedURLs  maps paths found in raml to the generated functions to route to when the paths are requested
-   * @param urlPaths  set of exposed urls as declared in the raml
-   * @param regex2Pattern  create a map of regular expression to url path
+   * @param routingTable  maps paths found in raml to the generated functions to route to when the paths are requested
    * @param rc  RoutingContext of this URL
    */
-  void route(MappedClasses mappedURLs, Set<String> urlPaths, Map<String, Pattern> regex2Pattern,
-      RoutingContext rc) {
+  void route(RoutingTable routingTable, RoutingContext rc) {
     long start = System.nanoTime();
     try {
-      boolean validPath = false;
       boolean[] validRequest = { true };
-      // urlPaths = list of regex urls created from urls declared in the raml.
-      // loop over regex patterns and try to match them against the requested
-      // URL if no match is found, then the requested url is not supported by
-      // the ramls and we return an error - this has positive security implications as well
-      for (String urlPath : urlPaths) {
-        String[] pathParams = matchPath(rc.request().path(), regex2Pattern.get(urlPath));
-        if (pathParams != null) {  // if matched
-          validPath = true;
-
-          // get the function that should be invoked for the requested
-          // path + requested http_method pair
-          JsonObject ret = mappedURLs.getMethodbyPath(urlPath, rc.request().method().toString());
-          // if a valid path was requested but no function was found
-          if (ret == null) {
-
-            // if the path is valid and the http method is options
-            // assume a cors request
-            if (rc.request().method() == HttpMethod.OPTIONS) {
-              rc.response().end();
-              return;
-            }
+      // look up the requested URL in the paths declared in the ramls - if no match is found,
+      // then the requested url is not supported by the ramls and we return an error - this
+      // has positive security implications as well
+      RoutingTable.Match match = routingTable.match(rc.request().path());
+      if (match == null) {
+        // invalid path
+        endRequestWithError(rc, 400, true,
+          messages.getMessage("en", MessageConsts.InvalidURLPath, rc.request().path()), validRequest);
+        return;
+      }
+      // get the function that should be invoked for the requested
+      // path + requested http_method pair
+      RouteDescriptor route = match.getRoute(rc.request().method().toString());
+      // if a valid path was requested but no function was found
+      if (route == null) {
+
+        // if the path is valid and the http method is options
+        // assume a cors request
+        if (rc.request().method() == HttpMethod.OPTIONS) {
+          rc.response().end();
+          return;
+        }
 
-            // the url exists but the http method requested does not match a function
-            // meaning url+http method != a function
-            endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.HTTPMethodNotSupported),
-              validRequest);
-            return;
-          }
-          Class<?> aClass;
-          try {
-            if (validRequest[0]) {
-              //create okapi headers map and inject into function
-              Map<String, String> okapiHeaders = new CaseInsensitiveMap<>();
-              String []tenantId = new String[]{null};
-              getOkapiHeaders(rc, okapiHeaders, tenantId);
-              if(tenantId[0] == null && !rc.request().path().startsWith("/admin")){
-                //if tenant id is not passed in and this is not an /admin request, return error
-                endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.UnableToProcessRequest)
-                  + " Tenant must be set", validRequest);
-              }
+        // the url exists but the http method requested does not match a function
+        // meaning url+http method != a function
+        endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.HTTPMethodNotSupported),
+          validRequest);
+        return;
+      }
+      recordRequestMetrics(rc, route, start);
+      try {
+        //create okapi headers map and inject into function
+        Map<String, String> okapiHeaders = new CaseInsensitiveMap<>();
+        String []tenantId = new String[]{null};
+        getOkapiHeaders(rc, okapiHeaders, tenantId);
+        if(tenantId[0] == null && !rc.request().path().startsWith("/admin")){
+          //if tenant id is not passed in and this is not an /admin request, return error
+          endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.UnableToProcessRequest)
+            + " Tenant must be set", validRequest);
+        }
 
+        if (validRequest[0]) {
+          // invoker of the function of the class implementing the interface mapped to this url,
+          // resolved at startup
+          ResourceInvoker invoker = route.getInvoker();
+          // call back the constructor of the class - gives a hook into the class not based on the apis
+          // passing the vertx and context objects in to it.
+          final Object instance = invoker.getInstance(vertx, tenantId[0]);
+
+          // function to invoke for the requested url
+          String function = route.getFunction();
+          // what the api expects to get (content-type)
+          JsonArray consumes = route.getConsumes();
+
+          HttpServerRequest request = rc.request();
+
+          //check that the accept and content-types passed in the header of the request
+          //are as described in the raml
+          checkAcceptContentType(route.getProduces(), consumes, rc, validRequest);
+
+          // position of the InputStream parameter if this is a file upload (application/octet)
+          final int[] uploadParamPosition = new int[] { route.getUploadParamPosition() };
+
+          // create the array and then populate it by parsing the url parameters which are needed to invoke the function mapped
+          //to the requested URL - array will be populated by parseParams() function
+          RouteParameter[] params = route.getParams();
+          Object[] paramArray = new Object[params.length];
+          String[] pathParams = match.getPathParams();
+
+          //is function annotated to receive data in chunks as they come in.
+          //Note that the function controls the logic to this if this is the case
+          if (route.isStreamed()) {
+            parseParams(rc, null, params, validRequest, consumes, paramArray, pathParams, okapiHeaders);
+            handleStream(route, rc, request, instance, tenantId, okapiHeaders,
+              uploadParamPosition, paramArray, validRequest, start);
+          } else {
+            // regular request (no streaming).. Read the request body before checking params + body
+            Buffer body = Buffer.buffer();
+            rc.request().handler(body::appendBuffer);
+            rc.request().endHandler(endRes -> {
+              parseParams(rc, body, params, validRequest, consumes, paramArray, pathParams, okapiHeaders);
               if (validRequest[0]) {
-                //get interface mapped to this url
-                String iClazz = ret.getString(AnnotationGrabber.CLASS_NAME);
-                // convert from interface to an actual class implementing it, which appears in the impl package
-                aClass = InterfaceToImpl.convert2Impl(RTFConsts.PACKAGE_OF_IMPLEMENTATIONS, iClazz, false).get(0);
-                Object o = null;
-                // call back the constructor of the class - gives a hook into the class not based on the apis
-                // passing the vertx and context objects in to it.
+                //if request is valid - invoke it
                 try {
-                  o = aClass.getConstructor(Vertx.class, String.class).newInstance(vertx, tenantId[0]);
-                } catch (Exception e) {
-                  // if no such constructor was implemented call the
-                  // default no param constructor to create the object to be used to call functions on
-                  o = aClass.newInstance();
-                }
-                final Object instance = o;
-
-                // function to invoke for the requested url
-                String function = ret.getString(AnnotationGrabber.FUNCTION_NAME);
-                // parameters for the function to invoke
-                JsonObject params = ret.getJsonObject(AnnotationGrabber.METHOD_PARAMS);
-                // all methods in the class whose function is mapped to the called url
-                // needed so that we can get a reference to the Method object and call it via reflection
-                Method[] methods = aClass.getMethods();
-                // what the api will return as output (Accept)
-                JsonArray produces = ret.getJsonArray(AnnotationGrabber.PRODUCES);
-                // what the api expects to get (content-type)
-                JsonArray consumes = ret.getJsonArray(AnnotationGrabber.CONSUMES);
-
-                HttpServerRequest request = rc.request();
-
-                //check that the accept and content-types passed in the header of the request
-                //are as described in the raml
-                checkAcceptContentType(produces, consumes, rc, validRequest);
-
-                //Get method in class to be run for this requested API endpoint
-                Method[] method2Run = new Method[]{null};
-                for (int i = 0; i < methods.length; i++) {
-                  if (methods[i].getName().equals(function)) {
-                    method2Run[0] = methods[i];
-                    break;
-                  }
-                }
-                //is function annotated to receive data in chunks as they come in.
-                //Note that the function controls the logic to this if this is the case
-                boolean streamData = isStreamed(method2Run[0].getAnnotations());
-                // check if we are dealing with a file upload , currently only multipart/form-data and application/octet
-                //in the raml definition for such a function
-                final boolean[] isContentUpload = new boolean[] { false };
-                final int[] uploadParamPosition = new int[] { -1 };
-                params.forEach(param -> {
-                  if(((JsonObject) param.getValue()).getString("type").equals("java.io.InputStream")){
-                    //application/octet-stream passed - this is handled in a stream like manner
-                    //and the corresponding function called must annotate with a @Stream - and be able
-                    //to handle the function being called repeatedly on parts of the data
-                    uploadParamPosition[0] = ((JsonObject) param.getValue()).getInteger("order");
-                    isContentUpload[0] = true;
-                  }
-                });
-
-                // create the array and then populate it by parsing the url parameters which are needed to invoke the function mapped
-                //to the requested URL - array will be populated by parseParams() function
-                Iterator<Map.Entry<String, Object>> paramList = params.iterator();
-                Object[] paramArray = new Object[params.size()];
-
-                if (streamData) {
-                  parseParams(rc, null, paramList, validRequest, consumes, paramArray, pathParams, okapiHeaders);
-                  handleStream(method2Run[0], rc, request, instance, tenantId, okapiHeaders,
-                    uploadParamPosition, paramArray, validRequest, start);
-                } else {
-                  // regular request (no streaming).. Read the request body before checking params + body
-                  Buffer body = Buffer.buffer();
-                  rc.request().handler(body::appendBuffer);
-                  rc.request().endHandler(endRes -> {
-                    parseParams(rc, body, paramList, validRequest, consumes, paramArray, pathParams, okapiHeaders);
-                    if (validRequest[0]) {
-                      //if request is valid - invoke it
-                      try {
-                        invoke(method2Run[0], paramArray, instance, rc,  tenantId, okapiHeaders, new StreamStatus(), v -> {
-                          withRequestId(rc, () -> LogUtil.formatLogMessage(className, "start", " invoking " + function));
-                          sendResponse(rc, v, start, tenantId[0]);
-                        });
-                      } catch (Exception e1) {
-                        withRequestId(rc, () -> log.error(e1.getMessage(), e1));
-                        rc.response().end();
-                      }
-                    } else {
-                      endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.UnableToProcessRequest),
-                          validRequest);
-                    }
+                  invoke(route, paramArray, instance, rc,  tenantId, okapiHeaders, new StreamStatus(), v -> {
+                    withRequestId(rc, () -> LogUtil.formatLogMessage(className, "start", " invoking " + function));
+                    sendResponse(rc, v, start, tenantId[0]);
                   });
+                } catch (Exception e1) {
+                  withRequestId(rc, () -> log.error(e1.getMessage(), e1));
+                  rc.response().end();
                 }
+              } else {
+                endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.UnableToProcessRequest),
+                    validRequest);
               }
-            }
-          } catch (Exception e) {
-            withRequestId(rc, () -> log.error(e.getMessage(), e));
-            endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.UnableToProcessRequest) + e.getMessage(),
-              validRequest);
-            return;
+            });
           }
         }
-      }
-      if (!validPath) {
-        // invalid path
-        endRequestWithError(rc, 400, true,
-          messages.getMessage("en", MessageConsts.InvalidURLPath, rc.request().path()), validRequest);
+      } catch (Exception e) {
+        withRequestId(rc, () -> log.error(e.getMessage(), e));
+        endRequestWithError(rc, 400, true, messages.getMessage("en", MessageConsts.UnableToProcessRequest) + e.getMessage(),
+          validRequest);
       }
     } catch (Exception e) {
       withRequestId(rc, () -> log.error(e.getMessage(), e));
@@ -445,18 +386,29 @@ public class RestVerticle extends AbstractVerticle {
     }
   }
 
-  private void handleStream(Method method2Run, RoutingContext rc, HttpServerRequest request,
+  private void handleStream(RouteDescriptor route, RoutingContext rc, HttpServerRequest request,
       Object instance, String[] tenantId, Map<String, String> okapiHeaders,
       int[] uploadParamPosition, Object[] paramArray, boolean[] validRequest, long start){
+    Method method2Run = route.getMethod();
+    if (route.isReadStream()) {
+      // call the function once, it reads the body with backpressure; BodyReadStream resumes the request
+      request.pause();
+      paramArray[uploadParamPosition[0]] = new BodyReadStream(vertx, request);
+      invoke(route, paramArray, instance, rc, tenantId, okapiHeaders, new StreamStatus(), v -> {
+        withRequestId(rc, () -> LogUtil.formatLogMessage(className, "start", " invoking " + method2Run));
+        sendResponse(rc, v, start, tenantId[0]);
+      });
+      return;
+    }
     request.handler(new Handler<Buffer>() {
       @Override
       public void handle(Buffer buff) {
         try {
           StreamStatus stat = new StreamStatus();
           stat.setStatus(0);
-          paramArray[uploadParamPosition[0]] =
-              new ByteArrayInputStream( buff.getBytes() );
-          invoke(method2Run, paramArray, instance, rc,  tenantId, okapiHeaders, stat, v -> {
+          // no copy, the stream reads the bytes of the chunk
+          paramArray[uploadParamPosition[0]] = new ByteBufInputStream(buff.getByteBuf());
+          invoke(route, paramArray, instance, rc,  tenantId, okapiHeaders, stat, v -> {
             withRequestId(rc, () -> LogUtil.formatLogMessage(className, "start", " invoking " + method2Run));
           });
         } catch (Exception e1) {
@@ -469,7 +421,7 @@ public class RestVerticle extends AbstractVerticle {
       StreamStatus stat = new StreamStatus();
       stat.setStatus(1);
       paramArray[uploadParamPosition[0]] = new ByteArrayInputStream(new byte [0]);
-      invoke(method2Run, paramArray, instance, rc,  tenantId, okapiHeaders, stat, v -> {
+      invoke(route, paramArray, instance, rc,  tenantId, okapiHeaders, stat, v -> {
         withRequestId(rc, () -> LogUtil.formatLogMessage(className, "start", " invoking " + method2Run));
         //all data has been stored in memory - not necessarily all processed
         sendResponse(rc, v, start, tenantId[0]);
@@ -481,7 +433,7 @@ public class RestVerticle extends AbstractVerticle {
         StreamStatus stat = new StreamStatus();
         stat.setStatus(2);
         paramArray[uploadParamPosition[0]] = new ByteArrayInputStream(new byte[0]);
-        invoke(method2Run, paramArray, instance, rc, tenantId, okapiHeaders, stat,
+        invoke(route, paramArray, instance, rc, tenantId, okapiHeaders, stat,
             v -> withRequestId(rc, () ->
               LogUtil.formatLogMessage(className, "start", " invoking " + method2Run))
         );
@@ -506,16 +458,12 @@ public class RestVerticle extends AbstractVerticle {
   }
 
   /**
-   * @param annotations
-   * @return
+   * Record the latency of the request at the {@link MetricsRegistry} when the response has been written.
    */
-  private boolean isStreamed(Annotation[] annotations) {
-    for (int i = 0; i < annotations.length; i++) {
-      if(annotations[i].annotationType().equals(Stream.class)){
-        return true;
-      }
-    }
-    return false;
+  private static void recordRequestMetrics(RoutingContext rc, RouteDescriptor route, long start) {
+    String method = rc.request().method().name();
+    rc.addBodyEndHandler(v -> MetricsRegistry.recordRequest(method, route.getPathTemplate(),
+        rc.response().getStatusCode(), System.nanoTime() - start));
   }
 
   /**
@@ -551,6 +499,7 @@ public class RestVerticle extends AbstractVerticle {
       return;
     }
     Object entity = null;
+    boolean json = false;
     try {
       HttpServerResponse response = rc.response();
       int statusCode = responseFromResult.getStatus();
@@ -571,7 +520,7 @@ public class RestVerticle extends AbstractVerticle {
 
       /* entity is of type OutStream - and will be written as a string */
       if (entity instanceof OutStream) {
-        response.write(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(((OutStream) entity).getData()));
+        json = true;
       }
       /* entity is of type BinaryOutStream - and will be written as a buffer */
       else if(entity instanceof BinaryOutStream){
@@ -583,27 +532,131 @@ public class RestVerticle extends AbstractVerticle {
       }
       /* catch all - anything else will be assumed to be a pojo which needs converting to json */
       else if (entity != null) {
-        response.write(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(entity));
+        json = true;
       }
     } catch (Exception e) {
       withRequestId(rc, () -> log.error(e.getMessage(), e));
-    } finally {
+      json = false;
+    }
+
+    Object loggedEntity = entity;
+    if (! json) {
       rc.response().end();
+      logStats(rc, start, tenantId, loggedEntity);
+      return;
     }
+    Object value = entity instanceof OutStream ? ((OutStream) entity).getData() : entity;
+    writeJson(rc, value).onComplete(x -> logStats(rc, start, tenantId, loggedEntity));
+  }
 
+  /**
+   * Log the request statistics; the entity is logged by type and size only to avoid serializing it again.
+   */
+  private static void logStats(RoutingContext rc, long start, String tenantId, Object entity) {
     long end = System.nanoTime();
-
-    StringBuilder sb = new StringBuilder();
+    String body = "";
     if (log.isDebugEnabled()) {
-      try {
-        sb.append(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(entity));
-      } catch (Exception e) {
-        String name = entity == null ? "null" : entity.getClass().getName();
-        withRequestId(rc, () -> log.error("writeValueAsString(" + name + ")", e));
+      body = (entity == null ? "null" : entity.getClass().getName())
+          + ", " + rc.response().bytesWritten() + " bytes";
+    }
+    String loggedBody = body;
+    withRequestId(rc, () -> LogUtil.formatStatsLogMessage(rc, (end - start) / 1000000, tenantId, loggedBody));
+  }
+
+  /**
+   * Serialize value as JSON into the response and end the response.
+   *
+   * <p>The value is serialized once on the event loop into tokens, see {@link JsonChunks}.
+   * A JSON of at most {@link ChunkedOutputStream#DEFAULT_CHUNK_SIZE} bytes is sent with the end
+   * of the response.
+   *
+   * <p>A larger JSON is written in chunks of {@link ChunkedOutputStream#DEFAULT_CHUNK_SIZE} bytes.
+   * When the write queue of the response is full the next chunk is generated and written from
+   * the drain handler, therefore a slow client neither makes the complete JSON pile up in memory
+   * nor blocks a thread.
+   *
+   * <p>If the serialization fails before anything has been sent the response is a 500 error.
+   * If it fails after the status and the first chunk have been sent the connection is reset, so that
+   * the client doesn't take a truncated body for a success.
+   *
+   * @return succeeded future when the response has been ended or reset
+   */
+  Future<Void> writeJson(RoutingContext rc, Object value) {
+    HttpServerResponse response = rc.response();
+    JsonChunks chunks;
+    Buffer first;
+    Buffer second;
+    try {
+      chunks = new JsonChunks(responseWriter, value, ChunkedOutputStream.DEFAULT_CHUNK_SIZE);
+      first = chunks.next();
+      second = first == null ? null : chunks.next();
+    } catch (Exception e) {
+      jsonFailed(rc, e, false);
+      return Future.succeededFuture();
+    }
+    if (second == null) {
+      response.end(first == null ? Buffer.buffer() : first);
+      return Future.succeededFuture();
+    }
+    Promise<Void> promise = Promise.promise();
+    response.closeHandler(x -> promise.tryFail(new IOException("Connection closed")));
+    response.write(first);
+    writeChunks(response, chunks, second, promise);
+    return promise.future()
+        .otherwise(e -> {
+          jsonFailed(rc, e, true);
+          return null;
+        });
+  }
+
+  /**
+   * Write chunk and the following chunks to the response until the write queue is full, then
+   * continue from the drain handler. End the response after the last chunk. Never blocks.
+   *
+   * @param promise  completed when the response has been ended, failed if generating a chunk fails
+   *     or the connection has been closed
+   */
+  static void writeChunks(HttpServerResponse response, JsonChunks chunks, Buffer chunk, Promise<Void> promise) {
+    try {
+      Buffer next = chunk;
+      while (next != null) {
+        if (response.closed()) {
+          promise.tryFail(new IOException("Connection closed"));
+          return;
+        }
+        response.write(next);
+        next = chunks.next();
+        if (next != null && response.writeQueueFull()) {
+          Buffer pending = next;
+          // drain events are fired on the context of the response, the same context we are running on
+          response.drainHandler(x -> writeChunks(response, chunks, pending, promise));
+          return;
+        }
       }
+      response.end();
+      promise.tryComplete();
+    } catch (Exception e) {
+      promise.tryFail(e);
     }
+  }
 
-    withRequestId(rc, () -> LogUtil.formatStatsLogMessage(rc, (end - start) / 1000000, tenantId, sb.toString()));
+  private void jsonFailed(RoutingContext rc, Throwable e, boolean written) {
+    withRequestId(rc, () -> log.error(e.getMessage(), e));
+    HttpServerResponse response = rc.response();
+    if (response.closed() || response.ended()) {
+      return;
+    }
+    if (! written) {
+      // nothing has been sent yet, the status can be changed
+      response.setStatusCode(500);
+      response.putHeader("Content-type", SUPPORTED_CONTENT_TYPE_TEXT_DEF);
+      response.end(messages.getMessage("en", MessageConsts.InternalServerError));
+      return;
+    }
+    // a 2xx status and a part of the body have been sent
+    if (! response.reset()) {
+      rc.request().connection().close();
+    }
   }
 
   /**
@@ -658,19 +711,10 @@ public class RestVerticle extends AbstractVerticle {
     mm.forEach(consumer);
   }
 
-  private void invoke(Method method, Object[] params, Object o, RoutingContext rc, String[] tenantId,
+  private void invoke(RouteDescriptor route, Object[] params, Object o, RoutingContext rc, String[] tenantId,
       Map<String,String> headers, StreamStatus streamed, Handler<AsyncResult<Response>> resultHandler) {
 
-    String generateRCforFunc = PomReader.INSTANCE.getProps().getProperty("generate_routing_context");
-    boolean addRCParam = false;
-    if(generateRCforFunc != null){
-      String []addRC = generateRCforFunc.split(",");
-      for (int i = 0; i < addRC.length; i++) {
-        if(addRC[i].equals(rc.request().path())){
-          addRCParam = true;
-        }
-      }
-    }
+    boolean addRCParam = routingContextPaths.contains(rc.request().path());
 
     //if streaming is requested the status will be 0 (streaming started)
     //or 1 streaming data complete
@@ -716,17 +760,11 @@ public class RestVerticle extends AbstractVerticle {
     headers.forEach(FolioLoggingContext::put);
 
     try {
-      method.invoke(o, newArray);
-      // response.setChunked(true);
-      // response.setStatusCode(((Response)result).getStatus());
-    } catch (Exception e) {
+      route.getInvoker().invoke(o, newArray);
+    } catch (Throwable e) {
       withRequestId(rc, () -> log.error(e.getMessage(), e));
-      String message;
-      try {
-        // catch exception for now in case of null point and show generic
-        // message
-        message = e.getCause().getMessage();
-      } catch (Throwable ee) {
+      String message = e.getMessage();
+      if (message == null) {
         message = messages.getMessage("en", MessageConsts.UnableToProcessRequest);
       }
       endRequestWithError(rc, 400, true, message, new boolean[]{true});
@@ -737,7 +775,11 @@ public class RestVerticle extends AbstractVerticle {
     MappedClasses mappedURLs = new MappedClasses();
     JsonObject jObjClasses = new JsonObject();
     try {
-      jObjClasses.mergeIn(AnnotationGrabber.generateMappings());
+      JsonObject mappings = ImplementationIndex.getMappings();
+      if (mappings == null) {
+        mappings = AnnotationGrabber.generateMappings();
+      }
+      jObjClasses.mergeIn(mappings);
     } catch (Exception e) {
       log.error(e.getMessage(), e);
     }
@@ -903,6 +945,11 @@ public class RestVerticle extends AbstractVerticle {
           PostgresClient.setIsEmbedded(true);
           PostgresClient.setConfigFilePath(null);
         }
+        else if (param.startsWith(PRETTY_JSON_SETTING + "=")) {
+          boolean pretty = Boolean.parseBoolean(param.split("=")[1]);
+          responseWriter = pretty ? MAPPER.writerWithDefaultPrettyPrinter() : MAPPER.writer();
+          LogUtil.formatLogMessage(className, "cmdProcessing", "Pretty print JSON responses: " + pretty);
+        }
         else if (param != null && param.startsWith("postgres_import_path=")) {
           try {
             importDataPath = param.split("=")[1];
@@ -985,20 +1032,20 @@ public class RestVerticle extends AbstractVerticle {
     }
   }
 
-  private void parseParams(RoutingContext rc, Buffer body, Iterator<Map.Entry<String, Object>> paramList, boolean[] validRequest, JsonArray consumes,
+  private void parseParams(RoutingContext rc, Buffer body, RouteParameter[] paramList, boolean[] validRequest, JsonArray consumes,
       Object[] paramArray, String[] pathParams, Map<String, String> okapiHeaders) {
 
     HttpServerRequest request = rc.request();
     MultiMap queryParams = request.params();
     int []pathParamsIndex = new int[] { 0 };
 
-    paramList.forEachRemaining(entry -> {
+    for (RouteParameter entry : paramList) {
       if (validRequest[0]) {
-        String valueName = ((JsonObject) entry.getValue()).getString("value");
-        String valueType = ((JsonObject) entry.getValue()).getString("type");
-        String paramType = ((JsonObject) entry.getValue()).getString("param_type");
-        int order = ((JsonObject) entry.getValue()).getInteger("order");
-        Object defaultVal = ((JsonObject) entry.getValue()).getValue("default_value");
+        String valueName = entry.getValueName();
+        String valueType = entry.getValueType();
+        String paramType = entry.getParamType();
+        int order = entry.getOrder();
+        Object defaultVal = entry.getDefaultValue();
 
         boolean emptyNumericParam = false;
         // validation of query params (other then enums), object in body (not including drools),
@@ -1009,11 +1056,10 @@ public class RestVerticle extends AbstractVerticle {
         // to their async upload - so explicitly skip them
         if (AnnotationGrabber.NON_ANNOTATED_PARAM.equals(paramType) && !FILE_UPLOAD_PARAM.equals(valueType)) {
           try {
-            // this will also validate the json against the pojo created from the schema
-            Class<?> entityClazz = Class.forName(valueType);
-
             if (!valueType.equals("io.vertx.core.Handler") && !valueType.equals("io.vertx.core.Context") &&
                 !valueType.equals("java.util.Map") && !valueType.equals("java.io.InputStream") && !valueType.equals("io.vertx.ext.web.RoutingContext")) {
+              // this will also validate the json against the pojo created from the schema
+              ValidationPlan validationPlan = entry.getValidationPlan();
               // we have special handling for the Result Handler and context, it is also assumed that
               //an inputsteam parameter occurs when application/octet is declared in the raml
               //in which case the content will be streamed to he function
@@ -1028,7 +1074,8 @@ public class RestVerticle extends AbstractVerticle {
                 }
                 else if(bodyContent.length() > 0) {
                   try {
-                    paramArray[order] = MAPPER.readValue(bodyContent, entityClazz);
+                    // drops read-only fields while parsing
+                    paramArray[order] = validationPlan.readValue(bodyContent);
                   } catch (UnrecognizedPropertyException e) {
                     withRequestId(rc, () -> log.error(e.getMessage(), e));
                     endRequestWithError(rc, RTFConsts.VALIDATION_ERROR_HTTP_CODE, true, JsonUtils.entity2String(
@@ -1043,7 +1090,7 @@ public class RestVerticle extends AbstractVerticle {
               //is this request only to validate a field value and not an actual
               //request for additional processing
               List<String> field2validate = request.params().getAll("validate_field");
-              Object[] resp = isValidRequest(rc, paramArray[order], errorResp, validRequest, field2validate, entityClazz);
+              Object[] resp = isValidRequest(paramArray[order], errorResp, field2validate, validationPlan);
               boolean isValid = (boolean) resp[0];
               paramArray[order] = resp[1];
 
@@ -1163,7 +1210,7 @@ public class RestVerticle extends AbstractVerticle {
           }
         }
       }
-    });
+    }
   }
 
   /**
@@ -1206,75 +1253,48 @@ public class RestVerticle extends AbstractVerticle {
   }
 
   /**
-   * return whether the request is valid [0] and a cleaned up version of the object [1]
-   * @param rc
+   * return whether the request is valid [0] and the object [1]; read-only fields have already
+   * been dropped by {@link ValidationPlan#readValue(String)}
    * @param content
    * @param errorResp
-   * @param validRequest
    * @param singleField
-   * @param entityClazz
+   * @param validationPlan
    * @return
    */
-  private Object[] isValidRequest(RoutingContext rc, Object content, Errors errorResp, boolean[] validRequest, List<String> singleField, Class<?> entityClazz) {
-    Set<? extends ConstraintViolation<?>> validationErrors = validationFactory.getValidator().validate(content);
+  private Object[] isValidRequest(Object content, Errors errorResp, List<String> singleField, ValidationPlan validationPlan) {
+    Set<ConstraintViolation<Object>> validationErrors = validationPlan.validate(content);
     boolean ret = true;
-    if (validationErrors.size() > 0) {
-      //StringBuffer sb = new StringBuffer();
-
-      for (ConstraintViolation<?> cv : validationErrors) {
-
-        if("must be null".equals(cv.getMessage())){
-          /**
-           * read only fields are marked with a 'must be null' annotation @null
-           * so the client should not pass them in, if they were passed in, remove them here
-           * so that they do not reach the implementing function
-           */
-          try {
-            if(!(content instanceof JsonObject)){
-              content = JsonObject.mapFrom(content);
-            }
-            ((JsonObject)content).remove(cv.getPropertyPath().toString());
-            continue;
-          } catch (Exception e) {
-            withRequestId(rc, () -> log.warn("Failed to remove " + cv.getPropertyPath().toString()
-                + " field from body when calling " + rc.request().absoluteURI(), e));
-          }
-        }
-        Error error = new Error();
-        Parameter p = new Parameter();
-        String field = cv.getPropertyPath().toString();
-        p.setKey(field);
-        Object val = cv.getInvalidValue();
-        if(val == null){
-          p.setValue("null");
-        }
-        else{
-          p.setValue(val.toString());
+    for (ConstraintViolation<?> cv : validationErrors) {
+      if (cv.getConstraintDescriptor().getAnnotation() instanceof Null) {
+        /**
+         * read only fields are marked with a 'must be null' annotation @null
+         * so the client should not pass them in, ignore them
+         */
+        continue;
+      }
+      Error error = new Error();
+      Parameter p = new Parameter();
+      String field = cv.getPropertyPath().toString();
+      p.setKey(field);
+      Object val = cv.getInvalidValue();
+      if(val == null){
+        p.setValue("null");
+      }
+      else{
+        p.setValue(val.toString());
 
-        }
-        error.getParameters().add(p);
-        error.setMessage(cv.getMessage());
-        error.setCode("-1");
-        error.setType(RTFConsts.VALIDATION_FIELD_ERROR);
-        //return the error if the validation is requested on a specific field
-        //and that field fails validation. if another field fails validation
-        //that is ok as validation on that specific field wasnt requested
-        //or there are validation errors and this is not a per field validation request
-        if (singleField != null && (singleField.contains(field) || singleField.isEmpty())) {
-          errorResp.getErrors().add(error);
-          ret = false;
-        }
-        //sb.append("\n" + cv.getPropertyPath() + "  " + cv.getMessage() + ",");
       }
-      if(content instanceof JsonObject){
-        //we have sanitized the passed in object by removing read-only fields
-        try {
-          content = MAPPER.readValue(((JsonObject)content).encode(), entityClazz);
-        } catch (IOException e) {
-          withRequestId(rc, () -> log.error(
-              "Failed to serialize body content after removing read-only fields when calling "
-                  + rc.request().absoluteURI(), e));
-        }
+      error.getParameters().add(p);
+      error.setMessage(cv.getMessage());
+      error.setCode("-1");
+      error.setType(RTFConsts.VALIDATION_FIELD_ERROR);
+      //return the error if the validation is requested on a specific field
+      //and that field fails validation. if another field fails validation
+      //that is ok as validation on that specific field wasnt requested
+      //or there are validation errors and this is not a per field validation request
+      if (singleField != null && (singleField.contains(field) || singleField.isEmpty())) {
+        errorResp.getErrors().add(error);
+        ret = false;
       }
     }
 
@@ -0,0 +1,194 @@
+package org.folio.rest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.annotations.Stream;
+import org.folio.rest.tools.AnnotationGrabber;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Everything RestVerticle needs to dispatch a request for one path template + http method pair,
+ * resolved once at startup: the implementing class, the {@link Method} to invoke and the
+ * pre-parsed parameters.
+ */
+public class RouteDescriptor {
+
+  private static final String INPUT_STREAM = "java.io.InputStream";
+  private static final Logger log = LogManager.getLogger(RouteDescriptor.class);
+
+  private final String function;
+  private final String pathTemplate;
+  private final Class<?> implClass;
+  private final Exception implException;
+  private final Method method;
+  private final ResourceInvoker invoker;
+  private final Exception invokerException;
+  private final JsonArray produces;
+  private final JsonArray consumes;
+  private final RouteParameter[] params;
+  private final boolean streamed;
+  private final boolean readStream;
+  private final int uploadParamPosition;
+
+  /**
+   * @param mapping  the method entry created by {@link AnnotationGrabber#generateMappings()}
+   * @param implClass  class implementing the interface, null if none was found
+   * @param implException  why implClass could not be found, null if implClass was found
+   */
+  public RouteDescriptor(JsonObject mapping, Class<?> implClass, Exception implException) {
+    this.function = mapping.getString(AnnotationGrabber.FUNCTION_NAME);
+    String url = mapping.getString(AnnotationGrabber.METHOD_URL);
+    this.pathTemplate = url != null && url.startsWith("^") ? url.substring(1) : url;
+    this.implClass = implClass;
+    this.implException = implException;
+    this.produces = mapping.getJsonArray(AnnotationGrabber.PRODUCES);
+    this.consumes = mapping.getJsonArray(AnnotationGrabber.CONSUMES);
+
+    List<RouteParameter> list = new ArrayList<>();
+    int upload = -1;
+    JsonObject jsonParams = mapping.getJsonObject(AnnotationGrabber.METHOD_PARAMS);
+    if (jsonParams != null) {
+      for (String key : jsonParams.fieldNames()) {
+        RouteParameter param = new RouteParameter(jsonParams.getJsonObject(key));
+        if (INPUT_STREAM.equals(param.getValueType())) {
+          //application/octet-stream passed - this is handled in a stream like manner
+          //and the corresponding function called must annotate with a @Stream - and be able
+          //to handle the function being called repeatedly on parts of the data
+          upload = param.getOrder();
+        }
+        if (param.isEntity()) {
+          prepareValidationPlan(param);
+        }
+        list.add(param);
+      }
+    }
+    this.params = list.toArray(new RouteParameter[0]);
+    this.uploadParamPosition = upload;
+
+    Method found = null;
+    if (implClass != null) {
+      for (Method m : implClass.getMethods()) {
+        if (m.getName().equals(function)) {
+          found = m;
+          break;
+        }
+      }
+    }
+    this.method = found;
+    this.streamed = found != null && found.isAnnotationPresent(Stream.class);
+    this.readStream = streamed && found.getAnnotation(Stream.class).readStream();
+
+    ResourceInvoker resourceInvoker = null;
+    Exception exception = implException;
+    if (found == null && implClass != null) {
+      exception = new NoSuchMethodException(implClass.getName() + "." + function);
+    } else if (found != null) {
+      try {
+        resourceInvoker = new ResourceInvoker(implClass, found);
+      } catch (ReflectiveOperationException e) {
+        log.warn(e.getMessage(), e);
+        exception = e;
+      }
+    }
+    this.invoker = resourceInvoker;
+    this.invokerException = exception;
+  }
+
+  /**
+   * Compute the validation plan of the request body entity at startup, not on the first request.
+   */
+  private static void prepareValidationPlan(RouteParameter param) {
+    try {
+      param.getValidationPlan();
+    } catch (ClassNotFoundException | RuntimeException e) {
+      // fails again and is reported on request
+      log.warn(e.getMessage(), e);
+    }
+  }
+
+  public String getFunction() {
+    return function;
+  }
+
+  /**
+   * @return the RAML path like <code>/rmbtests/books/{bookId}</code>, for metrics labels
+   */
+  public String getPathTemplate() {
+    return pathTemplate;
+  }
+
+  /**
+   * @return the class implementing the interface
+   * @throws Exception the exception from the implementation lookup if no implementation was found
+   */
+  public Class<?> getImplClass() throws Exception {
+    if (implClass == null) {
+      throw implException;
+    }
+    return implClass;
+  }
+
+  /**
+   * @return the invoker of the method of the implementing class
+   * @throws Exception why the implementing class or method could not be found or accessed
+   */
+  public ResourceInvoker getInvoker() throws Exception {
+    if (invoker == null) {
+      throw invokerException;
+    }
+    return invoker;
+  }
+
+  /**
+   * @return the method of the implementing class to invoke, null if not found
+   */
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * @return what the api will return as output (Accept)
+   */
+  public JsonArray getProduces() {
+    return produces;
+  }
+
+  /**
+   * @return what the api expects to get (content-type)
+   */
+  public JsonArray getConsumes() {
+    return consumes;
+  }
+
+  public RouteParameter[] getParams() {
+    return params;
+  }
+
+  /**
+   * @return whether the function is annotated with {@link Stream} to receive data in chunks
+   */
+  public boolean isStreamed() {
+    return streamed;
+  }
+
+  /**
+   * @return whether the function is annotated with {@code @Stream(readStream = true)} to be called
+   *     once with a {@link org.folio.rest.tools.utils.BodyReadStream}
+   */
+  public boolean isReadStream() {
+    return readStream;
+  }
+
+  /**
+   * @return position of the InputStream parameter of an octet-stream upload, -1 if none
+   */
+  public int getUploadParamPosition() {
+    return uploadParamPosition;
+  }
+}
@@ -0,0 +1,92 @@
+package org.folio.rest;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.tools.AnnotationGrabber;
+
+/**
+ * Parameter metadata of a generated interface method, parsed once at startup from the
+ * {@link org.folio.rest.tools.AnnotationGrabber#METHOD_PARAMS} JsonObject so that the
+ * request path does not need to read JsonObject fields.
+ */
+public class RouteParameter {
+
+  private final String valueName;
+  private final String valueType;
+  private final String paramType;
+  private final int order;
+  private final Object defaultValue;
+  private Class<?> entityClass;
+  private ValidationPlan validationPlan;
+
+  public RouteParameter(JsonObject param) {
+    valueName = param.getString("value");
+    valueType = param.getString("type");
+    paramType = param.getString("param_type");
+    order = param.getInteger("order");
+    defaultValue = param.getValue("default_value");
+  }
+
+  /**
+   * @return the name of the parameter as declared in the annotation (query/header/path name)
+   */
+  public String getValueName() {
+    return valueName;
+  }
+
+  /**
+   * @return the canonical class name of the parameter type
+   */
+  public String getValueType() {
+    return valueType;
+  }
+
+  /**
+   * @return one of the AnnotationGrabber param types like AnnotationGrabber.QUERY_PARAM
+   */
+  public String getParamType() {
+    return paramType;
+  }
+
+  /**
+   * @return the position of the parameter in the method signature
+   */
+  public int getOrder() {
+    return order;
+  }
+
+  public Object getDefaultValue() {
+    return defaultValue;
+  }
+
+  /**
+   * The class of the parameter type, loaded once and cached.
+   * @throws ClassNotFoundException if valueType cannot be loaded
+   */
+  public Class<?> getEntityClass() throws ClassNotFoundException {
+    if (entityClass == null) {
+      entityClass = Class.forName(valueType);
+    }
+    return entityClass;
+  }
+
+  /**
+   * @return whether this is the entity of the request body, a parameter without annotation
+   *     that is not one of the injected or streamed java, javax or vertx parameters
+   */
+  public boolean isEntity() {
+    return AnnotationGrabber.NON_ANNOTATED_PARAM.equals(paramType) && valueType != null
+        && ! valueType.startsWith("java.") && ! valueType.startsWith("javax.")
+        && ! valueType.startsWith("io.vertx.");
+  }
+
+  /**
+   * The validation plan of the entity class, computed once and cached.
+   * @throws ClassNotFoundException if valueType cannot be loaded
+   */
+  public ValidationPlan getValidationPlan() throws ClassNotFoundException {
+    if (validationPlan == null) {
+      validationPlan = ValidationPlan.of(getEntityClass());
+    }
+    return validationPlan;
+  }
+}
@@ -0,0 +1,181 @@
+package org.folio.rest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.tools.AnnotationGrabber;
+import org.folio.rest.tools.RTFConsts;
+import org.folio.rest.tools.utils.InterfaceToImpl;
+import org.folio.util.StringUtil;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Path-segment trie compiled at startup from the RAML path templates like
+ * <code>/rmbtests/books/{bookId}</code>. Each node that ends a path template holds the
+ * {@link RouteDescriptor} per http method.
+ *
+ * <p>Matching a request path walks the trie segment by segment, literal segments take precedence
+ * over <code>{param}</code> segments. This replaces matching the request path against the regular
+ * expression of each path template.
+ */
+public class RoutingTable {
+
+  private static final Logger log = LogManager.getLogger(RoutingTable.class);
+
+  private final Node root = new Node();
+
+  private static class Node {
+    private final Map<String, Node> literals = new HashMap<>();
+    private Node param;
+    /** http method name like GET -> route, empty if no path template ends here */
+    private final Map<String, RouteDescriptor> routes = new HashMap<>();
+  }
+
+  /**
+   * The routes of the path template that matched a request path.
+   */
+  public static class Match {
+    private final Map<String, RouteDescriptor> routes;
+    private final String[] pathParams;
+
+    Match(Map<String, RouteDescriptor> routes, String[] pathParams) {
+      this.routes = routes;
+      this.pathParams = pathParams;
+    }
+
+    /**
+     * @param httpMethod  method name like GET
+     * @return the route for the http method, null if the path doesn't support the method
+     */
+    public RouteDescriptor getRoute(String httpMethod) {
+      return routes.get(httpMethod);
+    }
+
+    /**
+     * @return the values of the {param} segments, urldecoded, in path order
+     */
+    public String[] getPathParams() {
+      return pathParams;
+    }
+  }
+
+  /**
+   * Compile the mappings, resolve the implementing classes and their methods.
+   */
+  public static RoutingTable compile(MappedClasses mappedClasses) {
+    RoutingTable routingTable = new RoutingTable();
+    Map<String, Class<?>> impls = new HashMap<>();
+    Map<String, Exception> implExceptions = new HashMap<>();
+    mappedClasses.getPath2method().cellSet().forEach(cell -> {
+      JsonObject mapping = cell.getValue();
+      String iClazz = mapping.getString(AnnotationGrabber.CLASS_NAME);
+      if (! impls.containsKey(iClazz)) {
+        try {
+          // convert from interface to an actual class implementing it, which appears in the impl package
+          impls.put(iClazz, InterfaceToImpl.convert2Impl(RTFConsts.PACKAGE_OF_IMPLEMENTATIONS, iClazz, false).get(0));
+        } catch (Exception e) {
+          // reported when a request for this interface arrives
+          log.warn(e.getMessage());
+          impls.put(iClazz, null);
+          implExceptions.put(iClazz, e);
+        }
+      }
+      RouteDescriptor route = new RouteDescriptor(mapping, impls.get(iClazz), implExceptions.get(iClazz));
+      routingTable.add(mapping.getString(AnnotationGrabber.METHOD_URL), cell.getColumnKey(), route);
+    });
+    return routingTable;
+  }
+
+  /**
+   * Add a route.
+   * @param pathTemplate  like <code>^/rmbtests/books/{bookId}</code>, the leading ^ is optional
+   * @param httpMethod  method name like GET
+   * @param route  what to invoke
+   */
+  public void add(String pathTemplate, String httpMethod, RouteDescriptor route) {
+    Node node = root;
+    for (String segment : split(pathTemplate.startsWith("^") ? pathTemplate.substring(1) : pathTemplate)) {
+      if (segment.startsWith("{") && segment.endsWith("}")) {
+        if (node.param == null) {
+          node.param = new Node();
+        }
+        node = node.param;
+      } else {
+        node = node.literals.computeIfAbsent(segment, s -> new Node());
+      }
+    }
+    node.routes.put(httpMethod, route);
+  }
+
+  /**
+   * Find the path template matching the path.
+   * @param path  request path without query string, may end with a single /
+   * @return the match, or null if no path template matches
+   */
+  public Match match(String path) {
+    if (! path.startsWith("/")) {
+      return null;
+    }
+    List<String> segments = split(path);
+    List<String> pathParams = new ArrayList<>();
+    Node node = match(root, segments, 0, pathParams);
+    if (node == null) {
+      return null;
+    }
+    String[] decoded = new String[pathParams.size()];
+    for (int i = 0; i < decoded.length; i++) {
+      decoded[i] = StringUtil.urlDecode(pathParams.get(i));
+    }
+    return new Match(node.routes, decoded);
+  }
+
+  private static Node match(Node node, List<String> segments, int index, List<String> pathParams) {
+    if (index == segments.size()) {
+      return node.routes.isEmpty() ? null : node;
+    }
+    String segment = segments.get(index);
+    Node literal = node.literals.get(segment);
+    if (literal != null) {
+      Node found = match(literal, segments, index + 1, pathParams);
+      if (found != null) {
+        return found;
+      }
+    }
+    if (node.param != null && ! segment.isEmpty()) {
+      pathParams.add(segment);
+      Node found = match(node.param, segments, index + 1, pathParams);
+      if (found != null) {
+        return found;
+      }
+      pathParams.remove(pathParams.size() - 1);
+    }
+    return null;
+  }
+
+  /**
+   * Split /a/b/c/ into a, b, c. Only the leading / and a single trailing / are removed,
+   * /a//b/ yields a, empty string, b.
+   */
+  private static List<String> split(String path) {
+    List<String> segments = new ArrayList<>();
+    int begin = path.startsWith("/") ? 1 : 0;
+    int end = path.endsWith("/") ? path.length() - 1 : path.length();
+    if (begin >= end) {
+      return segments;
+    }
+    while (true) {
+      int slash = path.indexOf('/', begin);
+      if (slash == -1 || slash >= end) {
+        segments.add(path.substring(begin, end));
+        return segments;
+      }
+      segments.add(path.substring(begin, slash));
+      begin = slash + 1;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package org.folio.rest;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.Null;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import org.folio.dbschema.ObjectMapperTool;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * How to read and validate the JSON request body of an entity class, computed once per class.
+ *
+ * <p>Read-only properties are marked with {@link Null} in the generated POJO. They are dropped
+ * while parsing the body so that they do not reach the implementing function; this avoids
+ * re-encoding and re-parsing the body. Bean Validation runs only if the class has constraints
+ * other than those of the read-only properties.
+ */
+public final class ValidationPlan {
+
+  private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+  private static final ClassValue<ValidationPlan> PLANS = new ClassValue<ValidationPlan>() {
+    @Override
+    protected ValidationPlan computeValue(Class<?> clazz) {
+      return new ValidationPlan(clazz);
+    }
+  };
+
+  private final Class<?> entityClass;
+  /** JSON names of the top-level read-only properties */
+  private final Set<String> readOnlyProperties;
+  private final boolean validationNeeded;
+
+  private ValidationPlan(Class<?> entityClass) {
+    this.entityClass = entityClass;
+    Set<String> javaNames = new HashSet<>();
+    Set<String> jsonNames = new LinkedHashSet<>();
+    for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (! field.isAnnotationPresent(Null.class)) {
+          continue;
+        }
+        javaNames.add(field.getName());
+        JsonProperty jsonProperty = field.getAnnotation(JsonProperty.class);
+        jsonNames.add(jsonProperty == null || jsonProperty.value().isEmpty()
+            ? field.getName() : jsonProperty.value());
+      }
+    }
+    readOnlyProperties = Collections.unmodifiableSet(jsonNames);
+
+    BeanDescriptor beanDescriptor = VALIDATOR.getConstraintsForClass(entityClass);
+    boolean needed = beanDescriptor.hasConstraints();
+    for (PropertyDescriptor property : beanDescriptor.getConstrainedProperties()) {
+      // read-only properties are always null after parsing, their @Null constraint cannot fail
+      if (! javaNames.contains(property.getPropertyName())
+          || property.isCascaded() || property.getConstraintDescriptors().size() > 1) {
+        needed = true;
+      }
+    }
+    validationNeeded = needed;
+  }
+
+  /**
+   * @return the plan of the class, computed on first use
+   */
+  public static ValidationPlan of(Class<?> entityClass) {
+    return PLANS.get(entityClass);
+  }
+
+  public Class<?> getEntityClass() {
+    return entityClass;
+  }
+
+  /**
+   * @return JSON names of the top-level read-only properties that {@link #readValue(String)} drops
+   */
+  public Set<String> getReadOnlyProperties() {
+    return readOnlyProperties;
+  }
+
+  /**
+   * @return whether {@link #validate(Object)} needs to run Bean Validation
+   */
+  public boolean isValidationNeeded() {
+    return validationNeeded;
+  }
+
+  /**
+   * Parse the JSON into an instance of the entity class, drop the top-level read-only properties.
+   *
+   * @throws IOException on malformed JSON or unknown property
+   */
+  public Object readValue(String json) throws IOException {
+    ObjectMapper mapper = ObjectMapperTool.getMapper();
+    if (readOnlyProperties.isEmpty()) {
+      return mapper.readValue(json, entityClass);
+    }
+    try (JsonParser parser = new SkippingParser(mapper.getFactory().createParser(json), readOnlyProperties)) {
+      return mapper.readValue(parser, entityClass);
+    }
+  }
+
+  /**
+   * Bean Validation of the content, skipped if the class has no constraints that can fail.
+   *
+   * @param content  the entity; null fails with IllegalArgumentException like
+   *     {@link Validator#validate(Object, Class...)}
+   * @return the constraint violations, empty if none
+   */
+  public Set<ConstraintViolation<Object>> validate(Object content) {
+    if (! validationNeeded && content != null) {
+      return Collections.emptySet();
+    }
+    return VALIDATOR.validate(content);
+  }
+
+  /**
+   * Skips the given top-level properties and their values.
+   */
+  private static class SkippingParser extends JsonParserDelegate {
+    private final Set<String> skip;
+
+    SkippingParser(JsonParser parser, Set<String> skip) {
+      super(parser);
+      this.skip = skip;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+      JsonToken token = delegate.nextToken();
+      while (token == JsonToken.FIELD_NAME && skip.contains(delegate.getCurrentName())
+          && delegate.getParsingContext().getParent().inRoot()) {
+        delegate.nextToken();
+        delegate.skipChildren();
+        token = delegate.nextToken();
+      }
+      return token;
+    }
+
+    // the field name methods must not bypass nextToken()
+
+    @Override
+    public String nextFieldName() throws IOException {
+      return nextToken() == JsonToken.FIELD_NAME ? getCurrentName() : null;
+    }
+
+    @Override
+    public boolean nextFieldName(SerializableString name) throws IOException {
+      return nextToken() == JsonToken.FIELD_NAME && name.getValue().equals(getCurrentName());
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+      JsonToken token = nextToken();
+      return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+  }
+}
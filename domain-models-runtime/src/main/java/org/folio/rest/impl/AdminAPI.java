@@ -24,6 +24,7 @@ import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.AdminLoglevelPutLevel;
 import org.folio.rest.jaxrs.model.AdminPostgresMaintenancePostCommand;
 import org.folio.rest.jaxrs.resource.Admin;
+import org.folio.rest.persist.MaterializedViews;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.dbschema.Schema;
 import org.folio.rest.persist.ddlgen.SchemaMaker;
@@ -31,6 +32,7 @@ import org.folio.dbschema.TenantOperation;
 import org.folio.rest.security.AES;
 import org.folio.rest.tools.ClientGenerator;
 import org.folio.rest.tools.PomReader;
+import org.folio.rest.tools.monitor.MetricsRegistry;
 import org.folio.rest.tools.utils.LRUCache;
 import org.folio.rest.tools.utils.LogUtil;
 import org.folio.dbschema.ObjectMapperTool;
@@ -389,6 +391,25 @@ public class AdminAPI implements Admin {
       });
   }
 
+  @Validate
+  @Override
+  public void getAdminPostgresConnectionPools(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    OutStream stream = new OutStream();
+    stream.setData(PostgresClient.getConnectionPoolMetrics().encode());
+    asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
+        GetAdminPostgresConnectionPoolsResponse.respond200WithApplicationJson(stream)));
+  }
+
+  @Override
+  public void getAdminMetrics(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
+        GetAdminMetricsResponse.respond200WithTextPlain(MetricsRegistry.toPrometheus())));
+  }
+
   @Override
   public void getAdminCacheHitRates(Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
@@ -587,6 +608,30 @@ public class AdminAPI implements Admin {
     }
   }
 
+  @Validate
+  @Override
+  public void postAdminMaterializedViewRefresh(String view, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(ClientGenerator.OKAPI_HEADER_TENANT) );
+
+    MaterializedViews.refresh(PostgresClient.getInstance(vertxContext.owner()),
+        PostgresClient.convertToPsqlStandard(tenantId), view)
+    .onSuccess(refreshed -> {
+      if (Boolean.TRUE.equals(refreshed)) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(PostAdminMaterializedViewRefreshResponse.respond204()));
+      } else {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
+            PostAdminMaterializedViewRefreshResponse.respond404WithTextPlain(view)));
+      }
+    })
+    .onFailure(e -> {
+      log.error(e.getMessage(), e);
+      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
+          PostAdminMaterializedViewRefreshResponse.respond500WithTextPlain(e.getMessage())));
+    });
+  }
+
   @Validate
   @Override
   public void putAdminPostgresDropIndexes(Map<String, String> okapiHeaders,
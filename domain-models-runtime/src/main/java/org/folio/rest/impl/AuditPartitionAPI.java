@@ -0,0 +1,42 @@
+package org.folio.rest.impl;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.persist.AuditPartitions;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.resource.interfaces.PeriodicAPI;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+/**
+ * Create and detach the partitions of the audit tables of schema.json with {@code "auditingMode": "statement"}
+ * when the last premade partition has been reached.
+ *
+ * <p>This checks every {@link #RUN_EVERY_MILLIS} milliseconds. Does nothing if schema.json has no
+ * table with {@code "auditingMode": "statement"}.
+ */
+public class AuditPartitionAPI implements PeriodicAPI {
+  static final long RUN_EVERY_MILLIS = 600000;
+
+  private static final Logger log = LogManager.getLogger(AuditPartitionAPI.class);
+
+  @Override
+  public long runEvery() {
+    return RUN_EVERY_MILLIS;
+  }
+
+  @Override
+  public void run(Vertx vertx, Context context) {
+    if (! AuditPartitions.hasStatementAuditing()) {
+      return;
+    }
+    AuditPartitions.maintainDue(PostgresClient.getInstance(vertx))
+    .onSuccess(tables -> {
+      if (! tables.isEmpty()) {
+        log.info("Maintained partitions of audit tables " + tables);
+      }
+    })
+    .onFailure(e -> log.error(e.getMessage(), e));
+  }
+}
@@ -0,0 +1,41 @@
+package org.folio.rest.impl;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.persist.MaterializedViews;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.resource.interfaces.PeriodicAPI;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+/**
+ * Refresh the materialized views of schema.json whose refreshIntervalSeconds has elapsed.
+ *
+ * <p>This checks every {@link #RUN_EVERY_MILLIS} milliseconds, therefore a shorter refreshIntervalSeconds
+ * has no effect. Does nothing if schema.json has no materialized view with a refreshIntervalSeconds.
+ */
+public class MaterializedViewRefreshAPI implements PeriodicAPI {
+  static final long RUN_EVERY_MILLIS = 60000;
+
+  private static final Logger log = LogManager.getLogger(MaterializedViewRefreshAPI.class);
+
+  @Override
+  public long runEvery() {
+    return RUN_EVERY_MILLIS;
+  }
+
+  @Override
+  public void run(Vertx vertx, Context context) {
+    if (! MaterializedViews.hasScheduledRefresh()) {
+      return;
+    }
+    MaterializedViews.refreshDue(PostgresClient.getInstance(vertx))
+    .onSuccess(views -> {
+      if (! views.isEmpty()) {
+        log.info("Refreshed materialized views " + views);
+      }
+    })
+    .onFailure(e -> log.error(e.getMessage(), e));
+  }
+}
@@ -27,6 +27,7 @@ import org.folio.rest.jaxrs.model.TenantJob;
 import org.folio.rest.jaxrs.resource.Tenant;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.dbschema.Schema;
+import org.folio.rest.persist.ddlgen.ConcurrentIndexBuilder;
 import org.folio.rest.persist.ddlgen.SchemaMaker;
 import org.folio.dbschema.TenantOperation;
 import org.folio.dbschema.ObjectMapperTool;
@@ -117,6 +118,7 @@ public class TenantAPI implements Tenant {
     Schema schema = ObjectMapperTool.readValue(tableInputStr, Schema.class);
     sMaker.setSchema(schema);
     sMaker.setPreviousSchema(previousSchema);
+    sMaker.setDeferIndexes(PostgresClient.getIndexBuildParallelism() > 0);
 
     if (tenantAttributes != null && Boolean.TRUE.equals(tenantAttributes.getPurge())) {
       return new String [] { sMaker.generatePurge() };
@@ -278,6 +280,9 @@ public class TenantAPI implements Tenant {
             job.setMessages(res);
             return Future.failedFuture("SQL error");
           }
+          return buildIndexes(job, context);
+        })
+        .compose(x -> {
           if (tenantAttributes == null) {
             return Future.succeededFuture();
           }
@@ -290,6 +295,26 @@ public class TenantAPI implements Tenant {
         }).mapEmpty();
   }
 
+  /**
+   * Build the indexes that the schema script has deferred, see {@link PostgresClient#setIndexBuildParallelism(int)}.
+   * The failed CREATE INDEX statements are stored in the messages of the job.
+   */
+  Future<Void> buildIndexes(TenantJob job, Context context) {
+    int parallelism = PostgresClient.getIndexBuildParallelism();
+    if (parallelism == 0) {
+      return Future.succeededFuture();
+    }
+    String schema = PostgresClient.convertToPsqlStandard(job.getTenant());
+    return new ConcurrentIndexBuilder(postgresClient(context), schema, parallelism).build()
+        .compose(failed -> {
+          if (!failed.isEmpty()) {
+            job.setMessages(failed);
+            return Future.failedFuture("Index build error");
+          }
+          return Future.succeededFuture();
+        });
+  }
+
   /**
    * Stub load sample/reference data.
    * @param attributes information about what to load.
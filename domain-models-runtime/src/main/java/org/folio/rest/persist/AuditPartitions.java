@@ -0,0 +1,129 @@
+package org.folio.rest.persist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.cql2pgjson.model.CachedDbSchema;
+import org.folio.dbschema.AuditingMode;
+import org.folio.dbschema.Table;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Partition maintenance of the audit tables that schema.json declares with {@code "auditingMode": "statement"}.
+ *
+ * <p>The schema script stores the partitioning and retention of each audit table in table
+ * rmb_internal_audit_partition of the tenant schema and runs rmb_audit_partitions() on tenant init/upgrade.
+ * Later runs are due when the last premade partition has been reached. Each run has its own short
+ * transaction with a lock timeout because it locks the audit table, a run that times out is retried
+ * on the next check.
+ */
+public final class AuditPartitions {
+  static final String SCHEMA_JSON = "templates/db_scripts/schema.json";
+  static final String TABLE = "rmb_internal_audit_partition";
+  static final String LOCK_TIMEOUT = "5s";
+
+  private static final Logger log = LogManager.getLogger(AuditPartitions.class);
+  private static volatile Boolean statementAuditing;
+
+  private AuditPartitions() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @return whether schema.json declares a table with {@code "auditingMode": "statement"}
+   */
+  public static boolean hasStatementAuditing() {
+    Boolean result = statementAuditing;
+    if (result == null) {
+      result = loadStatementAuditing();
+      statementAuditing = result;
+    }
+    return result;
+  }
+
+  private static boolean loadStatementAuditing() {
+    try {
+      List<Table> tables = CachedDbSchema.get(SCHEMA_JSON).getSchema().getTables();
+      return tables != null && tables.stream()
+          .anyMatch(table -> table.isWithAuditing() && table.getAuditingMode() == AuditingMode.STATEMENT);
+    } catch (IOException | UncheckedIOException e) {
+      log.debug("No statement auditing, cannot read " + SCHEMA_JSON + ": " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Run the partition maintenance of all audit tables of all tenants of this module where it is due.
+   *
+   * <p>A failing maintenance is logged and doesn't stop the maintenance of the other audit tables.
+   *
+   * @param postgresClient  client with access to all tenant schemas of this module
+   * @return the maintained audit tables as schema.table
+   */
+  public static Future<List<String>> maintainDue(PostgresClient postgresClient) {
+    String suffix = "_" + PostgresClient.getModuleName();
+    List<String> maintained = new ArrayList<>();
+    return postgresClient.select(
+        "SELECT n.nspname FROM pg_catalog.pg_class c "
+        + "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace "
+        + "WHERE c.relname = '" + TABLE + "' AND c.relkind = 'r'")
+    .compose(schemas -> {
+      Future<Void> future = Future.succeededFuture();
+      for (Row row : schemas) {
+        String schema = row.getString(0);
+        if (! schema.endsWith(suffix)) {
+          continue;
+        }
+        future = future.compose(x -> maintainDue(postgresClient, schema, maintained));
+      }
+      return future;
+    })
+    .map(maintained);
+  }
+
+  private static Future<Void> maintainDue(PostgresClient postgresClient, String schema, List<String> maintained) {
+    return postgresClient.select(
+        "SELECT tablename FROM " + schema + "." + TABLE + " WHERE next_run <= current_timestamp")
+    .compose(tables -> {
+      Future<Void> future = Future.succeededFuture();
+      for (Row row : tables) {
+        String table = row.getString(0);
+        future = future.compose(x -> maintain(postgresClient, schema, table)
+            .map(y -> maintained.add(schema + "." + table))
+            .<Void>mapEmpty()
+            .recover(e -> {
+              log.error("Partition maintenance of audit table " + schema + "." + table + " failed: "
+                  + e.getMessage(), e);
+              return Future.succeededFuture();
+            }));
+      }
+      return future;
+    })
+    .recover(e -> {
+      log.error("Partition maintenance of audit tables in schema " + schema + " failed: " + e.getMessage(), e);
+      return Future.succeededFuture();
+    });
+  }
+
+  /**
+   * Run the partition maintenance of the audit table now, independent of its next_run.
+   *
+   * @param postgresClient  client with access to the schema
+   * @param schema  tenant schema like diku_mod_foo, see {@link PostgresClient#convertToPsqlStandard(String)}
+   * @param table  name of the audit table
+   */
+  public static Future<Void> maintain(PostgresClient postgresClient, String schema, String table) {
+    return postgresClient.withTransaction(conn -> conn
+        .query("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'").execute()
+        .compose(x -> conn.preparedQuery("SELECT " + schema + ".rmb_audit_partitions($1)")
+            .execute(Tuple.of(table)))
+        .mapEmpty());
+  }
+}
@@ -0,0 +1,135 @@
+package org.folio.rest.persist;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.pgclient.PgConnection;
+import io.vertx.sqlclient.Tuple;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.persist.interfaces.BulkLoadResult;
+
+/**
+ * Load the entities of a ReadStream into a table.
+ *
+ * <p>The entities are written in chunks into a temporary staging table, each chunk
+ * with a single INSERT that unnests an id array and a jsonb array. When the stream ends
+ * the staging table is merged into the destination table using INSERT ... ON CONFLICT.
+ * Only the current chunk is kept in heap, the stream is paused while a chunk is written.
+ *
+ * <p>Must run within a transaction, the staging table is dropped on commit.
+ */
+final class BulkLoader<T> {
+  static final int CHUNK_SIZE = 1000;
+  private static final Logger log = LogManager.getLogger(BulkLoader.class);
+  private static final String STAGING_TABLE = "rmb_bulk_load";
+  private static final String CREATE_STAGING_TABLE = "CREATE TEMPORARY TABLE " + STAGING_TABLE
+      + " (n bigint, id uuid, jsonb jsonb) ON COMMIT DROP";
+  private static final String INSERT_STAGING_TABLE = "INSERT INTO " + STAGING_TABLE
+      + " SELECT $1::bigint + n, id, jsonb::jsonb FROM unnest($2::uuid[], $3::text[]) WITH ORDINALITY AS t(id, jsonb, n)";
+
+  private final PgConnection conn;
+  private final String table;
+  private final boolean upsert;
+  private final int chunkSize;
+  private final long start = System.nanoTime();
+  private final Promise<BulkLoadResult> promise = Promise.promise();
+  private Future<Void> pending = Future.succeededFuture();
+  private List<UUID> ids = new ArrayList<>();
+  private List<String> jsons = new ArrayList<>();
+  private long received;
+  private long staged;
+
+  /**
+   * @param conn  connection with an open transaction
+   * @param table  schema qualified destination table
+   * @param upsert  true to update existing records, false to reject entities with an existing id
+   * @param chunkSize  number of entities per INSERT into the staging table
+   */
+  BulkLoader(PgConnection conn, String table, boolean upsert, int chunkSize) {
+    this.conn = conn;
+    this.table = table;
+    this.upsert = upsert;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * @param entities  each element is a POJO or a JsonObject; if id is missing a random id is generated
+   * @return the statistics after the staging table has been merged into the destination table
+   */
+  Future<BulkLoadResult> load(ReadStream<T> entities) {
+    entities.pause();
+    conn.query(CREATE_STAGING_TABLE).execute()
+    .onFailure(promise::tryFail)
+    .onSuccess(x -> {
+      entities.exceptionHandler(promise::tryFail);
+      entities.endHandler(end -> {
+        flush();
+        pending.compose(y -> merge()).onComplete(ar -> {
+          if (ar.succeeded()) {
+            promise.tryComplete(ar.result());
+          } else {
+            promise.tryFail(ar.cause());
+          }
+        });
+      });
+      entities.handler(entity -> add(entities, entity));
+      entities.resume();
+    });
+    return promise.future();
+  }
+
+  private void add(ReadStream<T> entities, T entity) {
+    if (promise.future().isComplete()) {
+      return;
+    }
+    received++;
+    try {
+      JsonObject json = PostgresClient.pojo2JsonObject(entity);
+      Object id = json.getValue("id");
+      UUID uuid = id == null ? UUID.randomUUID() : UUID.fromString(id.toString());
+      String encoded = json.encode();
+      ids.add(uuid);
+      jsons.add(encoded);
+    } catch (Exception e) {
+      log.warn("Bulk load into " + table + " rejects entity number " + received + ": " + e.getMessage(), e);
+      return;
+    }
+    if (ids.size() < chunkSize) {
+      return;
+    }
+    entities.pause();
+    flush();
+    pending.onSuccess(x -> entities.resume());
+  }
+
+  /**
+   * Append the INSERT of the current chunk into the staging table to the pending operations.
+   */
+  private void flush() {
+    if (ids.isEmpty()) {
+      return;
+    }
+    Tuple tuple = Tuple.of(staged, ids.toArray(new UUID[0]), jsons.toArray(new String[0]));
+    staged += ids.size();
+    ids = new ArrayList<>();
+    jsons = new ArrayList<>();
+    pending = pending.compose(x -> conn.preparedQuery(INSERT_STAGING_TABLE).execute(tuple).<Void>mapEmpty())
+        .onFailure(promise::tryFail);
+  }
+
+  private Future<BulkLoadResult> merge() {
+    String sql = "INSERT INTO " + table + " (id, jsonb) " + (upsert
+        // last entity wins if an id occurs more than once
+        ? "SELECT DISTINCT ON (id) id, jsonb FROM " + STAGING_TABLE + " ORDER BY id, n DESC"
+          + " ON CONFLICT (id) DO UPDATE SET jsonb = EXCLUDED.jsonb"
+        : "SELECT id, jsonb FROM " + STAGING_TABLE + " ORDER BY n"
+          + " ON CONFLICT (id) DO NOTHING");
+    return conn.query(sql).execute()
+        .map(rowSet -> new BulkLoadResult(received, rowSet.rowCount(), (System.nanoTime() - start) / 1000000));
+  }
+}
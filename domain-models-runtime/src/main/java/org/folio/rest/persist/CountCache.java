@@ -0,0 +1,163 @@
+package org.folio.rest.persist;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache for the totalRecords estimation of GET queries, per schema and table, keyed by the
+ * normalized count query that contains the WHERE clause.
+ *
+ * <p>An entry expires after the TTL, or when the write version of its table or schema changes.
+ * PostgresClient bumps the table version on save, update and delete, and the schema version
+ * on statements where the table is unknown and on commit of a transaction. Writes of other
+ * module instances are not seen, for them the TTL is the upper bound of the staleness.
+ */
+final class CountCache {
+  static final long TTL_MILLIS_DEFAULT = 30000;
+  static final int MAX_SIZE = 1000;
+
+  private static volatile long ttlMillis = TTL_MILLIS_DEFAULT;
+  private static final AtomicLong globalVersion = new AtomicLong();
+  private static final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+  private static final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  private static final class Entry {
+    final int count;
+    final long version;
+    final long expiresNanos;
+
+    Entry(int count, long version, long expiresNanos) {
+      this.count = count;
+      this.version = version;
+      this.expiresNanos = expiresNanos;
+    }
+  }
+
+  private CountCache() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @param millis  time to live of a cache entry; 0 disables the cache
+   */
+  static void setTtlMillis(long millis) {
+    ttlMillis = millis;
+  }
+
+  static long getTtlMillis() {
+    return ttlMillis;
+  }
+
+  /**
+   * Collapse each whitespace sequence outside of quotes into a single space, and trim.
+   */
+  static String normalize(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length());
+    char quote = 0;
+    boolean space = false;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote == 0 && Character.isWhitespace(c)) {
+        space = true;
+        continue;
+      }
+      if (space && sb.length() > 0) {
+        sb.append(' ');
+      }
+      space = false;
+      sb.append(c);
+      if (quote == 0 && (c == '\'' || c == '"')) {
+        quote = c;
+      } else if (c == quote) {
+        // a doubled quote is an escaped quote: leaves and re-enters the quoted text
+        quote = 0;
+      }
+    }
+    return sb.toString();
+  }
+
+  private static String key(String schema, String table, String countQuery) {
+    return schema + '.' + table + ' ' + normalize(countQuery);
+  }
+
+  private static long get(Map<String, AtomicLong> map, String key) {
+    AtomicLong version = map.get(key);
+    return version == null ? 0 : version.get();
+  }
+
+  /**
+   * @return the current write version of the table, changes on any write to the table or schema
+   */
+  static long version(String schema, String table) {
+    return globalVersion.get() + get(versions, schema) + get(versions, schema + '.' + table);
+  }
+
+  /**
+   * A record of the table has been changed.
+   */
+  static void tableWritten(String schema, String table) {
+    versions.computeIfAbsent(schema + '.' + table, k -> new AtomicLong()).incrementAndGet();
+  }
+
+  /**
+   * Some table of the schema may have been changed.
+   */
+  static void schemaWritten(String schema) {
+    versions.computeIfAbsent(schema, k -> new AtomicLong()).incrementAndGet();
+  }
+
+  /**
+   * Some table of any schema may have been changed.
+   */
+  static void clear() {
+    globalVersion.incrementAndGet();
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * @return the cached count, or null if there is no valid entry
+   */
+  static Integer get(String schema, String table, String countQuery) {
+    if (ttlMillis <= 0) {
+      return null;
+    }
+    String key = key(schema, table, countQuery);
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.version != version(schema, table) || System.nanoTime() - entry.expiresNanos >= 0) {
+        entries.remove(key);
+        return null;
+      }
+      return entry.count;
+    }
+  }
+
+  /**
+   * @param version  the {@link #version(String, String)} before the count query has been started
+   * @param count  the result of the count query
+   */
+  static void put(String schema, String table, String countQuery, long version, int count) {
+    long ttl = ttlMillis;
+    if (ttl <= 0 || version != version(schema, table)) {
+      return;
+    }
+    Entry entry = new Entry(count, version, System.nanoTime() + ttl * 1000000);
+    synchronized (entries) {
+      entries.put(key(schema, table, countQuery), entry);
+    }
+  }
+}
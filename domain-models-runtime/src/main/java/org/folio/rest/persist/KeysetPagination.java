@@ -0,0 +1,211 @@
+package org.folio.rest.persist;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.folio.cql2pgjson.model.SqlSortKey;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Keyset (seek) pagination: Instead of skipping offset records the next page starts after the
+ * sort key values of the last record of the previous page. This allows PostgreSQL to seek into the
+ * b-tree index of the sort keys.
+ *
+ * <p>The id is appended as last sort key to make the sort order unique.
+ *
+ * <p>The page token is an opaque URL-safe String containing the sort key values of the last record
+ * and a fingerprint of the ORDER BY clause to reject a token of a different sortBy.
+ */
+public final class KeysetPagination {
+  /** alias prefix of the columns that contain the sort key values as text */
+  static final String KEY_COLUMN_PREFIX = "keyset_";
+  private static final String ID = "id";
+  private static final SqlSortKey ID_KEY = new SqlSortKey(ID, false);
+  private static final String FINGERPRINT = "s";
+  private static final String VALUES = "v";
+
+  private KeysetPagination() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class.");
+  }
+
+  /**
+   * @return sortKeys with the id appended unless sortKeys already ends with the id
+   */
+  static List<SqlSortKey> withIdTiebreaker(List<SqlSortKey> sortKeys) {
+    if (! sortKeys.isEmpty() && ID.equals(sortKeys.get(sortKeys.size() - 1).getExpression())) {
+      return sortKeys;
+    }
+    List<SqlSortKey> keys = new ArrayList<>(sortKeys);
+    keys.add(ID_KEY);
+    return keys;
+  }
+
+  /**
+   * @return ORDER BY clause without "ORDER BY" keyword
+   */
+  static String orderBy(List<SqlSortKey> keys) {
+    StringBuilder s = new StringBuilder();
+    for (SqlSortKey key : keys) {
+      if (s.length() > 0) {
+        s.append(", ");
+      }
+      s.append(key);
+    }
+    return s.toString();
+  }
+
+  /**
+   * @return the SELECT expressions that return the sort key values as text, for example
+   *   <code>(id)::text AS keyset_0</code>
+   */
+  static String selectKeys(List<SqlSortKey> keys) {
+    StringBuilder s = new StringBuilder();
+    for (int i = 0; i < keys.size(); i++) {
+      if (i > 0) {
+        s.append(", ");
+      }
+      s.append('(').append(keys.get(i).getExpression()).append(")::text AS ").append(KEY_COLUMN_PREFIX).append(i);
+    }
+    return s.toString();
+  }
+
+  private static String fingerprint(List<SqlSortKey> keys) {
+    return Integer.toHexString(orderBy(keys).hashCode());
+  }
+
+  /**
+   * @param keys  the sort keys
+   * @param values  the sort key values of the last record as text, null for SQL NULL
+   * @return the page token
+   */
+  public static String encodeToken(List<SqlSortKey> keys, List<String> values) {
+    JsonObject json = new JsonObject()
+        .put(FINGERPRINT, fingerprint(keys))
+        .put(VALUES, new JsonArray(new ArrayList<>(values)));
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(json.encode().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param keys  the sort keys
+   * @param token  the page token created by {@link #encodeToken(List, List)} for the same sort keys
+   * @return the sort key values, null for SQL NULL
+   * @throws IllegalArgumentException if the token is malformed or was created for different sort keys
+   */
+  public static List<String> decodeToken(List<SqlSortKey> keys, String token) {
+    JsonObject json;
+    try {
+      json = new JsonObject(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid page token: " + token, e);
+    }
+    if (! fingerprint(keys).equals(json.getValue(FINGERPRINT))) {
+      throw new IllegalArgumentException("Page token doesn't match the sortBy of the query: " + token);
+    }
+    Object array = json.getValue(VALUES);
+    if (! (array instanceof JsonArray) || ((JsonArray) array).size() != keys.size()) {
+      throw new IllegalArgumentException("Invalid page token: " + token);
+    }
+    List<String> values = new ArrayList<>(keys.size());
+    for (Object value : (JsonArray) array) {
+      if (value != null && ! (value instanceof String)) {
+        throw new IllegalArgumentException("Invalid page token: " + token);
+      }
+      values.add((String) value);
+    }
+    return values;
+  }
+
+  /**
+   * @return value as SQL string literal
+   */
+  static String literal(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  /**
+   * Return the SQL condition that matches all records that come after the values in
+   * the sort order of keys.
+   *
+   * <p>PostgreSQL sorts NULL last for ASC and first for DESC. If all keys have the same
+   * direction and no value is NULL a row comparison <code>(k1, k2, id) &gt; (v1, v2, v3)</code> is used
+   * that PostgreSQL can match against a b-tree index, otherwise the equivalent expansion
+   * <code>k1 &gt; v1 OR (k1 = v1 AND (k2 &gt; v2 OR (k2 = v2 AND id &gt; v3)))</code>.
+   *
+   * @param keys  the sort keys, the last must be the unique not null id
+   * @param values  the values of the last record of the previous page
+   * @return SQL condition
+   */
+  static String afterPredicate(List<SqlSortKey> keys, List<String> values) {
+    if (keys.size() != values.size()) {
+      throw new IllegalArgumentException("keys.size() = " + keys.size() + ", values.size() = " + values.size());
+    }
+    boolean descending = keys.get(0).isDescending();
+    boolean rowComparison = ! values.contains(null);
+    for (SqlSortKey key : keys) {
+      rowComparison &= key.isDescending() == descending;
+    }
+    if (rowComparison) {
+      return rowComparison(keys, values, descending);
+    }
+    return expansion(keys, values, 0);
+  }
+
+  private static String expression(SqlSortKey key) {
+    return "(" + key.getExpression() + ")";
+  }
+
+  private static String rowComparison(List<SqlSortKey> keys, List<String> values, boolean descending) {
+    StringBuilder k = new StringBuilder();
+    StringBuilder v = new StringBuilder();
+    for (int i = 0; i < keys.size(); i++) {
+      if (i > 0) {
+        k.append(", ");
+        v.append(", ");
+      }
+      k.append(expression(keys.get(i)));
+      v.append(literal(values.get(i)));
+    }
+    String sql = "(" + k + ") " + (descending ? "<" : ">") + " (" + v + ")";
+    if (descending) {
+      // NULL values come first and have already been returned
+      return sql;
+    }
+    // NULL values come last
+    StringBuilder s = new StringBuilder(sql);
+    StringBuilder equal = new StringBuilder();
+    for (int i = 0; i < keys.size(); i++) {
+      String expression = expression(keys.get(i));
+      if (! ID.equals(keys.get(i).getExpression())) {
+        s.append(" OR (").append(equal).append(expression).append(" IS NULL)");
+      }
+      equal.append(expression).append(" = ").append(literal(values.get(i))).append(" AND ");
+    }
+    return s.toString();
+  }
+
+  private static String expansion(List<SqlSortKey> keys, List<String> values, int i) {
+    SqlSortKey key = keys.get(i);
+    String expression = expression(key);
+    String value = values.get(i);
+    String after;
+    if (key.isDescending()) {
+      after = value == null ? expression + " IS NOT NULL" : expression + " < " + literal(value);
+    } else if (value == null) {
+      after = "FALSE";
+    } else if (ID.equals(key.getExpression())) {
+      after = expression + " > " + literal(value);
+    } else {
+      after = "(" + expression + " > " + literal(value) + " OR " + expression + " IS NULL)";
+    }
+    if (i == keys.size() - 1) {
+      return after;
+    }
+    String equal = value == null ? expression + " IS NULL" : expression + " = " + literal(value);
+    return "(" + after + " OR (" + equal + " AND " + expansion(keys, values, i + 1) + "))";
+  }
+}
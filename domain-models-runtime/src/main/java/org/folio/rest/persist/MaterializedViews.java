@@ -0,0 +1,143 @@
+package org.folio.rest.persist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.cql2pgjson.model.CachedDbSchema;
+import org.folio.dbschema.View;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Refresh the materialized views that schema.json declares with {@code "materialized": true}.
+ *
+ * <p>The schema script stores the refreshIntervalSeconds of each materialized view in table
+ * rmb_internal_materialized_view of the tenant schema. A scheduled refresh claims a due view by
+ * setting its last_refresh, therefore several module instances don't refresh the same view at the
+ * same time. REFRESH MATERIALIZED VIEW CONCURRENTLY doesn't block reads of the view.
+ */
+public final class MaterializedViews {
+  static final String SCHEMA_JSON = "templates/db_scripts/schema.json";
+  static final String TABLE = "rmb_internal_materialized_view";
+
+  private static final Logger log = LogManager.getLogger(MaterializedViews.class);
+  private static volatile Boolean scheduled;
+
+  private MaterializedViews() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @return whether schema.json declares a materialized view with a refreshIntervalSeconds greater than 0
+   */
+  public static boolean hasScheduledRefresh() {
+    Boolean result = scheduled;
+    if (result == null) {
+      result = loadScheduled();
+      scheduled = result;
+    }
+    return result;
+  }
+
+  private static boolean loadScheduled() {
+    try {
+      List<View> views = CachedDbSchema.get(SCHEMA_JSON).getSchema().getViews();
+      return views != null && views.stream()
+          .anyMatch(view -> view.isMaterialized() && view.getRefreshIntervalSeconds() > 0);
+    } catch (IOException | UncheckedIOException e) {
+      log.debug("No materialized views, cannot read " + SCHEMA_JSON + ": " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Refresh all materialized views of all tenants of this module where the refresh interval has elapsed.
+   *
+   * <p>A failing refresh is logged and doesn't stop the refresh of the other views.
+   *
+   * @param postgresClient  client with access to all tenant schemas of this module
+   * @return the refreshed views as schema.view
+   */
+  public static Future<List<String>> refreshDue(PostgresClient postgresClient) {
+    String suffix = "_" + PostgresClient.getModuleName();
+    List<String> refreshed = new ArrayList<>();
+    return postgresClient.select(
+        "SELECT n.nspname FROM pg_catalog.pg_class c "
+        + "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace "
+        + "WHERE c.relname = '" + TABLE + "' AND c.relkind = 'r'")
+    .compose(schemas -> {
+      Future<Void> future = Future.succeededFuture();
+      for (Row row : schemas) {
+        String schema = row.getString(0);
+        if (! schema.endsWith(suffix)) {
+          continue;
+        }
+        future = future.compose(x -> refreshDue(postgresClient, schema, refreshed));
+      }
+      return future;
+    })
+    .map(refreshed);
+  }
+
+  private static Future<Void> refreshDue(PostgresClient postgresClient, String schema, List<String> refreshed) {
+    return postgresClient.execute(
+        "UPDATE " + schema + "." + TABLE + " AS v SET last_refresh = now() "
+        + "WHERE refresh_interval_seconds > 0 "
+        + "AND (last_refresh IS NULL OR last_refresh <= now() - make_interval(secs => refresh_interval_seconds)) "
+        + "AND EXISTS (SELECT 1 FROM pg_catalog.pg_matviews WHERE schemaname = $1 AND matviewname = v.name) "
+        + "RETURNING name", Tuple.of(schema))
+    .compose(views -> {
+      Future<Void> future = Future.succeededFuture();
+      for (Row row : views) {
+        String view = row.getString(0);
+        future = future.compose(x -> refreshConcurrently(postgresClient, schema, view)
+            .map(y -> refreshed.add(schema + "." + view))
+            .<Void>mapEmpty()
+            .recover(e -> {
+              log.error("Refresh of materialized view " + schema + "." + view + " failed: " + e.getMessage(), e);
+              return Future.succeededFuture();
+            }));
+      }
+      return future;
+    })
+    .recover(e -> {
+      log.error("Refresh of materialized views in schema " + schema + " failed: " + e.getMessage(), e);
+      return Future.succeededFuture();
+    });
+  }
+
+  /**
+   * Refresh the materialized view now, independent of its refresh interval.
+   *
+   * @param postgresClient  client with access to the schema
+   * @param schema  tenant schema like diku_mod_foo, see {@link PostgresClient#convertToPsqlStandard(String)}
+   * @param view  name of the materialized view
+   * @return true if refreshed, false if the schema has no such materialized view
+   */
+  public static Future<Boolean> refresh(PostgresClient postgresClient, String schema, String view) {
+    return Future.<RowSet<Row>>future(promise -> postgresClient.select(
+        "SELECT 1 FROM pg_catalog.pg_matviews WHERE schemaname = $1 AND matviewname = $2",
+        Tuple.of(schema, view), promise))
+    .compose(rowSet -> {
+      if (rowSet.rowCount() == 0) {
+        return Future.succeededFuture(false);
+      }
+      return refreshConcurrently(postgresClient, schema, view)
+          .compose(x -> postgresClient.execute(
+              "UPDATE " + schema + "." + TABLE + " SET last_refresh = now() WHERE name = $1", Tuple.of(view)))
+          .map(true);
+    });
+  }
+
+  private static Future<Void> refreshConcurrently(PostgresClient postgresClient, String schema, String view) {
+    return postgresClient.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + schema + "." + view)
+        .mapEmpty();
+  }
+}
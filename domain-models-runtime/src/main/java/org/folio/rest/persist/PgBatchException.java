@@ -0,0 +1,53 @@
+package org.folio.rest.persist;
+
+import io.vertx.pgclient.PgException;
+
+/**
+ * A {@link PgException} of a statement that {@link PostgresClient#execute(io.vertx.pgclient.PgConnection,
+ * String, java.util.List)} has run with a list of parameter tuples, it tells which batch of tuples
+ * has failed. The tuples of a batch are sent in one pipelined batch that fails as a whole.
+ *
+ * <p>It has the same fields as the original PgException that is the cause, therefore
+ * {@link PgExceptionUtil} works as before.
+ */
+public class PgBatchException extends PgException {
+  private static final long serialVersionUID = 1L;
+
+  private final int firstIndex;
+  private final int lastIndex;
+
+  /**
+   * @param cause  the exception of the failed batch
+   * @param firstIndex  position of the first tuple of the failed batch within all tuples, starting at 0
+   * @param lastIndex  position of the last tuple of the failed batch within all tuples
+   */
+  public PgBatchException(PgException cause, int firstIndex, int lastIndex) {
+    super(cause.getErrorMessage(), cause.getSeverity(), cause.getCode(), cause.getDetail());
+    initCause(cause);
+    this.firstIndex = firstIndex;
+    this.lastIndex = lastIndex;
+  }
+
+  /**
+   * @return position of the first tuple of the failed batch within all tuples, starting at 0
+   */
+  public int getFirstIndex() {
+    return firstIndex;
+  }
+
+  /**
+   * @return position of the last tuple of the failed batch within all tuples, starting at 0;
+   *     equals {@link #getFirstIndex()} if the batch size is 1
+   */
+  public int getLastIndex() {
+    return lastIndex;
+  }
+
+  @Override
+  public String getMessage() {
+    if (firstIndex == lastIndex) {
+      return "tuple " + firstIndex + ": " + super.getMessage();
+    }
+    return "tuples " + firstIndex + " to " + lastIndex + ": " + super.getMessage();
+  }
+}
@@ -11,6 +11,7 @@ public final class PgExceptionUtil {
   static final String UNIQUE_VIOLATION = "23505";
   static final String INVALID_TEXT_REPRESENTATION = "22P02";
   static final String VERSION_CONFLICT = "23F09";
+  static final String UNDEFINED_FUNCTION = "42883";
 
   private PgExceptionUtil() {
     throw new UnsupportedOperationException("Cannot instantiate utility class.");
@@ -77,6 +78,17 @@ public final class PgExceptionUtil {
     return VERSION_CONFLICT.equals(get(throwable, 'C'));
   }
 
+  /**
+   * Check for undefined function.
+   * @param throwable any Throwable or null
+   * @return true if throwable is a
+   *   {@link io.vertx.pgclient.PgException PgException}
+   *   that reports an undefined function, false otherwise.
+   */
+  public static boolean isUndefinedFunction(Throwable throwable) {
+    return UNDEFINED_FUNCTION.equals(get(throwable, 'C'));
+  }
+
   /**
    * If this throwable is an Exception thrown because of some PostgreSQL data
    * restriction (foreign key violation, invalid uuid, duplicate key) or a user error
@@ -0,0 +1,125 @@
+package org.folio.rest.persist;
+
+import io.vertx.core.json.JsonObject;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection counters and acquire latency of a PgPool, or of the share of one tenant
+ * of a shared PgPool. The counters of a tenant's share are added to the parent counters
+ * of the shared PgPool.
+ *
+ * <p>The PgPool doesn't close idle connections, therefore the number of open connections
+ * is the maximum number of active connections since the PgPool has been created.
+ */
+final class PgPoolMetrics {
+  private final String name;
+  private final int maxSize;
+  private final PgPoolMetrics parent;
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final AtomicInteger open = new AtomicInteger();
+  private final LongAdder acquired = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder acquireNanos = new LongAdder();
+  private final AtomicLong acquireNanosMax = new AtomicLong();
+  private volatile long lastReleaseNanos = System.nanoTime();
+
+  /**
+   * @param name  tenant id or pool name
+   * @param maxSize  maximum number of active connections
+   * @param parent  metrics of the shared PgPool, or null
+   */
+  PgPoolMetrics(String name, int maxSize, PgPoolMetrics parent) {
+    this.name = name;
+    this.maxSize = maxSize;
+    this.parent = parent;
+  }
+
+  /**
+   * A connection has been requested.
+   */
+  void waitStart() {
+    waiting.incrementAndGet();
+    if (parent != null) {
+      parent.waitStart();
+    }
+  }
+
+  /**
+   * A requested connection has been acquired.
+   * @param startNanos  System.nanoTime() when the connection has been requested
+   */
+  void acquired(long startNanos) {
+    long nanos = System.nanoTime() - startNanos;
+    waiting.decrementAndGet();
+    int a = active.incrementAndGet();
+    open.accumulateAndGet(a, Math::max);
+    acquired.increment();
+    acquireNanos.add(nanos);
+    acquireNanosMax.accumulateAndGet(nanos, Math::max);
+    if (parent != null) {
+      parent.acquired(startNanos);
+    }
+  }
+
+  /**
+   * A connection request has failed.
+   */
+  void failed() {
+    waiting.decrementAndGet();
+    failed.increment();
+    if (parent != null) {
+      parent.failed();
+    }
+  }
+
+  /**
+   * An acquired connection has been closed and returned to the PgPool.
+   */
+  void released() {
+    active.decrementAndGet();
+    lastReleaseNanos = System.nanoTime();
+    if (parent != null) {
+      parent.released();
+    }
+  }
+
+  /**
+   * The PgPool has been replaced by a new PgPool without open connections.
+   */
+  void poolReplaced() {
+    open.set(active.get());
+  }
+
+  /**
+   * @return true if there are open connections and all of them have been idle for at least millis
+   */
+  boolean isIdleFor(long millis) {
+    return open.get() > 0 && active.get() == 0 && waiting.get() == 0
+        && System.nanoTime() - lastReleaseNanos >= millis * 1000000;
+  }
+
+  int getActive() {
+    return active.get();
+  }
+
+  int getWaiting() {
+    return waiting.get();
+  }
+
+  JsonObject toJson() {
+    long count = acquired.sum();
+    return new JsonObject()
+        .put("name", name)
+        .put("maxSize", maxSize)
+        .put("active", active.get())
+        .put("idle", Math.max(0, open.get() - active.get()))
+        .put("waiting", waiting.get())
+        .put("acquired", count)
+        .put("failed", failed.sum())
+        .put("acquireMillisAvg", count == 0 ? 0.0 : acquireNanos.sum() / 1000000.0 / count)
+        .put("acquireMillisMax", acquireNanosMax.get() / 1000000.0);
+  }
+}
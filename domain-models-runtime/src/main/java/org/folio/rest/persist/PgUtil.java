@@ -37,7 +37,10 @@ import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.CQLFeatureUnsupportedException;
 import org.folio.cql2pgjson.exception.FieldException;
 import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.rest.persist.cql.CQLQueryValidationException;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.cql.TotalRecords;
+import org.folio.rest.persist.interfaces.KeysetResults;
 import org.folio.rest.jaxrs.model.Errors;
 import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
 import org.folio.rest.jaxrs.model.Diagnostic;
@@ -56,6 +59,9 @@ import org.z3950.zing.cql.ModifierSet;
  * Helper methods for using PostgresClient.
  */
 public final class PgUtil {
+  /** response header of {@link #getWithKeyset} with the token of the next page */
+  public static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
   private static final Logger logger = LogManager.getLogger(PgUtil.class);
 
   private static final String RESPOND_200_WITH_APPLICATION_JSON = "respond200WithApplicationJson";
@@ -467,7 +473,7 @@ public final class PgUtil {
     throw new NoSuchMethodException(collectionClass.getName() + " must have a set...(java.util.List<>) method.");
   }
 
-  private static <T, C> C collection(Class<C> collectionClazz, List<T> list, int totalRecords)
+  private static <T, C> C collection(Class<C> collectionClazz, List<T> list, Integer totalRecords)
       throws ReflectiveOperationException {
 
     Method setList = getListSetter(collectionClazz);
@@ -686,6 +692,37 @@ public final class PgUtil {
       Class<? extends ResponseDelegate> responseDelegateClass,
       Handler<AsyncResult<Response>> asyncResultHandler) {
 
+    get(table, clazz, collectionClazz, cql, offset, limit, null, okapiHeaders, vertxContext,
+        responseDelegateClass, asyncResultHandler);
+  }
+
+  /**
+   * Get records by CQL.
+   *
+   * <p>The records are taken from the {@link ResultCache} if a cached query registered for the table
+   * can answer the CQL query.
+   *
+   * @param table  the table that contains the records
+   * @param clazz  the class of the record type T
+   * @param collectionClazz  the class of the collection type C containing records of type T
+   * @param cql  the CQL query for filtering and sorting the records
+   * @param offset number of records to skip, use 0 or negative number for not skipping
+   * @param limit maximum number of records to return, use a negative number for no limit
+   * @param totalRecords  how to calculate totalRecords: none, estimated or exact; null for estimated,
+   *    see {@link TotalRecords}
+   * @param okapiHeaders  http headers provided by okapi
+   * @param vertxContext  the current context
+   * @param responseDelegateClass  the ResponseDelegate class generated as defined by the RAML file,
+   *    must have these methods: respond200(C), respond400WithTextPlain(Object), respond500WithTextPlain(Object).
+   * @param asyncResultHandler  where to return the result created by the responseDelegateClass
+   */
+  @SuppressWarnings({"unchecked", "squid:S107"})     // Method has >7 parameters
+  public static <T, C> void get(String table, Class<T> clazz, Class<C> collectionClazz,
+      String cql, int offset, int limit, String totalRecords,
+      Map<String, String> okapiHeaders, Context vertxContext,
+      Class<? extends ResponseDelegate> responseDelegateClass,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+
     final Method respond500;
     final Method respond400;
     try {
@@ -699,10 +736,11 @@ public final class PgUtil {
 
     try {
       CQL2PgJSON cql2pgJson = new CQL2PgJSON(table + "." + JSON_COLUMN);
-      CQLWrapper cqlWrapper = new CQLWrapper(cql2pgJson, cql, limit, offset);
+      CQLWrapper cqlWrapper = new CQLWrapper(cql2pgJson, cql, limit, offset)
+          .setTotalRecords(TotalRecords.fromString(totalRecords));
       PreparedCQL preparedCql = new PreparedCQL(table, cqlWrapper, okapiHeaders);
       get(preparedCql, clazz, collectionClazz, okapiHeaders, vertxContext, responseDelegateClass, asyncResultHandler);
-    } catch (FieldException e) {
+    } catch (FieldException | IllegalArgumentException e) {
       logger.error(e.getMessage(), e);
       asyncResultHandler.handle(response(e.getMessage(), respond400, respond500));
     }
@@ -726,7 +764,7 @@ public final class PgUtil {
       Method respond200 = responseDelegateClass.getMethod(RESPOND_200_WITH_APPLICATION_JSON, collectionClazz);
       Method respond400 = responseDelegateClass.getMethod(RESPOND_400_WITH_TEXT_PLAIN, Object.class);
       PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
-      postgresClient.get(preparedCql.getTableName(), clazz, preparedCql.getCqlWrapper(), true, reply -> {
+      ResultCache.get(postgresClient, preparedCql.getTableName(), clazz, preparedCql.getCqlWrapper(), reply -> {
         try {
           if (reply.failed()) {
             String message = PgExceptionUtil.badRequestMessage(reply.cause());
@@ -751,6 +789,93 @@ public final class PgUtil {
     }
   }
 
+  /**
+   * Get records by CQL using keyset pagination, see {@link KeysetPagination}.
+   *
+   * <p>The first page is requested without pageToken. If there are more records the response has the
+   * {@link #NEXT_PAGE_TOKEN_HEADER} header with the pageToken to use for the next page. The
+   * pageToken is only valid for the same sortBy. totalRecords is not set.
+   *
+   * @param table  the table that contains the records
+   * @param clazz  the class of the record type T
+   * @param collectionClazz  the class of the collection type C containing records of type T
+   * @param cql  the CQL query for filtering and sorting the records
+   * @param pageToken  the token of the previous page, null for the first page
+   * @param limit maximum number of records to return, must be positive
+   * @param okapiHeaders  http headers provided by okapi
+   * @param vertxContext  the current context
+   * @param responseDelegateClass  the ResponseDelegate class generated as defined by the RAML file,
+   *    must have these methods: respond200(C), respond400WithTextPlain(Object), respond500WithTextPlain(Object).
+   * @param asyncResultHandler  where to return the result created by the responseDelegateClass
+   */
+  @SuppressWarnings({"unchecked", "squid:S107"})     // Method has >7 parameters
+  public static <T, C> void getWithKeyset(String table, Class<T> clazz, Class<C> collectionClazz,
+      String cql, String pageToken, int limit,
+      Map<String, String> okapiHeaders, Context vertxContext,
+      Class<? extends ResponseDelegate> responseDelegateClass,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    final Method respond500;
+    final Method respond400;
+    final Method respond200;
+    try {
+      respond500 = responseDelegateClass.getMethod(RESPOND_500_WITH_TEXT_PLAIN, Object.class);
+      respond400 = responseDelegateClass.getMethod(RESPOND_400_WITH_TEXT_PLAIN, Object.class);
+      respond200 = responseDelegateClass.getMethod(RESPOND_200_WITH_APPLICATION_JSON, collectionClazz);
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(response(e.getMessage(), null, null));
+      return;
+    }
+
+    if (limit <= 0) {
+      asyncResultHandler.handle(response("limit must be positive for keyset pagination, but it is " + limit,
+          respond400, respond500));
+      return;
+    }
+
+    try {
+      CQL2PgJSON cql2pgJson = new CQL2PgJSON(table + "." + JSON_COLUMN);
+      CQLWrapper cqlWrapper = new CQLWrapper(cql2pgJson, cql, limit, -1);
+      PgUtil.postgresClient(vertxContext, okapiHeaders)
+      .getKeysetPage(table, clazz, cqlWrapper, pageToken)
+      .onComplete(reply -> {
+        try {
+          if (reply.failed()) {
+            Throwable cause = reply.cause();
+            String message = PgExceptionUtil.badRequestMessage(cause);
+            if (message == null && (cause instanceof IllegalArgumentException
+                || cause instanceof CQLQueryValidationException)) {
+              message = cause.getMessage();
+            }
+            if (message == null) {
+              logger.error(cause.getMessage(), cause);
+              asyncResultHandler.handle(response(cause.getMessage(), respond500, respond500));
+              return;
+            }
+            asyncResultHandler.handle(response(message, respond400, respond500));
+            return;
+          }
+          KeysetResults<T> results = reply.result();
+          C collection = collection(collectionClazz, results.getResults(), null);
+          String nextPageToken = results.getNextPageToken();
+          asyncResultHandler.handle(response(collection, respond200, respond500)
+              .map(r -> nextPageToken == null ? r
+                  : Response.fromResponse(r).header(NEXT_PAGE_TOKEN_HEADER, nextPageToken).build()));
+        } catch (Exception e) {
+          logger.error(e.getMessage(), e);
+          asyncResultHandler.handle(response(e.getMessage(), respond500, respond500));
+        }
+      });
+    } catch (FieldException e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(response(e.getMessage(), respond400, respond500));
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(response(e.getMessage(), respond500, respond500));
+    }
+  }
+
    /**
    * Delete records by CQL.
    * @param table  the table that contains the records
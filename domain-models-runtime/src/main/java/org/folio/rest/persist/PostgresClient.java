@@ -2,16 +2,19 @@ package org.folio.rest.persist;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import freemarker.template.TemplateException;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.pgclient.PgConnectOptions;
 import io.vertx.pgclient.PgConnection;
+import io.vertx.pgclient.PgException;
 import io.vertx.pgclient.PgPool;
 import io.vertx.sqlclient.PoolOptions;
 import io.vertx.sqlclient.PreparedStatement;
@@ -19,23 +22,31 @@ import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowIterator;
 import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.RowStream;
+import io.vertx.sqlclient.SqlConnection;
 import io.vertx.sqlclient.Transaction;
 import io.vertx.sqlclient.Tuple;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -44,25 +55,32 @@ import org.apache.commons.collections4.map.HashedMap;
 import org.apache.commons.collections4.map.MultiKeyMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.dbschema.util.SqlUtil;
+import org.folio.cql2pgjson.model.CachedDbSchema;
+import org.folio.cql2pgjson.model.SqlSortKey;
+import org.folio.rest.jaxrs.model.Facet;
 import org.folio.rest.jaxrs.model.ResultInfo;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.Criteria.UpdateSection;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.cql.TotalRecords;
 import org.folio.rest.persist.facets.FacetField;
-import org.folio.rest.persist.facets.FacetManager;
+import org.folio.rest.persist.facets.FacetQuery;
 import org.folio.rest.persist.helpers.LocalRowSet;
+import org.folio.rest.persist.interfaces.BulkLoadResult;
+import org.folio.rest.persist.interfaces.KeysetResults;
 import org.folio.rest.persist.interfaces.Results;
 import org.folio.rest.security.AES;
 import org.folio.rest.tools.PomReader;
 import org.folio.rest.tools.messages.Messages;
+import org.folio.rest.tools.monitor.MetricsRegistry;
 import org.folio.rest.tools.utils.Envs;
 import org.folio.rest.tools.utils.LogUtil;
 import org.folio.rest.tools.utils.MetadataUtil;
 import org.folio.rest.tools.utils.NetworkUtils;
 import org.folio.dbschema.ObjectMapperTool;
+import org.folio.dbschema.Table;
 import ru.yandex.qatools.embed.postgresql.EmbeddedPostgres;
 import ru.yandex.qatools.embed.postgresql.PostgresProcess;
 import ru.yandex.qatools.embed.postgresql.distribution.Version;
@@ -86,11 +104,36 @@ public class PostgresClient {
 
   static final int               STREAM_GET_DEFAULT_CHUNK_SIZE = 100;
 
+  /** default time to live in milliseconds of a cached totalRecords estimation */
+  static final long              COUNT_CACHE_TTL_DEFAULT = CountCache.TTL_MILLIS_DEFAULT;
+
+  /** default maximum number of parameter tuples that {@link #execute(PgConnection, String, List)} pipelines */
+  static final int               EXECUTE_BATCH_SIZE_DEFAULT = 1000;
+
+  /** default number of concurrent index builds on tenant upgrade, 0 builds them within the upgrade transaction */
+  static final int               INDEX_BUILD_PARALLELISM_DEFAULT = 0;
+
   private static final String    ID_FIELD                 = "id";
+  /** id of the facet rows generated by base_facet_query.ftl */
+  static final UUID              FACET_ROW_ID             = new UUID(0, 0);
   private static final String    RETURNING_ID             = " RETURNING id ";
+  private static final String    SCHEMA_JSON              = "templates/db_scripts/schema.json";
+  /** lower case table name to whether schema.json declares "withSetWiseBatch": true */
+  private static final Map<String, Boolean> setWiseBatchTables = new ConcurrentHashMap<>();
+  /** schema.table_save_batch of the set-wise batch functions that exist */
+  private static final Set<String> setWiseBatchFunctions = ConcurrentHashMap.newKeySet();
 
   private static final String    CONNECTION_RELEASE_DELAY = "connectionReleaseDelay";
   private static final String    MAX_POOL_SIZE = "maxPoolSize";
+  private static final String    MAX_SHARED_POOL_SIZE = "maxSharedPoolSize";
+  private static final String    MAX_WAIT_QUEUE_SIZE = "maxWaitQueueSize";
+  private static final String    PREPARED_STATEMENT_CACHE_MAX_SIZE = "preparedStatementCacheMaxSize";
+  private static final String    PREPARED_STATEMENT_CACHE_SQL_LIMIT = "preparedStatementCacheSqlLimit";
+  private static final int       DEFAULT_MAX_POOL_SIZE = 4;
+  /** default number of prepared statements cached per connection, 0 disables the cache */
+  static final int               DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE = 256;
+  /** default maximum length of the SQL text of a cached prepared statement */
+  static final int               DEFAULT_PREPARED_STATEMENT_CACHE_SQL_LIMIT = 2048;
   /** default release delay in milliseconds; after this time an idle database connection is closed */
   private static final int       DEFAULT_CONNECTION_RELEASE_DELAY = 60000;
   private static final String    POSTGRES_LOCALHOST_CONFIG = "/postgres-conf.json";
@@ -119,6 +162,7 @@ public class PostgresClient {
   private static final String    UPDATE_STAT_METHOD = "update";
   private static final String    DELETE_STAT_METHOD = "delete";
   private static final String    EXECUTE_STAT_METHOD = "execute";
+  private static final String    PREPARE_STAT_METHOD = "prepare";
 
   private static final String    PROCESS_RESULTS_STAT_METHOD = "processResults";
 
@@ -134,6 +178,15 @@ public class PostgresClient {
   private static ObjectMapper    mapper                   = ObjectMapperTool.getMapper();
 
   private static MultiKeyMap<Object, PostgresClient> connectionPool = MultiKeyMap.multiKeyMap(new HashedMap<>());
+  private static final ClassValue<Boolean> auditFlavored = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> clazz) {
+      return hasJsonbField(clazz);
+    }
+  };
+  /** class -> column names -> column name -> setter */
+  private static final Map<Class<?>, Map<List<String>, Map<String, Method>>> externalColumnSettersCache =
+      new ConcurrentHashMap<>();
 
   private static final String    MODULE_NAME              = PomReader.INSTANCE.getModuleName();
 
@@ -150,10 +203,21 @@ public class PostgresClient {
   /** analyze threshold value in milliseconds */
   private static long explainQueryThreshold = EXPLAIN_QUERY_THRESHOLD_DEFAULT;
 
+  private static int executeBatchSize = EXECUTE_BATCH_SIZE_DEFAULT;
+  private static int indexBuildParallelism = INDEX_BUILD_PARALLELISM_DEFAULT;
+
   private final Vertx vertx;
   private JsonObject postgreSQLClientConfig = null;
   private final Messages messages           = Messages.getInstance();
   private PgPool client;
+  /** the PgPool shared by all tenants, or null if this instance has its own PgPool */
+  private SharedPgPool sharedPgPool;
+  private PgPoolMetrics metrics;
+  /** number of connections this tenant may still acquire from the shared PgPool */
+  private int permits;
+  private int maxWaitQueueSize = -1;
+  private final Deque<Runnable> permitWaitQueue = new ArrayDeque<>();
+  private long idleTimerId = -1;
   private final String tenantId;
   private final String schemaName;
 
@@ -172,6 +236,7 @@ public class PostgresClient {
     this.tenantId = "test";
     this.vertx = null;
     this.schemaName = convertToPsqlStandard(tenantId);
+    this.metrics = new PgPoolMetrics(tenantId, DEFAULT_MAX_POOL_SIZE, null);
     log.warn("Instantiating test Postgres client! Only use with tests!");
   }
 
@@ -205,18 +270,50 @@ public class PostgresClient {
   }
 
   /**
-   * Log the duration since startNanoTime at the StatsTracker and as a debug message.
-   * @param descriptionKey  key for StatsTracker and text for the log entry
+   * Record the duration since startNanoTime at the {@link MetricsRegistry} and log it as a debug message.
+   * @param descriptionKey  stat method for the metrics and text for the log entry
+   * @param table  table for the metrics and additional text for the log entry
+   * @param startNanoTime  start time as returned by System.nanoTime()
+   */
+  private void statsTracker(String descriptionKey, String table, long startNanoTime) {
+    statsTracker(descriptionKey, table, table, startNanoTime);
+  }
+
+  /**
+   * Record the duration since startNanoTime at the {@link MetricsRegistry} and log it as a debug message.
+   * @param descriptionKey  stat method for the metrics and text for the log entry
+   * @param table  table for the metrics, null if unknown
    * @param sql  additional text for the log entry
    * @param startNanoTime  start time as returned by System.nanoTime()
    */
-  private void statsTracker(String descriptionKey, String sql, long startNanoTime) {
+  private void statsTracker(String descriptionKey, String table, String sql, long startNanoTime) {
     long endNanoTime = System.nanoTime();
+    MetricsRegistry.recordSql(descriptionKey, table, endNanoTime - startNanoTime);
     if (log.isDebugEnabled()) {
       logTimer(descriptionKey, sql, startNanoTime, endNanoTime);
     }
   }
 
+  /**
+   * Invalidate the cached totalRecords estimations of table, see {@link CountCache}.
+   * @param table  the table without schema that has been written to
+   */
+  private void tableWritten(String table) {
+    CountCache.tableWritten(schemaName, table);
+  }
+
+  /**
+   * Invalidate the cached totalRecords estimations of all tables of the schema, see {@link CountCache}.
+   * The module's PostgresClient of the public schema may change the tables of any schema.
+   */
+  private void schemaWritten() {
+    if (DEFAULT_SCHEMA.equals(tenantId)) {
+      CountCache.clear();
+    } else {
+      CountCache.schemaWritten(schemaName);
+    }
+  }
+
   /**
    * Enable or disable using embedded specific defaults for the
    * PostgreSQL configuration. They are used if there is no
@@ -308,6 +405,83 @@ public class PostgresClient {
     return explainQueryThreshold;
   }
 
+  /**
+   * Set the maximum number of parameter tuples that {@link #execute(PgConnection, String, List)}
+   * sends to PostgreSQL in a single pipelined batch.
+   *
+   * <p>The default is {@value #EXECUTE_BATCH_SIZE_DEFAULT}, it can be set using the
+   * DB_EXECUTE_BATCH_SIZE environment variable.
+   *
+   * @param size  the batch size, must be at least 1
+   * @throws IllegalArgumentException if size is less than 1
+   */
+  public static void setExecuteBatchSize(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("executeBatchSize must be at least 1: " + size);
+    }
+    executeBatchSize = size;
+  }
+
+  /**
+   * @return the maximum number of parameter tuples per pipelined batch
+   * @see #setExecuteBatchSize(int)
+   */
+  public static int getExecuteBatchSize() {
+    return executeBatchSize;
+  }
+
+  /**
+   * Set how long a totalRecords estimation of a GET query is cached. A save, update or delete
+   * through this JVM invalidates the cached estimations of the table.
+   *
+   * <p>The default is {@value #COUNT_CACHE_TTL_DEFAULT} ms, it can be set using the
+   * DB_COUNT_CACHE_TTL environment variable.
+   *
+   * @param millis  time to live in milliseconds, 0 disables the cache
+   * @throws IllegalArgumentException if millis is negative
+   */
+  public static void setCountCacheTtl(long millis) {
+    if (millis < 0) {
+      throw new IllegalArgumentException("countCacheTtl must not be negative: " + millis);
+    }
+    CountCache.setTtlMillis(millis);
+  }
+
+  /**
+   * @return the time to live in milliseconds of a cached totalRecords estimation
+   * @see #setCountCacheTtl(long)
+   */
+  public static long getCountCacheTtl() {
+    return CountCache.getTtlMillis();
+  }
+
+  /**
+   * Set the maximum number of indexes that the tenant API builds in parallel using
+   * CREATE INDEX CONCURRENTLY after the schema upgrade transaction has been committed.
+   * Indexes of the same table are built one after the other.
+   *
+   * <p>The default is {@value #INDEX_BUILD_PARALLELISM_DEFAULT}, it can be set using the
+   * DB_INDEX_BUILD_PARALLELISM environment variable.
+   *
+   * @param parallelism  number of concurrent index builds, 0 creates the indexes within
+   *     the schema upgrade transaction
+   * @throws IllegalArgumentException if parallelism is negative
+   */
+  public static void setIndexBuildParallelism(int parallelism) {
+    if (parallelism < 0) {
+      throw new IllegalArgumentException("indexBuildParallelism must not be negative: " + parallelism);
+    }
+    indexBuildParallelism = parallelism;
+  }
+
+  /**
+   * @return the maximum number of concurrent index builds on tenant upgrade
+   * @see #setIndexBuildParallelism(int)
+   */
+  public static int getIndexBuildParallelism() {
+    return indexBuildParallelism;
+  }
+
   /**
    * Instance for the tenantId from connectionPool or created and
    * added to connectionPool.
@@ -407,10 +581,19 @@ public class PostgresClient {
       whenDone.handle(Future.succeededFuture());
       return;
     }
-    PgPool clientToClose = client;
-    client = null;
+    PgPool clientToClose;
+    synchronized (this) {
+      clientToClose = client;
+      client = null;
+    }
+    if (idleTimerId != -1) {
+      vertx.cancelTimer(idleTimerId);
+      idleTimerId = -1;
+    }
     connectionPool.removeMultiKey(vertx, tenantId);  // remove (vertx, tenantId, this) entry
-    clientToClose.close();
+    if (sharedPgPool == null) {
+      clientToClose.close();
+    }
     whenDone.handle(Future.succeededFuture());
   }
 
@@ -440,6 +623,22 @@ public class PostgresClient {
     for (PostgresClient client : connectionPool.values().toArray(new PostgresClient [0])) {
       client.closeClient(ignore -> {});
     }
+    SharedPgPool.closeAll();
+  }
+
+  /**
+   * Metrics of the shared PgPool and of the connections of each PostgresClient instance: maxSize,
+   * number of active, idle and waiting connections, number of acquired and failed connection
+   * requests, and average and maximum time to acquire a connection.
+   *
+   * @return one JsonObject for each shared PgPool and each PostgresClient instance
+   */
+  public static JsonArray getConnectionPoolMetrics() {
+    JsonArray array = SharedPgPool.getAllMetrics();
+    for (PostgresClient client : connectionPool.values().toArray(new PostgresClient [0])) {
+      array.add(client.metrics.toJson().put("shared", client.sharedPgPool != null));
+    }
+    return array;
   }
 
   static PgConnectOptions createPgConnectOptions(JsonObject sqlConfig) {
@@ -464,10 +663,19 @@ public class PostgresClient {
     if (database != null) {
       pgConnectOptions.setDatabase(database);
     }
-    Integer connectionReleaseDelay = sqlConfig.getInteger(CONNECTION_RELEASE_DELAY, DEFAULT_CONNECTION_RELEASE_DELAY);
-    // TODO: enable when available in vertx-sql-client/vertx-pg-client
+    // connectionReleaseDelay is not available in vertx-sql-client/vertx-pg-client
     // https://issues.folio.org/browse/RMB-657
-    // pgConnectOptions.setConnectionReleaseDelay(connectionReleaseDelay);
+    // PostgresClient closes idle connections by replacing the idle PgPool, see closeIdleConnections
+
+    // preparedQuery(sql) parses sql on the server once per connection, not on each execution
+    int cacheMaxSize = sqlConfig.getInteger(PREPARED_STATEMENT_CACHE_MAX_SIZE,
+        DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE);
+    pgConnectOptions.setCachePreparedStatements(cacheMaxSize > 0);
+    if (cacheMaxSize > 0) {
+      pgConnectOptions.setPreparedStatementCacheMaxSize(cacheMaxSize);
+      pgConnectOptions.setPreparedStatementCacheSqlLimit(sqlConfig.getInteger(PREPARED_STATEMENT_CACHE_SQL_LIMIT,
+          DEFAULT_PREPARED_STATEMENT_CACHE_SQL_LIMIT));
+    }
     return pgConnectOptions;
   }
 
@@ -488,18 +696,57 @@ public class PostgresClient {
       startEmbeddedPostgres();
     }
 
-    client = createPgPool(vertx, postgreSQLClientConfig);
+    int maxPoolSize = postgreSQLClientConfig.getInteger(MAX_POOL_SIZE, DEFAULT_MAX_POOL_SIZE);
+    maxWaitQueueSize = postgreSQLClientConfig.getInteger(MAX_WAIT_QUEUE_SIZE, -1);
+    Integer maxSharedPoolSize = postgreSQLClientConfig.getInteger(MAX_SHARED_POOL_SIZE);
+    if (maxSharedPoolSize == null) {
+      metrics = new PgPoolMetrics(tenantId, maxPoolSize, null);
+      client = createPgPool(vertx, postgreSQLClientConfig);
+      int connectionReleaseDelay =
+          postgreSQLClientConfig.getInteger(CONNECTION_RELEASE_DELAY, DEFAULT_CONNECTION_RELEASE_DELAY);
+      if (connectionReleaseDelay > 0) {
+        idleTimerId = vertx.setPeriodic(connectionReleaseDelay, id -> closeIdleConnections(connectionReleaseDelay));
+      }
+      return;
+    }
+    // the shared PgPool connects with the credentials of the module's database user
+    JsonObject moduleConfig = tenantId.equals(DEFAULT_SCHEMA)
+        ? postgreSQLClientConfig : getPostgreSQLClientConfig(DEFAULT_SCHEMA, null, Envs.allDBConfs());
+    sharedPgPool = SharedPgPool.getInstance(vertx, moduleConfig, maxSharedPoolSize);
+    metrics = new PgPoolMetrics(tenantId, maxPoolSize, sharedPgPool.getMetrics());
+    permits = maxPoolSize;
+    client = sharedPgPool.getPool();
   }
 
   static PgPool createPgPool(Vertx vertx, JsonObject configuration) {
     PgConnectOptions connectOptions = createPgConnectOptions(configuration);
 
     PoolOptions poolOptions = new PoolOptions();
-    poolOptions.setMaxSize(configuration.getInteger(MAX_POOL_SIZE, 4));
+    poolOptions.setMaxSize(configuration.getInteger(MAX_POOL_SIZE, DEFAULT_MAX_POOL_SIZE));
+    poolOptions.setMaxWaitQueueSize(configuration.getInteger(MAX_WAIT_QUEUE_SIZE, -1));
 
     return PgPool.pool(vertx, connectOptions, poolOptions);
   }
 
+  /**
+   * Close the connections of this instance's own PgPool if all of them have been idle for at
+   * least connectionReleaseDelay milliseconds. This is done by replacing the PgPool by a new PgPool
+   * that opens connections on demand.
+   */
+  void closeIdleConnections(long connectionReleaseDelay) {
+    PgPool idlePool;
+    synchronized (this) {
+      if (client == null || sharedPgPool != null || ! metrics.isIdleFor(connectionReleaseDelay)) {
+        return;
+      }
+      idlePool = client;
+      client = createPgPool(vertx, postgreSQLClientConfig);
+      metrics.poolReplaced();
+    }
+    log.debug("Closing idle connections of " + tenantId);
+    idlePool.close();
+  }
+
   /**
    * Get PostgreSQL configuration, invokes setIsEmbedded(true) if needed.
    * @return configuration for PostgreSQL
@@ -539,6 +786,18 @@ public class PostgresClient {
     if (v instanceof Long) {
       PostgresClient.setExplainQueryThreshold((Long) v);
     }
+    v = config.remove(Envs.DB_EXECUTE_BATCH_SIZE.name());
+    if (v instanceof Integer) {
+      PostgresClient.setExecuteBatchSize((Integer) v);
+    }
+    v = config.remove(Envs.DB_COUNT_CACHE_TTL.name());
+    if (v instanceof Long) {
+      PostgresClient.setCountCacheTtl((Long) v);
+    }
+    v = config.remove(Envs.DB_INDEX_BUILD_PARALLELISM.name());
+    if (v instanceof Integer) {
+      PostgresClient.setIndexBuildParallelism((Integer) v);
+    }
     if (tenantId.equals(DEFAULT_SCHEMA)) {
       config.put(PASSWORD, decodePassword( config.getString(PASSWORD) ));
     } else {
@@ -673,7 +932,12 @@ public class PostgresClient {
         done.handle(Future.failedFuture(trans.cause()));
         return;
       }
-      trans.result().tx.commit(res -> finalizeTx(res, trans.result().conn, done));
+      trans.result().tx.commit(res -> {
+        if (res.succeeded()) {
+          schemaWritten();
+        }
+        finalizeTx(res, trans.result().conn, done);
+      });
     } catch (Exception e) {
       done.handle(Future.failedFuture(e));
     }
@@ -924,6 +1188,7 @@ public class PostgresClient {
           convertEntity ? pojo2JsonObject(entity) : ((JsonArray)entity).getString(0)
       ), query -> {
         statsTracker(SAVE_STAT_METHOD, table, start);
+        tableWritten(table);
         if (query.failed()) {
           replyHandler.handle(Future.failedFuture(query.cause()));
         } else {
@@ -967,6 +1232,7 @@ public class PostgresClient {
           Tuple.of(id == null ? UUID.randomUUID() : UUID.fromString(id),
           pojo2JsonObject(entity)), query -> {
         statsTracker(SAVE_STAT_METHOD, table, start);
+        tableWritten(table);
         if (query.failed()) {
           log.error(query.cause().getMessage(), query.cause());
           replyHandler.handle(Future.failedFuture(query.cause()));
@@ -1081,23 +1347,19 @@ public class PostgresClient {
         return;
       }
       PgConnection connection = sqlConnection.result().conn;
-
-      connection.preparedQuery(sql).executeBatch(batch, queryRes -> {
-        if (queryRes.failed()) {
-          log.error("saveBatch size=" + batch.size()
-                  + SPACE
-                  + queryRes.cause().getMessage(),
-              queryRes.cause());
-          statsTracker("saveBatchFailed", table, start);
-          replyHandler.handle(Future.failedFuture(queryRes.cause()));
+      if (! isSetWiseBatch(table)) {
+        saveBatchRowWise(connection, sql, table, batch, start, replyHandler);
+        return;
+      }
+      hasSetWiseBatchFunction(connection, table).onComplete(exists -> {
+        if (exists.succeeded() && Boolean.TRUE.equals(exists.result())) {
+          saveBatchSetWise(connection, upsert, table, batch, start, replyHandler);
           return;
         }
-        statsTracker("saveBatch", table, start);
-        if (queryRes.result() != null) {
-          replyHandler.handle(Future.succeededFuture(queryRes.result()));
-        } else {
-          replyHandler.handle(Future.succeededFuture(new LocalRowSet(0)));
+        if (exists.failed()) {
+          log.warn(exists.cause().getMessage(), exists.cause());
         }
+        saveBatchRowWise(connection, sql, table, batch, start, replyHandler);
       });
     } catch (Exception e) {
       log.error(e.getMessage(), e);
@@ -1105,6 +1367,130 @@ public class PostgresClient {
     }
   }
 
+  private void saveBatchRowWise(PgConnection connection, String sql, String table,
+      List<Tuple> batch, long start, Handler<AsyncResult<RowSet<Row>>> replyHandler) {
+
+    connection.preparedQuery(sql).executeBatch(batch, queryRes -> {
+      tableWritten(table);
+      if (queryRes.failed()) {
+        log.error("saveBatch size=" + batch.size()
+                + SPACE
+                + queryRes.cause().getMessage(),
+            queryRes.cause());
+        statsTracker("saveBatchFailed", table, start);
+        replyHandler.handle(Future.failedFuture(queryRes.cause()));
+        return;
+      }
+      statsTracker("saveBatch", table, start);
+      if (queryRes.result() != null) {
+        replyHandler.handle(Future.succeededFuture(queryRes.result()));
+      } else {
+        replyHandler.handle(Future.succeededFuture(new LocalRowSet(0)));
+      }
+    });
+  }
+
+  /**
+   * Whether the table_save_batch function of set_wise_batch.ftl exists in this tenant's schema.
+   * It doesn't exist if the tenant hasn't been upgraded to a module version with
+   * "withSetWiseBatch": true yet.
+   *
+   * <p>Only an existing function is cached, a missing function is looked up again on the next call.
+   */
+  Future<Boolean> hasSetWiseBatchFunction(PgConnection connection, String table) {
+    String function = table.toLowerCase(Locale.ROOT) + "_save_batch";
+    String key = schemaName + DOT + function;
+    if (setWiseBatchFunctions.contains(key)) {
+      return Future.succeededFuture(true);
+    }
+    return connection.preparedQuery("SELECT EXISTS (SELECT 1 FROM pg_catalog.pg_proc p "
+        + "JOIN pg_catalog.pg_namespace n ON n.oid = p.pronamespace WHERE n.nspname = $1 AND p.proname = $2)")
+    .execute(Tuple.of(schemaName, function))
+    .map(rowSet -> {
+      boolean exists = rowSet.iterator().next().getBoolean(0);
+      if (exists) {
+        setWiseBatchFunctions.add(key);
+      }
+      return exists;
+    });
+  }
+
+  /**
+   * Insert or upsert the batch with a single statement that calls the table_save_batch function
+   * of set_wise_batch.ftl. It maintains metadata and optimistic locking version for all records
+   * at once, the row triggers for these are skipped.
+   *
+   * <p>The result has the same shape as the result of the row-wise executeBatch: one RowSet
+   * with the id for each record in batch order, chained by {@link RowSet#next()}.
+   */
+  private void saveBatchSetWise(PgConnection connection, boolean upsert, String table,
+      List<Tuple> batch, long start, Handler<AsyncResult<RowSet<Row>>> replyHandler) {
+
+    JsonArray records = new JsonArray(new ArrayList<>(batch.size()));
+    for (Tuple tuple : batch) {
+      records.add(((JsonObject) tuple.getValue(1)).put(ID_FIELD, tuple.getUUID(0).toString()));
+    }
+    String sql = SELECT + "id" + FROM + schemaName + DOT + table + "_save_batch($1, " + upsert + ") AS id";
+    connection.preparedQuery(sql).execute(Tuple.of(records), queryRes -> {
+      tableWritten(table);
+      if (queryRes.failed()) {
+        if (PgExceptionUtil.isUndefinedFunction(queryRes.cause())) {
+          // dropped since the lookup, for example by a module downgrade
+          setWiseBatchFunctions.remove(schemaName + DOT + table.toLowerCase(Locale.ROOT) + "_save_batch");
+        }
+        log.error("saveBatch size=" + batch.size()
+                + SPACE
+                + queryRes.cause().getMessage(),
+            queryRes.cause());
+        statsTracker("saveBatchFailed", table, start);
+        replyHandler.handle(Future.failedFuture(queryRes.cause()));
+        return;
+      }
+      statsTracker("saveBatch", table, start);
+      replyHandler.handle(Future.succeededFuture(rowSetPerRow(queryRes.result())));
+    });
+  }
+
+  /**
+   * Split the rowSet into RowSets of one row each, chained by {@link RowSet#next()}, like
+   * executeBatch returns them.
+   *
+   * @return the first RowSet, an empty RowSet if rowSet has no rows
+   */
+  static RowSet<Row> rowSetPerRow(RowSet<Row> rowSet) {
+    List<String> columns = rowSet.columnsNames();
+    LocalRowSet first = null;
+    LocalRowSet last = null;
+    for (Row row : rowSet) {
+      LocalRowSet single = new LocalRowSet(1).withColumns(columns).withRows(Collections.singletonList(row));
+      if (first == null) {
+        first = single;
+      } else {
+        last.withNext(single);
+      }
+      last = single;
+    }
+    return first == null ? new LocalRowSet(0).withColumns(columns) : first;
+  }
+
+  /**
+   * @return true if the table has "withSetWiseBatch": true in schema.json, false if not or
+   *     if schema.json cannot be read
+   */
+  static boolean isSetWiseBatch(String table) {
+    return setWiseBatchTables.computeIfAbsent(table.toLowerCase(Locale.ROOT), PostgresClient::loadSetWiseBatch);
+  }
+
+  private static boolean loadSetWiseBatch(String tableName) {
+    try {
+      Table table = CachedDbSchema.get(SCHEMA_JSON).getTable(tableName);
+      return table != null && table.isWithSetWiseBatch();
+    } catch (IOException | UncheckedIOException e) {
+      log.debug("No set-wise batch, cannot read " + SCHEMA_JSON + ": " + e.getMessage());
+      return false;
+    }
+  }
+
   /***
    * Save a list of POJOs.
    * POJOs are converted to a JSON String and saved in a single INSERT call.
@@ -1192,6 +1578,55 @@ public class PostgresClient {
     }
   }
 
+  /**
+   * Insert the entities of a stream into table, for large imports.
+   *
+   * <p>The entities are staged in chunks of {@link BulkLoader#CHUNK_SIZE} in a temporary table and
+   * merged into table at the end, all within a single transaction. The stream is paused while a chunk is
+   * written, therefore the whole batch never sits in heap.
+   *
+   * <p>Entities whose id already exists in table, and entities that cannot be converted into JSON or
+   * have an invalid id are rejected, see {@link BulkLoadResult#getRejected()}.
+   *
+   * <p>Call {@link MetadataUtil#populateMetadata(List, Map)} before if applicable.
+   *
+   * @param table  destination table to insert into
+   * @param entities  each element is a POJO or a JsonObject; a random id is generated if id is missing
+   * @return the number of received, loaded and rejected entities and the throughput
+   */
+  public <T> Future<BulkLoadResult> bulkLoad(String table, ReadStream<T> entities) {
+    return bulkLoad(/* upsert */ false, table, entities);
+  }
+
+  /**
+   * Upsert the entities of a stream into table, for large imports.
+   *
+   * <p>Like {@link #bulkLoad(String, ReadStream)} but if a record with the id already exists it is
+   * updated. If an id occurs more than once in the stream the last entity wins.
+   *
+   * @param table  destination table to insert into
+   * @param entities  each element is a POJO or a JsonObject; a random id is generated if id is missing
+   * @return the number of received, loaded and rejected entities and the throughput
+   */
+  public <T> Future<BulkLoadResult> bulkUpsert(String table, ReadStream<T> entities) {
+    return bulkLoad(/* upsert */ true, table, entities);
+  }
+
+  private <T> Future<BulkLoadResult> bulkLoad(boolean upsert, String table, ReadStream<T> entities) {
+    long start = System.nanoTime();
+    return withTransaction(conn ->
+        new BulkLoader<T>(conn, schemaName + DOT + table, upsert, BulkLoader.CHUNK_SIZE).load(entities))
+    .onComplete(x -> tableWritten(table))
+    .onSuccess(result -> {
+      statsTracker("bulkLoad", table, start);
+      log.info("bulkLoad " + table + SPACE + result);
+    })
+    .onFailure(e -> {
+      statsTracker("bulkLoadFailed", table, start);
+      log.error("bulkLoad " + table + SPACE + e.getMessage(), e);
+    });
+  }
+
   /**
    * update a specific record associated with the key passed in the id arg
    * @param table - table to save to (must exist)
@@ -1200,9 +1635,41 @@ public class PostgresClient {
    * @param replyHandler
    */
   public void update(String table, Object entity, String id, Handler<AsyncResult<RowSet<Row>>> replyHandler) {
-    StringBuilder where = new StringBuilder().append(WHERE).append(ID_FIELD).append('=');
-    SqlUtil.Cql2PgUtil.appendQuoted(id, where);  // proper masking prevents SQL injection
-    update(table, entity, DEFAULT_JSONB_FIELD_NAME, where.toString(), false, replyHandler);
+    getSQLConnection(conn -> update(conn, table, entity, id, closeAndHandleResult(conn, replyHandler)));
+  }
+
+  /**
+   * Update the record with the id. The SQL text doesn't depend on the id so that the
+   * prepared statement is reused.
+   * @param conn  where to run, can be within a transaction
+   * @param table  table to save to (must exist)
+   * @param entity  pojo to save
+   * @param id  key of the entity being updated
+   * @param replyHandler  the result
+   */
+  public void update(AsyncResult<SQLConnection> conn, String table, Object entity, String id,
+      Handler<AsyncResult<RowSet<Row>>> replyHandler) {
+    if (conn.failed()) {
+      replyHandler.handle(Future.failedFuture(conn.cause()));
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      String sql = UPDATE + schemaName + DOT + table + SET + DEFAULT_JSONB_FIELD_NAME + " = $1::jsonb"
+          + WHERE + ID_FIELD + " = $2";
+      conn.result().conn.preparedQuery(sql)
+      .execute(Tuple.of(pojo2JsonObject(entity), UUID.fromString(id)), query -> {
+        if (query.failed()) {
+          log.error(query.cause().getMessage(), query.cause());
+        }
+        statsTracker(UPDATE_STAT_METHOD, table, start);
+        tableWritten(table);
+        replyHandler.handle(query);
+      });
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      replyHandler.handle(Future.failedFuture(e));
+    }
   }
 
   /**
@@ -1312,6 +1779,7 @@ public class PostgresClient {
           log.error(query.cause().getMessage(), query.cause());
         }
         statsTracker(UPDATE_STAT_METHOD, table, start);
+        tableWritten(table);
         replyHandler.handle(query);
       });
     } catch (Exception e) {
@@ -1377,6 +1845,7 @@ public class PostgresClient {
           connection.query(q).execute(query -> {
             connection.close();
             statsTracker(UPDATE_STAT_METHOD, table, start);
+            tableWritten(table);
             if (query.failed()) {
               log.error(query.cause().getMessage(), query.cause());
               replyHandler.handle(Future.failedFuture(query.cause()));
@@ -1422,9 +1891,14 @@ public class PostgresClient {
         replyHandler.handle(Future.failedFuture(connection.cause()));
         return;
       }
+      long start = System.nanoTime();
       connection.result().conn.preparedQuery(
           "DELETE FROM " + schemaName + DOT + table + WHERE + ID_FIELD + "=$1")
-          .execute(Tuple.of(UUID.fromString(id)), replyHandler);
+          .execute(Tuple.of(UUID.fromString(id)), delete -> {
+            statsTracker(DELETE_STAT_METHOD, table, start);
+            tableWritten(table);
+            replyHandler.handle(delete);
+          });
     } catch (Exception e) {
       replyHandler.handle(Future.failedFuture(e));
     }
@@ -1504,6 +1978,7 @@ public class PostgresClient {
       log.debug("delete by entity, query = " + sql + "; $1=" + entity);
       connection.result().conn.preparedQuery(sql).execute(Tuple.of(pojo2JsonObject(entity)), delete -> {
         statsTracker(DELETE_STAT_METHOD, table, start);
+        tableWritten(table);
         if (delete.failed()) {
           log.error(delete.cause().getMessage(), delete.cause());
           replyHandler.handle(Future.failedFuture(delete.cause()));
@@ -1528,6 +2003,7 @@ public class PostgresClient {
       }
       connection.result().conn.query(sql).execute(query -> {
         statsTracker(DELETE_STAT_METHOD, table, start);
+        tableWritten(table);
         if (query.failed()) {
           log.error(query.cause().getMessage(), query.cause());
           replyHandler.handle(Future.failedFuture(query.cause()));
@@ -1614,6 +2090,10 @@ public class PostgresClient {
     List<FacetField> facets;
     String selectQuery;
     String countQuery;
+    /** the {@link FacetQuery}, null if no facets are requested */
+    String facetQuery;
+    /** whether the result of countQuery may be taken from and stored in the {@link CountCache} */
+    boolean cacheCount;
     int offset;
     int limit;
     public QueryHelper(String table) {
@@ -1624,9 +2104,14 @@ public class PostgresClient {
   static class TotaledResults {
     final RowSet<Row> set;
     final Integer estimatedTotal;
+    final List<Facet> facets;
     public TotaledResults(RowSet<Row> set, Integer estimatedTotal) {
+      this(set, estimatedTotal, Collections.emptyList());
+    }
+    public TotaledResults(RowSet<Row> set, Integer estimatedTotal, List<Facet> facets) {
       this.set = set;
       this.estimatedTotal = estimatedTotal;
+      this.facets = facets;
     }
   }
 
@@ -1649,6 +2134,19 @@ public class PostgresClient {
     String fieldName, CQLWrapper wrapper, boolean returnCount, boolean returnIdField,
     List<FacetField> facets, String distinctOn, Handler<AsyncResult<Results<T>>> replyHandler
   ) {
+    doGet(conn, table, null, clazz, fieldName, wrapper, returnCount, returnIdField, facets, distinctOn,
+        replyHandler);
+  }
+
+  /**
+   * @param alias  name the table is referenced by in the query, null for the table name
+   */
+  @SuppressWarnings({"squid:S00107"})  // has more than 7 parameters
+  private <T> void doGet(
+    AsyncResult<SQLConnection> conn, String table, String alias, Class<T> clazz,
+    String fieldName, CQLWrapper wrapper, boolean returnCount, boolean returnIdField,
+    List<FacetField> facets, String distinctOn, Handler<AsyncResult<Results<T>>> replyHandler
+  ) {
 
     if (conn.failed()) {
       log.error(conn.cause().getMessage(), conn.cause());
@@ -1657,10 +2155,22 @@ public class PostgresClient {
     }
     PgConnection connection = conn.result().conn;
     try {
-      QueryHelper queryHelper = buildQueryHelper(table, fieldName, wrapper, returnIdField, facets, distinctOn);
-      Function<TotaledResults, Results<T>> resultSetMapper = totaledResults ->
-        processResults(totaledResults.set, totaledResults.estimatedTotal, queryHelper.offset, queryHelper.limit, clazz);
-      if (returnCount) {
+      QueryHelper queryHelper = buildQueryHelper(table, alias, fieldName, wrapper, returnIdField, facets, distinctOn);
+      if (conn.result().tx != null) {
+        // the count may contain uncommitted changes of the transaction
+        queryHelper.cacheCount = false;
+      }
+      boolean noTotalRecords = wrapper != null && wrapper.getTotalRecords() == TotalRecords.NONE;
+      Function<TotaledResults, Results<T>> resultSetMapper = totaledResults -> {
+        Results<T> results = processResults(totaledResults.set, totaledResults.estimatedTotal,
+            queryHelper.offset, queryHelper.limit, clazz);
+        results.getResultInfo().getFacets().addAll(totaledResults.facets);
+        if (noTotalRecords) {
+          results.getResultInfo().setTotalRecords(null);
+        }
+        return results;
+      };
+      if (returnCount && ! noTotalRecords) {
         processQueryWithCount(connection, queryHelper, GET_STAT_METHOD, resultSetMapper, replyHandler);
       } else {
         processQuery(connection, queryHelper, null, GET_STAT_METHOD, resultSetMapper, replyHandler);
@@ -1868,6 +2378,7 @@ public class PostgresClient {
     try {
       QueryHelper queryHelper = buildQueryHelper(table,
         fieldName, wrapper, returnIdField, facets, distinctOn);
+      Future<List<Facet>> facetFuture = startFacetQuery(connection.conn, queryHelper);
       connection.conn.query(queryHelper.countQuery).execute(countQueryResult -> {
         if (countQueryResult.failed()) {
           replyHandler.handle(Future.failedFuture(countQueryResult.cause()));
@@ -1875,7 +2386,15 @@ public class PostgresClient {
         }
         ResultInfo resultInfo = new ResultInfo();
         resultInfo.setTotalRecords(countQueryResult.result().iterator().next().getInteger(0));
-        doStreamGetQuery(connection, queryHelper, resultInfo, clazz, replyHandler);
+        facetFuture.onComplete(facetResult -> {
+          if (facetResult.failed()) {
+            log.error("facet query: " + facetResult.cause().getMessage(), facetResult.cause());
+            replyHandler.handle(Future.failedFuture(facetResult.cause()));
+            return;
+          }
+          resultInfo.getFacets().addAll(facetResult.result());
+          doStreamGetQuery(connection, queryHelper, resultInfo, clazz, replyHandler);
+        });
       });
     } catch (Exception e) {
       log.error(e.getMessage(), e);
@@ -1904,7 +2423,9 @@ public class PostgresClient {
   private <T> void executeGetQuery(SQLConnection connection, QueryHelper queryHelper,
       ResultInfo resultInfo, Class<T> clazz,
       Handler<AsyncResult<PostgresClientStreamResult<T>>> replyHandler, Transaction transaction) {
+    long start = System.nanoTime();
     connection.conn.prepare(queryHelper.selectQuery, prepareRes -> {
+      statsTracker(PREPARE_STAT_METHOD, queryHelper.table, queryHelper.selectQuery, start);
       if (prepareRes.failed()) {
         closeIfNonNull(transaction).onComplete(ignore -> {
           log.error(prepareRes.cause().getMessage(), prepareRes.cause());
@@ -1949,17 +2470,17 @@ public class PostgresClient {
     Promise<PostgresClientStreamResult<T>> promise = Promise.promise();
     ResultsHelper<T> resultsHelper = new ResultsHelper<>(clazz);
     boolean isAuditFlavored = isAuditFlavored(resultsHelper.clazz);
-    Map<String, Method> externalColumnSetters = new HashMap<>();
+    AtomicReference<Map<String, Method>> externalColumnSetters = new AtomicReference<>(Collections.emptyMap());
     AtomicInteger resultCount = new AtomicInteger();
     rowStream.handler(r -> {
       try {
         // for first row, get column names
         if (resultsHelper.offset == 0) {
           List<String> columnNames = getColumnNames(r);
-          collectExternalColumnSetters(columnNames,
-              resultsHelper.clazz, isAuditFlavored, externalColumnSetters);
+          externalColumnSetters.set(getExternalColumnSetters(columnNames,
+              resultsHelper.clazz, isAuditFlavored));
         }
-        T objRow = (T) deserializeRow(resultsHelper, externalColumnSetters, isAuditFlavored, r);
+        T objRow = (T) deserializeRow(resultsHelper, externalColumnSetters.get(), isAuditFlavored, r);
         if (!resultsHelper.facet) {
           resultCount.incrementAndGet();
           if (!promise.future().isComplete()) { // end of facets (if any) .. produce result
@@ -2013,7 +2534,19 @@ public class PostgresClient {
   QueryHelper buildQueryHelper(
     String table, String fieldName, CQLWrapper wrapper,
     boolean returnIdField, List<FacetField> facets,
-    String distinctOn) throws IOException, TemplateException {
+    String distinctOn) {
+
+    return buildQueryHelper(table, null, fieldName, wrapper, returnIdField, facets, distinctOn);
+  }
+
+  /**
+   * @param alias  name the table is referenced by in the queries, null for the table name;
+   *   {@link QueryHelper#table} is the table name for statistics and the {@link CountCache}
+   */
+  QueryHelper buildQueryHelper(
+    String table, String alias, String fieldName, CQLWrapper wrapper,
+    boolean returnIdField, List<FacetField> facets,
+    String distinctOn) {
 
     if (wrapper == null) {
       wrapper = new CQLWrapper();
@@ -2031,6 +2564,7 @@ public class PostgresClient {
     }
 
     QueryHelper queryHelper = new QueryHelper(table);
+    String from = schemaName + DOT + table + (alias == null ? "" : " AS " + alias);
 
     String countOn = "*";
     String distinctOnClause = "";
@@ -2039,17 +2573,16 @@ public class PostgresClient {
       countOn = String.format("DISTINCT(%s)", distinctOn);
     }
     queryHelper.selectQuery = SELECT + distinctOnClause + fieldName + addIdField
-      + FROM + schemaName + DOT + table + SPACE + wrapper.toString();
+      + FROM + from + SPACE + wrapper.toString();
     queryHelper.countQuery = SELECT + "COUNT(" + countOn + ")"
-      + FROM + schemaName + DOT + table + SPACE + wrapper.getWhereClause();
+      + FROM + from + SPACE + wrapper.getWhereClause();
 
     if (facets != null && !facets.isEmpty()) {
       String mainQuery = SELECT + distinctOnClause + fieldName + addIdField
-          + FROM + schemaName + DOT + table + SPACE + wrapper.getWithoutLimOff();
-
-      FacetManager facetManager = buildFacetManager(wrapper, queryHelper, mainQuery, facets);
-      // this method call invokes freemarker templating
-      queryHelper.selectQuery = facetManager.generateFacetQuery();
+          + FROM + from + SPACE + wrapper.getWithoutLimOff();
+      boolean unfiltered = wrapper.getWhereClause().isEmpty() && distinctOnClause.isEmpty();
+      queryHelper.facets = facets;
+      queryHelper.facetQuery = FacetQuery.build(schemaName, table, mainQuery, unfiltered, facets);
     }
     int offset = wrapper.getOffset().get();
     if (offset != -1) {
@@ -2059,9 +2592,10 @@ public class PostgresClient {
     queryHelper.limit = limit != -1 ? limit : Integer.MAX_VALUE;
     // with where, but without order by, offset, limit
     String query = SELECT + distinctOnClause + fieldName + addIdField
-        + FROM + schemaName + DOT + table + SPACE + wrapper.getWhereClause();
-    if (limit == 0) {
-      // calculate exact total count without returning records
+        + FROM + from + SPACE + wrapper.getWhereClause();
+    boolean exact = wrapper.getTotalRecords() == TotalRecords.EXACT;
+    if (limit == 0 || (exact && !wrapper.getWhereClause().isEmpty())) {
+      // calculate exact total count
       queryHelper.countQuery = SELECT + "count(*) FROM (" + query + ") x";
     } else if (!wrapper.getWhereClause().isEmpty()) {
       // only do estimation when filter is in use (such as CQL).
@@ -2069,6 +2603,8 @@ public class PostgresClient {
         + org.apache.commons.lang.StringEscapeUtils.escapeSql(query)
         + "')";
     }
+    // exact counts are not cached, see the exact count guarantee in the README
+    queryHelper.cacheCount = limit != 0 && ! exact;
     return queryHelper;
   }
 
@@ -2077,6 +2613,16 @@ public class PostgresClient {
     Function<TotaledResults, T> resultSetMapper, Handler<AsyncResult<T>> replyHandler) {
     long start = System.nanoTime();
 
+    if (queryHelper.cacheCount) {
+      Integer cachedTotal = CountCache.get(schemaName, queryHelper.table, queryHelper.countQuery);
+      if (cachedTotal != null) {
+        log.debug("Using cached count: " + cachedTotal + " - " + queryHelper.countQuery);
+        processQuery(connection, queryHelper, cachedTotal, statMethod, resultSetMapper, replyHandler);
+        return;
+      }
+    }
+    Future<List<Facet>> facetFuture = startFacetQuery(connection, queryHelper);
+    long version = CountCache.version(schemaName, queryHelper.table);
     log.debug("Attempting count query: " + queryHelper.countQuery);
     connection.query(queryHelper.countQuery).execute(countQueryResult -> {
       try {
@@ -2088,11 +2634,15 @@ public class PostgresClient {
         }
 
         int estimatedTotal = countQueryResult.result().iterator().next().getInteger(0);
+        if (queryHelper.cacheCount) {
+          CountCache.put(schemaName, queryHelper.table, queryHelper.countQuery, version, estimatedTotal);
+        }
 
         long countQueryTime = (System.nanoTime() - start);
         log.debug("timer: get " + queryHelper.countQuery + " (ns) " + countQueryTime);
 
-        processQuery(connection, queryHelper, estimatedTotal, statMethod, resultSetMapper, replyHandler);
+        processQuery(connection, queryHelper, estimatedTotal, statMethod, resultSetMapper,
+            facetFuture, replyHandler);
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         replyHandler.handle(Future.failedFuture(e));
@@ -2105,12 +2655,43 @@ public class PostgresClient {
     Function<TotaledResults, T> resultSetMapper, Handler<AsyncResult<T>> replyHandler
   ) {
     try {
-      queryAndAnalyze(connection, queryHelper.selectQuery, statMethod, query -> {
+      Future<List<Facet>> facetFuture = startFacetQuery(connection, queryHelper);
+      processQuery(connection, queryHelper, estimatedTotal, statMethod, resultSetMapper,
+          facetFuture, replyHandler);
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      replyHandler.handle(Future.failedFuture(e));
+    }
+  }
+
+  /**
+   * @param facetFuture  the result of {@link #startFacetQuery(PgConnection, QueryHelper)}
+   */
+  private <T> void processQuery(
+    PgConnection connection, QueryHelper queryHelper, Integer estimatedTotal, String statMethod,
+    Function<TotaledResults, T> resultSetMapper, Future<List<Facet>> facetFuture,
+    Handler<AsyncResult<T>> replyHandler
+  ) {
+    try {
+      queryAndAnalyze(connection, queryHelper.selectQuery, statMethod, queryHelper.table, query -> {
         if (query.failed()) {
           replyHandler.handle(Future.failedFuture(query.cause()));
           return;
         }
-        replyHandler.handle(Future.succeededFuture(resultSetMapper.apply(new TotaledResults(query.result(), estimatedTotal))));
+        facetFuture.onComplete(facetResult -> {
+          if (facetResult.failed()) {
+            log.error("facet query: " + facetResult.cause().getMessage(), facetResult.cause());
+            replyHandler.handle(Future.failedFuture(facetResult.cause()));
+            return;
+          }
+          try {
+            replyHandler.handle(Future.succeededFuture(resultSetMapper.apply(
+                new TotaledResults(query.result(), estimatedTotal, facetResult.result()))));
+          } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            replyHandler.handle(Future.failedFuture(e));
+          }
+        });
       });
     } catch (Exception e) {
       log.error(e.getMessage(), e);
@@ -2118,21 +2699,19 @@ public class PostgresClient {
     }
   }
 
-  private FacetManager buildFacetManager(CQLWrapper wrapper, QueryHelper queryHelper,
-    String mainQuery, List<FacetField> facets) {
-
-    FacetManager fm = new FacetManager(schemaName + DOT + queryHelper.table);
-    if (wrapper.getWhereClause().isEmpty()) {
-      fm.setWhere(" " + wrapper.getWhereClause());
+  /**
+   * Send the facet query of queryHelper without waiting for the result so that it is
+   * pipelined with the count query and the select query on the same connection.
+   *
+   * @return the facets, an empty list if queryHelper has no facet query
+   */
+  private Future<List<Facet>> startFacetQuery(PgConnection connection, QueryHelper queryHelper) {
+    if (queryHelper.facetQuery == null) {
+      return Future.succeededFuture(Collections.emptyList());
     }
-    fm.setSupportFacets(facets);
-    fm.setIdField(ID_FIELD);
-    fm.setLimitClause(wrapper.getLimit().toString());
-    fm.setOffsetClause(wrapper.getOffset().toString());
-    fm.setMainQuery(mainQuery);
-    fm.setSchema(schemaName);
-    fm.setCountQuery(queryHelper.countQuery);
-    return fm;
+    log.debug("facet query: " + queryHelper.facetQuery);
+    return connection.query(queryHelper.facetQuery).execute()
+        .map(rowSet -> FacetQuery.toFacets(rowSet, queryHelper.facets));
   }
 
   /**
@@ -2230,6 +2809,22 @@ public class PostgresClient {
         closeAndHandleResult(conn, replyHandler)));
   }
 
+  /**
+   * Like {@link #get(String, Class, CQLWrapper, boolean, Handler)}, but the SELECT references the table
+   * by the alias, the SQL of the filter may use the alias instead of the table name.
+   * The statistics, metrics and the count cache use the table name.
+   *
+   * @param table  the table to read from
+   * @param alias  the name of the table in the SQL of the filter
+   */
+  <T> void getWithAlias(String table, String alias, Class<T> clazz, CQLWrapper filter, boolean returnCount,
+      Handler<AsyncResult<Results<T>>> replyHandler) {
+
+    getSQLConnection(conn
+      -> doGet(conn, table, alias, clazz, DEFAULT_JSONB_FIELD_NAME, filter, returnCount, true, null, null,
+        closeAndHandleResult(conn, replyHandler)));
+  }
+
   /**
    *
    * @param <T>
@@ -2287,6 +2882,82 @@ public class PostgresClient {
     get(table, clazz, new String[]{DEFAULT_JSONB_FIELD_NAME}, filter, returnCount, false /*setId*/, replyHandler);
   }
 
+  /**
+   * Get a page of records using keyset pagination, see {@link KeysetPagination}.
+   *
+   * <p>Unlike the offset based get methods this doesn't scan and discard the records of the
+   * previous pages, and no totalRecords count is calculated.
+   *
+   * @param table  the table to search in
+   * @param clazz  the class of the records
+   * @param filter  CQL query with optional sortBy, and the limit; the offset is ignored
+   * @param pageToken  {@link KeysetResults#getNextPageToken()} of the previous page, null for the first page
+   * @return the records and the token of the next page; fails with IllegalArgumentException if pageToken
+   *   is invalid or was created for a different sortBy
+   */
+  public <T> Future<KeysetResults<T>> getKeysetPage(String table, Class<T> clazz, CQLWrapper filter,
+      String pageToken) {
+
+    List<SqlSortKey> keys;
+    String sql;
+    int limit;
+    try {
+      limit = filter.getLimit().get();
+      if (limit == 0) {
+        throw new IllegalArgumentException("limit must not be 0 for keyset pagination");
+      }
+      keys = KeysetPagination.withIdTiebreaker(filter.getSortKeys());
+      String where = filter.getWhereClause();
+      if (where.startsWith("WHERE ")) {
+        where = where.substring("WHERE ".length());
+      }
+      if (pageToken != null) {
+        String after = KeysetPagination.afterPredicate(keys, KeysetPagination.decodeToken(keys, pageToken));
+        where = where.isEmpty() ? after : "(" + where + ") AND (" + after + ")";
+      }
+      sql = SELECT + DEFAULT_JSONB_FIELD_NAME + COMMA + KeysetPagination.selectKeys(keys)
+          + FROM + schemaName + DOT + table
+          + (where.isEmpty() ? "" : WHERE + where)
+          + " ORDER BY " + KeysetPagination.orderBy(keys)
+          // one more to know whether there is a next page
+          + (limit < 0 ? "" : " LIMIT " + (limit + 1));
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      return Future.failedFuture(e);
+    }
+    return select(sql).map(rowSet -> {
+      ObjectReader reader = mapper.readerFor(clazz);
+      List<T> list = new ArrayList<>();
+      List<String> lastValues = null;
+      RowIterator<Row> iterator = rowSet.iterator();
+      while (iterator.hasNext()) {
+        Row row = iterator.next();
+        if (list.size() == limit) {
+          KeysetResults<T> results = keysetResults(list);
+          results.setNextPageToken(KeysetPagination.encodeToken(keys, lastValues));
+          return results;
+        }
+        try {
+          list.add(reader.readValue(row.getValue(DEFAULT_JSONB_FIELD_NAME).toString()));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        lastValues = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+          lastValues.add(row.getString(KeysetPagination.KEY_COLUMN_PREFIX + i));
+        }
+      }
+      return keysetResults(list);
+    });
+  }
+
+  private static <T> KeysetResults<T> keysetResults(List<T> list) {
+    KeysetResults<T> results = new KeysetResults<>();
+    results.setResults(list);
+    results.setResultInfo(new ResultInfo());
+    return results;
+  }
+
   /**
    * @param setId - unused, the database trigger will always set jsonb->'id' automatically
    * @deprecated use {@link #get(String, Class, CQLWrapper, boolean, Handler)} instead.
@@ -2419,7 +3090,9 @@ public class PostgresClient {
           + WHERE + ID_FIELD + "= $1"
           + (lock ? " FOR UPDATE" : "");
       try {
+        long start = System.nanoTime();
         connection.preparedQuery(sql).execute(Tuple.of(UUID.fromString(id)), query -> {
+          statsTracker(GET_STAT_METHOD, table, start);
           if (query.failed()) {
             replyHandler.handle(Future.failedFuture(query.cause()));
             return;
@@ -2571,27 +3244,29 @@ public class PostgresClient {
       replyHandler.handle(Future.succeededFuture(Collections.emptyMap()));
       return;
     }
+    UUID [] uuids = new UUID [ids.size()];
+    try {
+      for (int i = 0; i < uuids.length; i++) {
+        uuids[i] = UUID.fromString(ids.getString(i));
+      }
+    } catch (Exception e) {
+      replyHandler.handle(Future.failedFuture(e));
+      return;
+    }
     getConnection(res -> {
       if (res.failed()) {
         replyHandler.handle(Future.failedFuture(res.cause()));
         return;
       }
-      Tuple list = Tuple.tuple();
-      for (int i = 0; i < ids.size(); i++) {
-        list.addUUID(UUID.fromString(ids.getString(i)));
-      }
-
       PgConnection connection = res.result();
-      StringBuilder sql = new StringBuilder()
-          .append(SELECT).append(ID_FIELD).append(", ").append(DEFAULT_JSONB_FIELD_NAME)
-          .append(FROM).append(schemaName).append(DOT).append(table)
-          .append(WHERE).append(ID_FIELD).append(" IN ($1");
-      for (int i = 2; i <= ids.size(); i++) {
-        sql.append(", $" + i);
-      }
-      sql.append(")");
-      connection.preparedQuery(sql.toString()).execute(list, query -> {
+      // a single array parameter: the same SQL text and prepared statement for any number of ids
+      String sql = SELECT + ID_FIELD + ", " + DEFAULT_JSONB_FIELD_NAME
+          + FROM + schemaName + DOT + table
+          + WHERE + ID_FIELD + " = ANY($1::uuid[])";
+      long start = System.nanoTime();
+      connection.preparedQuery(sql).execute(Tuple.tuple().addArrayOfUUID(uuids), query -> {
         connection.close();
+        statsTracker(GET_STAT_METHOD, table, start);
         if (query.failed()) {
           replyHandler.handle(Future.failedFuture(query.cause()));
           return;
@@ -2650,6 +3325,8 @@ public class PostgresClient {
     final Map<String, org.folio.rest.jaxrs.model.Facet> facets;
     final RowSet<Row> resultSet;
     final Class<T> clazz;
+    /** reads the jsonb column into clazz */
+    final ObjectReader reader;
     int total;
     int offset;
     boolean facet;
@@ -2658,6 +3335,7 @@ public class PostgresClient {
       this.facets = new HashMap<>();
       this.resultSet = resultSet;
       this.clazz= clazz;
+      this.reader = mapper.readerFor(clazz);
       this.total = total;
       this.offset = 0;
     }
@@ -2666,6 +3344,7 @@ public class PostgresClient {
       this.facets = new HashMap<>();
       this.resultSet = null;
       this.clazz= clazz;
+      this.reader = mapper.readerFor(clazz);
       this.offset = 0;
     }
   }
@@ -2678,7 +3357,7 @@ public class PostgresClient {
    *    1a. note that there is an attempt to map external (non jsonb) columns to fields in the pojo. for example,
    *    a column called update_date will attempt to map its value to a field called updateDate in the pojo. however,
    *    for this to happen, the query must select the update_date -> select id,jsonb,update_date from ....
-   * 2. a facet query returns 2 columns, a uuid and a jsonb column. the results of the query are returned as
+   * 2. a legacy facet query of FacetManager.generateFacetQuery() returns 2 columns, a uuid and a jsonb column. the results of the query are returned as
    * id and json rows. facets are returned as jsonb values:
    * {"facetValues": [{"count": 542,"value": "11 ed."}], "type": "name"}
    * (along with a static '00000000-0000-0000-0000-000000000000' uuid)
@@ -2713,7 +3392,7 @@ public class PostgresClient {
     results.setResults(resultsHelper.list);
     results.setResultInfo(resultInfo);
 
-    statsTracker(PROCESS_RESULTS_STAT_METHOD, clazz.getSimpleName(), start);
+    statsTracker(PROCESS_RESULTS_STAT_METHOD, null, clazz.getSimpleName(), start);
     return results;
   }
 
@@ -2728,12 +3407,10 @@ public class PostgresClient {
     }
     boolean isAuditFlavored = isAuditFlavored(resultsHelper.clazz);
 
-    Map<String, Method> externalColumnSetters = new HashMap<>();
-    collectExternalColumnSetters(
+    Map<String, Method> externalColumnSetters = getExternalColumnSetters(
         resultsHelper.resultSet.columnsNames(),
         resultsHelper.clazz,
-        isAuditFlavored,
-        externalColumnSetters
+        isAuditFlavored
     );
     RowIterator<Row> iterator = resultsHelper.resultSet.iterator();
     while (iterator.hasNext()) {
@@ -2767,11 +3444,9 @@ public class PostgresClient {
     resultsHelper.facet = false;
 
     if (!isAuditFlavored && jo != null) {
-      try {
-        // is this a facet entry - if so process it, otherwise will throw an exception
-        // and continue trying to map to the pojos
-        o =  mapper.readValue(jo.toString(), org.folio.rest.jaxrs.model.Facet.class);
-        org.folio.rest.jaxrs.model.Facet of = (org.folio.rest.jaxrs.model.Facet) o;
+      if (isFacetRow(row, jo)) {
+        org.folio.rest.jaxrs.model.Facet of =
+            mapper.readValue(jo.toString(), org.folio.rest.jaxrs.model.Facet.class);
         org.folio.rest.jaxrs.model.Facet facet = resultsHelper.facets.get(of.getType());
         if (facet == null) {
           resultsHelper.facets.put(of.getType(), of);
@@ -2779,10 +3454,9 @@ public class PostgresClient {
           facet.getFacetValues().add(of.getFacetValues().get(0));
         }
         resultsHelper.facet = true;
-        return o;
-      } catch (Exception e) {
-        o = mapper.readValue(jo.toString(), resultsHelper.clazz);
+        return of;
       }
+      o = resultsHelper.reader.readValue(jo.toString());
     } else {
       o = resultsHelper.clazz.newInstance();
     }
@@ -2792,6 +3466,34 @@ public class PostgresClient {
     return o;
   }
 
+  /**
+   * A facet row of a facet query generated by base_facet_query.ftl has the
+   * {@link #FACET_ROW_ID} in the id column and a jsonb like
+   * {"facetValues": [{"count": 542,"value": "11 ed."}], "type": "name"}
+   *
+   * <p>The id column is named after the idField of the FacetManager, therefore any column
+   * other than jsonb is checked, not only a column named id.
+   *
+   * @param row  the row
+   * @param jsonb  the value of the jsonb column of the row
+   * @return whether row is a facet row
+   */
+  static boolean isFacetRow(Row row, Object jsonb) {
+    if (! (jsonb instanceof JsonObject) || ! ((JsonObject) jsonb).containsKey("facetValues")) {
+      return false;
+    }
+    for (int i = 0; i < row.size(); i++) {
+      if (DEFAULT_JSONB_FIELD_NAME.equals(row.getColumnName(i))) {
+        continue;
+      }
+      Object id = row.getValue(i);
+      if (FACET_ROW_ID.equals(id) || FACET_ROW_ID.toString().equals(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * an exception to having the jsonb column and the fields within the json
    * get mapped to the corresponding clazz is a case where the
@@ -2805,16 +3507,36 @@ public class PostgresClient {
    * @return
    */
   <T> boolean isAuditFlavored(Class<T> clazz) {
-    boolean isAuditFlavored = false;
+    return auditFlavored.get(clazz);
+  }
+
+  private static boolean hasJsonbField(Class<?> clazz) {
     try {
       clazz.getDeclaredField(DEFAULT_JSONB_FIELD_NAME);
-      isAuditFlavored = true;
+      return true;
     } catch (NoSuchFieldException nse) {
       if (log.isDebugEnabled()) {
         log.debug("non audit table, no " + DEFAULT_JSONB_FIELD_NAME + " found in json");
       }
+      return false;
     }
-    return isAuditFlavored;
+  }
+
+  /**
+   * Same as {@link #collectExternalColumnSetters(List, Class, boolean, Map)} but the result is
+   * cached per class and list of column names.
+   *
+   * @return unmodifiable map of column name to setter
+   */
+  <T> Map<String, Method> getExternalColumnSetters(List<String> columnNames, Class<T> clazz,
+      boolean isAuditFlavored) {
+    return externalColumnSettersCache
+        .computeIfAbsent(clazz, c -> new ConcurrentHashMap<>())
+        .computeIfAbsent(new ArrayList<>(columnNames), names -> {
+          Map<String, Method> setters = new HashMap<>();
+          collectExternalColumnSetters(names, clazz, isAuditFlavored, setters);
+          return Collections.unmodifiableMap(setters);
+        });
   }
 
   /**
@@ -2933,15 +3655,28 @@ public class PostgresClient {
   static void queryAndAnalyze(PgConnection conn, String sql, String statMethod,
     Handler<AsyncResult<RowSet<Row>>> replyHandler) {
 
+    queryAndAnalyze(conn, sql, statMethod, null, replyHandler);
+  }
+
+  /**
+   * @param table  table for the metrics, null if unknown
+   */
+  static void queryAndAnalyze(PgConnection conn, String sql, String statMethod, String table,
+    Handler<AsyncResult<RowSet<Row>>> replyHandler) {
+
     long start = System.nanoTime();
     conn.query(sql).execute(res -> {
       long queryTime = (System.nanoTime() - start);
+      MetricsRegistry.recordSql(statMethod, table, queryTime);
       if (res.failed()) {
         log.error("queryAndAnalyze: " + res.cause().getMessage() + " - "
           + sql, res.cause());
         replyHandler.handle(Future.failedFuture(res.cause()));
         return;
       }
+      if (res.result() != null) {
+        MetricsRegistry.recordRows(statMethod, table, res.result().size());
+      }
       if (queryTime >= explainQueryThreshold * 1000000) {
         final String explainQuery = "EXPLAIN ANALYZE " + sql;
         conn.query(explainQuery).execute(explain -> {
@@ -3185,7 +3920,9 @@ public class PostgresClient {
       }
       final Transaction tx = conn.result().tx;
       final PgConnection pgConnection = conn.result().conn;
+      long start = System.nanoTime();
       pgConnection.prepare(sql, res -> {
+        statsTracker(PREPARE_STAT_METHOD, null, sql, start);
         if (res.failed()) {
           log.error(res.cause().getMessage(), res.cause());
           replyHandler.handle(Future.failedFuture(res.cause()));
@@ -3223,7 +3960,91 @@ public class PostgresClient {
    * Get vertx-pg-client connection
    */
   public Future<PgConnection> getConnection() {
-    return getClient().getConnection().map(sqlConnection -> (PgConnection) sqlConnection);
+    long start = System.nanoTime();
+    Promise<PgConnection> promise = Promise.promise();
+    metrics.waitStart();
+    if (sharedPgPool == null) {
+      acquireConnection(start, promise);
+      return promise.future();
+    }
+    // fair share: a tenant must not use more than maxPoolSize connections of the shared PgPool
+    Context context = Vertx.currentContext();
+    Runnable acquire = () -> acquireConnection(start, promise);
+    synchronized (this) {
+      if (permits <= 0) {
+        if (maxWaitQueueSize >= 0 && permitWaitQueue.size() >= maxWaitQueueSize) {
+          metrics.failed();
+          return Future.failedFuture("Connection pool of tenant " + tenantId
+              + " reached max wait queue size of " + maxWaitQueueSize);
+        }
+        permitWaitQueue.add(context == null ? acquire : () -> context.runOnContext(v -> acquire.run()));
+        return promise.future();
+      }
+      permits--;
+    }
+    acquire.run();
+    return promise.future();
+  }
+
+  private void acquireConnection(long start, Promise<PgConnection> promise) {
+    Future<SqlConnection> future;
+    try {
+      synchronized (this) {
+        future = getClient().getConnection();
+      }
+    } catch (RuntimeException e) {
+      future = Future.failedFuture(e);
+    }
+    future.onComplete(ar -> {
+      if (ar.failed()) {
+        metrics.failed();
+        releasePermit();
+        promise.fail(ar.cause());
+        return;
+      }
+      metrics.acquired(start);
+      MetricsRegistry.recordPoolWait(tenantId, System.nanoTime() - start);
+      if (ar.result() == null) {
+        metrics.released();
+        releasePermit();
+        promise.complete(null);
+        return;
+      }
+      PgConnection conn = ReleaseOnClose.wrap((PgConnection) ar.result(), () -> {
+        metrics.released();
+        releasePermit();
+      });
+      if (sharedPgPool == null) {
+        promise.complete(conn);
+        return;
+      }
+      String setRole = tenantId.equals(DEFAULT_SCHEMA)
+          ? "RESET ROLE; RESET search_path"
+          : "SET ROLE \"" + schemaName + "\"; SET search_path = \"$user\"";
+      conn.query(setRole).execute().onComplete(set -> {
+        if (set.failed()) {
+          conn.close();
+          promise.fail(set.cause());
+          return;
+        }
+        promise.complete(tenantId.equals(DEFAULT_SCHEMA) ? conn : RoleGuard.wrap(conn));
+      });
+    });
+  }
+
+  private void releasePermit() {
+    if (sharedPgPool == null) {
+      return;
+    }
+    Runnable next;
+    synchronized (this) {
+      next = permitWaitQueue.poll();
+      if (next == null) {
+        permits++;
+        return;
+      }
+    }
+    next.run();
   }
 
   /**
@@ -3302,6 +4123,7 @@ public class PostgresClient {
           .compose(
             res -> tx
               .commit()
+              .onSuccess(v -> schemaWritten())
               .flatMap(v -> Future.succeededFuture(res)),
             err -> tx
               .rollback()
@@ -3387,12 +4209,14 @@ public class PostgresClient {
       // more than optimization.. preparedQuery does not work for multiple SQL statements
       if (params.size() == 0) {
         connection.query(sql).execute(query -> {
-          statsTracker(EXECUTE_STAT_METHOD, sql, start);
+          statsTracker(EXECUTE_STAT_METHOD, null, sql, start);
+          schemaWritten();
           replyHandler.handle(query);
         });
       } else {
         connection.preparedQuery(sql).execute(params, query -> {
-          statsTracker(EXECUTE_STAT_METHOD, sql, start);
+          statsTracker(EXECUTE_STAT_METHOD, null, sql, start);
+          schemaWritten();
           replyHandler.handle(query);
         });
       }
@@ -3416,6 +4240,7 @@ public class PostgresClient {
    * @param sql - the sql to run
    * @param params - there is one list entry for each sql invocation containing the parameters for the placeholders.
    * @param replyHandler - reply handler with one UpdateResult for each list entry of params.
+   * @see #execute(PgConnection, String, List)
    */
   public void execute(AsyncResult<SQLConnection> conn, String sql, List<Tuple> params,
                       Handler<AsyncResult<List<RowSet<Row>>>> replyHandler) {
@@ -3424,34 +4249,83 @@ public class PostgresClient {
         replyHandler.handle(Future.failedFuture(conn.cause()));
         return;
       }
-      PgConnection sqlConnection = conn.result().conn;
-      List<RowSet<Row>> results = new ArrayList<>(params.size());
-      Iterator<Tuple> iterator = params.iterator();
-      Runnable task = new Runnable() {
-        @Override
-        public void run() {
-          if (! iterator.hasNext()) {
-            replyHandler.handle(Future.succeededFuture(results));
-            return;
-          }
-          Tuple params1 = iterator.next();
-          sqlConnection.preparedQuery(sql).execute(params1, query -> {
-            if (query.failed()) {
-              replyHandler.handle(Future.failedFuture(query.cause()));
-              return;
-            }
-            results.add(query.result());
-            this.run();
-          });
-        }
-      };
-      task.run();
+      execute(conn.result().conn, sql, params).onComplete(replyHandler);
     } catch (Exception e) {
       log.error(e.getMessage(), e);
       replyHandler.handle(Future.failedFuture(e));
     }
   }
 
+  /**
+   * Create a parameterized/prepared INSERT, UPDATE or DELETE statement and
+   * run it with a list of sets of parameters.
+   *
+   * <p>The parameter tuples are sent in batches of {@link #getExecuteBatchSize()} tuples,
+   * the tuples of a batch are pipelined without waiting for the result of the previous tuple.
+   *
+   * <p>Use {@link #withTransaction(Function)} to run it in a transaction:
+   * <pre>
+   *  postgresClient.withTransaction(conn -> postgresClient.execute(conn, sql, params))
+   * </pre>
+   *
+   * <p>A batch is atomic: Without a transaction each batch runs in its own transaction,
+   * PostgreSQL skips the remaining tuples of the batch after the first failing tuple, and
+   * the batches after a failed batch are not sent.
+   *
+   * <p>On failure of a tuple the cause is a {@link PgBatchException} with the index range of
+   * the tuples of the failed batch, it has the fields of the original PgException. Use
+   * {@link #setExecuteBatchSize(int)} with 1 to get the index of the failing tuple at the cost
+   * of one round trip per tuple. Other failures, for example a closed connection, are passed as is.
+   *
+   * @param conn - connection, for example from {@link #withTransaction(Function)}
+   * @param sql - the sql to run
+   * @param params - there is one list entry for each sql invocation containing the parameters for the placeholders.
+   * @return one RowSet for each list entry of params, in the same order
+   */
+  public Future<List<RowSet<Row>>> execute(PgConnection conn, String sql, List<Tuple> params) {
+    List<RowSet<Row>> results = new ArrayList<>(params.size());
+    int batchSize = executeBatchSize;
+    Future<Void> future = Future.succeededFuture();
+    for (int i = 0; i < params.size(); i += batchSize) {
+      int from = i;
+      int to = Math.min(params.size(), i + batchSize);
+      future = future.compose(x -> executeBatch(conn, sql, params.subList(from, to), from, results));
+    }
+    return future
+        .onComplete(x -> schemaWritten())
+        .map(x -> results);
+  }
+
+  /**
+   * Run sql with all tuples of batch in one pipelined batch, and append the RowSet of
+   * each tuple to results.
+   *
+   * @param offset  index of the first tuple of batch within all tuples
+   */
+  private Future<Void> executeBatch(PgConnection conn, String sql, List<Tuple> batch, int offset,
+      List<RowSet<Row>> results) {
+
+    long start = System.nanoTime();
+    int last = offset + batch.size() - 1;
+    return conn.preparedQuery(sql).executeBatch(batch)
+        .recover(e -> {
+          log.error("execute failed for the batch of tuples " + offset + " to " + last
+              + ": " + e.getMessage() + " - " + sql, e);
+          if (e instanceof PgException) {
+            return Future.failedFuture(new PgBatchException((PgException) e, offset, last));
+          }
+          return Future.failedFuture(e);
+        })
+        .map(rowSet -> {
+          statsTracker(EXECUTE_STAT_METHOD, null, sql, start);
+          // executeBatch returns one RowSet per tuple, chained by next()
+          for (RowSet<Row> next = rowSet; next != null; next = next.next()) {
+            results.add(next);
+          }
+          return null;
+        });
+  }
+
   /**
    * Create a parameterized/prepared INSERT, UPDATE or DELETE statement and
    * run it with a list of sets of parameters. Wrap all in a transaction.
@@ -3483,6 +4357,19 @@ public class PostgresClient {
     });
   }
 
+  /**
+   * Create a parameterized/prepared INSERT, UPDATE or DELETE statement and
+   * run it with a list of sets of parameters. Wrap all in a transaction.
+   *
+   * @param sql - the sql to run
+   * @param params - there is one list entry for each sql invocation containing the parameters for the placeholders.
+   * @return one RowSet for each list entry of params
+   * @see #execute(PgConnection, String, List)
+   */
+  public Future<List<RowSet<Row>>> execute(String sql, List<Tuple> params) {
+    return Future.future(promise -> execute(sql, params, promise));
+  }
+
   /**
    * For queries where you only want to populate the where clause
    * <br/>
@@ -3540,7 +4427,7 @@ public class PostgresClient {
    * <br/>
    * 3. To Refresh the table, DROP and Re-call this function
    * <br/>
-   * Use carefully, index support on created table to be added
+   * Use carefully, see {@link ResultCache} for a cache with time to live, refresh and indexes
    * @param cacheName - name of the table holding the results of the query
    * @param sql2cache - the sql query to use to populate the table
    * @param replyHandler
@@ -3562,7 +4449,7 @@ public class PostgresClient {
       log.info(q);
       connection.query(q).execute(
           query -> {
-            statsTracker("persistentlyCacheResult", "CREATE TABLE AS", start);
+            statsTracker("persistentlyCacheResult", null, "CREATE TABLE AS", start);
             if (query.failed()) {
               replyHandler.handle(Future.failedFuture(query.cause()));
             } else {
@@ -3589,7 +4476,7 @@ public class PostgresClient {
       long start = System.nanoTime();
       PgConnection connection = conn.result().conn;
       connection.query("DROP TABLE " + schemaName + DOT + cacheName).execute(query -> {
-        statsTracker("removePersistentCacheResult", "DROP TABLE " + cacheName, start);
+        statsTracker("removePersistentCacheResult", null, "DROP TABLE " + cacheName, start);
         if (query.failed()) {
           replyHandler.handle(Future.failedFuture(query.cause()));
         } else {
@@ -3730,7 +4617,7 @@ public class PostgresClient {
     log.info("Executing multiple statements with id " + Arrays.hashCode(sql));
     List<String> results = new LinkedList<>();
 
-    getInstance(vertx).getClient().getConnection()
+    getInstance(vertx).getConnection()
         .compose(conn -> conn.begin()
             .compose(tx -> {
               Future<Void> future = Future.succeededFuture();
@@ -3767,6 +4654,10 @@ public class PostgresClient {
           if (x.failed()) {
             log.error(x.cause().getMessage(), x.cause());
           }
+          // may change tables of any schema, unless rolled back
+          if (x.succeeded() && results.isEmpty()) {
+            CountCache.clear();
+          }
           logTimer(EXECUTE_STAT_METHOD, "" + Arrays.hashCode(sql), s);
           replyHandler.handle(Future.succeededFuture(results));
         });
@@ -0,0 +1,52 @@
+package org.folio.rest.persist;
+
+import io.vertx.pgclient.PgConnection;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wrap a PgConnection of a PgPool to get notified when the connection is closed
+ * and returned to the PgPool.
+ */
+final class ReleaseOnClose implements InvocationHandler {
+  private final PgConnection conn;
+  private final Runnable release;
+  private final AtomicBoolean released = new AtomicBoolean();
+  private PgConnection proxy;
+
+  private ReleaseOnClose(PgConnection conn, Runnable release) {
+    this.conn = conn;
+    this.release = release;
+  }
+
+  /**
+   * @param conn  the connection to wrap
+   * @param release  invoked on the first close of the connection
+   * @return a PgConnection that delegates to conn
+   */
+  static PgConnection wrap(PgConnection conn, Runnable release) {
+    ReleaseOnClose handler = new ReleaseOnClose(conn, release);
+    handler.proxy = (PgConnection) Proxy.newProxyInstance(PgConnection.class.getClassLoader(),
+        new Class<?>[] { PgConnection.class }, handler);
+    return handler.proxy;
+  }
+
+  @Override
+  public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+    Object result;
+    try {
+      result = method.invoke(conn, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    } finally {
+      if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+        release.run();
+      }
+    }
+    // fluent methods must not leak the unwrapped connection
+    return result == conn ? proxy : result;
+  }
+}
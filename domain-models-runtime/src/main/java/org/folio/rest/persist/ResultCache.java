@@ -0,0 +1,494 @@
+package org.folio.rest.persist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.model.CachedDbSchema;
+import org.folio.dbschema.Index;
+import org.folio.dbschema.Table;
+import org.folio.dbschema.util.SqlUtil;
+import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.interfaces.Results;
+import org.folio.rest.tools.monitor.MetricsRegistry;
+import org.z3950.zing.cql.CQLAndNode;
+import org.z3950.zing.cql.CQLBooleanNode;
+import org.z3950.zing.cql.CQLNode;
+import org.z3950.zing.cql.CQLParser;
+import org.z3950.zing.cql.CQLSortNode;
+import org.z3950.zing.cql.CQLTermNode;
+import org.z3950.zing.cql.ModifierSet;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.pgclient.PgConnection;
+
+/**
+ * Registry of named cached queries: each is an UNLOGGED snapshot table of a source table,
+ * like {@link PostgresClient#persistentlyCacheResult(String, String, Handler)}, but with a time to live,
+ * background refresh, indexes and transparent use by {@link PgUtil#get}.
+ *
+ * <p>The snapshot is built into a new table that atomically replaces the old table, readers
+ * of the old table are not blocked during the build. After the time to live the stale snapshot is still
+ * used while the refresh runs. A CQL query against the source table is answered from the snapshot
+ * if the snapshot has been built by this module instance, the query uses only the declared fields, and
+ * the query is the optional CQL filter of the cached query or starts with "filter AND".
+ *
+ * <p>Small results of routed queries are additionally kept in the heap of this module instance
+ * until the next refresh if the cached query has a heapMaxRows greater than 0.
+ *
+ * <p>The lookups are counted by {@link MetricsRegistry} as heap_hit, table_hit and miss.
+ */
+public final class ResultCache {
+  static final String SCHEMA_JSON = "templates/db_scripts/schema.json";
+  static final int HEAP_MAX_ENTRIES = 1000;
+  /** minimum time between two refresh attempts, for example when another module instance is building */
+  static final long RETRY_NANOS = 1000000000L;
+  static final String HEAP_HIT = "heap_hit";
+  static final String TABLE_HIT = "table_hit";
+  static final String MISS = "miss";
+
+  private static final Logger log = LogManager.getLogger(ResultCache.class);
+  /** source table name to cached query */
+  private static final Map<String, CachedQuery> registry = new ConcurrentHashMap<>();
+  /** schema.name to build state */
+  private static final Map<String, State> states = new ConcurrentHashMap<>();
+  private static final Map<String, HeapEntry> heap = new LinkedHashMap<String, HeapEntry>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, HeapEntry> eldest) {
+      return size() > HEAP_MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * Definition of a cached query.
+   */
+  public static final class CachedQuery {
+    private final String name;
+    private final String table;
+    private String cql;
+    private Set<String> fields = Collections.emptySet();
+    private long ttlMillis = 60000;
+    private int heapMaxRows;
+
+    /**
+     * @param name  name of the cache table, must not be the name of any other table
+     * @param table  the source table
+     */
+    public CachedQuery(String name, String table) {
+      SqlUtil.validateSqlIdentifier(name);
+      SqlUtil.validateSqlIdentifier(table);
+      this.name = name;
+      this.table = table;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getTable() {
+      return table;
+    }
+
+    public String getCql() {
+      return cql;
+    }
+
+    /**
+     * @param cql  CQL filter for the records of the snapshot, null for all records of the table
+     */
+    public CachedQuery setCql(String cql) {
+      this.cql = cql;
+      return this;
+    }
+
+    public Set<String> getFields() {
+      return fields;
+    }
+
+    /**
+     * The CQL fields that routed queries may use for search and sortBy. The cache table gets the
+     * indexes that schema.json declares for these fields of the source table.
+     */
+    public CachedQuery setFields(String... fields) {
+      this.fields = new HashSet<>(Arrays.asList(fields));
+      return this;
+    }
+
+    public long getTtlMillis() {
+      return ttlMillis;
+    }
+
+    /**
+     * @param ttlMillis  time after a build when the next query starts a background refresh, default 60000
+     */
+    public CachedQuery setTtlMillis(long ttlMillis) {
+      this.ttlMillis = ttlMillis;
+      return this;
+    }
+
+    public int getHeapMaxRows() {
+      return heapMaxRows;
+    }
+
+    /**
+     * @param heapMaxRows  maximum number of records of a result kept in the heap, 0 (default) disables the heap tier
+     */
+    public CachedQuery setHeapMaxRows(int heapMaxRows) {
+      this.heapMaxRows = heapMaxRows;
+      return this;
+    }
+  }
+
+  private static final class State {
+    /** System.nanoTime() of the last build, 0 if never built */
+    volatile long builtNanos;
+    /** System.nanoTime() of the last refresh start */
+    volatile long attemptNanos;
+    /** number of builds, the heap entries of an older generation are invalid */
+    volatile long generation;
+    final AtomicBoolean building = new AtomicBoolean();
+  }
+
+  private static final class HeapEntry {
+    final long generation;
+    final Class<?> clazz;
+    final Results<?> results;
+
+    HeapEntry(long generation, Class<?> clazz, Results<?> results) {
+      this.generation = generation;
+      this.clazz = clazz;
+      this.results = results;
+    }
+  }
+
+  private ResultCache() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Register the cached query, replacing any cached query of the same source table.
+   */
+  public static void register(CachedQuery cachedQuery) {
+    CachedQuery old = registry.put(cachedQuery.getTable(), cachedQuery);
+    if (old != null) {
+      forget(old);
+    }
+    clearHeap();
+  }
+
+  /**
+   * Stop using the cached query of the table. The cache tables are not dropped,
+   * use {@link PostgresClient#removePersistentCacheResult(String, Handler)}.
+   */
+  public static void unregister(String table) {
+    CachedQuery old = registry.remove(table);
+    if (old != null) {
+      forget(old);
+    }
+    clearHeap();
+  }
+
+  /**
+   * Forget the build states of the cached query, its snapshots need to be built again.
+   */
+  private static void forget(CachedQuery cachedQuery) {
+    states.keySet().removeIf(key -> key.endsWith("." + cachedQuery.getName()));
+  }
+
+  /**
+   * Unregister all cached queries and forget the build states.
+   */
+  static void clear() {
+    registry.clear();
+    states.clear();
+    clearHeap();
+  }
+
+  private static void clearHeap() {
+    synchronized (heap) {
+      heap.clear();
+    }
+  }
+
+  private static State state(PostgresClient postgresClient, CachedQuery cachedQuery) {
+    return states.computeIfAbsent(postgresClient.getSchemaName() + "." + cachedQuery.getName(), k -> new State());
+  }
+
+  /**
+   * Build the snapshot of the table's cached query now.
+   *
+   * @return true if built, false if another build of this snapshot is running
+   */
+  public static Future<Boolean> refresh(PostgresClient postgresClient, String table) {
+    CachedQuery cachedQuery = registry.get(table);
+    if (cachedQuery == null) {
+      return Future.failedFuture(new IllegalArgumentException("No cached query registered for table " + table));
+    }
+    State state = state(postgresClient, cachedQuery);
+    if (! state.building.compareAndSet(false, true)) {
+      return Future.succeededFuture(false);
+    }
+    state.attemptNanos = System.nanoTime();
+    return build(postgresClient, cachedQuery)
+        .map(built -> {
+          if (built) {
+            state.generation++;
+            state.builtNanos = System.nanoTime();
+          }
+          return built;
+        })
+        .onComplete(x -> state.building.set(false));
+  }
+
+  private static Future<Boolean> build(PostgresClient postgresClient, CachedQuery cachedQuery) {
+    String schema = postgresClient.getSchemaName();
+    String cacheTable = schema + "." + cachedQuery.getName();
+    String newTable = cachedQuery.getName() + "_new";
+    String where;
+    try {
+      where = cachedQuery.getCql() == null ? "" : " " + new CQLWrapper(
+          new CQL2PgJSON(cachedQuery.getTable() + ".jsonb"), cachedQuery.getCql()).getWhereClause();
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+    String select = "SELECT * FROM " + schema + "." + cachedQuery.getTable() + where;
+    List<String> indexes = indexes(cachedQuery, schema + "." + newTable);
+    return postgresClient.withTransaction(conn ->
+      // another module instance may build the same snapshot
+      conn.query("SELECT pg_try_advisory_xact_lock(hashtext('" + cacheTable + "'))").execute()
+      .compose(locked -> {
+        if (! Boolean.TRUE.equals(locked.iterator().next().getBoolean(0))) {
+          return Future.succeededFuture(false);
+        }
+        List<String> sqls = new ArrayList<>();
+        sqls.add("DROP TABLE IF EXISTS " + schema + "." + newTable);
+        sqls.add("CREATE UNLOGGED TABLE " + schema + "." + newTable + " AS " + select);
+        sqls.addAll(indexes);
+        sqls.add("ANALYZE " + schema + "." + newTable);
+        sqls.add("DROP TABLE IF EXISTS " + cacheTable);
+        sqls.add("ALTER TABLE " + schema + "." + newTable + " RENAME TO " + cachedQuery.getName());
+        return execute(conn, sqls).map(true);
+      }));
+  }
+
+  private static Future<Void> execute(PgConnection conn, List<String> sqls) {
+    Future<Void> future = Future.succeededFuture();
+    for (String sql : sqls) {
+      future = future.compose(x -> {
+        log.debug(sql);
+        return conn.query(sql).execute().mapEmpty();
+      });
+    }
+    return future;
+  }
+
+  /**
+   * CREATE INDEX statements for the declared fields, using the index definitions of the source table
+   * so that the SQL that CQL2PgJSON generates for the source table can use them.
+   */
+  static List<String> indexes(CachedQuery cachedQuery, String cacheTable) {
+    return indexes(cachedQuery, sourceTable(cachedQuery.getTable()), cacheTable);
+  }
+
+  /**
+   * @param table  the source table as declared in schema.json, null if not declared
+   */
+  static List<String> indexes(CachedQuery cachedQuery, Table table, String cacheTable) {
+    List<String> list = new ArrayList<>();
+    list.add("CREATE INDEX ON " + cacheTable + " (id)");
+    if (table == null) {
+      return list;
+    }
+    String t = cachedQuery.getTable();
+    for (Index index : matching(cachedQuery, table.getIndex(), table.getUniqueIndex())) {
+      list.add("CREATE INDEX ON " + cacheTable + " ((" + index.getFinalTruncatedSqlExpression(t) + "))" + where(index));
+    }
+    for (Index index : matching(cachedQuery, table.getLikeIndex())) {
+      list.add("CREATE INDEX ON " + cacheTable + " ((" + index.getFinalSqlExpression(t) + ") text_pattern_ops)"
+          + where(index));
+    }
+    for (Index index : matching(cachedQuery, table.getGinIndex())) {
+      list.add("CREATE INDEX ON " + cacheTable + " USING GIN ((" + index.getFinalSqlExpression(t)
+          + ") public.gin_trgm_ops)" + where(index));
+    }
+    for (Index index : matching(cachedQuery, table.getFullTextIndex())) {
+      list.add("CREATE INDEX ON " + cacheTable + " USING GIN (get_tsvector(" + index.getFinalSqlExpression(t) + "))");
+    }
+    // the expressions are qualified with the source table name, the cache table is queried using this alias
+    Pattern qualified = Pattern.compile("\\b" + Pattern.quote(t) + "\\.jsonb\\b");
+    for (int i = 1; i < list.size(); i++) {
+      list.set(i, qualified.matcher(list.get(i)).replaceAll("jsonb"));
+    }
+    return list;
+  }
+
+  private static String where(Index index) {
+    return index.getWhereClause() == null ? "" : " " + index.getWhereClause();
+  }
+
+  @SafeVarargs
+  private static List<Index> matching(CachedQuery cachedQuery, List<Index>... indexLists) {
+    List<Index> list = new ArrayList<>();
+    for (List<Index> indexes : indexLists) {
+      if (indexes == null) {
+        continue;
+      }
+      for (Index index : indexes) {
+        if (cachedQuery.getFields().contains(index.getFieldName())) {
+          list.add(index);
+        }
+      }
+    }
+    return list;
+  }
+
+  private static Table sourceTable(String tableName) {
+    try {
+      return CachedDbSchema.get(SCHEMA_JSON).getTable(tableName);
+    } catch (IOException | UncheckedIOException e) {
+      log.debug("No indexes for the result cache, cannot read " + SCHEMA_JSON + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * @return the cached query that can answer the CQL query, or null
+   */
+  static CachedQuery route(String table, String cql) {
+    CachedQuery cachedQuery = registry.get(table);
+    if (cachedQuery == null || cql == null) {
+      return null;
+    }
+    try {
+      CQLNode node = new CQLParser().parse(cql);
+      Set<String> used = new HashSet<>();
+      if (! fields(node, used)) {
+        return null;
+      }
+      used.remove("cql.allRecords");
+      if (! cachedQuery.getFields().containsAll(used)) {
+        return null;
+      }
+      if (cachedQuery.getCql() == null) {
+        return cachedQuery;
+      }
+      String filter = new CQLParser().parse(cachedQuery.getCql()).toCQL();
+      if (node instanceof CQLSortNode) {
+        node = ((CQLSortNode) node).getSubtree();
+      }
+      if (node.toCQL().equals(filter)
+          || (node instanceof CQLAndNode && ((CQLAndNode) node).getLeftOperand().toCQL().equals(filter))) {
+        return cachedQuery;
+      }
+      return null;
+    } catch (Exception e) {
+      // invalid CQL is reported by the uncached query
+      return null;
+    }
+  }
+
+  /**
+   * Add the search and sortBy fields of the CQL node to the set.
+   *
+   * @return false if the node contains a construct not known to this method
+   */
+  private static boolean fields(CQLNode node, Set<String> fields) {
+    if (node instanceof CQLTermNode) {
+      fields.add(((CQLTermNode) node).getIndex());
+      return true;
+    }
+    if (node instanceof CQLBooleanNode) {
+      CQLBooleanNode booleanNode = (CQLBooleanNode) node;
+      return fields(booleanNode.getLeftOperand(), fields) && fields(booleanNode.getRightOperand(), fields);
+    }
+    if (node instanceof CQLSortNode) {
+      CQLSortNode sortNode = (CQLSortNode) node;
+      for (ModifierSet modifierSet : sortNode.getSortIndexes()) {
+        fields.add(modifierSet.getBase());
+      }
+      return fields(sortNode.getSubtree(), fields);
+    }
+    return false;
+  }
+
+  /**
+   * Get records like {@link PostgresClient#get(String, Class, CQLWrapper, boolean, Handler)} with count,
+   * but answer the query from the registered cached query of the table if it can, see {@link ResultCache}.
+   */
+  public static <T> void get(PostgresClient postgresClient, String table, Class<T> clazz, CQLWrapper wrapper,
+      Handler<AsyncResult<Results<T>>> replyHandler) {
+
+    CachedQuery cachedQuery = wrapper == null ? null : route(table, wrapper.getQuery());
+    if (cachedQuery == null) {
+      postgresClient.get(table, clazz, wrapper, true, replyHandler);
+      return;
+    }
+    State state = state(postgresClient, cachedQuery);
+    long builtNanos = state.builtNanos;
+    long now = System.nanoTime();
+    if ((builtNanos == 0 || now - builtNanos >= cachedQuery.getTtlMillis() * 1000000)
+        && (state.attemptNanos == 0 || now - state.attemptNanos >= RETRY_NANOS)) {
+      refresh(postgresClient, table).onFailure(e ->
+          log.error("Refresh of result cache " + cachedQuery.getName() + " failed: " + e.getMessage(), e));
+    }
+    if (builtNanos == 0) {
+      MetricsRegistry.recordResultCache(cachedQuery.getName(), MISS);
+      postgresClient.get(table, clazz, wrapper, true, replyHandler);
+      return;
+    }
+    long generation = state.generation;
+    String key = postgresClient.getSchemaName() + "." + cachedQuery.getName() + " "
+        + wrapper.getTotalRecords() + " " + wrapper.toString();
+    Results<T> heapResults = getHeap(key, generation, clazz);
+    if (heapResults != null) {
+      MetricsRegistry.recordResultCache(cachedQuery.getName(), HEAP_HIT);
+      replyHandler.handle(Future.succeededFuture(heapResults));
+      return;
+    }
+    MetricsRegistry.recordResultCache(cachedQuery.getName(), TABLE_HIT);
+    // the SQL of the wrapper references the source table
+    postgresClient.getWithAlias(cachedQuery.getName(), table, clazz, wrapper, true, reply -> {
+      if (reply.succeeded() && cachedQuery.getHeapMaxRows() > 0
+          && reply.result().getResults().size() <= cachedQuery.getHeapMaxRows()) {
+        putHeap(key, new HeapEntry(generation, clazz, reply.result()));
+      }
+      replyHandler.handle(reply);
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Results<T> getHeap(String key, long generation, Class<T> clazz) {
+    synchronized (heap) {
+      HeapEntry entry = heap.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.generation != generation || entry.clazz != clazz) {
+        heap.remove(key);
+        return null;
+      }
+      return (Results<T>) entry.results;
+    }
+  }
+
+  private static void putHeap(String key, HeapEntry entry) {
+    synchronized (heap) {
+      heap.put(key, entry);
+    }
+  }
+}
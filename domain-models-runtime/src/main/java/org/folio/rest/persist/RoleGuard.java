@@ -0,0 +1,83 @@
+package org.folio.rest.persist;
+
+import io.vertx.pgclient.PgConnection;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.regex.Pattern;
+
+/**
+ * Wrap a PgConnection of the {@link SharedPgPool} that has switched to the tenant's role
+ * to reject SQL that changes the role.
+ *
+ * <p>The shared pool connects as the module's database user, a tenant session that runs
+ * RESET ROLE or SET ROLE can access the schemas of all tenants. This is best effort only:
+ * The role name passed as a parameter to set_config and dynamic SQL in functions cannot be
+ * detected.
+ */
+final class RoleGuard implements InvocationHandler {
+  private static final Pattern QUOTED = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern SET_ROLE = Pattern.compile(
+      "\\b(?:SET|RESET)\\s+(?:(?:SESSION|LOCAL)\\s+)?(?:ROLE|SESSION\\s+AUTHORIZATION)\\b",
+      Pattern.CASE_INSENSITIVE);
+  private static final Pattern SET_CONFIG = Pattern.compile(
+      "\\bset_config\\s*\\(\\s*'\\s*(?:role|session_authorization)\\s*'",
+      Pattern.CASE_INSENSITIVE);
+
+  private final PgConnection conn;
+  private PgConnection proxy;
+
+  private RoleGuard(PgConnection conn) {
+    this.conn = conn;
+  }
+
+  /**
+   * @param conn  the connection to wrap
+   * @return a PgConnection that delegates to conn, its query, preparedQuery and prepare
+   *     methods throw an IllegalArgumentException if the SQL changes the role
+   */
+  static PgConnection wrap(PgConnection conn) {
+    RoleGuard handler = new RoleGuard(conn);
+    handler.proxy = (PgConnection) Proxy.newProxyInstance(PgConnection.class.getClassLoader(),
+        new Class<?>[] { PgConnection.class }, handler);
+    return handler.proxy;
+  }
+
+  /**
+   * @return whether sql contains SET ROLE, RESET ROLE, SET SESSION AUTHORIZATION,
+   *     RESET SESSION AUTHORIZATION or set_config('role', ...) outside of string literals
+   */
+  static boolean isRoleChange(String sql) {
+    if (sql == null) {
+      return false;
+    }
+    return SET_CONFIG.matcher(sql).find()
+        || SET_ROLE.matcher(QUOTED.matcher(sql).replaceAll("''")).find();
+  }
+
+  @Override
+  public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "query":
+      case "preparedQuery":
+      case "prepare":
+        if (args != null && args.length > 0 && args[0] instanceof String
+            && isRoleChange((String) args[0])) {
+          throw new IllegalArgumentException(
+              "Changing the role is not allowed on a connection of the shared pool: " + args[0]);
+        }
+        break;
+      default:
+        break;
+    }
+    Object result;
+    try {
+      result = method.invoke(conn, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+    // fluent methods must not leak the unwrapped connection
+    return result == conn ? proxy : result;
+  }
+}
@@ -0,0 +1,69 @@
+package org.folio.rest.persist;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgPool;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single PgPool per Vertx that the PostgresClient instances of all tenants share.
+ *
+ * <p>It connects with the credentials of the module's database user. On each checkout
+ * PostgresClient switches to the role of the tenant using SET ROLE.
+ *
+ * <p>It is only used if DB_MAXSHAREDPOOLSIZE is set. The isolation of the tenants is weaker
+ * than with a pool per tenant because a session can RESET ROLE, {@link RoleGuard} rejects
+ * SQL that obviously changes the role.
+ */
+final class SharedPgPool {
+  private static final Map<Vertx, SharedPgPool> instances = new ConcurrentHashMap<>();
+
+  private final PgPool pool;
+  private final PgPoolMetrics metrics;
+
+  private SharedPgPool(Vertx vertx, JsonObject configuration, int maxSize) {
+    pool = PostgresClient.createPgPool(vertx, configuration.copy().put("maxPoolSize", maxSize));
+    metrics = new PgPoolMetrics("shared", maxSize, null);
+  }
+
+  /**
+   * @param vertx  the Vertx the PgPool is created for
+   * @param configuration  connection configuration of the module's database user
+   * @param maxSize  maximum number of connections of the PgPool, used when creating it
+   * @return the SharedPgPool of vertx, create it if needed
+   */
+  static SharedPgPool getInstance(Vertx vertx, JsonObject configuration, int maxSize) {
+    return instances.computeIfAbsent(vertx, v -> new SharedPgPool(v, configuration, maxSize));
+  }
+
+  /**
+   * Close the PgPools of all SharedPgPool instances.
+   */
+  static void closeAll() {
+    for (Vertx vertx : instances.keySet()) {
+      SharedPgPool sharedPgPool = instances.remove(vertx);
+      if (sharedPgPool != null) {
+        sharedPgPool.pool.close();
+      }
+    }
+  }
+
+  /**
+   * @return the metrics of all SharedPgPool instances
+   */
+  static JsonArray getAllMetrics() {
+    JsonArray array = new JsonArray();
+    instances.values().forEach(sharedPgPool -> array.add(sharedPgPool.metrics.toJson()));
+    return array;
+  }
+
+  PgPool getPool() {
+    return pool;
+  }
+
+  PgPoolMetrics getMetrics() {
+    return metrics;
+  }
+}
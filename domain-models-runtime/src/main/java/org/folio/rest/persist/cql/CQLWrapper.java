@@ -1,11 +1,13 @@
 package org.folio.rest.persist.cql;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.cql2pgjson.model.SqlSortKey;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
@@ -19,6 +21,7 @@ public class CQLWrapper {
   String whereClause;
   private Limit  limit = new Limit();
   private Offset offset = new Offset();
+  private TotalRecords totalRecords = TotalRecords.ESTIMATED;
   private List<WrapTheWrapper> addedWrappers = new ArrayList<>();
 
   public CQLWrapper() {
@@ -145,6 +148,19 @@ public class CQLWrapper {
     this.offset = offset;
     return this;
   }
+  public TotalRecords getTotalRecords() {
+    return totalRecords;
+  }
+
+  /**
+   * Set how to calculate the totalRecords value of the result set.
+   * @param totalRecords  NONE, ESTIMATED (the default) or EXACT; null for ESTIMATED
+   * @return wrapper itself
+   */
+  public CQLWrapper setTotalRecords(TotalRecords totalRecords) {
+    this.totalRecords = totalRecords == null ? TotalRecords.ESTIMATED : totalRecords;
+    return this;
+  }
   public CQLWrapper addWrapper(CQLWrapper wrapper){
     addWrapper(wrapper, "and");
     return this;
@@ -256,6 +272,21 @@ public class CQLWrapper {
     }
   }
 
+  /**
+   * @return the expressions of the ORDER BY clause of the CQL query, empty list if the
+   *   query is not a CQL query or has no sortBy
+   */
+  public List<SqlSortKey> getSortKeys() {
+    if (query == null || field == null) {
+      return Collections.emptyList();
+    }
+    try {
+      return field.toSql(query).getSortKeys();
+    } catch (QueryValidationException e) {
+      throw new CQLQueryValidationException(e);
+    }
+  }
+
   /**
    * @return sort by criteria including SORT BY prefix or empty string if no sorting
    */
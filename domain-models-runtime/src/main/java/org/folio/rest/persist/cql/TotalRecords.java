@@ -0,0 +1,32 @@
+package org.folio.rest.persist.cql;
+
+import java.util.Locale;
+
+/**
+ * How to calculate the totalRecords value of a result set.
+ */
+public enum TotalRecords {
+  /** Don't count, totalRecords is null. */
+  NONE,
+  /** Estimate the count, see "Estimated totalRecords" in the README. This is the default. */
+  ESTIMATED,
+  /** Run SELECT COUNT(*), this may take long for a large result set. */
+  EXACT;
+
+  /**
+   * @param value  none, estimated or exact, case insensitive; null or empty for the default
+   * @return the TotalRecords for value, {@link #ESTIMATED} if value is null or empty
+   * @throws IllegalArgumentException if value is not none, estimated or exact
+   */
+  public static TotalRecords fromString(String value) {
+    if (value == null || value.isEmpty()) {
+      return ESTIMATED;
+    }
+    try {
+      return valueOf(value.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "totalRecords must be none, estimated or exact, but it is " + value, e);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package org.folio.rest.persist.ddlgen;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.pgclient.PgConnection;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Build the indexes that the schema script has queued in table rmb_internal_index_build
+ * (see {@link SchemaMaker#setDeferIndexes(boolean)}) using CREATE INDEX CONCURRENTLY that doesn't
+ * block writes.
+ *
+ * <p>The indexes of different tables are built in parallel on up to parallelism connections,
+ * the indexes of the same table are built one after the other because concurrent index builds
+ * on the same table wait for each other.
+ *
+ * <p>The status (pending, running, done, failed), the start time, the runtime and the error
+ * of each index build are recorded in rmb_internal_index_build.
+ */
+public class ConcurrentIndexBuilder {
+  private static final Logger log = LogManager.getLogger(ConcurrentIndexBuilder.class);
+
+  private final PostgresClient postgresClient;
+  private final String schema;
+  private final int parallelism;
+  private final List<String> failed = new ArrayList<>();
+
+  static class IndexBuild {
+    final String name;
+    final String tablename;
+    final String def;
+
+    IndexBuild(String name, String tablename, String def) {
+      this.name = name;
+      this.tablename = tablename;
+      this.def = def;
+    }
+  }
+
+  /**
+   * @param postgresClient  client of the module's database user, it owns the tables
+   * @param schema  the schema of the tenant, for example diku_mod_users
+   * @param parallelism  maximum number of concurrent index builds, at least 1
+   */
+  public ConcurrentIndexBuilder(PostgresClient postgresClient, String schema, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+    }
+    this.postgresClient = postgresClient;
+    this.schema = schema;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Convert the CREATE INDEX statement of rmb_internal_index into a CREATE INDEX CONCURRENTLY statement.
+   */
+  static String concurrently(String def) {
+    return def.replaceFirst("^CREATE (UNIQUE )?INDEX ", "CREATE $1INDEX CONCURRENTLY ");
+  }
+
+  /**
+   * Build all pending indexes.
+   *
+   * @return the statements that failed, an empty list on success
+   */
+  public Future<List<String>> build() {
+    return postgresClient.select("SELECT name, tablename, def FROM " + schema + ".rmb_internal_index_build"
+        + " WHERE status = 'pending' ORDER BY tablename, name")
+        .compose(rowSet -> {
+          Map<String, Deque<IndexBuild>> byTable = new LinkedHashMap<>();
+          for (Row row : rowSet) {
+            IndexBuild indexBuild = new IndexBuild(row.getString(0), row.getString(1), row.getString(2));
+            byTable.computeIfAbsent(indexBuild.tablename, t -> new LinkedList<>()).add(indexBuild);
+          }
+          Deque<Deque<IndexBuild>> tables = new LinkedList<>(byTable.values());
+          log.info("Building {} indexes of {} tables in {} with parallelism {}",
+              rowSet.rowCount(), tables.size(), schema, parallelism);
+          List<Future> workers = new ArrayList<>();
+          for (int i = 0; i < Math.min(parallelism, tables.size()); i++) {
+            workers.add(worker(tables));
+          }
+          return CompositeFuture.join(workers);
+        })
+        .map(x -> failed);
+  }
+
+  /**
+   * Take the indexes of the next table from tables and build them, repeat until tables is empty.
+   * All callbacks run on the same context, no synchronization needed.
+   */
+  private Future<Void> worker(Deque<Deque<IndexBuild>> tables) {
+    Deque<IndexBuild> table = tables.poll();
+    if (table == null) {
+      return Future.succeededFuture();
+    }
+    return buildTable(table).compose(x -> worker(tables));
+  }
+
+  /**
+   * Build the indexes of the table one after the other, then ANALYZE the table
+   * so that the planner has the statistics of the expression indexes.
+   */
+  private Future<Void> buildTable(Deque<IndexBuild> table) {
+    String tablename = table.peek().tablename;
+    return buildIndexes(table)
+        .compose(x -> postgresClient.execute("ANALYZE " + schema + "." + tablename))
+        .otherwise(e -> {
+          log.warn("ANALYZE {}.{} failed: {}", schema, tablename, e.getMessage());
+          return null;
+        })
+        .mapEmpty();
+  }
+
+  private Future<Void> buildIndexes(Deque<IndexBuild> table) {
+    IndexBuild indexBuild = table.poll();
+    if (indexBuild == null) {
+      return Future.succeededFuture();
+    }
+    return buildIndex(indexBuild).compose(x -> buildIndexes(table));
+  }
+
+  /**
+   * Build the index on a new connection. The search_path is needed for the unqualified
+   * functions like f_unaccent in the index expression.
+   *
+   * @return succeeded future, also if the build fails
+   */
+  private Future<Void> buildIndex(IndexBuild indexBuild) {
+    String buildTable = schema + ".rmb_internal_index_build";
+    String sql = concurrently(indexBuild.def);
+    long start = System.nanoTime();
+    return postgresClient.getConnection().compose(conn ->
+      conn.preparedQuery("UPDATE " + buildTable + " SET status = 'running', started = now() WHERE name = $1")
+      .execute(Tuple.of(indexBuild.name))
+      .compose(x -> conn.query("SET search_path TO " + schema).execute())
+      .compose(x -> {
+        log.info("trying to execute: {}", sql);
+        return conn.query(sql).execute();
+      })
+      .compose(x -> done(conn, indexBuild, start), e -> failed(conn, indexBuild, sql, start, e))
+      .eventually(x -> conn.query("RESET search_path").execute()
+          .eventually(y -> conn.close())))
+      .otherwise(e -> {
+        log.error(e.getMessage(), e);
+        failed.add(sql);
+        return null;
+      })
+      .mapEmpty();
+  }
+
+  private Future<Void> done(PgConnection conn, IndexBuild indexBuild, long start) {
+    long millis = (System.nanoTime() - start) / 1000000;
+    log.info("Built index {} in {} ms", indexBuild.name, millis);
+    return conn.preparedQuery("INSERT INTO " + schema + ".rmb_internal_index VALUES ($1, $2, FALSE) "
+        + "ON CONFLICT (name) DO UPDATE SET def = EXCLUDED.def, remove = EXCLUDED.remove")
+        .execute(Tuple.of(indexBuild.name, indexBuild.def))
+        .compose(x -> conn.preparedQuery("UPDATE " + schema + ".rmb_internal_index_build "
+            + "SET status = 'done', runtime_ms = $2 WHERE name = $1")
+            .execute(Tuple.of(indexBuild.name, millis)))
+        .mapEmpty();
+  }
+
+  /**
+   * Drop the invalid index that a failed CREATE INDEX CONCURRENTLY leaves behind.
+   */
+  private Future<Void> failed(PgConnection conn, IndexBuild indexBuild, String sql, long start, Throwable e) {
+    long millis = (System.nanoTime() - start) / 1000000;
+    log.error("Building index {} failed after {} ms: {}", indexBuild.name, millis, e.getMessage(), e);
+    failed.add(sql);
+    return conn.query("DROP INDEX CONCURRENTLY IF EXISTS " + schema + "." + indexBuild.name).execute()
+        .eventually(x -> conn.preparedQuery("UPDATE " + schema + ".rmb_internal_index_build "
+            + "SET status = 'failed', runtime_ms = $2, error = $3 WHERE name = $1")
+            .execute(Tuple.of(indexBuild.name, millis, e.getMessage())))
+        .mapEmpty();
+  }
+}
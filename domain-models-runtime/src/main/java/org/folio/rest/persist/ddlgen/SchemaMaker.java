@@ -39,6 +39,7 @@ public class SchemaMaker {
   private Schema schema;
   private Schema previousSchema;
   private String schemaJson = "{}";
+  private boolean deferIndexes;
 
   public SchemaMaker(String tenant, String module, TenantOperation mode, String previousVersion,
                      String newVersion) {
@@ -106,6 +107,8 @@ public class SchemaMaker {
 
     templateInput.put("exactCount", this.schema.getExactCount()+"");
 
+    templateInput.put("deferIndexes", this.deferIndexes);
+
     Template tableTemplate = cfg.getTemplate(template);
     Writer writer = new StringWriter();
     tableTemplate.process(templateInput, writer);
@@ -190,6 +193,18 @@ public class SchemaMaker {
     this.mode = mode;
   }
 
+  public boolean isDeferIndexes() {
+    return deferIndexes;
+  }
+
+  /**
+   * @param deferIndexes  true to queue new non-unique indexes in table rmb_internal_index_build
+   *     for {@link ConcurrentIndexBuilder} instead of creating them in the schema script
+   */
+  public void setDeferIndexes(boolean deferIndexes) {
+    this.deferIndexes = deferIndexes;
+  }
+
   public Schema getSchema() {
     return schema;
   }
@@ -67,6 +67,14 @@ public class FacetManager {
     return this.facets;
   }
 
+  /**
+   * Generate a query that returns the facets as fake records with id
+   * 00000000-0000-0000-0000-000000000000 in front of the records.
+   *
+   * @deprecated PostgresClient uses the separate {@link FacetQuery} that returns the facets
+   *     as a side channel and can use the count tables of schema.json's facetIndex
+   */
+  @Deprecated
   public String generateFacetQuery() throws IOException, TemplateException {
 
     templateInput.put("facets", this.facets);
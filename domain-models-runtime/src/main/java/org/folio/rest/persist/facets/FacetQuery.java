@@ -0,0 +1,156 @@
+package org.folio.rest.persist.facets;
+
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.cql2pgjson.model.CachedDbSchema;
+import org.folio.dbschema.FacetIndex;
+import org.folio.dbschema.Table;
+import org.folio.dbschema.TableOperation;
+import org.folio.rest.jaxrs.model.Facet;
+import org.folio.rest.jaxrs.model.FacetValue;
+
+/**
+ * The facet aggregation query that PostgresClient runs on the same connection as the record query
+ * and the count query without waiting for them (pipelining), and the conversion of its result rows
+ * into {@link Facet}s.
+ *
+ * <p>The query returns one row for each facet value with the columns facet (index into the
+ * facet list), value (JSON text) and count.
+ *
+ * <p>The facet values of a field that has a facetIndex in schema.json are read from the
+ * trigger-maintained count table if the query has no WHERE clause and no DISTINCT ON; these counts
+ * are exact and cover all records. Otherwise the counts are aggregated from the first
+ * {@link FacetManager#getCalculateOnFirst()} records of the result set.
+ */
+public final class FacetQuery {
+  private static final Logger log = LogManager.getLogger(FacetQuery.class);
+  private static final String SCHEMA_JSON = "templates/db_scripts/schema.json";
+  /** lower case table name to map of normalized facet path to count table name */
+  private static final Map<String, Map<String, String>> countTables = new ConcurrentHashMap<>();
+
+  private FacetQuery() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @param schemaName  schema of the table
+   * @param table  table name
+   * @param mainQuery  the record query without LIMIT and OFFSET
+   * @param unfiltered  true if mainQuery has no WHERE clause and no DISTINCT ON
+   * @param facets  the facets to calculate
+   * @return the SQL query
+   */
+  public static String build(String schemaName, String table, String mainQuery,
+      boolean unfiltered, List<FacetField> facets) {
+    Map<String, String> tables = unfiltered ? getCountTables(table) : Collections.emptyMap();
+    return build(schemaName, mainQuery, facets, tables);
+  }
+
+  /**
+   * @param countTables  normalized facet path to name of the count table to use
+   */
+  static String build(String schemaName, String mainQuery, List<FacetField> facets,
+      Map<String, String> countTables) {
+    StringBuilder sql = new StringBuilder("WITH facets AS (").append(mainQuery);
+    int calculateOnFirst = FacetManager.getCalculateOnFirst();
+    if (calculateOnFirst != 0) {
+      sql.append(" LIMIT ").append(calculateOnFirst);
+    }
+    sql.append(")\n");
+    for (int i = 0; i < facets.size(); i++) {
+      FacetField facet = facets.get(i);
+      if (i > 0) {
+        sql.append("\nUNION ALL\n");
+      }
+      String countTable = countTables.get(normalize(facet.getFieldPath()));
+      if (countTable != null) {
+        sql.append("(SELECT ").append(i).append(" AS facet, to_jsonb(value)::text AS value, count::int AS count")
+        .append(" FROM ").append(schemaName).append('.').append(countTable)
+        .append(" WHERE count > 0 ORDER BY count DESC, value");
+      } else {
+        sql.append("(SELECT ").append(i).append(" AS facet, to_jsonb(v)::text AS value, count(*)::int AS count")
+        .append(" FROM (SELECT ").append(facet.getFieldPath()).append(" AS v FROM facets) x")
+        .append(" WHERE v IS NOT NULL GROUP BY v ORDER BY count(*) DESC, v");
+      }
+      sql.append(" LIMIT ").append(facet.getTopFacets2return()).append(')');
+    }
+    sql.append("\nORDER BY 1, 3 DESC, 2");
+    return sql.toString();
+  }
+
+  /**
+   * Convert the result rows of the facet query; facets without any value are omitted,
+   * facets with the same alias are merged.
+   *
+   * @param rowSet  result of the {@link #build} query
+   * @param facets  the facets passed to {@link #build}
+   */
+  public static List<Facet> toFacets(RowSet<Row> rowSet, List<FacetField> facets) {
+    Map<String, Facet> result = new LinkedHashMap<>();
+    for (Row row : rowSet) {
+      String alias = facets.get(row.getInteger(0)).getAlias();
+      Facet facet = result.computeIfAbsent(alias, type -> new Facet().withType(type));
+      facet.getFacetValues().add(new FacetValue()
+          .withValue(toValue(Json.decodeValue(row.getString(1))))
+          .withCount(row.getInteger(2)));
+    }
+    return new ArrayList<>(result.values());
+  }
+
+  private static Object toValue(Object value) {
+    if (value instanceof JsonObject) {
+      return ((JsonObject) value).getMap();
+    }
+    if (value instanceof JsonArray) {
+      return ((JsonArray) value).getList();
+    }
+    return value;
+  }
+
+  /**
+   * Remove whitespace so that jsonb->>'a' and jsonb ->> 'a' match.
+   */
+  static String normalize(String fieldPath) {
+    return fieldPath.replaceAll("\\s+", "");
+  }
+
+  private static Map<String, String> getCountTables(String table) {
+    return countTables.computeIfAbsent(table.toLowerCase(Locale.ROOT), FacetQuery::loadCountTables);
+  }
+
+  private static Map<String, String> loadCountTables(String tableName) {
+    Table table;
+    try {
+      table = CachedDbSchema.get(SCHEMA_JSON).getTable(tableName);
+    } catch (IOException | UncheckedIOException e) {
+      log.debug("No facet count tables, cannot read " + SCHEMA_JSON + ": " + e.getMessage());
+      return Collections.emptyMap();
+    }
+    if (table == null || table.getFacetIndex() == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> map = new HashMap<>();
+    for (FacetIndex facetIndex : table.getFacetIndex()) {
+      if (facetIndex.gettOps() == TableOperation.ADD) {
+        map.put(normalize(facetIndex.getSqlExpression("jsonb")), facetIndex.getCountTableName(table.getTableName()));
+      }
+    }
+    return map;
+  }
+}
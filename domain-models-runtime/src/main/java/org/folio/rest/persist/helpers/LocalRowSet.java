@@ -15,6 +15,7 @@ public class LocalRowSet implements RowSet<Row> {
   final int rowCount;
   List<Row> rows = new LinkedList<>();
   RowDesc rowDesc = new RowDesc(Collections.emptyList());
+  RowSet<Row> next;
 
   public LocalRowSet(int rowCount) {
     this.rowCount = rowCount;
@@ -30,6 +31,14 @@ public class LocalRowSet implements RowSet<Row> {
     return this;
   }
 
+  /**
+   * @param next  the RowSet that {@link #next()} returns
+   */
+  public LocalRowSet withNext(RowSet<Row> next) {
+    this.next = next;
+    return this;
+  }
+
   @Override
   public RowIterator<Row> iterator() {
     return new FakeRowIterator(rows);
@@ -67,7 +76,7 @@ public class LocalRowSet implements RowSet<Row> {
 
   @Override
   public RowSet<Row> next() {
-    return null;
+    return next;
   }
 
   class FakeRowIterator implements RowIterator<Row> {
@@ -0,0 +1,67 @@
+package org.folio.rest.persist.interfaces;
+
+/**
+ * Statistics of a bulk load.
+ */
+public class BulkLoadResult {
+
+  private final long received;
+  private final long loaded;
+  private final long elapsedMillis;
+
+  /**
+   * @param received  number of entities read from the stream
+   * @param loaded  number of records inserted or updated
+   * @param elapsedMillis  duration of the bulk load in milliseconds
+   */
+  public BulkLoadResult(long received, long loaded, long elapsedMillis) {
+    this.received = received;
+    this.loaded = loaded;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  /**
+   * @return number of entities read from the stream
+   */
+  public long getReceived() {
+    return received;
+  }
+
+  /**
+   * @return number of records inserted or updated
+   */
+  public long getLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Number of entities that have not been loaded: Entities that cannot be converted to JSON
+   * or have an invalid id, entities with an id that already exists when inserting, and
+   * entities with an id that occurs more than once in the stream.
+   *
+   * @return received - loaded
+   */
+  public long getRejected() {
+    return received - loaded;
+  }
+
+  /**
+   * @return duration of the bulk load in milliseconds
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * @return loaded records per second
+   */
+  public double getRecordsPerSecond() {
+    return loaded * 1000.0 / Math.max(1, elapsedMillis);
+  }
+
+  @Override
+  public String toString() {
+    return "received=" + received + " loaded=" + loaded + " rejected=" + getRejected()
+        + " elapsedMillis=" + elapsedMillis + " recordsPerSecond=" + Math.round(getRecordsPerSecond());
+  }
+}
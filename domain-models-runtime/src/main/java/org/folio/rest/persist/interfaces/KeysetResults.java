@@ -0,0 +1,20 @@
+package org.folio.rest.persist.interfaces;
+
+/**
+ * A page of records of keyset pagination.
+ */
+public class KeysetResults <T> extends Results<T> {
+
+  private String nextPageToken;
+
+  /**
+   * @return the token to fetch the next page, or null if this is the last page
+   */
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public void setNextPageToken(String nextPageToken) {
+    this.nextPageToken = nextPageToken;
+  }
+}
@@ -7,16 +7,12 @@ import io.vertx.core.json.DecodeException;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import java.util.concurrent.CompletableFuture;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 /**
  * @author shale
  */
 class HTTPJsonResponseHandler implements Handler<AsyncResult<HttpResponse<Buffer>>> {
 
-  private static final Logger log = LogManager.getLogger(HTTPJsonResponseHandler.class);
-
   CompletableFuture<Response> cf;
   String endpoint;
   RollBackURL rollbackURL;
@@ -56,14 +52,6 @@ class HTTPJsonResponseHandler implements Handler<AsyncResult<HttpResponse<Buffer
       r.populateError(this.endpoint, r.code, message);
       cf.complete(r);
     }
-
-    if (HttpModuleClient2.cache != null && r.body != null) {
-      try {
-        HttpModuleClient2.cache.put(endpoint, cf.get());
-      } catch (Exception e) {
-        log.error(e.getMessage(), e);
-      }
-    }
   }
 
   private void handleSuccess(Buffer bh, Response r) {
@@ -73,6 +61,7 @@ class HTTPJsonResponseHandler implements Handler<AsyncResult<HttpResponse<Buffer
     } else {
       try {
         r.body = bh.toJsonObject();
+        r.bodyLength = bh.length();
         cf.complete(r);
       } catch (DecodeException decodeException) {
         cf.completeExceptionally(decodeException);
@@ -6,6 +6,7 @@ import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,10 +25,7 @@ import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.rest.tools.parser.JsonPathParser;
 import org.folio.rest.tools.utils.VertxUtils;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.CacheStats;
-import com.google.common.cache.LoadingCache;
 
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
@@ -41,7 +39,8 @@ import io.vertx.core.http.HttpMethod;
  */
 public class HttpModuleClient2 implements HttpClientInterface {
 
-  static LoadingCache<String, Response> cache = null;
+  static final ResponseCache cache = new ResponseCache(ResponseCache.MAX_WEIGHT_DEFAULT,
+      ResponseCache.MAX_ENTRY_WEIGHT_DEFAULT);
 
   private static final String CTYPE = "Content-Type";
   private static final String ACCEPT = "Accept";
@@ -115,7 +114,8 @@ public class HttpModuleClient2 implements HttpClientInterface {
   }
 
   private void request(HttpMethod method, Buffer data, String endpoint, Map<String, String> headers,
-      boolean cache, Handler<AsyncResult<HttpResponse<Buffer>>> responseHandler, CompletableFuture<Response> cf2){
+      Map<String, String> requestOnlyHeaders, Handler<AsyncResult<HttpResponse<Buffer>>> responseHandler,
+      CompletableFuture<Response> cf2){
 
     try {
       HttpRequest<Buffer> request = null;
@@ -128,6 +128,7 @@ public class HttpModuleClient2 implements HttpClientInterface {
         this.headers.putAll(headers);
       }
       request.headers().setAll(this.headers);
+      request.headers().setAll(requestOnlyHeaders);
       request.sendBuffer(data, responseHandler);
     } catch (Exception e) {
       Response r = new Response();
@@ -144,16 +145,22 @@ public class HttpModuleClient2 implements HttpClientInterface {
     if(bCql != null){
       endpoint = endpoint + bCql.buildCQL();
     }
-    if(cachable){
-      initCache();
-      Response j = cache.get(endpoint);
-      if(j != null && j.getBody() != null && method.name().equalsIgnoreCase("get")){
-        CompletableFuture<Response> cf = new CompletableFuture<>();
-        cf.complete(j);
-        log.debug("entry retrieved from cache: " + endpoint);
-        return cf;
+    if(cachable && method == HttpMethod.GET){
+      Map<String, String> allHeaders = new HashMap<>(this.headers);
+      if(headers != null){
+        allHeaders.putAll(headers);
       }
+      ResponseCache.Key key = ResponseCache.key(tenantId, method, endpoint, allHeaders);
+      String finalEndpoint = endpoint;
+      return cache.get(key, TimeUnit.MINUTES.toMillis(cacheTO),
+          requestOnlyHeaders -> send(method, data, finalEndpoint, headers, requestOnlyHeaders, rollbackURL));
     }
+    return send(method, data, endpoint, headers, Collections.emptyMap(), rollbackURL);
+  }
+
+  private CompletableFuture<Response> send(HttpMethod method, Buffer data, String endpoint, Map<String, String> headers,
+      Map<String, String> requestOnlyHeaders, RollBackURL rollbackURL) {
+
     CompletableFuture<Response> cf = new CompletableFuture<>();
     HTTPJsonResponseHandler handler = new HTTPJsonResponseHandler(endpoint, cf);
     if(autoCloseConnections){
@@ -163,7 +170,7 @@ public class HttpModuleClient2 implements HttpClientInterface {
       handler.rollbackURL = rollbackURL;
     }
 
-    request(method, data, endpoint, headers, cachable, handler, cf);
+    request(method, data, endpoint, headers, requestOnlyHeaders, handler, cf);
 
     return cf;
   }
@@ -378,29 +385,20 @@ public class HttpModuleClient2 implements HttpClientInterface {
     webClient.close();
   }
 
+  /**
+   * Remove all entries from the response cache that all instances share.
+   */
   @Override
   public void clearCache(){
-    cache.invalidateAll();
+    cache.clear();
   }
 
+  /**
+   * Statistics of the response cache that all instances share. The hit count includes
+   * the requests that got the response of an identical request in flight.
+   */
   @Override
   public CacheStats getCacheStats(){
     return cache.stats();
   }
-
-  private void initCache(){
-    if(cache == null){
-      cache = CacheBuilder.newBuilder()
-        .concurrencyLevel(4)
-        .maximumSize(1000)
-        .expireAfterWrite(cacheTO, TimeUnit.MINUTES)
-        .build(
-          new CacheLoader<String, Response>() {
-            @Override
-            public Response load(String key) throws Exception {
-              return new Response();
-            }
-          });
-    }
-  }
 }
@@ -29,6 +29,8 @@ public class Response {
   String endpoint;
   int code;
   JsonObject body;
+  /** number of bytes of the raw response body that body has been decoded from */
+  int bodyLength;
   JsonObject error;
   Throwable exception;
   MultiMap headers;
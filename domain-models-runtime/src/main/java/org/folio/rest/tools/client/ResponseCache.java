@@ -0,0 +1,265 @@
+package org.folio.rest.tools.client;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Cache of GET responses of {@link HttpModuleClient2}, shared by all its instances.
+ *
+ * <p>The key consists of tenant, method, endpoint and the values of the request headers
+ * {@link #VARY_HEADERS}, a cached response is never returned to a different tenant or user.
+ *
+ * <p>Concurrent requests for the same key are coalesced: Only the first is sent, the others
+ * get the response of the first.
+ *
+ * <p>A response is cached for the time to live of the client or the Cache-Control max-age of
+ * the response, whichever is smaller. It is not cached if Cache-Control contains no-store.
+ * An expired entry that has an ETag is revalidated using If-None-Match, a 304 response
+ * refreshes the entry. The total weight (bytes of the raw JSON bodies as received) is limited, bodies larger
+ * than the maximum entry weight are not cached.
+ */
+class ResponseCache {
+  private static final Logger log = LogManager.getLogger(ResponseCache.class);
+
+  /** default maximum total weight in bytes */
+  static final long MAX_WEIGHT_DEFAULT = 10_000_000;
+  /** default maximum weight in bytes of a single response */
+  static final int MAX_ENTRY_WEIGHT_DEFAULT = 1_000_000;
+  /** lower case names of the request headers that are part of the key */
+  static final List<String> VARY_HEADERS = Collections.unmodifiableList(Arrays.asList(
+      "x-okapi-tenant", "x-okapi-user-id", "accept", "accept-language"));
+
+  static final class Key {
+    private final String tenant;
+    private final HttpMethod method;
+    private final String endpoint;
+    private final List<String> headerValues;
+
+    Key(String tenant, HttpMethod method, String endpoint, List<String> headerValues) {
+      this.tenant = tenant;
+      this.method = method;
+      this.endpoint = endpoint;
+      this.headerValues = headerValues;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (! (o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(tenant, key.tenant) && Objects.equals(method, key.method)
+          && Objects.equals(endpoint, key.endpoint) && Objects.equals(headerValues, key.headerValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tenant, method, endpoint, headerValues);
+    }
+  }
+
+  private static final class Entry {
+    private final Response response;
+    private final String etag;
+    private final long expiresAt;
+    private final int weight;
+
+    Entry(Response response, String etag, long expiresAt, int weight) {
+      this.response = response;
+      this.etag = etag;
+      this.expiresAt = expiresAt;
+      this.weight = weight;
+    }
+  }
+
+  private final Cache<Key, Entry> cache;
+  private final int maxEntryWeight;
+  private final Map<Key, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder loadSuccessCount = new LongAdder();
+  private final LongAdder loadExceptionCount = new LongAdder();
+  private final LongAdder totalLoadTime = new LongAdder();
+  private final LongAdder coalescedCount = new LongAdder();
+  private final LongAdder revalidatedCount = new LongAdder();
+
+  /**
+   * @param maxWeight  maximum total bytes of the cached JSON bodies
+   * @param maxEntryWeight  bodies with more bytes are not cached
+   */
+  ResponseCache(long maxWeight, int maxEntryWeight) {
+    this.maxEntryWeight = maxEntryWeight;
+    cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxWeight)
+        .weigher((Key key, Entry entry) -> entry.weight)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @param tenant  tenant of the request
+   * @param headers  all headers of the request, the header names are compared case insensitive
+   */
+  static Key key(String tenant, HttpMethod method, String endpoint, Map<String, String> headers) {
+    List<String> values = new ArrayList<>(VARY_HEADERS.size());
+    for (String name : VARY_HEADERS) {
+      String value = null;
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        if (name.equalsIgnoreCase(header.getKey())) {
+          value = header.getValue();
+        }
+      }
+      values.add(value);
+    }
+    return new Key(tenant, method, endpoint, values);
+  }
+
+  /**
+   * Return the cached response if not expired, otherwise the response of the request that is
+   * in flight for this key, otherwise the response of a new request sent using loader.
+   *
+   * @param ttlMillis  time to live if the response has no Cache-Control max-age
+   * @param loader  sends the request, the argument are additional request headers like If-None-Match
+   */
+  CompletableFuture<Response> get(Key key, long ttlMillis,
+      Function<Map<String, String>, CompletableFuture<Response>> loader) {
+
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
+      hitCount.increment();
+      log.debug("entry retrieved from cache: {}", key.endpoint);
+      return CompletableFuture.completedFuture(entry.response);
+    }
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    CompletableFuture<Response> running = inFlight.putIfAbsent(key, future);
+    if (running != null) {
+      hitCount.increment();
+      coalescedCount.increment();
+      return running;
+    }
+    missCount.increment();
+    Map<String, String> extraHeaders = entry == null || entry.etag == null
+        ? Collections.emptyMap() : Collections.singletonMap("If-None-Match", entry.etag);
+    long start = System.nanoTime();
+    CompletableFuture<Response> load;
+    try {
+      load = loader.apply(extraHeaders);
+    } catch (Exception e) {
+      load = new CompletableFuture<>();
+      load.completeExceptionally(e);
+    }
+    load.whenComplete((response, e) -> {
+      totalLoadTime.add(System.nanoTime() - start);
+      Response result = response;
+      if (e != null || response == null) {
+        loadExceptionCount.increment();
+      } else if (response.getCode() == 304 && entry != null) {
+        loadSuccessCount.increment();
+        revalidatedCount.increment();
+        String etag = header(response.getHeaders(), "ETag");
+        put(key, entry.response, etag == null ? entry.etag : etag, response.getHeaders(), ttlMillis, entry.weight);
+        result = entry.response;
+      } else if (Response.isSuccess(response.getCode()) && response.getBody() != null) {
+        loadSuccessCount.increment();
+        put(key, response, header(response.getHeaders(), "ETag"), response.getHeaders(), ttlMillis,
+            response.bodyLength);
+      } else {
+        loadExceptionCount.increment();
+      }
+      inFlight.remove(key, future);
+      if (e != null) {
+        future.completeExceptionally(e);
+      } else {
+        future.complete(result);
+      }
+    });
+    return future;
+  }
+
+  private void put(Key key, Response response, String etag, MultiMap headers, long ttlMillis, int weight) {
+    String cacheControl = header(headers, "Cache-Control");
+    long ttl = ttlMillis;
+    if (cacheControl != null) {
+      for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+        directive = directive.trim();
+        if (directive.equals("no-store")) {
+          cache.invalidate(key);
+          return;
+        }
+        if (directive.equals("no-cache")) {
+          ttl = 0;
+        } else if (directive.startsWith("max-age=")) {
+          try {
+            ttl = Math.min(ttl, Long.parseLong(directive.substring(8)) * 1000);
+          } catch (NumberFormatException e) {
+            log.warn("Invalid Cache-Control of {}: {}", key.endpoint, cacheControl);
+            ttl = 0;
+          }
+        }
+      }
+    }
+    if (weight > maxEntryWeight || (ttl <= 0 && etag == null)) {
+      cache.invalidate(key);
+      return;
+    }
+    cache.put(key, new Entry(response, etag, System.currentTimeMillis() + ttl, weight));
+  }
+
+  private static String header(MultiMap headers, String name) {
+    return headers == null ? null : headers.get(name);
+  }
+
+  void clear() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Hits include the requests coalesced with a request in flight, loads are the requests
+   * sent, including revalidations.
+   */
+  CacheStats stats() {
+    return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadExceptionCount.sum(),
+        totalLoadTime.sum(), cache.stats().evictionCount());
+  }
+
+  /**
+   * @return number of requests that got the response of a request in flight
+   */
+  long getCoalescedCount() {
+    return coalescedCount.sum();
+  }
+
+  /**
+   * @return number of expired entries refreshed by a 304 Not Modified response
+   */
+  long getRevalidatedCount() {
+    return revalidatedCount.sum();
+  }
+
+  /**
+   * @return number of cached responses
+   */
+  long size() {
+    return cache.size();
+  }
+}
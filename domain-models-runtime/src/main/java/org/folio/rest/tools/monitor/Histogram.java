@@ -0,0 +1,70 @@
+package org.folio.rest.tools.monitor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with fixed bucket upper bounds; recording a value is a binary search
+ * and two {@link LongAdder} increments, it doesn't allocate.
+ */
+public final class Histogram {
+  /** latency bucket upper bounds in nanoseconds, from 1 ms to 60 s, 1-2.5-5 steps */
+  static final long[] LATENCY_BOUNDS_NANOS = {
+      1_000_000L, 2_500_000L, 5_000_000L,
+      10_000_000L, 25_000_000L, 50_000_000L,
+      100_000_000L, 250_000_000L, 500_000_000L,
+      1_000_000_000L, 2_500_000_000L, 5_000_000_000L,
+      10_000_000_000L, 30_000_000_000L, 60_000_000_000L,
+  };
+  /** row count bucket upper bounds */
+  static final long[] ROWS_BOUNDS = { 0, 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000 };
+
+  private final long[] bounds;
+  /** counts[i] is the number of values v with bounds[i-1] < v <= bounds[i], the last is +Inf */
+  private final LongAdder[] counts;
+  private final LongAdder sum = new LongAdder();
+
+  /**
+   * @param bounds  bucket upper bounds, inclusive, ascending
+   */
+  public Histogram(long[] bounds) {
+    for (int i = 1; i < bounds.length; i++) {
+      if (bounds[i - 1] >= bounds[i]) {
+        throw new IllegalArgumentException("bounds must be ascending: " + Arrays.toString(bounds));
+      }
+    }
+    this.bounds = bounds.clone();
+    counts = new LongAdder[bounds.length + 1];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  public void record(long value) {
+    int i = Arrays.binarySearch(bounds, value);
+    counts[i >= 0 ? i : -i - 1].increment();
+    sum.add(value);
+  }
+
+  long[] getBounds() {
+    return bounds;
+  }
+
+  /**
+   * @return cumulative counts like Prometheus buckets: element i is the number of values
+   *     &lt;= bounds[i], the last element is the total count
+   */
+  public long[] getCumulativeCounts() {
+    long[] cumulative = new long[counts.length];
+    long total = 0;
+    for (int i = 0; i < counts.length; i++) {
+      total += counts[i].sum();
+      cumulative[i] = total;
+    }
+    return cumulative;
+  }
+
+  public long getSum() {
+    return sum.sum();
+  }
+}
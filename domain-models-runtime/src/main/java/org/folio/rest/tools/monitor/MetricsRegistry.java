@@ -0,0 +1,364 @@
+package org.folio.rest.tools.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics of this module instance: request latency, SQL latency, connection pool
+ * wait time, rows returned and result cache lookups, exported in Prometheus text format by
+ * {@code GET /admin/metrics}.
+ *
+ * <p>Each histogram and counter family limits the number of its label value combinations to
+ * {@link #MAX_SERIES}, further combinations are recorded with all label values set to
+ * {@link #OTHER}.
+ *
+ * <p>Recording a value for an existing label value combination doesn't allocate: The series are
+ * looked up in a tree with one map level per label, and the status codes are cached Strings.
+ */
+public final class MetricsRegistry {
+  /** maximum number of label value combinations per histogram family */
+  public static final int MAX_SERIES = 1000;
+  /** label value for combinations beyond {@link #MAX_SERIES} */
+  public static final String OTHER = "other";
+
+  static final Family HTTP_REQUESTS = new Family("rmb_http_server_requests_seconds",
+      "Latency of the HTTP requests by method, RAML path template and status code",
+      Histogram.LATENCY_BOUNDS_NANOS, 1e9, "method", "path", "status");
+  static final Family SQL = new Family("rmb_sql_seconds",
+      "Latency of the SQL statements by PostgresClient method and table",
+      Histogram.LATENCY_BOUNDS_NANOS, 1e9, "method", "table");
+  static final Family POOL_WAIT = new Family("rmb_db_pool_wait_seconds",
+      "Time waiting for a database connection by tenant",
+      Histogram.LATENCY_BOUNDS_NANOS, 1e9, "tenant");
+  static final Family ROWS = new Family("rmb_sql_rows",
+      "Number of rows returned by SELECT statements by PostgresClient method and table",
+      Histogram.ROWS_BOUNDS, 1, "method", "table");
+  private static final List<Family> FAMILIES = Collections.unmodifiableList(Arrays.asList(
+      HTTP_REQUESTS, SQL, POOL_WAIT, ROWS));
+  static final CounterFamily RESULT_CACHE = new CounterFamily("rmb_result_cache_lookups_total",
+      "Lookups of the ResultCache by cache name and result: heap_hit, table_hit or miss",
+      "cache", "result");
+  private static final List<CounterFamily> COUNTER_FAMILIES = Collections.singletonList(RESULT_CACHE);
+  /** Integer.toString(status) for the HTTP status codes 100 to 599 */
+  private static final String[] STATUS = new String[600];
+
+  static {
+    for (int i = 100; i < STATUS.length; i++) {
+      STATUS[i] = Integer.toString(i);
+    }
+  }
+
+  private MetricsRegistry() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * A value for each combination of label values, up to three labels.
+   *
+   * <p>{@link #get(String, String, String)} walks a tree of maps, one level per label, so that the
+   * lookup of an existing combination doesn't allocate a key. Only the creation of a new combination
+   * allocates and synchronizes.
+   */
+  static final class Series<T> {
+    private final int labelCount;
+    private final Supplier<T> factory;
+    private final List<String> otherKey;
+    /** label value of the first label to a Map of the second label ... to the value */
+    private final Map<String, Object> tree = new ConcurrentHashMap<>();
+    /** all combinations for the export, includes otherKey */
+    private final Map<List<String>, T> all = new ConcurrentHashMap<>();
+    /** value for otherKey, null until {@link #MAX_SERIES} has been reached */
+    private volatile T other;
+
+    Series(int labelCount, Supplier<T> factory) {
+      if (labelCount < 1 || labelCount > 3) {
+        throw new IllegalArgumentException("1 to 3 labels expected: " + labelCount);
+      }
+      this.labelCount = labelCount;
+      this.factory = factory;
+      otherKey = Collections.nCopies(labelCount, OTHER);
+    }
+
+    /**
+     * @param v1  value of the first label
+     * @param v2  value of the second label, ignored if there is only one label
+     * @param v3  value of the third label, ignored if there are less than three labels
+     * @return the value of the combination, created if needed; the value for {@link #OTHER}
+     *     if {@link #MAX_SERIES} has been reached
+     */
+    @SuppressWarnings("unchecked")
+    T get(String v1, String v2, String v3) {
+      Object node = tree.get(nonNull(v1));
+      if (labelCount > 1 && node != null) {
+        node = ((Map<String, Object>) node).get(nonNull(v2));
+      }
+      if (labelCount > 2 && node != null) {
+        node = ((Map<String, Object>) node).get(nonNull(v3));
+      }
+      if (node != null) {
+        return (T) node;
+      }
+      T otherValue = other;
+      if (otherValue != null) {
+        return otherValue;
+      }
+      return create(nonNull(v1), nonNull(v2), nonNull(v3));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized T create(String v1, String v2, String v3) {
+      String[] values = { v1, v2, v3 };
+      List<String> key = Arrays.asList(Arrays.copyOf(values, labelCount));
+      T value = all.get(key);
+      if (value != null) {
+        return value;
+      }
+      if (all.size() >= MAX_SERIES) {
+        if (other == null) {
+          other = all.computeIfAbsent(otherKey, k -> factory.get());
+        }
+        return other;
+      }
+      value = factory.get();
+      Map<String, Object> map = tree;
+      for (int i = 0; i < labelCount - 1; i++) {
+        map = (Map<String, Object>) map.computeIfAbsent(values[i], k -> new ConcurrentHashMap<String, Object>());
+      }
+      map.put(values[labelCount - 1], value);
+      all.put(key, value);
+      return value;
+    }
+
+    /**
+     * Lookup without creating, for tests.
+     *
+     * @return the value of the combination, or null if it doesn't exist
+     */
+    T find(String... labelValues) {
+      return all.get(Arrays.asList(labelValues));
+    }
+
+    synchronized void clear() {
+      other = null;
+      tree.clear();
+      all.clear();
+    }
+
+    Map<List<String>, T> getAll() {
+      return all;
+    }
+
+    private static String nonNull(String value) {
+      return value == null ? "" : value;
+    }
+  }
+
+  /**
+   * A histogram for each combination of label values.
+   */
+  static final class Family {
+    private final String name;
+    private final String help;
+    private final long[] bounds;
+    private final double divisor;
+    private final String[] labelNames;
+    private final Series<Histogram> series;
+
+    /**
+     * @param divisor  to convert the recorded unit into the exported unit, 1e9 for nanoseconds to seconds
+     */
+    Family(String name, String help, long[] bounds, double divisor, String... labelNames) {
+      this.name = name;
+      this.help = help;
+      this.bounds = bounds;
+      this.divisor = divisor;
+      this.labelNames = labelNames;
+      series = new Series<>(labelNames.length, () -> new Histogram(bounds));
+    }
+
+    void record(long value, String v1) {
+      series.get(v1, null, null).record(value);
+    }
+
+    void record(long value, String v1, String v2) {
+      series.get(v1, v2, null).record(value);
+    }
+
+    void record(long value, String v1, String v2, String v3) {
+      series.get(v1, v2, v3).record(value);
+    }
+
+    Histogram get(String... labelValues) {
+      return series.find(labelValues);
+    }
+
+    void clear() {
+      series.clear();
+    }
+
+    void toPrometheus(StringBuilder sb) {
+      sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      sb.append("# TYPE ").append(name).append(" histogram\n");
+      // sorted output is easier to read and to diff
+      Map<String, Histogram> sorted = new TreeMap<>();
+      series.getAll().forEach((labelValues, histogram) -> sorted.put(labels(labelValues), histogram));
+      sorted.forEach((labels, histogram) -> {
+        long[] cumulative = histogram.getCumulativeCounts();
+        String prefix = labels.isEmpty() ? "{" : "{" + labels + ",";
+        for (int i = 0; i < bounds.length; i++) {
+          sb.append(name).append("_bucket").append(prefix).append("le=\"")
+            .append(format(bounds[i] / divisor)).append("\"} ").append(cumulative[i]).append('\n');
+        }
+        long count = cumulative[cumulative.length - 1];
+        sb.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(count).append('\n');
+        sb.append(name).append("_sum{").append(labels).append("} ")
+          .append(format(histogram.getSum() / divisor)).append('\n');
+        sb.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+      });
+    }
+
+    private String labels(List<String> labelValues) {
+      return MetricsRegistry.labels(labelNames, labelValues);
+    }
+  }
+
+  /**
+   * A counter for each combination of label values.
+   */
+  static final class CounterFamily {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Series<LongAdder> series;
+
+    CounterFamily(String name, String help, String... labelNames) {
+      this.name = name;
+      this.help = help;
+      this.labelNames = labelNames;
+      series = new Series<>(labelNames.length, LongAdder::new);
+    }
+
+    void increment(String v1, String v2) {
+      series.get(v1, v2, null).increment();
+    }
+
+    long get(String... labelValues) {
+      LongAdder counter = series.find(labelValues);
+      return counter == null ? 0 : counter.sum();
+    }
+
+    void clear() {
+      series.clear();
+    }
+
+    void toPrometheus(StringBuilder sb) {
+      sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      sb.append("# TYPE ").append(name).append(" counter\n");
+      Map<String, LongAdder> sorted = new TreeMap<>();
+      series.getAll().forEach((labelValues, counter) -> sorted.put(labels(labelNames, labelValues), counter));
+      sorted.forEach((labels, counter) ->
+        sb.append(name).append('{').append(labels).append("} ").append(counter.sum()).append('\n'));
+    }
+  }
+
+  static String labels(String[] labelNames, List<String> labelValues) {
+    List<String> list = new ArrayList<>(labelNames.length);
+    for (int i = 0; i < labelNames.length; i++) {
+      list.add(labelNames[i] + "=\"" + escape(labelValues.get(i)) + "\"");
+    }
+    return String.join(",", list);
+  }
+
+  /**
+   * Escape backslash, double-quote and line feed as required for Prometheus label values.
+   */
+  static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  static String format(double value) {
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+
+  static String status(int status) {
+    if (status >= 100 && status < STATUS.length) {
+      return STATUS[status];
+    }
+    return Integer.toString(status);
+  }
+
+  /**
+   * @param method  HTTP method like GET
+   * @param path  RAML path template like /instance-storage/instances/{instanceId}
+   * @param status  HTTP status code of the response
+   * @param nanos  request duration in nanoseconds
+   */
+  public static void recordRequest(String method, String path, int status, long nanos) {
+    HTTP_REQUESTS.record(nanos, method, path, status(status));
+  }
+
+  /**
+   * @param method  PostgresClient stat method like get, save, update, delete, execute, prepare
+   * @param table  table name without schema, null if unknown
+   * @param nanos  duration in nanoseconds
+   */
+  public static void recordSql(String method, String table, long nanos) {
+    SQL.record(nanos, method, table == null ? "" : table);
+  }
+
+  /**
+   * @param tenant  tenant of the connection
+   * @param nanos  time between requesting and getting the connection
+   */
+  public static void recordPoolWait(String tenant, long nanos) {
+    POOL_WAIT.record(nanos, tenant);
+  }
+
+  /**
+   * @param method  PostgresClient stat method like get
+   * @param table  table name without schema, null if unknown
+   * @param rows  number of rows returned
+   */
+  public static void recordRows(String method, String table, long rows) {
+    ROWS.record(rows, method, table == null ? "" : table);
+  }
+
+  /**
+   * @param cache  name of the ResultCache entry
+   * @param result  heap_hit, table_hit or miss
+   */
+  public static void recordResultCache(String cache, String result) {
+    RESULT_CACHE.increment(cache, result);
+  }
+
+  /**
+   * @return all metrics in Prometheus text exposition format version 0.0.4
+   */
+  public static String toPrometheus() {
+    StringBuilder sb = new StringBuilder();
+    FAMILIES.forEach(family -> family.toPrometheus(sb));
+    COUNTER_FAMILIES.forEach(family -> family.toPrometheus(sb));
+    return sb.toString();
+  }
+
+  /**
+   * Remove all recorded values.
+   */
+  public static void clear() {
+    FAMILIES.forEach(Family::clear);
+    COUNTER_FAMILIES.forEach(CounterFamily::clear);
+  }
+}
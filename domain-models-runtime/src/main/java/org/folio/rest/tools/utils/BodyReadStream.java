@@ -0,0 +1,117 @@
+package org.folio.rest.tools.utils;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.streams.ReadStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The request body of an {@code @Stream(readStream = true)} function.
+ *
+ * <p>It is passed as the InputStream parameter of the generated interface but must be used as
+ * {@code ReadStream<Buffer>}: The body arrives in chunks on the event loop, use {@link #pause()}
+ * and {@link #resume()} or {@link #pipeTo} for backpressure so that the heap usage doesn't depend
+ * on the body size. The blocking InputStream read methods are not supported.
+ *
+ * <p>The request is paused until a handler is set, no chunk is lost.
+ *
+ * <pre>
+ * &#64;Stream(readStream = true)
+ * public void postImport(InputStream inputStream, ...) {
+ *   BodyReadStream body = (BodyReadStream) inputStream;
+ *   body.spillToDisk().onComplete(path -&gt; ...);
+ * }
+ * </pre>
+ */
+public class BodyReadStream extends InputStream implements ReadStream<Buffer> {
+  private final Vertx vertx;
+  private final ReadStream<Buffer> request;
+  private boolean userPaused;
+
+  /**
+   * @param request  the request body, it must be paused
+   */
+  public BodyReadStream(Vertx vertx, ReadStream<Buffer> request) {
+    this.vertx = vertx;
+    this.request = request;
+  }
+
+  @Override
+  public BodyReadStream exceptionHandler(Handler<Throwable> handler) {
+    request.exceptionHandler(handler);
+    return this;
+  }
+
+  /**
+   * Set the chunk handler, this resumes the request unless {@link #pause()} has been called.
+   */
+  @Override
+  public BodyReadStream handler(Handler<Buffer> handler) {
+    request.handler(handler);
+    if (handler != null && ! userPaused) {
+      request.resume();
+    }
+    return this;
+  }
+
+  @Override
+  public BodyReadStream pause() {
+    userPaused = true;
+    request.pause();
+    return this;
+  }
+
+  @Override
+  public BodyReadStream resume() {
+    userPaused = false;
+    request.resume();
+    return this;
+  }
+
+  @Override
+  public BodyReadStream fetch(long amount) {
+    request.fetch(amount);
+    return this;
+  }
+
+  @Override
+  public BodyReadStream endHandler(Handler<Void> endHandler) {
+    request.endHandler(endHandler);
+    return this;
+  }
+
+  /**
+   * Write the body into the file, the write queue of the file controls the backpressure.
+   *
+   * @param path  the file to create or overwrite
+   */
+  public Future<Void> pipeToFile(String path) {
+    return vertx.fileSystem().open(path, new OpenOptions().setCreate(true).setTruncateExisting(true))
+        .compose(this::pipeTo);
+  }
+
+  /**
+   * Write the body into a new temporary file. The caller must delete the file.
+   *
+   * @return the path of the temporary file
+   */
+  public Future<String> spillToDisk() {
+    return vertx.fileSystem().createTempFile("rmb-upload-", ".tmp")
+        .compose(path -> pipeToFile(path).map(path));
+  }
+
+  /**
+   * Not supported, use the ReadStream methods.
+   *
+   * @throws IOException always
+   */
+  @Override
+  public int read() throws IOException {
+    throw new IOException("Blocking read is not supported, use the ReadStream<Buffer> methods of "
+        + BodyReadStream.class.getName());
+  }
+}
@@ -0,0 +1,119 @@
+package org.folio.rest.tools.utils;
+
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * OutputStream that collects the bytes into {@link Buffer}s of chunkSize bytes and passes
+ * each full Buffer to a sink, for example {@link io.vertx.core.http.HttpServerResponse#write(Buffer)}.
+ *
+ * <p>This allows Jackson to serialize directly into the response without creating a String
+ * of the complete JSON and copying it into a Buffer.
+ *
+ * <p>{@link #flush()} and {@link #close()} pass the pending bytes to the sink. Writing after
+ * {@link #close()} throws an {@link IllegalStateException}.
+ */
+public class ChunkedOutputStream extends OutputStream {
+
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  private final Consumer<Buffer> sink;
+  private final int chunkSize;
+  private Buffer buffer;
+  private long count;
+  private boolean closed;
+
+  /**
+   * @param sink  where to pass the chunks to
+   */
+  public ChunkedOutputStream(Consumer<Buffer> sink) {
+    this(sink, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param sink  where to pass the chunks to
+   * @param chunkSize  maximum number of bytes of a chunk, must be positive
+   */
+  public ChunkedOutputStream(Consumer<Buffer> sink, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    this.sink = sink;
+    this.chunkSize = chunkSize;
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("stream has been closed");
+    }
+    if (buffer == null) {
+      buffer = Buffer.buffer(chunkSize);
+    }
+  }
+
+  @Override
+  public void write(int b) {
+    ensureOpen();
+    buffer.appendByte((byte) b);
+    count++;
+    if (buffer.length() >= chunkSize) {
+      emit();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    if (off < 0 || len < 0 || off + len > b.length) {
+      throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", b.length=" + b.length);
+    }
+    while (len > 0) {
+      ensureOpen();
+      int n = Math.min(len, chunkSize - buffer.length());
+      buffer.appendBytes(b, off, n);
+      count += n;
+      off += n;
+      len -= n;
+      if (buffer.length() >= chunkSize) {
+        emit();
+      }
+    }
+  }
+
+  private void emit() {
+    if (buffer == null || buffer.length() == 0) {
+      return;
+    }
+    Buffer chunk = buffer;
+    buffer = null;
+    sink.accept(chunk);
+  }
+
+  /**
+   * Pass the pending bytes, if any, to the sink.
+   */
+  @Override
+  public void flush() {
+    emit();
+  }
+
+  /**
+   * Pass the pending bytes, if any, to the sink. Closing a closed stream has no effect.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    emit();
+    closed = true;
+  }
+
+  /**
+   * @return number of bytes written so far
+   */
+  public long getCount() {
+    return count;
+  }
+}
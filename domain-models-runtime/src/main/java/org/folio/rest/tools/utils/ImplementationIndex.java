@@ -0,0 +1,193 @@
+package org.folio.rest.tools.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.tools.AnnotationGrabber;
+import org.folio.rest.tools.PomReader;
+import org.folio.rest.tools.RTFConsts;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Routing and implementation index created at build time, it avoids the classpath scans
+ * of {@link AnnotationGrabber#generateMappings()} and {@link InterfaceToImpl#convert2Impl(String, String, boolean)}
+ * on startup.
+ *
+ * <p>{@link #main(String[])} runs in the process-classes phase of the module's build when the generated
+ * interfaces and the implementations in org.folio.rest.impl have been compiled. It writes
+ * target/classes/{@value #RESOURCE_DIR}/$moduleName.json with the mappings and the implementing class names
+ * of each generated interface and each hook interface like InitAPI and PeriodicAPI. The module name
+ * in the resource path prevents that the index of a dependency jar shadows the module's index.
+ *
+ * <p>Without that resource, or if it maps an interface that doesn't exist, RestVerticle falls back to
+ * the classpath scans.
+ */
+public final class ImplementationIndex {
+  public static final String RESOURCE_DIR = "rmb-routing-index";
+  static final String IMPL_DIR = "implDir";
+  static final String MAPPINGS = "mappings";
+  static final String IMPLEMENTATIONS = "implementations";
+  /** hook interface name without package, whether multiple implementations are allowed */
+  static final String[][] HOOKS = {
+      { "InitAPI", "false" },
+      { "PeriodicAPI", "true" },
+      { "PostDeployVerticle", "true" },
+      { "ShutdownAPI", "false" },
+  };
+
+  private static final Logger log = LogManager.getLogger(ImplementationIndex.class);
+  private static final JsonObject NONE = new JsonObject();
+  private static volatile JsonObject index;
+
+  private ImplementationIndex() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * @return the resource of this module's index, {@value #RESOURCE_DIR}/$moduleName.json,
+   *     see {@link PomReader#getModuleName()}
+   */
+  public static String resource() {
+    return RESOURCE_DIR + "/" + PomReader.INSTANCE.getModuleName() + ".json";
+  }
+
+  /**
+   * Write target/classes/{@value #RESOURCE_DIR}/$moduleName.json.
+   *
+   * <p>The output directory is relative to the directory specified by the system property
+   * <code>project.basedir</code>, default is the current directory.
+   *
+   * @param args  are ignored
+   * @throws Exception  on reflection or file write error
+   */
+  public static void main(String[] args) throws Exception {
+    String root = System.getProperty("project.basedir", ".");
+    File file = new File(root + File.separator + "target" + File.separator + "classes" + File.separator + resource());
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), create().encodePrettily().getBytes(StandardCharsets.UTF_8));
+    log.info("routing and implementation index created: " + file.getAbsolutePath());
+  }
+
+  /**
+   * Scan the classpath like RestVerticle does on startup.
+   *
+   * <p>An interface without implementation gets an empty list. An interface with
+   * duplicate implementations is omitted, the runtime scan reports the error.
+   */
+  static JsonObject create() throws Exception {
+    JsonObject mappings = AnnotationGrabber.generateMappings();
+    List<String> interfaces = new ArrayList<>();
+    mappings.forEach(entry -> interfaces.add(((JsonObject) entry.getValue()).getString(AnnotationGrabber.CLASS_NAME)));
+    JsonObject implementations = new JsonObject();
+    for (String anInterface : interfaces) {
+      put(implementations, anInterface, false);
+    }
+    for (String [] hook : HOOKS) {
+      put(implementations, RTFConsts.PACKAGE_OF_HOOK_INTERFACES + "." + hook[0], Boolean.parseBoolean(hook[1]));
+    }
+    return new JsonObject()
+        .put(IMPL_DIR, RTFConsts.PACKAGE_OF_IMPLEMENTATIONS)
+        .put(MAPPINGS, mappings)
+        .put(IMPLEMENTATIONS, implementations);
+  }
+
+  private static void put(JsonObject implementations, String anInterface, boolean allowMultiple) {
+    JsonArray names = new JsonArray();
+    try {
+      for (Class<?> clazz : InterfaceToImpl.scan(RTFConsts.PACKAGE_OF_IMPLEMENTATIONS, anInterface, allowMultiple)) {
+        names.add(clazz.getName());
+      }
+    } catch (ClassNotFoundException e) {
+      // no implementation, this is fine for hooks
+    } catch (Exception e) {
+      log.warn(e.getMessage());
+      return;
+    }
+    implementations.put(anInterface, names);
+  }
+
+  private static JsonObject index() {
+    JsonObject result = index;
+    if (result == null) {
+      result = load(resource());
+      index = result;
+    }
+    return result;
+  }
+
+  static JsonObject load(String resource) {
+    try (InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+      if (inputStream == null) {
+        log.info(resource + " not found, scanning the classpath for routes and implementations");
+        return NONE;
+      }
+      return verify(resource, new JsonObject(IOUtils.toString(inputStream, StandardCharsets.UTF_8)));
+    } catch (IOException | RuntimeException e) {
+      log.warn("Cannot read " + resource + ", scanning the classpath for routes and implementations: "
+          + e.getMessage(), e);
+      return NONE;
+    }
+  }
+
+  /**
+   * @return newIndex if all generated interfaces of its mappings exist, otherwise an empty index
+   */
+  static JsonObject verify(String resource, JsonObject newIndex) {
+    JsonObject mappings = newIndex.getJsonObject(MAPPINGS, NONE);
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    for (String path : mappings.fieldNames()) {
+      String className = mappings.getJsonObject(path).getString(AnnotationGrabber.CLASS_NAME);
+      try {
+        Class.forName(className, false, classLoader);
+      } catch (ClassNotFoundException | RuntimeException e) {
+        log.warn(resource + " is outdated or from a different module, class not found: " + className
+            + ", scanning the classpath for routes and implementations");
+        return NONE;
+      }
+    }
+    return newIndex;
+  }
+
+  /**
+   * Use this index instead of the resource, null to load the resource again.
+   */
+  static void set(JsonObject newIndex) {
+    index = newIndex;
+  }
+
+  /**
+   * @return a copy of the mappings like {@link AnnotationGrabber#generateMappings()}, null if there is no index
+   */
+  public static JsonObject getMappings() {
+    JsonObject mappings = index().getJsonObject(MAPPINGS);
+    return mappings == null ? null : mappings.copy();
+  }
+
+  /**
+   * @return the class names implementing the interface, empty list if there isn't any
+   *     implementation, null if the index doesn't know the interface
+   */
+  public static List<String> getImplementations(String implDir, String interface2check) {
+    JsonObject result = index();
+    if (! implDir.equals(result.getString(IMPL_DIR))) {
+      return null;
+    }
+    JsonArray names = result.getJsonObject(IMPLEMENTATIONS, NONE).getJsonArray(interface2check);
+    if (names == null) {
+      return null;
+    }
+    List<String> list = new ArrayList<>();
+    names.forEach(name -> list.add((String) name));
+    return list;
+  }
+}
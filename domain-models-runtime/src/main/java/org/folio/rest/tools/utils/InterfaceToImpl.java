@@ -2,6 +2,7 @@ package org.folio.rest.tools.utils;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,7 +19,8 @@ public class InterfaceToImpl {
   private static final Logger log = LogManager.getLogger(InterfaceToImpl.class);
 
   /**
-   * Return the implementing class.
+   * Return the implementing class, taken from the {@link ImplementationIndex} if it knows the interface,
+   * otherwise found by a classpath scan.
    *
    * @param implDir
    *          - package name where to search
@@ -31,13 +33,55 @@ public class InterfaceToImpl {
    *           - if no class in implDir implements the interface
    */
   public static ArrayList<Class<?>> convert2Impl(String implDir, String interface2check, boolean allowMultiple) throws IOException, ClassNotFoundException {
-    ArrayList<Class<?>> impl = new ArrayList<>();
     ArrayList<Class<?>> cachedClazz = clazzCache.get(implDir, interface2check);
     if(cachedClazz != null){
       log.debug("returned {} class/es from cache", cachedClazz.size());
       return cachedClazz;
     }
 
+    ArrayList<Class<?>> impl = fromIndex(implDir, interface2check);
+    if (impl == null) {
+      impl = scan(implDir, interface2check, allowMultiple);
+    }
+    clazzCache.put(implDir, interface2check, impl);
+    return impl;
+  }
+
+  /**
+   * Load the implementing classes listed in the {@link ImplementationIndex} created at build time.
+   *
+   * @return the classes, or null if the index doesn't know the interface or lists a class that cannot be loaded
+   * @throws ClassNotFoundException  if the index lists no implementation
+   */
+  private static ArrayList<Class<?>> fromIndex(String implDir, String interface2check) throws ClassNotFoundException {
+    List<String> names = ImplementationIndex.getImplementations(implDir, interface2check);
+    if (names == null) {
+      return null;
+    }
+    if (names.isEmpty()) {
+      throw new ClassNotFoundException("Implementation of " + interface2check + " not found in " + implDir);
+    }
+    ArrayList<Class<?>> impl = new ArrayList<>();
+    for (String name : names) {
+      try {
+        impl.add(Class.forName(name));
+      } catch (ClassNotFoundException e) {
+        log.warn("Outdated " + ImplementationIndex.resource() + ", class not found: " + name);
+        return null;
+      }
+    }
+    return impl;
+  }
+
+  /**
+   * Scan the classpath for the classes in implDir that implement the interface.
+   *
+   * @return implementing class/es
+   * @throws IOException  if the attempt to read class path resources (jar files or directories) failed.
+   * @throws ClassNotFoundException  if no class in implDir implements the interface
+   */
+  static ArrayList<Class<?>> scan(String implDir, String interface2check, boolean allowMultiple) throws IOException, ClassNotFoundException {
+    ArrayList<Class<?>> impl = new ArrayList<>();
     ClassPath classPath = ClassPath.from(Thread.currentThread().getContextClassLoader());
     Set<ClassPath.ClassInfo> classes = classPath.getTopLevelClasses(implDir);
 
@@ -92,7 +136,6 @@ public class InterfaceToImpl {
     if (impl.isEmpty()) {
       throw new ClassNotFoundException("Implementation of " + interface2check + " not found in " + implDir);
     }
-    clazzCache.put(implDir, interface2check, impl);
     return impl;
   }
 
@@ -0,0 +1,65 @@
+package org.folio.rest.tools.utils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * The JSON of a value in chunks of {@link ChunkedOutputStream} that the caller pulls one after
+ * the other using {@link #next()}, for example when the write queue of the HTTP response has
+ * space again.
+ *
+ * <p>The value is serialized once into a Jackson {@link TokenBuffer}, it references the Strings
+ * of the value and doesn't contain the bytes of the JSON. {@link #next()} generates the bytes of
+ * the next chunk only, therefore a slow consumer doesn't make the complete JSON pile up in memory,
+ * and no thread needs to block.
+ */
+public class JsonChunks {
+  private final Deque<Buffer> chunks = new ArrayDeque<>();
+  private final JsonParser tokens;
+  private final ChunkedOutputStream out;
+  private final JsonGenerator generator;
+  private boolean done;
+
+  /**
+   * Serialize the value into tokens.
+   *
+   * @param writer  how to serialize the value, including pretty printing
+   * @param value  what to serialize
+   * @param chunkSize  maximum number of bytes of a chunk, must be positive
+   * @throws IOException  if the serialization of the value fails
+   */
+  public JsonChunks(ObjectWriter writer, Object value, int chunkSize) throws IOException {
+    // with the codec nested values like the Map of a JsonObject become tokens, not a single embedded object
+    TokenBuffer tokenBuffer = new TokenBuffer(writer.getFactory().getCodec(), false);
+    writer.writeValue(tokenBuffer, value);
+    tokens = tokenBuffer.asParser();
+    out = new ChunkedOutputStream(chunks::add, chunkSize);
+    generator = writer.createGenerator(out);
+  }
+
+  /**
+   * @return the next chunk of the JSON, or null if all chunks have been returned
+   * @throws IOException  if the generation of the JSON fails
+   */
+  public Buffer next() throws IOException {
+    while (chunks.isEmpty() && ! done) {
+      if (tokens.nextToken() == null) {
+        generator.close();
+        out.close();
+        tokens.close();
+        done = true;
+      } else {
+        generator.copyCurrentEvent(tokens);
+      }
+    }
+    return chunks.poll();
+  }
+}
@@ -0,0 +1,315 @@
+package org.folio.rest.tools.utils;
+
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental multipart/form-data parser that consumes the body chunk by chunk, for example
+ * from a {@link BodyReadStream}, so that the heap usage doesn't depend on the body size.
+ *
+ * <p>The part data handed to {@link #dataHandler(Handler)} are slices of the received chunks,
+ * they are not copied. Only the part headers and up to delimiter length - 1 bytes that may be
+ * the beginning of a delimiter are held back.
+ *
+ * <pre>
+ * MultipartParser parser = new MultipartParser(MultipartParser.boundary(contentType))
+ *     .partHandler(headers -&gt; ...)
+ *     .dataHandler(buffer -&gt; ...)
+ *     .partEndHandler(x -&gt; ...)
+ *     .endHandler(x -&gt; ...)
+ *     .exceptionHandler(e -&gt; ...);
+ * body.handler(parser).endHandler(x -&gt; parser.end());
+ * </pre>
+ */
+public class MultipartParser implements Handler<Buffer> {
+  private static final int MAX_HEADER_SIZE_DEFAULT = 16 * 1024;
+  private static final byte[] CRLF = { '\r', '\n' };
+  private static final byte[] CRLFCRLF = { '\r', '\n', '\r', '\n' };
+
+  private enum State {
+    PREAMBLE, DELIMITER_SUFFIX, HEADERS, BODY, EPILOGUE, FAILED
+  }
+
+  /** CRLF -- boundary */
+  private final byte[] delimiter;
+  private State state = State.PREAMBLE;
+  /** held back bytes: in PREAMBLE and BODY a possible delimiter start, otherwise the incomplete line(s) */
+  private Buffer pending;
+  private int maxHeaderSize = MAX_HEADER_SIZE_DEFAULT;
+  private Handler<MultiMap> partHandler = x -> { };
+  private Handler<Buffer> dataHandler = x -> { };
+  private Handler<Void> partEndHandler = x -> { };
+  private Handler<Void> endHandler = x -> { };
+  private Handler<Throwable> exceptionHandler = x -> { };
+
+  /**
+   * @param boundary  the boundary parameter of the Content-Type header
+   */
+  public MultipartParser(String boundary) {
+    if (boundary == null || boundary.isEmpty()) {
+      throw new IllegalArgumentException("multipart boundary is missing");
+    }
+    delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+    // the body starts with --boundary, not with CRLF --boundary
+    pending = Buffer.buffer(CRLF);
+  }
+
+  /**
+   * @return the boundary parameter of the Content-Type, for example
+   *     {@code multipart/form-data; boundary="abc"} returns abc, null if there isn't any
+   */
+  public static String boundary(String contentType) {
+    if (contentType == null) {
+      return null;
+    }
+    for (String param : contentType.split(";")) {
+      String [] nameValue = param.trim().split("=", 2);
+      if (nameValue.length == 2 && "boundary".equalsIgnoreCase(nameValue[0].trim())) {
+        String value = nameValue[1].trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+          value = value.substring(1, value.length() - 1);
+        }
+        return value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param handler  called with the headers at the start of each part
+   */
+  public MultipartParser partHandler(Handler<MultiMap> handler) {
+    partHandler = handler;
+    return this;
+  }
+
+  /**
+   * @param handler  called with the data of the current part, possibly several times per part
+   */
+  public MultipartParser dataHandler(Handler<Buffer> handler) {
+    dataHandler = handler;
+    return this;
+  }
+
+  /**
+   * @param handler  called at the end of each part
+   */
+  public MultipartParser partEndHandler(Handler<Void> handler) {
+    partEndHandler = handler;
+    return this;
+  }
+
+  /**
+   * @param handler  called after the close delimiter
+   */
+  public MultipartParser endHandler(Handler<Void> handler) {
+    endHandler = handler;
+    return this;
+  }
+
+  /**
+   * @param handler  called on malformed input; the remaining input is ignored
+   */
+  public MultipartParser exceptionHandler(Handler<Throwable> handler) {
+    exceptionHandler = handler;
+    return this;
+  }
+
+  /**
+   * @param maxHeaderSize  maximum number of bytes of the headers of a part, default 16 KB
+   */
+  public MultipartParser setMaxHeaderSize(int maxHeaderSize) {
+    this.maxHeaderSize = maxHeaderSize;
+    return this;
+  }
+
+  @Override
+  public void handle(Buffer chunk) {
+    Buffer data = chunk;
+    while (data != null && data.length() > 0) {
+      switch (state) {
+      case PREAMBLE:
+      case BODY:
+        data = content(data);
+        break;
+      case DELIMITER_SUFFIX:
+        data = delimiterSuffix(data);
+        break;
+      case HEADERS:
+        data = headers(data);
+        break;
+      default:  // EPILOGUE, FAILED
+        return;
+      }
+    }
+  }
+
+  /**
+   * Signal the end of the body.
+   */
+  public void end() {
+    if (state != State.EPILOGUE && state != State.FAILED) {
+      fail("Unexpected end of multipart body, close delimiter is missing");
+    }
+  }
+
+  private void fail(String message) {
+    state = State.FAILED;
+    pending = null;
+    exceptionHandler.handle(new IllegalArgumentException(message));
+  }
+
+  private void emit(Buffer buffer) {
+    if (state == State.BODY && buffer.length() > 0) {
+      dataHandler.handle(buffer);
+    }
+  }
+
+  /**
+   * Search the delimiter in pending + data without copying data.
+   *
+   * @return the data after the delimiter, null if more data is needed
+   */
+  private Buffer content(Buffer data) {
+    int pendingLength = pending.length();
+    // delimiter that starts in pending and ends in data
+    for (int i = 0; i < pendingLength; i++) {
+      int inPending = pendingLength - i;
+      if (! regionMatches(pending, i, delimiter, 0, inPending)) {
+        continue;
+      }
+      int inData = delimiter.length - inPending;
+      int available = Math.min(inData, data.length());
+      if (! regionMatches(data, 0, delimiter, inPending, available)) {
+        continue;
+      }
+      if (available < inData) {
+        // cannot decide yet, data is shorter than the delimiter: search again in the combination
+        Buffer combined = Buffer.buffer(pendingLength + data.length()).appendBuffer(pending).appendBuffer(data);
+        pending = Buffer.buffer();
+        return combined;
+      }
+      emit(pending.slice(0, i));
+      delimiterFound();
+      return data.slice(inData, data.length());
+    }
+    emit(pending);
+    int pos = indexOf(data, delimiter);
+    if (pos >= 0) {
+      emit(data.slice(0, pos));
+      delimiterFound();
+      return data.slice(pos + delimiter.length, data.length());
+    }
+    int keep = Math.min(delimiter.length - 1, data.length());
+    emit(data.slice(0, data.length() - keep));
+    pending = data.slice(data.length() - keep, data.length());
+    return null;
+  }
+
+  private void delimiterFound() {
+    if (state == State.BODY) {
+      partEndHandler.handle(null);
+    }
+    state = State.DELIMITER_SUFFIX;
+    pending = Buffer.buffer();
+  }
+
+  /**
+   * Prepend the pending bytes, copying data only if pending isn't empty.
+   */
+  private Buffer withPending(Buffer data) {
+    return pending.length() == 0 ? data : pending.appendBuffer(data);
+  }
+
+  /**
+   * Keep the incomplete line(s) for the next chunk.
+   */
+  private Buffer needMore(Buffer buffer, String tooLong) {
+    if (buffer.length() > maxHeaderSize) {
+      fail(tooLong);
+      return null;
+    }
+    pending = buffer == pending ? pending : Buffer.buffer(buffer.length()).appendBuffer(buffer);
+    return null;
+  }
+
+  /**
+   * After the delimiter: -- for the close delimiter, or optional whitespace and CRLF.
+   */
+  private Buffer delimiterSuffix(Buffer data) {
+    Buffer buffer = withPending(data);
+    if (buffer.length() >= 2 && buffer.getByte(0) == '-' && buffer.getByte(1) == '-') {
+      state = State.EPILOGUE;
+      pending = null;
+      endHandler.handle(null);
+      return null;
+    }
+    int crlf = indexOf(buffer, CRLF);
+    if (crlf < 0) {
+      return needMore(buffer, "Multipart delimiter line is too long");
+    }
+    for (int i = 0; i < crlf; i++) {
+      byte b = buffer.getByte(i);
+      if (b != ' ' && b != '\t') {
+        fail("Invalid character after multipart delimiter");
+        return null;
+      }
+    }
+    state = State.HEADERS;
+    pending = Buffer.buffer();
+    return buffer.slice(crlf + CRLF.length, buffer.length());
+  }
+
+  private Buffer headers(Buffer data) {
+    Buffer buffer = withPending(data);
+    int end;
+    int skip;
+    if (buffer.length() >= 2 && buffer.getByte(0) == '\r' && buffer.getByte(1) == '\n') {
+      end = 0;  // no headers
+      skip = 2;
+    } else {
+      end = indexOf(buffer, CRLFCRLF);
+      skip = 4;
+    }
+    if (end < 0) {
+      return needMore(buffer, "Multipart headers exceed " + maxHeaderSize + " bytes");
+    }
+    MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+    if (end > 0) {
+      for (String line : buffer.getString(0, end, StandardCharsets.UTF_8.name()).split("\r\n")) {
+        int colon = line.indexOf(':');
+        if (colon <= 0) {
+          fail("Invalid multipart header line: " + line);
+          return null;
+        }
+        headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+      }
+    }
+    state = State.BODY;
+    pending = Buffer.buffer();
+    partHandler.handle(headers);
+    return buffer.slice(end + skip, buffer.length());
+  }
+
+  private static boolean regionMatches(Buffer buffer, int offset, byte[] bytes, int bytesOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      if (buffer.getByte(offset + i) != bytes[bytesOffset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int indexOf(Buffer buffer, byte[] bytes) {
+    int last = buffer.length() - bytes.length;
+    byte first = bytes[0];
+    for (int i = 0; i <= last; i++) {
+      if (buffer.getByte(i) == first && regionMatches(buffer, i + 1, bytes, 1, bytes.length - 1)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -1,12 +1,15 @@
 package org.folio.rest.tools.utils;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
@@ -18,7 +21,9 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -89,6 +94,10 @@ public class TenantLoading {
 
     UnaryOperator<String> contentFilter;
     Set<Integer> statusAccept;
+    int concurrency;
+    String batchUriPath;
+    String batchProperty;
+    int batchSize;
     String key;
     String lead;
     String filePath;
@@ -105,6 +114,10 @@ public class TenantLoading {
       this.idProperty = le.idProperty;
       this.contentFilter = le.contentFilter;
       this.statusAccept = le.statusAccept;
+      this.concurrency = le.concurrency;
+      this.batchUriPath = le.batchUriPath;
+      this.batchProperty = le.batchProperty;
+      this.batchSize = le.batchSize;
     }
 
     LoadingEntry() {
@@ -112,6 +125,7 @@ public class TenantLoading {
       this.idProperty = "id";
       this.contentFilter = null;
       this.statusAccept = new HashSet<>();
+      this.concurrency = 1;
     }
   }
 
@@ -119,6 +133,8 @@ public class TenantLoading {
 
   List<LoadingEntry> loadingEntries;
 
+  private final List<Stats> stats = new ArrayList<>();
+
   public TenantLoading() {
     loadingEntries = new LinkedList<>();
     nextEntry = new LoadingEntry();
@@ -233,87 +249,287 @@ public class TenantLoading {
     }
   }
 
-  private static Future<Void> loadURL(Map<String, String> headers, URL url,
-                                      WebClient httpClient, LoadingEntry loadingEntry, String endPointUrl) {
+  /**
+   * Throughput statistics of the loading of one entry, see {@link #getStats()}.
+   */
+  public static class Stats {
+    private final String key;
+    private final String filePath;
+    private final String uriPath;
+    private int records;
+    private int requests;
+    private long millis;
+
+    Stats(String key, String filePath, String uriPath) {
+      this.key = key;
+      this.filePath = filePath;
+      this.uriPath = uriPath;
+    }
 
-    return getContent(url, loadingEntry)
-        .compose(content -> getId(loadingEntry, url, content)
-            .compose(id -> loadURL(headers, content, id, httpClient, loadingEntry, endPointUrl)));
-  }
+    /**
+     * @return the Tenant Init parameter key of the entry
+     */
+    public String getKey() {
+      return key;
+    }
 
-  private static Future<Void> loadURL(Map<String, String> headers, String content, String id,
-                                      WebClient httpClient, LoadingEntry loadingEntry, String endPointUrl) {
-    StringBuilder putUri = new StringBuilder();
-    HttpMethod method1t;
-    if (loadingEntry.strategy == Strategy.RAW_POST) {
-      method1t = HttpMethod.POST;
-    } else {
-      method1t = HttpMethod.PUT;
+    /**
+     * @return the directory of the files, lead and filePath
+     */
+    public String getFilePath() {
+      return filePath;
     }
-    if (id == null) {
-      putUri.append(endPointUrl);
-    } else {
-      if (endPointUrl.contains("%d")) {
-        putUri.append(endPointUrl.replaceAll("%d", id));
-      } else {
-        putUri.append(endPointUrl + "/" + id);
-      }
+
+    public String getUriPath() {
+      return uriPath;
+    }
+
+    /**
+     * @return number of records (files) loaded
+     */
+    public int getRecords() {
+      return records;
+    }
+
+    /**
+     * @return number of HTTP requests sent, including POST fallbacks and batch requests
+     */
+    public int getRequests() {
+      return requests;
+    }
+
+    /**
+     * @return elapsed time in milliseconds
+     */
+    public long getMillis() {
+      return millis;
+    }
+
+    public double getRecordsPerSecond() {
+      return records * 1000.0 / Math.max(1, millis);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s %s -> %s: %d records, %d requests, %d ms, %.1f records/s",
+          key, filePath, uriPath, records, requests, millis, getRecordsPerSecond());
     }
-    final HttpMethod method1 = method1t;
-    HttpRequest<Buffer> reqPut = httpClient.requestAbs(method1, putUri.toString());
-    return sendWithXHeaders(reqPut, headers, content).compose(resPut -> {
-      Buffer body1 = resPut.bodyAsBuffer();
-      if (loadingEntry.strategy != Strategy.RAW_PUT
-          && loadingEntry.strategy != Strategy.RAW_POST
-          && (resPut.statusCode() == 404 || resPut.statusCode() == 400
-          || resPut.statusCode() == 422)) {
-        HttpMethod method2 = HttpMethod.POST;
-        HttpRequest<Buffer> reqPost = httpClient.requestAbs(method2, endPointUrl);
-        return sendWithXHeaders(reqPost, headers, content).compose(resPost -> {
-          Buffer body2 = resPost.bodyAsBuffer();
-          if (resPost.statusCode() == 201) {
-            return Future.succeededFuture();
+  }
+
+  /**
+   * Loads the files of one entry with up to {@link LoadingEntry#concurrency} requests in flight.
+   *
+   * <p>All callbacks run on the same context, no synchronization needed. Files are read
+   * using executeBlocking; the file after the ones in flight is read ahead so that the next
+   * request can be sent as soon as a response arrives.
+   */
+  private static class Loader {
+    private final Context context;
+    private final Map<String, String> headers;
+    private final LoadingEntry loadingEntry;
+    private final WebClient httpClient;
+    private final String endPointUrl;
+    private final List<URL> urls;
+    private final Stats stats;
+    private final Map<Integer, Future<String>> prefetched = new HashMap<>();
+    private String batchUrl;
+    private int next;
+    private String failure;
+
+    Loader(Context context, Map<String, String> headers, LoadingEntry loadingEntry, WebClient httpClient,
+        String okapiUrl, List<URL> urls, Stats stats) {
+      this.context = context;
+      this.headers = headers;
+      this.loadingEntry = loadingEntry;
+      this.httpClient = httpClient;
+      this.endPointUrl = okapiUrl + "/" + loadingEntry.uriPath;
+      this.batchUrl = loadingEntry.batchUriPath == null ? null : okapiUrl + "/" + loadingEntry.batchUriPath;
+      this.urls = urls;
+      this.stats = stats;
+    }
+
+    Future<Void> run() {
+      Promise<Void> promise = Promise.promise();
+      long start = System.nanoTime();
+      context.runOnContext(v -> {
+        List<Future> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(loadingEntry.concurrency, urls.size()); i++) {
+          workers.add(worker());
+        }
+        CompositeFuture.join(workers).onComplete(x -> {
+          stats.millis = (System.nanoTime() - start) / 1000000;
+          log.info("TenantLoading {}", stats);
+          if (failure != null) {
+            promise.fail(failure);
           } else {
-            String diag = method1.name() + " " + putUri.toString()
-                + RETURNED_STATUS + resPut.statusCode() + ": " + body1
-                + " " + method2.name() + " " + endPointUrl
-                + RETURNED_STATUS + resPost.statusCode() + ": " + body2;
-            log.error(diag);
-            return Future.failedFuture(diag);
+            promise.complete();
           }
         });
-      } else if (resPut.statusCode() == 200 || resPut.statusCode() == 201
-          || resPut.statusCode() == 204 || loadingEntry.statusAccept
-          .contains(resPut.statusCode())) {
+      });
+      return promise.future();
+    }
+
+    /**
+     * Load the next file or batch of files, repeat until all are loaded or one has failed.
+     */
+    private Future<Void> worker() {
+      if (failure != null || next >= urls.size()) {
         return Future.succeededFuture();
-      } else {
-        String diag =
-            method1.name() + " " + putUri.toString() + RETURNED_STATUS + resPut.statusCode()
-                + ": " + body1;
+      }
+      int from = next;
+      int to = Math.min(urls.size(), from + (batchUrl == null ? 1 : loadingEntry.batchSize));
+      next = to;
+      Future<List<String>> contents = Future.succeededFuture(new ArrayList<>());
+      for (int i = from; i < to; i++) {
+        Future<String> content = content(i);
+        contents = contents.compose(list -> content.map(c -> {
+          list.add(c);
+          return list;
+        }));
+      }
+      if (to < urls.size()) {
+        prefetched.computeIfAbsent(to, this::read);
+      }
+      List<URL> unit = urls.subList(from, to);
+      return contents
+          .compose(list -> batchUrl == null ? loadEach(unit, list) : loadBatch(unit, list))
+          .otherwise(e -> {
+            if (failure == null) {
+              failure = e.getMessage();
+            }
+            return null;
+          })
+          .compose(x -> worker());
+    }
+
+    private Future<String> content(int i) {
+      Future<String> content = prefetched.remove(i);
+      return content != null ? content : read(i);
+    }
+
+    private Future<String> read(int i) {
+      URL url = urls.get(i);
+      return context.executeBlocking(promise -> getContent(url, loadingEntry).onComplete(promise), false);
+    }
+
+    private Future<Void> loadEach(List<URL> unit, List<String> contents) {
+      Future<Void> future = Future.succeededFuture();
+      for (int i = 0; i < unit.size(); i++) {
+        URL url = unit.get(i);
+        String content = contents.get(i);
+        future = future.compose(x -> getId(loadingEntry, url, content)
+            .compose(id -> loadURL(content, id))
+            .onSuccess(y -> stats.records++));
+      }
+      return future;
+    }
+
+    /**
+     * POST the records as collection to the batch endpoint. Fall back to loading each record
+     * if the module doesn't provide the batch endpoint.
+     */
+    private Future<Void> loadBatch(List<URL> unit, List<String> contents) {
+      JsonArray records = new JsonArray();
+      for (String content : contents) {
+        records.add(new JsonObject(content));
+      }
+      String json = new JsonObject().put(loadingEntry.batchProperty, records).encode();
+      stats.requests++;
+      String url = batchUrl;
+      HttpRequest<Buffer> req = httpClient.requestAbs(HttpMethod.POST, url);
+      return sendWithXHeaders(req, headers, json).compose(res -> {
+        int status = res.statusCode();
+        if (status == 200 || status == 201 || status == 204 || loadingEntry.statusAccept.contains(status)) {
+          stats.records += unit.size();
+          return Future.succeededFuture();
+        }
+        if (status == 404 || status == 405) {
+          if (batchUrl != null) {
+            log.warn("POST {}{}{}, loading records one by one", url, RETURNED_STATUS, status);
+            batchUrl = null;
+          }
+          return loadEach(unit, contents);
+        }
+        String diag = "POST " + url + RETURNED_STATUS + status + ": " + res.bodyAsString();
         log.error(diag);
         return Future.failedFuture(diag);
+      });
+    }
+
+    private Future<Void> loadURL(String content, String id) {
+      StringBuilder putUri = new StringBuilder();
+      HttpMethod method1t;
+      if (loadingEntry.strategy == Strategy.RAW_POST) {
+        method1t = HttpMethod.POST;
+      } else {
+        method1t = HttpMethod.PUT;
       }
-    });
+      if (id == null) {
+        putUri.append(endPointUrl);
+      } else {
+        if (endPointUrl.contains("%d")) {
+          putUri.append(endPointUrl.replaceAll("%d", id));
+        } else {
+          putUri.append(endPointUrl + "/" + id);
+        }
+      }
+      final HttpMethod method1 = method1t;
+      HttpRequest<Buffer> reqPut = httpClient.requestAbs(method1, putUri.toString());
+      stats.requests++;
+      return sendWithXHeaders(reqPut, headers, content).compose(resPut -> {
+        Buffer body1 = resPut.bodyAsBuffer();
+        if (loadingEntry.strategy != Strategy.RAW_PUT
+            && loadingEntry.strategy != Strategy.RAW_POST
+            && (resPut.statusCode() == 404 || resPut.statusCode() == 400
+            || resPut.statusCode() == 422)) {
+          HttpMethod method2 = HttpMethod.POST;
+          HttpRequest<Buffer> reqPost = httpClient.requestAbs(method2, endPointUrl);
+          stats.requests++;
+          return sendWithXHeaders(reqPost, headers, content).compose(resPost -> {
+            Buffer body2 = resPost.bodyAsBuffer();
+            if (resPost.statusCode() == 201) {
+              return Future.succeededFuture();
+            } else {
+              String diag = method1.name() + " " + putUri.toString()
+                  + RETURNED_STATUS + resPut.statusCode() + ": " + body1
+                  + " " + method2.name() + " " + endPointUrl
+                  + RETURNED_STATUS + resPost.statusCode() + ": " + body2;
+              log.error(diag);
+              return Future.failedFuture(diag);
+            }
+          });
+        } else if (resPut.statusCode() == 200 || resPut.statusCode() == 201
+            || resPut.statusCode() == 204 || loadingEntry.statusAccept
+            .contains(resPut.statusCode())) {
+          return Future.succeededFuture();
+        } else {
+          String diag =
+              method1.name() + " " + putUri.toString() + RETURNED_STATUS + resPut.statusCode()
+                  + ": " + body1;
+          log.error(diag);
+          return Future.failedFuture(diag);
+        }
+      });
+    }
   }
 
-  private static Future<Integer> loadData(String okapiUrl, Map<String, String> headers,
-    LoadingEntry loadingEntry, WebClient httpClient) {
+  private Future<Integer> loadData(String okapiUrl, Map<String, String> headers,
+    LoadingEntry loadingEntry, WebClient httpClient, Context context) {
 
     String filePath = loadingEntry.lead;
     if (!loadingEntry.filePath.isEmpty()) {
       filePath = filePath + '/' + loadingEntry.filePath;
     }
-    final String endPointUrl = okapiUrl + "/" + loadingEntry.uriPath;
     try {
       List<URL> urls = getURLsFromClassPathDir(filePath);
       if (urls.isEmpty()) {
         log.warn("loadData getURLsFromClassPathDir returns empty list for path=" + filePath);
       }
-      Future<Void> future = Future.succeededFuture();
-      for (URL url : urls) {
-        future = future.compose(x -> loadURL(headers, url, httpClient, loadingEntry, endPointUrl));
-      }
-      return future.map(urls.size());
+      Stats entryStats = new Stats(loadingEntry.key, filePath, loadingEntry.uriPath);
+      stats.add(entryStats);
+      return new Loader(context, headers, loadingEntry, httpClient, okapiUrl, urls, entryStats)
+          .run()
+          .map(urls.size());
     } catch (URISyntaxException|IOException ex) {
       log.error("Exception for path " + filePath, ex);
       return Future.failedFuture("Exception for path " + filePath + " ex=" + ex.getMessage());
@@ -321,7 +537,7 @@ public class TenantLoading {
   }
 
   private Future<Integer> perform0(TenantAttributes ta, Map<String, String> headers,
-                                   Vertx vertx, int recordsLoaded) {
+                                   Context context, int recordsLoaded) {
 
     String okapiUrl = headers.get("X-Okapi-Url-to");
     if (okapiUrl == null) {
@@ -332,14 +548,15 @@ public class TenantLoading {
       log.warn("TenantLoading.perform No X-Okapi-Url header");
       return Future.failedFuture("No X-Okapi-Url header");
     }
-    WebClient httpClient = WebClient.create(vertx);
+    WebClient httpClient = WebClient.create(context.owner());
+    stats.clear();
     Future<Integer> future = Future.succeededFuture(recordsLoaded);
     for (LoadingEntry entry : loadingEntries) {
       if (ta != null) {
         final String okapiUrlFinal = okapiUrl;
         for (Parameter parameter : ta.getParameters()) {
           if (entry.key.equals(parameter.getKey()) && "true".equals(parameter.getValue())) {
-            future = future.compose(sum -> loadData(okapiUrlFinal, headers, entry, httpClient)
+            future = future.compose(sum -> loadData(okapiUrlFinal, headers, entry, httpClient, context)
                 .map(newRecords -> sum + newRecords));
           }
         }
@@ -364,7 +581,7 @@ public class TenantLoading {
    */
   public Future<Integer> perform(TenantAttributes ta, Map<String, String> headers,
       Context context, int recordsLoaded) {
-    return perform0(ta, headers, context.owner(), recordsLoaded);
+    return perform0(ta, headers, context, recordsLoaded);
   }
 
   /**
@@ -382,7 +599,7 @@ public class TenantLoading {
    */
   public void perform(TenantAttributes ta, Map<String, String> headers,
       Vertx vertx, Handler<AsyncResult<Integer>> handler) {
-    perform0(ta, headers, vertx, 0).onComplete(handler::handle);
+    perform0(ta, headers, vertx.getOrCreateContext(), 0).onComplete(handler::handle);
   }
 
   /**
@@ -400,6 +617,16 @@ public class TenantLoading {
     return this;
   }
 
+  /**
+   * Throughput statistics of the entries loaded by the last perform, one element for each
+   * entry in the order of loading.
+   *
+   * @return the statistics
+   */
+  public List<Stats> getStats() {
+    return stats;
+  }
+
   /**
    * Specify the leading directory of files
    *
@@ -472,6 +699,47 @@ public class TenantLoading {
     return this;
   }
 
+  /**
+   * Specify the maximum number of records that are loaded in parallel
+   *
+   * By default the files are loaded one after the other. Use a higher value only if the records
+   * of the directory don't depend on each other. Applies to this and subsequent add calls.
+   *
+   * @param concurrency maximum number of requests in flight, at least 1
+   * @return TenandLoading new state
+   */
+  public TenantLoading withConcurrency(int concurrency) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be at least 1: " + concurrency);
+    }
+    nextEntry.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Specify loading with a batch endpoint
+   *
+   * The records are POSTed in groups of batchSize to the batch endpoint, for example
+   * <literal>item-storage/batch/synchronous</literal> with the records in the
+   * <literal>items</literal> property. The batch endpoint must insert or update the records,
+   * the records must contain their id. If the module doesn't provide the batch endpoint
+   * (404 or 405) the records are loaded one by one. Applies to the next add call only.
+   *
+   * @param uriPath URI path of the batch endpoint. Without leading /.
+   * @param property JSON property of the collection that holds the records
+   * @param batchSize maximum number of records per request, at least 1
+   * @return TenandLoading new state
+   */
+  public TenantLoading withBatch(String uriPath, String property, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+    }
+    nextEntry.batchUriPath = uriPath;
+    nextEntry.batchProperty = property;
+    nextEntry.batchSize = batchSize;
+    return this;
+  }
+
   /**
    * Specify that unique identifier is part of filename, rather than content
    *
@@ -523,6 +791,7 @@ public class TenantLoading {
     nextEntry.filePath = filePath;
     nextEntry.uriPath = uriPath;
     loadingEntries.add(new LoadingEntry(nextEntry));
+    nextEntry.batchUriPath = null;
     return this;
   }
 
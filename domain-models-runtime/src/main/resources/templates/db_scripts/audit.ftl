@@ -52,6 +52,12 @@ CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.audit_${table.tableName}_
   END;
 $${table.tableName}_audit$ LANGUAGE plpgsql;
 
+-- statement-level triggers of "auditingMode": "statement"
+DROP TRIGGER IF EXISTS audit_${table.tableName}_insert ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+DROP TRIGGER IF EXISTS audit_${table.tableName}_update ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+DROP TRIGGER IF EXISTS audit_${table.tableName}_delete ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.audit_${table.tableName}_changes_statement();
+
 DROP TRIGGER IF EXISTS audit_${table.tableName} ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
 
 CREATE TRIGGER audit_${table.tableName} AFTER INSERT OR UPDATE OR DELETE ON ${myuniversity}_${mymodule}.${table.tableName}
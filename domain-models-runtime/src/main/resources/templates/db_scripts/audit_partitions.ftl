@@ -0,0 +1,113 @@
+-- Partitioning and retention of the audit tables with "auditingMode": "statement"
+
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.rmb_internal_audit_partition (
+  tablename text PRIMARY KEY,
+  unit text NOT NULL,
+  keep integer NOT NULL,
+  premake integer NOT NULL,
+  drop_detached boolean NOT NULL,
+  -- AuditPartitionAPI runs rmb_audit_partitions when current_timestamp reaches next_run
+  next_run timestamptz NOT NULL
+);
+
+-- Random UUID version 4 without requiring the pgcrypto extension.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.rmb_audit_uuid() RETURNS uuid AS $$
+  SELECT overlay(overlay(md5(random()::text || clock_timestamp()::text)
+    placing '4' from 13) placing '8' from 17)::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+-- Name prefix of the partitions of atable. The prefix and the '_pYYYYMMDD' suffix must fit into
+-- the 63 byte identifier limit, a longer atable is cut and gets a hash of the full name.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.rmb_audit_partition_prefix(atable text) RETURNS text AS $$
+  SELECT CASE WHEN octet_length(atable) <= 53 THEN atable
+              ELSE concat(left(atable, 44), '_', left(md5(atable), 8)) END;
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Create the partition for the current interval and the next premake intervals,
+-- detach (and optionally drop) the partitions older than the latest keep intervals.
+-- Partition boundaries are at midnight UTC, a partition is named
+-- rmb_audit_partition_prefix(atable)_pYYYYMMDD after its start date.
+-- Rows in the default partition get a partition of their interval, they are moved into it.
+-- Runs on tenant init/upgrade and from AuditPartitionAPI, not from the audit trigger:
+-- creating, detaching and attaching a partition locks the audit table until the transaction ends.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.rmb_audit_partitions(atable text) RETURNS void AS $$
+DECLARE
+  cfg ${myuniversity}_${mymodule}.rmb_internal_audit_partition;
+  step interval;
+  current_start timestamp;
+  start timestamp;
+  prefix text;
+  pname text;
+  dname text;
+  conflict boolean;
+BEGIN
+  SELECT * INTO cfg FROM ${myuniversity}_${mymodule}.rmb_internal_audit_partition WHERE tablename = atable;
+  IF NOT FOUND THEN
+    RETURN;
+  END IF;
+  -- skip the maintenance if another transaction is running it
+  IF NOT pg_try_advisory_xact_lock(hashtext('${myuniversity}_${mymodule}.rmb_audit_partitions'), hashtext(atable)) THEN
+    RETURN;
+  END IF;
+  step = concat('1 ', cfg.unit)::interval;
+  current_start = date_trunc(cfg.unit, current_timestamp AT TIME ZONE 'UTC');
+  prefix = ${myuniversity}_${mymodule}.rmb_audit_partition_prefix(atable);
+  dname = concat(atable, '_default');
+  -- the current and the premade intervals, and the intervals with rows in the default partition;
+  -- rows before 1970 belong to the legacy partition
+  FOR start IN EXECUTE format('SELECT generate_series($1, $2, $3) '
+      'UNION SELECT DISTINCT date_trunc($4, created_date AT TIME ZONE ''UTC'') '
+      'FROM ${myuniversity}_${mymodule}.%I WHERE created_date >= ''1970-01-01 00:00:00+00'' ORDER BY 1', dname)
+    USING current_start, current_start + cfg.premake * step, step, cfg.unit
+  LOOP
+    pname = concat(prefix, '_p', to_char(start, 'YYYYMMDD'));
+    IF to_regclass(format('${myuniversity}_${mymodule}.%I', pname)) IS NULL THEN
+      BEGIN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM ${myuniversity}_${mymodule}.%I '
+            'WHERE created_date >= $1 AND created_date < $2)', dname)
+          INTO conflict USING start AT TIME ZONE 'UTC', (start + step) AT TIME ZONE 'UTC';
+        -- the default partition must not contain rows of the new partition when creating it
+        IF conflict THEN
+          EXECUTE format('ALTER TABLE ${myuniversity}_${mymodule}.%I DETACH PARTITION ${myuniversity}_${mymodule}.%I',
+              atable, dname);
+        END IF;
+        EXECUTE format('CREATE TABLE ${myuniversity}_${mymodule}.%I '
+            'PARTITION OF ${myuniversity}_${mymodule}.%I FOR VALUES FROM (%L) TO (%L)',
+            pname, atable, start AT TIME ZONE 'UTC', (start + step) AT TIME ZONE 'UTC');
+        IF conflict THEN
+          EXECUTE format('WITH moved AS (DELETE FROM ${myuniversity}_${mymodule}.%I '
+              'WHERE created_date >= $1 AND created_date < $2 RETURNING id, jsonb, created_date) '
+              'INSERT INTO ${myuniversity}_${mymodule}.%I (id, jsonb, created_date) '
+              'SELECT id, jsonb, created_date FROM moved', dname, pname)
+            USING start AT TIME ZONE 'UTC', (start + step) AT TIME ZONE 'UTC';
+          EXECUTE format('ALTER TABLE ${myuniversity}_${mymodule}.%I '
+              'ATTACH PARTITION ${myuniversity}_${mymodule}.%I DEFAULT', atable, dname);
+        END IF;
+      EXCEPTION
+        -- overlapping partition, for example after changing the unit:
+        -- keep writing into the existing or the default partition
+        WHEN invalid_object_definition OR check_violation OR duplicate_table OR unique_violation THEN
+          RAISE NOTICE 'Cannot create audit partition %: %', pname, SQLERRM;
+      END;
+    END IF;
+  END LOOP;
+  IF cfg.keep > 0 THEN
+    FOR pname IN
+      SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+      WHERE i.inhparent = format('${myuniversity}_${mymodule}.%I', atable)::regclass
+        AND c.relname ~ concat('^', prefix, '_p[0-9]{8}$')
+        AND to_date(right(c.relname, 8), 'YYYYMMDD') < current_start - (cfg.keep - 1) * step
+    LOOP
+      EXECUTE format('ALTER TABLE ${myuniversity}_${mymodule}.%I DETACH PARTITION ${myuniversity}_${mymodule}.%I',
+          atable, pname);
+      IF cfg.drop_detached THEN
+        EXECUTE format('DROP TABLE ${myuniversity}_${mymodule}.%I', pname);
+      END IF;
+    END LOOP;
+  END IF;
+  -- run again when the last premade partition has been reached
+  UPDATE ${myuniversity}_${mymodule}.rmb_internal_audit_partition
+    SET next_run = (current_start + GREATEST(cfg.premake, 1) * step) AT TIME ZONE 'UTC'
+    WHERE tablename = atable;
+END;
+$$ LANGUAGE plpgsql;
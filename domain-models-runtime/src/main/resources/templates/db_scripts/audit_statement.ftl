@@ -0,0 +1,77 @@
+<#assign auditTable = "${myuniversity}_${mymodule}.${table.auditingTableName}">
+<#assign retention = table.auditingRetention>
+-- statement-level triggers for the audit table partitioned by created_date, see audit_partitions.ftl
+DO $$
+BEGIN
+  -- convert an audit table created by "auditingMode": "row" into the oldest partition
+  IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('${auditTable}')) = 'r' THEN
+    ALTER TABLE ${auditTable} RENAME TO ${table.auditingTableName}_legacy;
+    ALTER TABLE ${auditTable}_legacy ADD COLUMN IF NOT EXISTS created_date timestamptz NOT NULL DEFAULT '-infinity';
+  END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS ${auditTable} (
+  id UUID NOT NULL,
+  jsonb JSONB NOT NULL,
+  created_date timestamptz NOT NULL DEFAULT current_timestamp
+) PARTITION BY RANGE (created_date);
+CREATE INDEX IF NOT EXISTS ${table.auditingTableName}_audit_id_idx ON ${auditTable} (id);
+CREATE TABLE IF NOT EXISTS ${auditTable}_default PARTITION OF ${auditTable} DEFAULT;
+
+DO $$
+BEGIN
+  IF to_regclass('${auditTable}_legacy') IS NOT NULL AND NOT EXISTS
+      (SELECT 1 FROM pg_inherits WHERE inhrelid = '${auditTable}_legacy'::regclass) THEN
+    ALTER TABLE ${auditTable} ATTACH PARTITION ${auditTable}_legacy
+      FOR VALUES FROM (MINVALUE) TO ('1970-01-01 00:00:00+00');
+  END IF;
+END $$;
+
+INSERT INTO ${myuniversity}_${mymodule}.rmb_internal_audit_partition
+  VALUES ('${table.auditingTableName}', '${retention.interval.name()?lower_case}', ${retention.keep?c}, ${retention.premake?c},
+          ${retention.dropDetached?c}, '-infinity')
+  ON CONFLICT (tablename) DO UPDATE SET unit = EXCLUDED.unit, keep = EXCLUDED.keep,
+    premake = EXCLUDED.premake, drop_detached = EXCLUDED.drop_detached, next_run = EXCLUDED.next_run;
+SELECT ${myuniversity}_${mymodule}.rmb_audit_partitions('${table.auditingTableName}');
+
+-- One INSERT per statement for all rows of the transition table.
+-- No partition maintenance here, it would lock the audit table in the user's transaction.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.audit_${table.tableName}_changes_statement() RETURNS TRIGGER AS $${table.tableName}_audit$
+  BEGIN
+    IF TG_OP = 'DELETE' THEN
+      INSERT INTO ${auditTable} (id, jsonb, created_date)
+        SELECT id, jsonb_build_object(
+            'id', to_jsonb(id::text),
+            '${table.auditingFieldName}', jsonb,
+            'operation', to_jsonb(left(TG_OP, 1)),
+            'createdDate', to_jsonb(current_timestamp::text)), current_timestamp
+        FROM (SELECT ${myuniversity}_${mymodule}.rmb_audit_uuid() AS id, jsonb FROM old_rows) r;
+    ELSE
+      INSERT INTO ${auditTable} (id, jsonb, created_date)
+        SELECT id, jsonb_build_object(
+            'id', to_jsonb(id::text),
+            '${table.auditingFieldName}', jsonb,
+            'operation', to_jsonb(left(TG_OP, 1)),
+            'createdDate', to_jsonb(current_timestamp::text)), current_timestamp
+        FROM (SELECT ${myuniversity}_${mymodule}.rmb_audit_uuid() AS id, jsonb FROM new_rows) r;
+    END IF;
+    RETURN NULL;
+  END;
+$${table.tableName}_audit$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS audit_${table.tableName} ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.audit_${table.tableName}_changes();
+
+-- A trigger with transition tables cannot have more than one event.
+DROP TRIGGER IF EXISTS audit_${table.tableName}_insert ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+CREATE TRIGGER audit_${table.tableName}_insert AFTER INSERT ON ${myuniversity}_${mymodule}.${table.tableName}
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE PROCEDURE ${myuniversity}_${mymodule}.audit_${table.tableName}_changes_statement();
+DROP TRIGGER IF EXISTS audit_${table.tableName}_update ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+CREATE TRIGGER audit_${table.tableName}_update AFTER UPDATE ON ${myuniversity}_${mymodule}.${table.tableName}
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE PROCEDURE ${myuniversity}_${mymodule}.audit_${table.tableName}_changes_statement();
+DROP TRIGGER IF EXISTS audit_${table.tableName}_delete ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+CREATE TRIGGER audit_${table.tableName}_delete AFTER DELETE ON ${myuniversity}_${mymodule}.${table.tableName}
+  REFERENCING OLD TABLE AS old_rows
+  FOR EACH STATEMENT EXECUTE PROCEDURE ${myuniversity}_${mymodule}.audit_${table.tableName}_changes_statement();
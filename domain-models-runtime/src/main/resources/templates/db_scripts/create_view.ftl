@@ -1,8 +1,37 @@
+<#assign viewRelkind = view.materialized?then("v", "m")>
+<#-- distinct prefixes of the joined tables, their ids identify a row of the materialized view -->
+<#assign joinPrefixes = []>
+<#list view.join as joins>
+  <#if !joinPrefixes?seq_contains(joins.joinTable.prefix)>
+    <#assign joinPrefixes = joinPrefixes + [joins.joinTable.prefix]>
+  </#if>
+</#list>
+<#-- a view may change from plain to materialized or back -->
+DO $$
+BEGIN
+  IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('${myuniversity}_${mymodule}.${view.viewName}')) = '${viewRelkind}' THEN
+    EXECUTE 'DROP ${view.materialized?then("VIEW", "MATERIALIZED VIEW")} ${myuniversity}_${mymodule}.${view.viewName} CASCADE';
+  END IF;
+END $$;
+<#if view.materialized>
+-- the indexes are dropped together with the materialized view and need to be created again
+DELETE FROM ${myuniversity}_${mymodule}.rmb_internal_index
+  WHERE name IN (SELECT indexname FROM pg_indexes
+                 WHERE schemaname = '${myuniversity}_${mymodule}' AND tablename = '${view.viewName}');
+DROP MATERIALIZED VIEW IF EXISTS ${myuniversity}_${mymodule}.${view.viewName} CASCADE;
+CREATE MATERIALIZED VIEW ${myuniversity}_${mymodule}.${view.viewName} AS select
+<#else>
 -- left join between tables
 CREATE OR REPLACE VIEW ${myuniversity}_${mymodule}.${view.viewName} AS select
+</#if>
   <#list view.join as joins>
     <#if joins?index==0>
     ${joins.table.prefix}.id,
+      <#if view.materialized>
+        <#list joinPrefixes as prefix>
+    ${prefix}.id as ${prefix}_id,
+        </#list>
+      </#if>
     </#if>
     ${joins.table.prefix}.jsonb as ${joins.table.jsonFieldAlias},
     ${joins.joinTable.prefix}.jsonb as ${joins.joinTable.jsonFieldAlias}<#sep>,
@@ -19,3 +48,8 @@ CREATE OR REPLACE VIEW ${myuniversity}_${mymodule}.${view.viewName} AS select
     =
     ${joins.joinTable.joinOnField}
   </#list>;
+<#if view.materialized>
+-- REFRESH MATERIALIZED VIEW CONCURRENTLY requires a unique index on plain columns that covers all rows
+CREATE UNIQUE INDEX ${view.viewName}_idx_refresh ON ${myuniversity}_${mymodule}.${view.viewName}
+  (id<#list joinPrefixes as prefix>, ${prefix}_id</#list>);
+</#if>
@@ -0,0 +1,67 @@
+<#-- Create / Drop the trigger-maintained count tables of the facetIndex fields -->
+<#if table.facetIndex??>
+  <#list table.facetIndex as facet>
+    <#assign facetTable = facet.getCountTableName(table.tableName)>
+    <#if facet.tOps.name() == "ADD">
+    <#-- Truncate using left(..., 600) to fit into the 2712 byte limit of the primary key index -->
+    CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.${facetTable}_update()
+    RETURNS trigger AS $$
+    DECLARE
+      oldValue text;
+      newValue text;
+    BEGIN
+      IF TG_OP = 'TRUNCATE' THEN
+        DELETE FROM ${myuniversity}_${mymodule}.${facetTable};
+        RETURN NULL;
+      END IF;
+      IF TG_OP <> 'INSERT' THEN
+        oldValue = left(${facet.getSqlExpression("OLD.jsonb")}, 600);
+      END IF;
+      IF TG_OP <> 'DELETE' THEN
+        newValue = left(${facet.getSqlExpression("NEW.jsonb")}, 600);
+      END IF;
+      IF oldValue IS NOT DISTINCT FROM newValue THEN
+        RETURN NULL;
+      END IF;
+      IF oldValue IS NOT NULL THEN
+        UPDATE ${myuniversity}_${mymodule}.${facetTable} SET count = count - 1 WHERE value = oldValue;
+      END IF;
+      IF newValue IS NOT NULL THEN
+        INSERT INTO ${myuniversity}_${mymodule}.${facetTable} AS f VALUES (newValue, 1)
+          ON CONFLICT (value) DO UPDATE SET count = f.count + 1;
+      END IF;
+      RETURN NULL;
+    END;
+    $$ LANGUAGE plpgsql;
+
+    DO $do$
+    BEGIN
+      IF to_regclass('${myuniversity}_${mymodule}.${facetTable}') IS NULL THEN
+        CREATE TABLE ${myuniversity}_${mymodule}.${facetTable} (
+          value text PRIMARY KEY,
+          count bigint NOT NULL
+        );
+        INSERT INTO ${myuniversity}_${mymodule}.${facetTable}
+          SELECT left(${facet.fieldPath}, 600), count(*)
+          FROM ${myuniversity}_${mymodule}.${table.tableName}
+          WHERE ${facet.fieldPath} IS NOT NULL
+          GROUP BY 1;
+      END IF;
+    END $do$;
+
+    DROP TRIGGER IF EXISTS ${facetTable} ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+    CREATE TRIGGER ${facetTable} AFTER INSERT OR UPDATE OR DELETE
+      ON ${myuniversity}_${mymodule}.${table.tableName}
+      FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.${facetTable}_update();
+    DROP TRIGGER IF EXISTS ${facetTable}_truncate ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+    CREATE TRIGGER ${facetTable}_truncate AFTER TRUNCATE
+      ON ${myuniversity}_${mymodule}.${table.tableName}
+      FOR EACH STATEMENT EXECUTE PROCEDURE ${myuniversity}_${mymodule}.${facetTable}_update();
+    <#else>
+    DROP TRIGGER IF EXISTS ${facetTable} ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+    DROP TRIGGER IF EXISTS ${facetTable}_truncate ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+    DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.${facetTable}_update() CASCADE;
+    DROP TABLE IF EXISTS ${myuniversity}_${mymodule}.${facetTable};
+    </#if>
+  </#list>
+</#if>
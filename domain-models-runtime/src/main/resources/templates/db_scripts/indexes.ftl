@@ -1,9 +1,13 @@
+<#-- Non-unique indexes may be built after the schema upgrade using CREATE INDEX CONCURRENTLY.
+     Unique indexes are always built in the upgrade transaction, scripts may rely on them. -->
+<#assign indexFunction = (deferIndexes!false)?then("rmb_internal_index_defer", "rmb_internal_index")>
+
 <#-- Create / Drop btree indexes -->
 <#if table.index??>
   <#list table.index as indexes>
     DO $do$
     BEGIN
-      PERFORM rmb_internal_index(
+      PERFORM ${indexFunction}(
       '${table.tableName}', '${table.tableName}_${indexes.fieldName}_idx', '${indexes.tOps.name()}',
       'CREATE INDEX IF NOT EXISTS ${table.tableName}_${indexes.fieldName}_idx ON ${myuniversity}_${mymodule}.${table.tableName} '
       <#-- Truncate using left(..., 600) to fit into the 2712 byte limit of PostgreSQL indexes (600 multi-byte characters) -->
@@ -33,7 +37,7 @@
   <#list table.likeIndex as indexes>
     DO $do$
     BEGIN
-      PERFORM rmb_internal_index(
+      PERFORM ${indexFunction}(
       '${table.tableName}', '${table.tableName}_${indexes.fieldName}_idx_like', '${indexes.tOps.name()}',
       'CREATE INDEX IF NOT EXISTS ${table.tableName}_${indexes.fieldName}_idx_like ON ${myuniversity}_${mymodule}.${table.tableName} '
       || $rmb$((${indexes.getFinalSqlExpression(table.tableName)}) text_pattern_ops)$rmb$
@@ -46,7 +50,7 @@
   <#list table.ginIndex as indexes>
     DO $do$
     BEGIN
-      PERFORM rmb_internal_index(
+      PERFORM ${indexFunction}(
       '${table.tableName}', '${table.tableName}_${indexes.fieldName}_idx_gin', '${indexes.tOps.name()}',
       'CREATE INDEX IF NOT EXISTS ${table.tableName}_${indexes.fieldName}_idx_gin ON ${myuniversity}_${mymodule}.${table.tableName} USING GIN '
       || $rmb$((${indexes.getFinalSqlExpression(table.tableName)}) public.gin_trgm_ops)$rmb$
@@ -59,7 +63,7 @@
   <#list table.fullTextIndex as indexes>
     DO $do$
     BEGIN
-      PERFORM rmb_internal_index(
+      PERFORM ${indexFunction}(
       '${table.tableName}', '${table.tableName}_${indexes.fieldName}_idx_ft', '${indexes.tOps.name()}',
       'CREATE INDEX IF NOT EXISTS ${table.tableName}_${indexes.fieldName}_idx_ft ON ${myuniversity}_${mymodule}.${table.tableName} USING GIN '
       || $rmb$( get_tsvector(${indexes.getFinalSqlExpression(table.tableName)}) )$rmb$);
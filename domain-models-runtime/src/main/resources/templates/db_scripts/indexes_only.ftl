@@ -3,3 +3,9 @@ UPDATE ${myuniversity}_${mymodule}.rmb_internal_index SET def = '';
 <#list tables as table>
     <#include "indexes.ftl">
 </#list>
+<#if views??>
+  <#list views?filter(v -> v.materialized && v.mode != "delete") as view>
+    <#assign table = view.indexTable>
+    <#include "indexes.ftl">
+  </#list>
+</#if>
@@ -58,7 +58,7 @@ DROP TRIGGER IF EXISTS set_${table.tableName}_md_trigger ON ${myuniversity}_${my
 <#if table.withMetadata == true>
 
 CREATE TRIGGER set_${table.tableName}_md_trigger BEFORE INSERT ON ${myuniversity}_${mymodule}.${table.tableName}
-   FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.${table.tableName}_set_md();
+   FOR EACH ROW${setWiseWhen} EXECUTE PROCEDURE ${myuniversity}_${mymodule}.${table.tableName}_set_md();
 
 </#if>
 
@@ -94,7 +94,7 @@ DROP TRIGGER IF EXISTS set_${table.tableName}_md_json_trigger ON ${myuniversity}
 <#if table.withMetadata == true>
 
 CREATE TRIGGER set_${table.tableName}_md_json_trigger BEFORE UPDATE ON ${myuniversity}_${mymodule}.${table.tableName}
-  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.set_${table.tableName}_md_json();
+  FOR EACH ROW${setWiseWhen} EXECUTE PROCEDURE ${myuniversity}_${mymodule}.set_${table.tableName}_md_json();
 
 </#if>
 
@@ -33,7 +33,7 @@
     
   CREATE TRIGGER set_${table.tableName}_ol_version_trigger BEFORE INSERT OR UPDATE
     ON ${myuniversity}_${mymodule}.${table.tableName}
-    FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.${table.tableName}_set_ol_version();
+    FOR EACH ROW${setWiseWhen} EXECUTE PROCEDURE ${myuniversity}_${mymodule}.${table.tableName}_set_ol_version();
   
 <#else>
   DROP TRIGGER IF EXISTS set_${table.tableName}_ol_version_trigger
@@ -37,3 +37,32 @@ BEGIN
           'ON CONFLICT (name) DO UPDATE SET def = EXCLUDED.def, remove = EXCLUDED.remove' USING aname, newdef;
 END
 $$ LANGUAGE plpgsql;
+
+-- Like rmb_internal_index, but if the index needs to be created it is only dropped and
+-- queued in table rmb_internal_index_build. The tenant API builds the queued indexes
+-- after the schema upgrade has been committed using CREATE INDEX CONCURRENTLY
+-- that doesn't block writes. The rmb_internal_index entry is written after the build succeeded.
+CREATE OR REPLACE FUNCTION rmb_internal_index_defer(
+  atable text, aname text, tops text, newdef text) RETURNS void AS
+$$
+DECLARE
+  olddef text;
+  namep CONSTANT text = concat(aname, '_p');
+  prepareddef text;
+BEGIN
+  IF tops <> 'DELETE' THEN
+    SELECT def INTO olddef      FROM ${myuniversity}_${mymodule}.rmb_internal_index WHERE name = aname;
+    SELECT def INTO prepareddef FROM ${myuniversity}_${mymodule}.rmb_internal_index WHERE name = namep;
+    prepareddef = replace(prepareddef, concat(' ', namep, ' ON '), concat(' ', aname, ' ON '));
+    IF prepareddef IS DISTINCT FROM newdef AND olddef IS DISTINCT FROM newdef THEN
+      EXECUTE format('DROP INDEX IF EXISTS %s', aname);
+      EXECUTE 'DELETE FROM ${myuniversity}_${mymodule}.rmb_internal_index WHERE name = $1' USING aname;
+      EXECUTE 'INSERT INTO ${myuniversity}_${mymodule}.rmb_internal_index_build (name, tablename, def, status) '
+              'VALUES ($1, $2, $3, ''pending'') ON CONFLICT (name) DO UPDATE '
+              'SET tablename = EXCLUDED.tablename, def = EXCLUDED.def, status = EXCLUDED.status' USING aname, atable, newdef;
+      RETURN;
+    END IF;
+  END IF;
+  PERFORM rmb_internal_index(atable, aname, tops, newdef);
+END
+$$ LANGUAGE plpgsql;
@@ -8,6 +8,18 @@ CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.rmb_internal_index (
 );
 UPDATE ${myuniversity}_${mymodule}.rmb_internal_index SET remove = TRUE;
 
+-- Indexes that are built after this script using CREATE INDEX CONCURRENTLY, with progress and timing
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.rmb_internal_index_build (
+  name text PRIMARY KEY,
+  tablename text NOT NULL,
+  def text NOT NULL,
+  status text NOT NULL,
+  started timestamptz,
+  runtime_ms bigint,
+  error text
+);
+TRUNCATE ${myuniversity}_${mymodule}.rmb_internal_index_build;
+
 -- Collect all tables where we need to run ANALYZE
 CREATE TABLE IF NOT EXISTS rmb_internal_analyze (
   tablename text
@@ -19,6 +31,9 @@ CREATE TABLE IF NOT EXISTS rmb_internal_analyze (
 
 <#include "general_functions.ftl">
 <#include "rmb_internal_index.ftl">
+<#if tables?filter(t -> t.withAuditing && t.auditingMode.name() == "STATEMENT")?size gt 0>
+  <#include "audit_partitions.ftl">
+</#if>
 
 <#if scripts??>
   <#list scripts as script>
@@ -48,6 +63,8 @@ END $$;
 
 <#-- Loop over all tables that need updating / adding / deleting -->
 <#list tables as table>
+<#-- row triggers that ${table.tableName}_save_batch replaces by set-wise SQL, see set_wise_batch.ftl -->
+<#assign setWiseWhen = table.withSetWiseBatch?then(" WHEN (current_setting('rmb.set_wise_batch', true) IS DISTINCT FROM 'on')", "")>
 
 <#-- the table version indicates which version introduced this feature hence all versions before this need the schema upgrade-->
 <#-- the from module version - if not set, is set to zero as it assumes that a version not set indicates to create the table always -->
@@ -62,7 +79,7 @@ END $$;
       id UUID PRIMARY KEY,
       jsonb JSONB NOT NULL
     );
-    <#if table.withAuditing == true>
+    <#if table.withAuditing == true && table.auditingMode.name() == "ROW">
     CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.${table.auditingTableName} (
       id UUID PRIMARY KEY,
       jsonb JSONB NOT NULL
@@ -78,11 +95,21 @@ END $$;
     DROP TABLE IF EXISTS ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
     <#if table.auditingTableName??>
     DROP TABLE IF EXISTS ${myuniversity}_${mymodule}.${table.auditingTableName} CASCADE;
+      <#if table.withAuditing && table.auditingMode.name() == "STATEMENT">
+    DELETE FROM ${myuniversity}_${mymodule}.rmb_internal_audit_partition WHERE tablename = '${table.auditingTableName}';
+      </#if>
     </#if>
     -- drop function that updates foreign key fields
     DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.update_${table.tableName}_references();
     -- drop function that updates optimistic locking version
     DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.${table.tableName}_set_ol_version() CASCADE;
+    <#if table.facetIndex??>
+    -- drop facet count tables and their trigger functions
+      <#list table.facetIndex as facet>
+    DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.${facet.getCountTableName(table.tableName)}_update() CASCADE;
+    DROP TABLE IF EXISTS ${myuniversity}_${mymodule}.${facet.getCountTableName(table.tableName)};
+      </#list>
+    </#if>
   </#if>
 
   <#if table.mode != "delete">
@@ -116,14 +143,22 @@ END $$;
 
     <#include "indexes.ftl">
 
+    <#include "facet_index.ftl">
+
     <#include "foreign_keys.ftl">
 
     <#include "metadata.ftl">
 
     <#include "optimistic_locking.ftl">
 
+    <#include "set_wise_batch.ftl">
+
     <#if table.withAuditing == true>
-      <#include "audit.ftl">
+      <#if table.auditingMode.name() == "STATEMENT">
+        <#include "audit_statement.ftl">
+      <#else>
+        <#include "audit.ftl">
+      </#if>
     </#if>
 
     <#if table.customSnippetPath??>
@@ -134,10 +169,21 @@ END $$;
     <#-- The table has not changed, but we always check all its indexes and foreign keys
          because they may have changed. -->
     <#include "indexes.ftl">
+    <#include "facet_index.ftl">
     <#include "foreign_keys.ftl">
     
     <#-- Always check optimistic locking configuration -->
     <#include "optimistic_locking.ftl">
+    <#include "set_wise_batch.ftl">
+
+    <#if table.mode != "delete" && table.withAuditing && table.auditingMode.name() == "STATEMENT">
+    <#-- Apply a changed retention policy and create, detach or drop partitions -->
+    UPDATE ${myuniversity}_${mymodule}.rmb_internal_audit_partition
+      SET unit = '${table.auditingRetention.interval.name()?lower_case}', keep = ${table.auditingRetention.keep?c},
+          premake = ${table.auditingRetention.premake?c}, drop_detached = ${table.auditingRetention.dropDetached?c}
+      WHERE tablename = '${table.auditingTableName}';
+    SELECT ${myuniversity}_${mymodule}.rmb_audit_partitions('${table.auditingTableName}');
+    </#if>
 </#if>
 </#list>
 
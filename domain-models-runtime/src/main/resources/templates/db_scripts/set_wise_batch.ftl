@@ -0,0 +1,126 @@
+-- set-wise metadata and optimistic locking maintenance for PostgresClient.saveBatch and upsertBatch
+
+<#if table.withSetWiseBatch == true>
+<#assign md = table.withMetadata == true>
+<#assign ol = (table.withOptimisticLocking?? && table.withOptimisticLocking.name() != "OFF")>
+<#assign olFail = (table.withOptimisticLocking?? && table.withOptimisticLocking.name() == "FAIL")>
+<#assign ol_version = "_version">
+<#-- the records with id, and creation_date like ${table.tableName}_set_md() calculates it -->
+<#macro input>
+    SELECT (r.value->>'id')::uuid AS id, r.value AS jsonb<#if md>,
+      CASE
+        WHEN d.input IS NULL THEN NULL
+        WHEN d.input::timestamp::timestamptz = d.input::timestamptz THEN d.input::timestamp
+        ELSE d.input::timestamptz AT TIME ZONE '+00'
+      END AS creation_date</#if>
+    FROM jsonb_array_elements(records) AS r<#if md>,
+      LATERAL (SELECT r.value->'metadata'->>'createdDate' AS input) AS d</#if>
+</#macro>
+<#-- the inserted jsonb like ${table.tableName}_set_md() and ${table.tableName}_set_ol_version() set it -->
+<#macro insertJsonb>
+  <#local expr = "i.jsonb">
+  <#if md>
+    <#local expr = "CASE WHEN i.creation_date IS NULL THEN ${expr} "
+        + "ELSE jsonb_set(${expr}, '{metadata,createdDate}', to_jsonb(i.creation_date)) END">
+  </#if>
+  <#if ol>
+    <#local expr = "jsonb_set(${expr}, '{${ol_version}}', to_jsonb(1))">
+  </#if>
+  ${expr}
+</#macro>
+<#-- the updated jsonb like set_${table.tableName}_md_json() and ${table.tableName}_set_ol_version() set it -->
+<#macro updateJsonb>
+  <#local expr = "i.jsonb">
+  <#if md>
+    <#local expr = "CASE WHEN t.creation_date IS NULL THEN ${expr} "
+        + "WHEN t.created_by IS NULL THEN jsonb_set(${expr}, '{metadata,createdDate}', to_jsonb(t.creation_date)) #- '{metadata,createdByUserId}' "
+        + "ELSE jsonb_set(jsonb_set(${expr}, '{metadata,createdDate}', to_jsonb(t.creation_date)), "
+        + "'{metadata,createdByUserId}', to_jsonb(t.created_by)) END">
+  </#if>
+  <#if ol>
+    <#local expr = "jsonb_set(${expr}, '{${ol_version}}', "
+        + "to_jsonb(COALESCE((t.jsonb->>'${ol_version}')::numeric + 1, 1)))">
+  </#if>
+  ${expr}
+</#macro>
+
+-- Insert (upsert = false) or upsert (upsert = true) the records of the jsonb array, each record must have an id.
+-- Returns the ids in the order of the records.
+-- The metadata and optimistic locking row triggers are skipped while rmb.set_wise_batch is 'on',
+-- this function does their work with one UPDATE and one INSERT statement for all records.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.${table.tableName}_save_batch(records jsonb, upsert boolean)
+RETURNS SETOF uuid AS $$
+DECLARE
+  updated bigint = 0;
+  inserted bigint;
+  conflict record;
+BEGIN
+  PERFORM set_config('rmb.set_wise_batch', 'on', true);
+  IF upsert THEN
+    -- like ON CONFLICT DO UPDATE: a record cannot be updated a second time by the same statement
+    IF (SELECT count(DISTINCT r.value->>'id') FROM jsonb_array_elements(records) AS r) < jsonb_array_length(records) THEN
+      RAISE EXCEPTION 'Cannot upsert a batch that contains an id more than once'
+          USING ERRCODE = 'cardinality_violation';
+    END IF;
+  <#if ol>
+    FOR conflict IN
+      SELECT t.id, t.jsonb->'${ol_version}' AS stored, i.jsonb->'${ol_version}' AS requested
+      FROM (<@input/>) AS i
+      JOIN ${myuniversity}_${mymodule}.${table.tableName} AS t ON t.id = i.id
+      WHERE i.jsonb->'${ol_version}' IS DISTINCT FROM t.jsonb->'${ol_version}'
+      <#if olFail>
+      LIMIT 1
+      </#if>
+    LOOP
+      RAISE ${olFail?then("EXCEPTION", "WARNING")} 'Cannot update record % because it has been changed: '
+          'Stored ${ol_version} is %, ${ol_version} of request is %',
+          conflict.id, conflict.stored, conflict.requested
+          USING ERRCODE = '23F09';
+    END LOOP;
+  </#if>
+    UPDATE ${myuniversity}_${mymodule}.${table.tableName} AS t
+      SET jsonb = <@updateJsonb/>
+      FROM (<@input/>) AS i
+      WHERE t.id = i.id
+      <#if olFail>
+        -- a concurrent transaction may have changed the record after the check above
+        AND i.jsonb->'${ol_version}' IS NOT DISTINCT FROM t.jsonb->'${ol_version}'
+      </#if>;
+    GET DIAGNOSTICS updated = ROW_COUNT;
+    -- the records that the UPDATE hasn't found; ON CONFLICT updates a record that a concurrent
+    -- transaction has inserted in the meantime, like the row-wise INSERT ... ON CONFLICT DO UPDATE
+    INSERT INTO ${myuniversity}_${mymodule}.${table.tableName} AS t (id, jsonb<#if md>, creation_date, created_by</#if>)
+      SELECT i.id, <@insertJsonb/><#if md>,
+        i.creation_date, CASE WHEN i.creation_date IS NULL THEN NULL ELSE i.jsonb->'metadata'->>'createdByUserId' END</#if>
+      FROM (<@input/>) AS i
+      WHERE NOT EXISTS (SELECT 1 FROM ${myuniversity}_${mymodule}.${table.tableName} AS s WHERE s.id = i.id)
+      ON CONFLICT (id) DO UPDATE
+        SET jsonb = (SELECT <@updateJsonb/> FROM (<@input/>) AS i WHERE i.id = EXCLUDED.id)
+      <#if olFail>
+        WHERE (SELECT i.jsonb->'${ol_version}' FROM (<@input/>) AS i WHERE i.id = EXCLUDED.id)
+            IS NOT DISTINCT FROM t.jsonb->'${ol_version}'
+      </#if>;
+  ELSE
+    INSERT INTO ${myuniversity}_${mymodule}.${table.tableName} (id, jsonb<#if md>, creation_date, created_by</#if>)
+      SELECT i.id, <@insertJsonb/><#if md>,
+        i.creation_date, CASE WHEN i.creation_date IS NULL THEN NULL ELSE i.jsonb->'metadata'->>'createdByUserId' END</#if>
+      FROM (<@input/>) AS i;
+  END IF;
+  GET DIAGNOSTICS inserted = ROW_COUNT;
+<#if olFail>
+  IF updated + inserted < jsonb_array_length(records) THEN
+    RAISE EXCEPTION 'Cannot update % records because they have been changed',
+        jsonb_array_length(records) - updated - inserted
+        USING ERRCODE = '23F09';
+  END IF;
+</#if>
+  PERFORM set_config('rmb.set_wise_batch', '', true);
+  RETURN QUERY SELECT (r.value->>'id')::uuid FROM jsonb_array_elements(records) WITH ORDINALITY AS r ORDER BY r.ordinality;
+END;
+$$ LANGUAGE plpgsql;
+
+<#else>
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.${table.tableName}_save_batch(jsonb, boolean);
+</#if>
+
+----- end set-wise metadata and optimistic locking maintenance ------------
@@ -1,5 +1,13 @@
 
 <#if views??>
+<#if views?filter(v -> v.materialized)?size gt 0>
+-- Refresh schedule of the materialized views, used by MaterializedViewRefreshAPI
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.rmb_internal_materialized_view (
+  name text PRIMARY KEY,
+  refresh_interval_seconds integer NOT NULL,
+  last_refresh timestamptz
+);
+</#if>
 <#-- Loop over all views that need updating / adding / deleting -->
 <#list views as view>
 
@@ -11,11 +19,39 @@
   <#if view.mode != "delete">
     <#include "create_view.ftl">
   <#else>
-    DROP VIEW IF EXISTS ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+    <#-- DROP VIEW fails on a materialized view and vice versa, the view may have been declared either way -->
+    DO $$
+    BEGIN
+      CASE (SELECT relkind FROM pg_class WHERE oid = to_regclass('${myuniversity}_${mymodule}.${view.viewName}'))
+        WHEN 'v' THEN
+          EXECUTE 'DROP VIEW ${myuniversity}_${mymodule}.${view.viewName} CASCADE';
+        WHEN 'm' THEN
+          DELETE FROM ${myuniversity}_${mymodule}.rmb_internal_index
+            WHERE name IN (SELECT indexname FROM pg_indexes
+                           WHERE schemaname = '${myuniversity}_${mymodule}' AND tablename = '${view.viewName}');
+          EXECUTE 'DROP MATERIALIZED VIEW ${myuniversity}_${mymodule}.${view.viewName} CASCADE';
+          IF to_regclass('${myuniversity}_${mymodule}.rmb_internal_materialized_view') IS NOT NULL THEN
+            DELETE FROM ${myuniversity}_${mymodule}.rmb_internal_materialized_view WHERE name = '${view.viewName}';
+          END IF;
+        ELSE
+          NULL;
+      END CASE;
+    END $$;
   </#if>
 
 </#if>
 
+<#if view.mode != "delete" && view.materialized>
+  <#-- Like for tables we always check all indexes of the materialized view because they may have changed. -->
+  <#assign table = view.indexTable>
+  <#include "indexes.ftl">
+INSERT INTO ${myuniversity}_${mymodule}.rmb_internal_materialized_view (name, refresh_interval_seconds)
+  VALUES ('${view.viewName}', ${view.refreshIntervalSeconds?c})
+  ON CONFLICT (name) DO UPDATE SET refresh_interval_seconds = EXCLUDED.refresh_interval_seconds;
+<#elseif views?filter(v -> v.materialized)?size gt 0>
+DELETE FROM ${myuniversity}_${mymodule}.rmb_internal_materialized_view WHERE name = '${view.viewName}';
+</#if>
+
 </#list>
 
-</#if>
\ No newline at end of file
+</#if>
@@ -476,6 +476,50 @@ public class DemoRamlRestTest {
     testStream(context, true);
   }
 
+  private void testReadStream(TestContext context, boolean chunked) {
+    int chunkSize = 1024;
+    int numberChunks = 50;
+    Async async = context.async();
+    vertx.createHttpClient()
+    .request(HttpMethod.POST, port, "localhost", "/rmbtests/testReadStream")
+    .onComplete(context.asyncAssertSuccess(request -> {
+      request.response().onComplete(context.asyncAssertSuccess(response -> {
+        assertThat(response.statusCode(), is(200));
+        response.body(context.asyncAssertSuccess(body -> {
+          JsonObject json = body.toJsonObject();
+          // all bytes arrive although the function pauses after each chunk
+          assertThat(json.getLong("bytes"), is((long) chunkSize * numberChunks));
+          assertThat(json.getInteger("chunks") > 0, is(true));
+          async.complete();
+        }));
+      }));
+
+      if (chunked) {
+        request.setChunked(true);
+      } else {
+        request.putHeader("Content-Length", Integer.toString(chunkSize * numberChunks));
+      }
+      request.putHeader("Accept", "application/json,text/plain");
+      request.putHeader("Content-type", "application/octet-stream");
+      request.putHeader("x-okapi-tenant", TENANT);
+      String chunk = "X".repeat(chunkSize);
+      for (int i = 0; i < numberChunks; i++) {
+        request.write(chunk);
+      }
+      request.end(context.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testReadStreamWithLength(TestContext context) {
+    testReadStream(context, false);
+  }
+
+  @Test
+  public void testReadStreamChunked(TestContext context) {
+    testReadStream(context, true);
+  }
+
   @Test
   public void options() {
     given().spec(tenant).when().options("/rmbtests/test").then().statusCode(200);
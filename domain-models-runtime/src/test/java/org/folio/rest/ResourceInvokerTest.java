@@ -0,0 +1,109 @@
+package org.folio.rest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.folio.rest.annotations.SharedInstance;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+
+class ResourceInvokerTest {
+
+  @SharedInstance
+  public static class Stateless {
+    public void add(StringBuilder sb, String s) {
+      sb.append(s);
+    }
+
+    public void fail(String message) {
+      throw new IllegalStateException(message);
+    }
+  }
+
+  /** no instance fields but not annotated */
+  public static class NotShared {
+    public void add(StringBuilder sb, String s) {
+      sb.append(s);
+    }
+  }
+
+  @SharedInstance
+  public static class SharedWithoutDefaultConstructor {
+    public SharedWithoutDefaultConstructor(Vertx vertx, String tenant) {
+    }
+
+    public void add(StringBuilder sb, String s) {
+      sb.append(s);
+    }
+  }
+
+  public static class Stateful {
+    private String tenant = "default";
+
+    public Stateful() {
+    }
+
+    public Stateful(Vertx vertx, String tenant) {
+      if (tenant == null) {
+        throw new IllegalArgumentException();
+      }
+      this.tenant = tenant;
+    }
+
+    public void tenant(StringBuilder sb) {
+      sb.append(tenant);
+    }
+  }
+
+  @Test
+  void sharedInstance() throws Throwable {
+    ResourceInvoker invoker =
+        new ResourceInvoker(Stateless.class, Stateless.class.getMethod("add", StringBuilder.class, String.class));
+    Object instance = invoker.getInstance(null, "diku");
+    assertThat(invoker.getInstance(null, "diku"), is(sameInstance(instance)));
+    StringBuilder sb = new StringBuilder();
+    invoker.invoke(instance, new Object [] { sb, "foo" });
+    invoker.invoke(instance, new Object [] { sb, "bar" });
+    assertThat(sb.toString(), is("foobar"));
+  }
+
+  @Test
+  void constructorWithTenant() throws Throwable {
+    ResourceInvoker invoker =
+        new ResourceInvoker(Stateful.class, Stateful.class.getMethod("tenant", StringBuilder.class));
+    Object instance = invoker.getInstance(null, "diku");
+    assertThat(invoker.getInstance(null, "diku"), is(not(sameInstance(instance))));
+    StringBuilder sb = new StringBuilder();
+    invoker.invoke(instance, new Object [] { sb });
+    // constructor fails, fall back to no parameter constructor
+    invoker.invoke(invoker.getInstance(null, null), new Object [] { sb });
+    assertThat(sb.toString(), is("dikudefault"));
+  }
+
+  @Test
+  void exceptionIsNotWrapped() throws Throwable {
+    ResourceInvoker invoker =
+        new ResourceInvoker(Stateless.class, Stateless.class.getMethod("fail", String.class));
+    Object instance = invoker.getInstance(null, null);
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> invoker.invoke(instance, new Object [] { "foo" }));
+    assertThat(e.getMessage(), is("foo"));
+  }
+
+  @Test
+  void perRequestInstanceByDefault() throws Throwable {
+    ResourceInvoker invoker =
+        new ResourceInvoker(NotShared.class, NotShared.class.getMethod("add", StringBuilder.class, String.class));
+    assertThat(invoker.getInstance(null, "diku"), is(not(sameInstance(invoker.getInstance(null, "diku")))));
+  }
+
+  @Test
+  void sharedInstanceRequiresDefaultConstructor() {
+    assertThrows(InstantiationException.class, () -> new ResourceInvoker(SharedWithoutDefaultConstructor.class,
+        SharedWithoutDefaultConstructor.class.getMethod("add", StringBuilder.class, String.class)));
+  }
+}
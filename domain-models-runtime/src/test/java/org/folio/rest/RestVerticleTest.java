@@ -1,18 +1,29 @@
 package org.folio.rest;
 
 import static org.folio.rest.jaxrs.model.CalendarPeriodsServicePointIdCalculateopeningGetUnit.*;
-import static org.hamcrest.collection.ArrayMatching.arrayContaining;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
-import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import java.util.regex.Pattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
 import org.folio.rest.tools.client.exceptions.ResponseException;
+import org.folio.rest.tools.utils.JsonChunks;
 import org.junit.jupiter.api.Test;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.RoutingContext;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import javax.ws.rs.core.Response;
 
 class RestVerticleTest {
@@ -56,23 +67,16 @@ class RestVerticleTest {
       }
     };
     MyRestVerticle myRestVerticle = new MyRestVerticle();
-    myRestVerticle.route(null, null, null, null);
+    myRestVerticle.route(null, null);
     assertThat(myRestVerticle.status, is(500));
   }
 
   @Test
-  void matchUrl() {
-    assertThat(RestVerticle.matchPath("/", Pattern.compile("^/x$")), is(nullValue()));
-    assertThat(RestVerticle.matchPath("/x", Pattern.compile("^/$")), is(nullValue()));
-    assertThat(RestVerticle.matchPath("/x", Pattern.compile("^/y$")), is(nullValue()));
-    assertThat(RestVerticle.matchPath("/", Pattern.compile("^/$")), is(emptyArray()));
-    assertThat(RestVerticle.matchPath("/x/yy", Pattern.compile("^/x/yy$")), is(emptyArray()));
-    assertThat(RestVerticle.matchPath("/x/yy", Pattern.compile("^/x/([^/]+)$")),
-        is(arrayContaining("yy")));
-    assertThat(RestVerticle.matchPath("/abc/def/ghi", Pattern.compile("^/([^/]+)/([^/]+)/([^/]+)$")),
-        is(arrayContaining("abc", "def", "ghi")));
-    assertThat(RestVerticle.matchPath("/%2F%3F%2B%23/12%2334", Pattern.compile("^/([^/]+)/([^/]+)$")),
-        is(arrayContaining("/?+#", "12#34")));
+  void parseRoutingContextPaths() {
+    assertThat(RestVerticle.parseRoutingContextPaths(null).isEmpty(), is(true));
+    assertThat(RestVerticle.parseRoutingContextPaths("/a/b").contains("/a/b"), is(true));
+    assertThat(RestVerticle.parseRoutingContextPaths("/a,/b").contains("/b"), is(true));
+    assertThat(RestVerticle.parseRoutingContextPaths("/a,/b").contains("/a,/b"), is(false));
   }
 
   @Test
@@ -91,4 +95,56 @@ class RestVerticleTest {
   void getResponseFailedWithoutResponse() {
     assertThat(RestVerticle.getResponse(Future.failedFuture("foo")), is(nullValue()));
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void writeChunksAwaitsDrain() throws Exception {
+    HttpServerResponse response = mock(HttpServerResponse.class);
+    JsonChunks chunks = mock(JsonChunks.class);
+    Buffer a = Buffer.buffer("a");
+    Buffer b = Buffer.buffer("b");
+    Buffer c = Buffer.buffer("c");
+    when(chunks.next()).thenReturn(b, c, null);
+    when(response.writeQueueFull()).thenReturn(true);
+    List<Handler<Void>> drainHandlers = new ArrayList<>();
+    doAnswer(invocation -> {
+      drainHandlers.add(invocation.getArgument(0));
+      return response;
+    }).when(response).drainHandler(any());
+    Promise<Void> promise = Promise.promise();
+    RestVerticle.writeChunks(response, chunks, a, promise);
+    // returns without blocking, b waits for the drain event
+    verify(response).write(a);
+    verify(response, never()).write(b);
+    assertThat(drainHandlers.size(), is(1));
+    drainHandlers.get(0).handle(null);
+    verify(response).write(b);
+    verify(response, never()).write(c);
+    assertThat(drainHandlers.size(), is(2));
+    drainHandlers.get(1).handle(null);
+    verify(response).write(c);
+    verify(response).end();
+    assertThat(promise.future().succeeded(), is(true));
+  }
+
+  @Test
+  void writeChunksClosed() {
+    HttpServerResponse response = mock(HttpServerResponse.class);
+    when(response.closed()).thenReturn(true);
+    Promise<Void> promise = Promise.promise();
+    RestVerticle.writeChunks(response, mock(JsonChunks.class), Buffer.buffer("x"), promise);
+    verify(response, never()).write(any(Buffer.class));
+    assertThat(promise.future().cause().getMessage(), is("Connection closed"));
+  }
+
+  @Test
+  void writeChunksFails() throws Exception {
+    HttpServerResponse response = mock(HttpServerResponse.class);
+    JsonChunks chunks = mock(JsonChunks.class);
+    when(chunks.next()).thenThrow(new IOException("foo"));
+    Promise<Void> promise = Promise.promise();
+    RestVerticle.writeChunks(response, chunks, Buffer.buffer("x"), promise);
+    verify(response, never()).end();
+    assertThat(promise.future().cause().getMessage(), is("foo"));
+  }
 }
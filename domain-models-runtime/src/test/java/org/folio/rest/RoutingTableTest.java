@@ -0,0 +1,72 @@
+package org.folio.rest;
+
+import static org.hamcrest.collection.ArrayMatching.arrayContaining;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonObject;
+
+class RoutingTableTest {
+
+  private static RouteDescriptor route(String function) {
+    return new RouteDescriptor(new JsonObject().put("function", function), null, new ClassNotFoundException());
+  }
+
+  private static RoutingTable routingTable(String... pathTemplates) {
+    RoutingTable routingTable = new RoutingTable();
+    for (String pathTemplate : pathTemplates) {
+      routingTable.add(pathTemplate, "GET", route(pathTemplate));
+    }
+    return routingTable;
+  }
+
+  private static String[] match(RoutingTable routingTable, String path) {
+    RoutingTable.Match match = routingTable.match(path);
+    return match == null ? null : match.getPathParams();
+  }
+
+  @Test
+  void matchPath() {
+    assertThat(match(routingTable("^/x"), "/"), is(nullValue()));
+    assertThat(match(routingTable("^/"), "/x"), is(nullValue()));
+    assertThat(match(routingTable("^/y"), "/x"), is(nullValue()));
+    assertThat(match(routingTable("^/"), "/"), is(emptyArray()));
+    assertThat(match(routingTable("^/x/yy"), "/x/yy"), is(emptyArray()));
+    assertThat(match(routingTable("^/x/yy"), "/x/yy/"), is(emptyArray()));
+    assertThat(match(routingTable("^/x/yy"), "/x/yy//"), is(nullValue()));
+    assertThat(match(routingTable("^/x/{y}"), "/x/yy"), is(arrayContaining("yy")));
+    assertThat(match(routingTable("^/x/{y}"), "/x/"), is(nullValue()));
+    assertThat(match(routingTable("^/x/{y}/z"), "/x//z"), is(nullValue()));
+    assertThat(match(routingTable("^/{a}/{b}/{c}"), "/abc/def/ghi"), is(arrayContaining("abc", "def", "ghi")));
+    assertThat(match(routingTable("^/{a}/{b}"), "/%2F%3F%2B%23/12%2334"), is(arrayContaining("/?+#", "12#34")));
+    assertThat(match(routingTable("^/x"), "x"), is(nullValue()));
+  }
+
+  @Test
+  void literalBeforeParam() {
+    RoutingTable routingTable = routingTable("^/books/{id}", "^/books/stats", "^/books/{id}/c", "^/books/b/d");
+    assertThat(routingTable.match("/books/stats").getRoute("GET").getFunction(), is("^/books/stats"));
+    assertThat(routingTable.match("/books/123").getRoute("GET").getFunction(), is("^/books/{id}"));
+    // backtrack from literal b to {id}
+    assertThat(routingTable.match("/books/b/c").getRoute("GET").getFunction(), is("^/books/{id}/c"));
+    assertThat(routingTable.match("/books/b/c").getPathParams(), is(arrayContaining("b")));
+    assertThat(routingTable.match("/books/b/d").getPathParams(), is(emptyArray()));
+  }
+
+  @Test
+  void httpMethod() {
+    RoutingTable routingTable = new RoutingTable();
+    RouteDescriptor get = route("get");
+    RouteDescriptor post = route("post");
+    routingTable.add("^/books", "GET", get);
+    routingTable.add("/books", "POST", post);
+    assertThat(routingTable.match("/books").getRoute("GET"), is(sameInstance(get)));
+    assertThat(routingTable.match("/books").getRoute("POST"), is(sameInstance(post)));
+    assertThat(routingTable.match("/books").getRoute("PUT"), is(nullValue()));
+  }
+}
@@ -0,0 +1,112 @@
+package org.folio.rest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Null;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+
+class ValidationPlanTest {
+
+  public static class Nested {
+    @Null
+    @JsonProperty("createdBy")
+    public String createdBy;
+  }
+
+  public static class Book {
+    @NotNull
+    @JsonProperty("title")
+    public String title;
+
+    @Null
+    @JsonProperty("hrid")
+    public String hrid;
+
+    @Null
+    @JsonProperty("meta")
+    public Nested meta;
+
+    @Valid
+    @JsonProperty("nested")
+    public Nested nested;
+  }
+
+  public static class Unconstrained {
+    @Null
+    @JsonProperty("id")
+    public String id;
+
+    @JsonProperty("name")
+    public String name;
+  }
+
+  @Test
+  void cached() {
+    assertThat(ValidationPlan.of(Book.class), is(sameInstance(ValidationPlan.of(Book.class))));
+  }
+
+  @Test
+  void readOnlyDropped() throws Exception {
+    ValidationPlan plan = ValidationPlan.of(Book.class);
+    assertThat(plan.getReadOnlyProperties(), contains("hrid", "meta"));
+    Book book = (Book) plan.readValue("{\"hrid\":\"h1\", \"meta\":{\"createdBy\":[1,{\"x\":2}]},"
+        + " \"title\":\"t\", \"nested\":{\"createdBy\":\"c\"}}");
+    assertThat(book.title, is("t"));
+    assertThat(book.hrid, is(nullValue()));
+    assertThat(book.meta, is(nullValue()));
+    // only top-level read-only properties are dropped
+    assertThat(book.nested.createdBy, is("c"));
+  }
+
+  @Test
+  void onlyReadOnly() throws Exception {
+    Book book = (Book) ValidationPlan.of(Book.class).readValue("{\"hrid\":\"h1\"}");
+    assertThat(book.hrid, is(nullValue()));
+    assertThat(((Book) ValidationPlan.of(Book.class).readValue("{}")).title, is(nullValue()));
+  }
+
+  @Test
+  void unknownProperty() {
+    assertThrows(UnrecognizedPropertyException.class,
+        () -> ValidationPlan.of(Book.class).readValue("{\"hrid\":\"h1\", \"foo\":1}"));
+  }
+
+  @Test
+  void validate() throws Exception {
+    ValidationPlan plan = ValidationPlan.of(Book.class);
+    assertThat(plan.isValidationNeeded(), is(true));
+    assertThat(plan.validate(plan.readValue("{\"hrid\":\"h1\", \"title\":\"t\"}")), is(empty()));
+    assertThat(plan.validate(plan.readValue("{\"hrid\":\"h1\"}")).iterator().next()
+        .getPropertyPath().toString(), is("title"));
+  }
+
+  @Test
+  void validationSkipped() throws Exception {
+    ValidationPlan plan = ValidationPlan.of(Unconstrained.class);
+    assertThat(plan.isValidationNeeded(), is(false));
+    Unconstrained u = (Unconstrained) plan.readValue("{\"id\":\"i\", \"name\":\"n\"}");
+    assertThat(u.id, is(nullValue()));
+    assertThat(u.name, is("n"));
+    assertThat(plan.validate(u), is(empty()));
+    assertThrows(IllegalArgumentException.class, () -> plan.validate(null));
+  }
+
+  @Test
+  void string() throws Exception {
+    ValidationPlan plan = ValidationPlan.of(String.class);
+    assertThat(plan.getReadOnlyProperties(), is(empty()));
+    assertThat(plan.isValidationNeeded(), is(false));
+  }
+}
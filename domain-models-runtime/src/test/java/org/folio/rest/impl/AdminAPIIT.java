@@ -14,6 +14,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.folio.HttpStatus;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.OutStream;
 import org.folio.rest.tools.utils.VertxUtils;
 import org.junit.AfterClass;
@@ -127,6 +128,26 @@ public class AdminAPIIT {
     }), vertx.getOrCreateContext());
   }
 
+  @Test
+  public void getAdminPostgresConnectionPools(TestContext context) {
+    PostgresClient.getInstance(vertx).selectSingle("SELECT 1")
+    .onComplete(context.asyncAssertSuccess(select -> {
+      new AdminAPI().getAdminPostgresConnectionPools(okapiHeaders, context.asyncAssertSuccess(response -> {
+        assertThat(response.getStatus(), is(HttpStatus.HTTP_OK.toInt()));
+        assertThat(response.getMediaType(), is(MediaType.APPLICATION_JSON_TYPE));
+        JsonArray jsonArray = new JsonArray(body(response));
+        JsonObject pool = null;
+        for (int i = 0; i < jsonArray.size(); i++) {
+          if ("public".equals(jsonArray.getJsonObject(i).getString("name"))) {
+            pool = jsonArray.getJsonObject(i);
+          }
+        }
+        assertThat(pool, is(notNullValue()));
+        assertThat(pool.getLong("acquired"), is(greaterThan(0L)));
+      }), vertx.getOrCreateContext());
+    }));
+  }
+
   @Test
   public void getAdminCacheHitRates(TestContext context) {
     new AdminAPI().getAdminCacheHitRates(okapiHeaders, context.asyncAssertSuccess(response -> {
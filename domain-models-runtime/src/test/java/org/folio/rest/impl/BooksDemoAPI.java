@@ -21,6 +21,7 @@ import org.folio.rest.jaxrs.model.Book;
 import org.folio.rest.jaxrs.resource.Rmbtests;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.tools.utils.BodyReadStream;
 import org.folio.rest.tools.utils.OutStream;
 
 /**
@@ -116,6 +117,33 @@ public class BooksDemoAPI implements Rmbtests {
       PostRmbtestsTestStreamResponse.respond200WithApplicationJson(jo.encodePrettily())));
   }
 
+  /**
+   * Count the bytes of the body, pause after each chunk and resume it with a timer
+   * to test the backpressure.
+   */
+  @Validate
+  @Override
+  @Stream(readStream = true)
+  public void postRmbtestsTestReadStream(InputStream inputStream, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BodyReadStream body = (BodyReadStream) inputStream;
+    long [] bytes = { 0 };
+    int [] chunks = { 0 };
+    body.exceptionHandler(e -> asyncResultHandler.handle(Future.succeededFuture(
+      PostRmbtestsTestReadStreamResponse.respond400WithTextPlain(e.getMessage()))));
+    body.endHandler(end -> {
+      JsonObject jo = new JsonObject().put("bytes", bytes[0]).put("chunks", chunks[0]);
+      asyncResultHandler.handle(Future.succeededFuture(
+        PostRmbtestsTestReadStreamResponse.respond200WithApplicationJson(jo.encodePrettily())));
+    });
+    body.handler(chunk -> {
+      bytes[0] += chunk.length();
+      chunks[0]++;
+      body.pause();
+      vertxContext.owner().setTimer(1, timer -> body.resume());
+    });
+  }
+
   @Validate
   @Override
   public void optionsRmbtestsTest(RoutingContext routingContext, Map<String, String> okapiHeaders,
@@ -0,0 +1,72 @@
+package org.folio.rest.persist;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CountCacheTest {
+  private static final String COUNT = "SELECT count_estimate('SELECT * FROM t WHERE x = ''a  b''')";
+
+  @After
+  public void tearDown() {
+    CountCache.setTtlMillis(CountCache.TTL_MILLIS_DEFAULT);
+  }
+
+  @Test
+  public void normalize() {
+    assertThat(CountCache.normalize("  SELECT \n count(*)\tFROM  t  "), is("SELECT count(*) FROM t"));
+    assertThat(CountCache.normalize("WHERE x = 'a  b'  AND \"c  d\" = 'it''s  '"),
+        is("WHERE x = 'a  b' AND \"c  d\" = 'it''s  '"));
+  }
+
+  @Test
+  public void putGet() {
+    long version = CountCache.version("s1", "t");
+    assertThat(CountCache.get("s1", "t", COUNT), is(nullValue()));
+    CountCache.put("s1", "t", COUNT, version, 42);
+    assertThat(CountCache.get("s1", "t", "  " + COUNT.replace("SELECT count", "SELECT\n  count")), is(42));
+    assertThat(CountCache.get("s1", "t", COUNT.replace("a  b", "a b")), is(nullValue()));
+    assertThat(CountCache.get("s2", "t", COUNT), is(nullValue()));
+  }
+
+  @Test
+  public void tableWritten() {
+    CountCache.put("s3", "t", COUNT, CountCache.version("s3", "t"), 42);
+    CountCache.put("s3", "u", COUNT, CountCache.version("s3", "u"), 43);
+    CountCache.tableWritten("s3", "t");
+    assertThat(CountCache.get("s3", "t", COUNT), is(nullValue()));
+    assertThat(CountCache.get("s3", "u", COUNT), is(43));
+    CountCache.schemaWritten("s3");
+    assertThat(CountCache.get("s3", "u", COUNT), is(nullValue()));
+  }
+
+  @Test
+  public void writtenWhileCounting() {
+    long version = CountCache.version("s4", "t");
+    CountCache.tableWritten("s4", "t");
+    CountCache.put("s4", "t", COUNT, version, 42);
+    assertThat(CountCache.get("s4", "t", COUNT), is(nullValue()));
+  }
+
+  @Test
+  public void clear() {
+    CountCache.put("s5", "t", COUNT, CountCache.version("s5", "t"), 42);
+    CountCache.clear();
+    assertThat(CountCache.get("s5", "t", COUNT), is(nullValue()));
+  }
+
+  @Test
+  public void ttl() {
+    CountCache.setTtlMillis(0);
+    CountCache.put("s6", "t", COUNT, CountCache.version("s6", "t"), 42);
+    assertThat(CountCache.get("s6", "t", COUNT), is(nullValue()));
+    CountCache.setTtlMillis(60000);
+    CountCache.put("s6", "t", COUNT, CountCache.version("s6", "t"), 42);
+    assertThat(CountCache.get("s6", "t", COUNT), is(42));
+    CountCache.setTtlMillis(0);
+    assertThat(CountCache.get("s6", "t", COUNT), is(nullValue()));
+  }
+}
@@ -0,0 +1,94 @@
+package org.folio.rest.persist;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.folio.cql2pgjson.model.SqlSortKey;
+import org.folio.rest.testing.UtilityClassTester;
+import org.junit.Test;
+
+public class KeysetPaginationTest {
+  private static final SqlSortKey A = new SqlSortKey("a", false);
+  private static final SqlSortKey B_DESC = new SqlSortKey("b", true);
+  private static final SqlSortKey ID = new SqlSortKey("id", false);
+
+  @Test
+  public void utilityClass() {
+    UtilityClassTester.assertUtilityClass(KeysetPagination.class);
+  }
+
+  @Test
+  public void withIdTiebreaker() {
+    assertThat(KeysetPagination.withIdTiebreaker(Collections.emptyList()).toString(), is("[id]"));
+    assertThat(KeysetPagination.withIdTiebreaker(Arrays.asList(A, B_DESC)).toString(), is("[a, b DESC, id]"));
+    List<SqlSortKey> keys = Arrays.asList(A, new SqlSortKey("id", true));
+    assertThat(KeysetPagination.withIdTiebreaker(keys), is(keys));
+  }
+
+  @Test
+  public void orderByAndSelectKeys() {
+    List<SqlSortKey> keys = Arrays.asList(A, B_DESC, ID);
+    assertThat(KeysetPagination.orderBy(keys), is("a, b DESC, id"));
+    assertThat(KeysetPagination.selectKeys(keys),
+        is("(a)::text AS keyset_0, (b)::text AS keyset_1, (id)::text AS keyset_2"));
+  }
+
+  @Test
+  public void token() {
+    List<SqlSortKey> keys = Arrays.asList(A, B_DESC, ID);
+    List<String> values = Arrays.asList("x'y", null, "1");
+    String token = KeysetPagination.encodeToken(keys, values);
+    assertThat(token.matches("[A-Za-z0-9_-]+"), is(true));
+    assertThat(KeysetPagination.decodeToken(keys, token), is(values));
+  }
+
+  @Test
+  public void invalidToken() {
+    List<SqlSortKey> keys = Arrays.asList(A, ID);
+    String token = KeysetPagination.encodeToken(keys, Arrays.asList("x", "1"));
+    Throwable t = assertThrows(IllegalArgumentException.class,
+        () -> KeysetPagination.decodeToken(Arrays.asList(A, B_DESC, ID), token));
+    assertThat(t.getMessage(), containsString("sortBy"));
+    assertThrows(IllegalArgumentException.class, () -> KeysetPagination.decodeToken(keys, "%"));
+    assertThrows(IllegalArgumentException.class, () -> KeysetPagination.decodeToken(keys, "e30"));  // {}
+  }
+
+  @Test
+  public void rowComparisonAscending() {
+    assertThat(KeysetPagination.afterPredicate(Arrays.asList(A, ID), Arrays.asList("x'y", "1")),
+        is("((a), (id)) > ('x''y', '1') OR ((a) IS NULL)"));
+  }
+
+  @Test
+  public void rowComparisonDescending() {
+    assertThat(KeysetPagination.afterPredicate(Arrays.asList(B_DESC, new SqlSortKey("id", true)),
+        Arrays.asList("x", "1")),
+        is("((b), (id)) < ('x', '1')"));
+  }
+
+  @Test
+  public void expansionMixed() {
+    assertThat(KeysetPagination.afterPredicate(Arrays.asList(A, B_DESC, ID), Arrays.asList("x", "y", "1")),
+        is("(((a) > 'x' OR (a) IS NULL) OR ((a) = 'x' AND ((b) < 'y' OR ((b) = 'y' AND (id) > '1'))))"));
+  }
+
+  @Test
+  public void expansionNull() {
+    assertThat(KeysetPagination.afterPredicate(Arrays.asList(A, ID), Arrays.asList(null, "1")),
+        is("(FALSE OR ((a) IS NULL AND (id) > '1'))"));
+    assertThat(KeysetPagination.afterPredicate(Arrays.asList(B_DESC, ID), Arrays.asList(null, "1")),
+        is("((b) IS NOT NULL OR ((b) IS NULL AND (id) > '1'))"));
+  }
+
+  @Test
+  public void sizeMismatch() {
+    assertThrows(IllegalArgumentException.class,
+        () -> KeysetPagination.afterPredicate(Arrays.asList(A, ID), Arrays.asList("1")));
+  }
+}
@@ -67,6 +67,12 @@ public class PgExceptionUtilTest {
     assertThat(PgExceptionUtil.isUniqueViolation(new PgException("", null, "23503", "")), is(false));
   }
 
+  @Test
+  public void isUndefinedFunction() {
+    assertThat(PgExceptionUtil.isUndefinedFunction(new PgException("", null, "42883", "")), is(true));
+    assertThat(PgExceptionUtil.isUndefinedFunction(new PgException("", null, "23503", "")), is(false));
+  }
+
   @Test
   public void isInvalidTextRepresentationn() {
     assertThat(PgExceptionUtil.isInvalidTextRepresentation(new PgException("", null, "22P02", "")), is(true));
@@ -0,0 +1,71 @@
+package org.folio.rest.persist;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgConnection;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class PgPoolMetricsTest {
+
+  @Test
+  public void counters() {
+    PgPoolMetrics shared = new PgPoolMetrics("shared", 10, null);
+    PgPoolMetrics tenant = new PgPoolMetrics("diku", 4, shared);
+    long start = System.nanoTime();
+    tenant.waitStart();
+    tenant.waitStart();
+    tenant.waitStart();
+    tenant.acquired(start);
+    tenant.acquired(start);
+    tenant.failed();
+    tenant.released();
+    JsonObject json = tenant.toJson();
+    assertThat(json.getString("name"), is("diku"));
+    assertThat(json.getInteger("maxSize"), is(4));
+    assertThat(json.getInteger("active"), is(1));
+    assertThat(json.getInteger("idle"), is(1));
+    assertThat(json.getInteger("waiting"), is(0));
+    assertThat(json.getLong("acquired"), is(2L));
+    assertThat(json.getLong("failed"), is(1L));
+    assertThat(shared.toJson().getInteger("active"), is(1));
+    assertThat(shared.toJson().getLong("acquired"), is(2L));
+  }
+
+  @Test
+  public void idle() {
+    PgPoolMetrics metrics = new PgPoolMetrics("diku", 4, null);
+    assertThat(metrics.isIdleFor(0), is(false));  // no open connection
+    metrics.waitStart();
+    metrics.acquired(System.nanoTime());
+    assertThat(metrics.isIdleFor(0), is(false));  // active connection
+    metrics.released();
+    assertThat(metrics.isIdleFor(0), is(true));
+    assertThat(metrics.isIdleFor(60000), is(false));
+    metrics.poolReplaced();
+    assertThat(metrics.isIdleFor(0), is(false));
+    assertThat(metrics.toJson().getInteger("idle"), is(0));
+  }
+
+  @Test
+  public void releaseOnClose() {
+    PgConnection conn = mock(PgConnection.class);
+    when(conn.processId()).thenReturn(42);
+    AtomicInteger released = new AtomicInteger();
+    PgConnection wrapped = ReleaseOnClose.wrap(conn, released::incrementAndGet);
+    when(conn.exceptionHandler(null)).thenReturn(conn);
+    assertThat(wrapped.processId(), is(42));
+    assertThat(wrapped.exceptionHandler(null) == wrapped, is(true));
+    assertThat(released.get(), is(0));
+    wrapped.close();
+    wrapped.close();
+    verify(conn, times(2)).close();
+    assertThat(released.get(), is(1));
+  }
+}
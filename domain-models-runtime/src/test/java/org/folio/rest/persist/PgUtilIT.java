@@ -1189,6 +1189,70 @@ public class PgUtilIT {
         }));
   }
 
+  private Response getWithKeyset(TestContext testContext, String cql, String pageToken, int limit) {
+    Response [] result = new Response [1];
+    Async async = testContext.async();
+    PgUtil.getWithKeyset("users", User.class, UserdataCollection.class, cql, pageToken, limit,
+        okapiHeaders, vertx.getOrCreateContext(), ResponseImpl.class, testContext.asyncAssertSuccess(response -> {
+          result[0] = response;
+          async.complete();
+        }));
+    async.awaitSuccess(10000 /* ms */);
+    return result[0];
+  }
+
+  private List<String> usernames(Response response) {
+    List<String> usernames = new ArrayList<>();
+    ((UserdataCollection) response.getEntity()).getUsers().forEach(user -> usernames.add(user.getUsername()));
+    return usernames;
+  }
+
+  @Test
+  public void getWithKeyset(TestContext testContext) {
+    PostgresClient pg = PostgresClient.getInstance(vertx, "testtenant");
+    execute(testContext, "truncate " + schema + ".users CASCADE");
+    insert(testContext, pg, "k", 25);
+    // NULL sort key
+    execute(testContext,
+        "UPDATE " + schema + ".users SET jsonb = jsonb - 'username' WHERE jsonb->>'username' = 'k 7'");
+
+    for (String cql : Arrays.asList("cql.allRecords=1 sortBy username",
+        "cql.allRecords=1 sortBy username/sort.descending", "cql.allRecords=1 sortBy username id/sort.descending",
+        "cql.allRecords=1")) {
+      Response all = getWithKeyset(testContext, cql, null, 100);
+      assertThat(all.getStatus(), is(200));
+      assertThat(all.getHeaderString(PgUtil.NEXT_PAGE_TOKEN_HEADER), is(nullValue()));
+      assertThat(usernames(all), hasSize(25));
+
+      List<String> paged = new ArrayList<>();
+      String pageToken = null;
+      for (int page = 0; page < 3; page++) {
+        Response response = getWithKeyset(testContext, cql, pageToken, 10);
+        assertThat(response.getStatus(), is(200));
+        paged.addAll(usernames(response));
+        pageToken = response.getHeaderString(PgUtil.NEXT_PAGE_TOKEN_HEADER);
+      }
+      assertThat(cql, pageToken, is(nullValue()));
+      assertThat(cql, paged, is(usernames(all)));
+    }
+  }
+
+  @Test
+  public void getWithKeysetInvalidToken(TestContext testContext) {
+    PostgresClient pg = PostgresClient.getInstance(vertx, "testtenant");
+    execute(testContext, "truncate " + schema + ".users CASCADE");
+    insert(testContext, pg, "k", 2);
+    String pageToken = getWithKeyset(testContext, "cql.allRecords=1 sortBy username", null, 1)
+        .getHeaderString(PgUtil.NEXT_PAGE_TOKEN_HEADER);
+    Response response = getWithKeyset(testContext, "cql.allRecords=1 sortBy id", pageToken, 1);
+    assertThat(response.getStatus(), is(400));
+    assertThat(response.getEntity().toString(), containsString("sortBy"));
+    response = getWithKeyset(testContext, "cql.allRecords=1", "foo", 1);
+    assertThat(response.getStatus(), is(400));
+    response = getWithKeyset(testContext, "cql.allRecords=1", null, 0);
+    assertThat(response.getStatus(), is(400));
+  }
+
   @Test
   public void optimizedSqlCanSetSize() {
     int oldSize = PgUtil.getOptimizedSqlSize();
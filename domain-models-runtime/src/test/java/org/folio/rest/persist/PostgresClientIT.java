@@ -2,6 +2,7 @@ package org.folio.rest.persist;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -67,7 +68,9 @@ import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.Criteria.UpdateSection;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.cql.TotalRecords;
 import org.folio.rest.persist.facets.FacetField;
+import org.folio.rest.persist.helpers.ListReadStream;
 import org.folio.rest.persist.helpers.LocalRowSet;
 import org.folio.rest.persist.helpers.Poline;
 import org.folio.rest.persist.helpers.SimplePojo;
@@ -217,6 +220,21 @@ public class PostgresClientIT {
     context.assertNull(PostgresClientHelper.getClient(c), "getClient()");
   }
 
+  @Test
+  public void closeIdleConnections(TestContext context) {
+    PostgresClient c = PostgresClient.getInstance(vertx, TENANT);
+    PgPool pool = PostgresClientHelper.getClient(c);
+    c.selectSingle("SELECT 1")
+    .compose(select -> {
+      c.closeIdleConnections(60000);
+      context.assertEquals(pool, PostgresClientHelper.getClient(c), "connections are not idle long enough");
+      c.closeIdleConnections(0);
+      context.assertNotEquals(pool, PostgresClientHelper.getClient(c), "idle PgPool has been replaced");
+      return c.selectSingle("SELECT 2");
+    })
+    .onComplete(context.asyncAssertSuccess(select -> context.assertEquals(2, select.getInteger(0))));
+  }
+
   @Test
   public void closeAllClients(TestContext context) {
     PostgresClient c = PostgresClient.getInstance(vertx);
@@ -640,8 +658,8 @@ public class PostgresClientIT {
   public void updateIdWithSingleQuote(TestContext context) {
     createFoo(context)
       .update(FOO, xPojo, "foo'bar", context.asyncAssertFailure(fail -> {
-        assertThat(fail.getMessage(), containsString("syntax"));  // invalid input syntax for type uuid
-        // we don't want SQL injection with 42601 syntax error
+        // the id is a UUID parameter, it is never part of the SQL text
+        assertThat(fail.getMessage(), containsString("Invalid UUID string: foo'bar"));
       }));
   }
 
@@ -1254,6 +1272,117 @@ public class PostgresClientIT {
     }));
   }
 
+  @Test
+  public void bulkLoad(TestContext context) {
+    String id = randomUuid();
+    List<JsonObject> list = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      list.add(new JsonObject().put("key", "k" + i));
+    }
+    list.add(new JsonObject().put("id", id).put("key", "first"));
+    list.add(new JsonObject().put("id", id).put("key", "duplicate"));
+    list.add(new JsonObject().put("id", "invalid"));
+    postgresClient = createFoo(context);
+    postgresClient.bulkLoad(FOO, new ListReadStream<>(list))
+    .compose(result -> {
+      context.assertEquals(2503L, result.getReceived());
+      context.assertEquals(2501L, result.getLoaded());
+      context.assertEquals(2L, result.getRejected());
+      return postgresClient.selectSingle("SELECT count(*) FROM " + PostgresClient.convertToPsqlStandard(TENANT) + "." + FOO);
+    })
+    .compose(count -> {
+      context.assertEquals(2501L, count.getLong(0));
+      return Future.<JsonObject>future(promise -> postgresClient.getById(FOO, id, promise));
+    })
+    .onComplete(context.asyncAssertSuccess(get -> context.assertEquals("first", get.getString("key"))));
+  }
+
+  @Test
+  public void bulkUpsert(TestContext context) {
+    String id1 = randomUuid();
+    String id2 = randomUuid();
+    List<StringPojo> a = new ArrayList<>();
+    a.add(new StringPojo("a1", id1));
+    List<JsonObject> b = new ArrayList<>();
+    b.add(new JsonObject().put("id", id1).put("key", "b1"));
+    b.add(new JsonObject().put("id", id2).put("key", "b2"));
+    b.add(new JsonObject().put("id", id1).put("key", "b3"));
+    postgresClient = createFoo(context);
+    postgresClient.saveBatch(FOO, a, context.asyncAssertSuccess(save -> {
+      postgresClient.bulkUpsert(FOO, new ListReadStream<>(b))
+      .compose(result -> {
+        context.assertEquals(3L, result.getReceived());
+        context.assertEquals(2L, result.getLoaded());
+        return Future.<JsonObject>future(promise -> postgresClient.getById(FOO, id1, promise));
+      })
+      .onComplete(context.asyncAssertSuccess(get -> context.assertEquals("b3", get.getString("key"))));
+    }));
+  }
+
+  @Test
+  public void bulkLoadFails(TestContext context) {
+    List<JsonObject> list = Collections.singletonList(new JsonObject());
+    postgresClient().bulkLoad("nonexistingtable", new ListReadStream<>(list))
+    .onComplete(context.asyncAssertFailure());
+  }
+
+  private Future<Integer> getTotalRecords(TotalRecords totalRecords) {
+    CQLWrapper cqlWrapper = new CQLWrapper().setWhereClause("WHERE jsonb->>'key' LIKE 'a%'")
+        .setLimit(new Limit(1)).setTotalRecords(totalRecords);
+    return Future.<Results<StringPojo>>future(promise ->
+        postgresClient.get(FOO, StringPojo.class, cqlWrapper, true, promise))
+        .map(results -> results.getResultInfo().getTotalRecords());
+  }
+
+  private Future<String> save(String key) {
+    return Future.future(promise -> postgresClient.save(FOO, new StringPojo(key), promise));
+  }
+
+  @Test
+  public void totalRecordsCache(TestContext context) {
+    String schema = PostgresClient.convertToPsqlStandard(TENANT);
+    postgresClient = createFoo(context);
+    save("a1")
+    .compose(x -> save("a2"))
+    .compose(x -> save("b1"))
+    .compose(x -> getTotalRecords(TotalRecords.ESTIMATED))
+    .compose(total -> {
+      context.assertEquals(2, total);
+      // bypass PostgresClient so that the cached count is not invalidated
+      return postgresClient.withConnection(conn -> conn.query("INSERT INTO " + schema + "." + FOO
+          + " (id, jsonb) VALUES ('" + randomUuid() + "', '{\"key\":\"a3\"}')").execute());
+    })
+    .compose(x -> getTotalRecords(TotalRecords.ESTIMATED))
+    .compose(total -> {
+      context.assertEquals(2, total);
+      return getTotalRecords(TotalRecords.EXACT);
+    })
+    .compose(total -> {
+      context.assertEquals(3, total);
+      return getTotalRecords(TotalRecords.NONE);
+    })
+    .compose(total -> {
+      context.assertNull(total);
+      return save("a4");
+    })
+    .compose(x -> getTotalRecords(TotalRecords.ESTIMATED))
+    .onComplete(context.asyncAssertSuccess(total -> context.assertEquals(4, total)));
+  }
+
+  @Test
+  public void hasSetWiseBatchFunction(TestContext context) {
+    String schema = PostgresClient.convertToPsqlStandard(TENANT);
+    postgresClient = createFoo(context);
+    postgresClient.withConnection(conn -> postgresClient.hasSetWiseBatchFunction(conn, FOO))
+    .compose(exists -> {
+      context.assertFalse(exists);
+      return postgresClient.execute("CREATE FUNCTION " + schema + "." + FOO + "_save_batch(jsonb, boolean) "
+          + "RETURNS SETOF uuid AS $$ SELECT NULL::uuid WHERE false $$ LANGUAGE sql");
+    })
+    .compose(x -> postgresClient.withConnection(conn -> postgresClient.hasSetWiseBatchFunction(conn, FOO)))
+    .onComplete(context.asyncAssertSuccess(exists -> context.assertTrue(exists)));
+  }
+
   @Test
   public void saveBatchJsonFail(TestContext context) {
     JsonArray array = new JsonArray()
@@ -1687,6 +1816,38 @@ public class PostgresClientIT {
         context.asyncAssertFailure());
   }
 
+  @Test
+  public void getByIdsInvalidUuid(TestContext context) {
+    createFoo(context).getByIdAsString(FOO, new JsonArray().add(randomUuid()).add("foo"),
+        context.asyncAssertFailure(e -> assertThat(e.getMessage(), containsString("Invalid UUID string: foo"))));
+  }
+
+  @Test
+  public void getByIdsManyIds(TestContext context) {
+    JsonArray ids = new JsonArray().add(randomUuid()).add(randomUuid());
+    PostgresClient postgresClient = insertXAndSingleQuotePojo(context, ids);
+    // same SQL text for 1 and for 3 ids
+    postgresClient.getByIdAsString(FOO, new JsonArray().add(ids.getString(1)), context.asyncAssertSuccess(one -> {
+      assertThat(one.size(), is(1));
+      postgresClient.getByIdAsString(FOO, ids.copy().add(randomUuid()), context.asyncAssertSuccess(three -> {
+        assertThat(three.keySet(), containsInAnyOrder(ids.getString(0), ids.getString(1)));
+      }));
+    }));
+  }
+
+  @Test
+  public void updateByIdInTransaction(TestContext context) {
+    JsonArray ids = new JsonArray().add(randomUuid()).add(randomUuid());
+    PostgresClient postgresClient = insertXAndSingleQuotePojo(context, ids);
+    postgresClient.startTx(conn ->
+      postgresClient.update(conn, FOO, new StringPojo("y"), ids.getString(0), context.asyncAssertSuccess(rows -> {
+        assertThat(rows.rowCount(), is(1));
+        postgresClient.endTx(conn, context.asyncAssertSuccess(end ->
+          postgresClient.getById(FOO, ids.getString(0), context.asyncAssertSuccess(get ->
+            assertThat(get.getString("key"), is("y"))))));
+      })));
+  }
+
   @Test
   public void getByIdsNotFound(TestContext context) {
     Async async = context.async();
@@ -2482,6 +2643,103 @@ public class PostgresClientIT {
     });
   }
 
+  @Test
+  public void executeListBatches(TestContext context) {
+    int batchSize = PostgresClient.getExecuteBatchSize();
+    PostgresClient.setExecuteBatchSize(2);
+    JsonArray ids = new JsonArray().add(randomUuid()).add(randomUuid());
+    List<Tuple> list = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      list.add(Tuple.of(UUID.fromString(ids.getString(i % 2))));
+    }
+    PostgresClient postgresClient = insertXAndSingleQuotePojo(context, ids);
+    postgresClient.withTransaction(conn ->
+        postgresClient.execute(conn, "DELETE FROM tenant_raml_module_builder.foo WHERE id=$1", list))
+    .onComplete(x -> PostgresClient.setExecuteBatchSize(batchSize))
+    .onComplete(context.asyncAssertSuccess(result -> {
+      context.assertEquals(5, result.size());
+      context.assertEquals(1, result.get(0).rowCount());
+      context.assertEquals(1, result.get(1).rowCount());
+      context.assertEquals(0, result.get(2).rowCount());
+      context.assertEquals(0, result.get(4).rowCount());
+    }));
+  }
+
+  @Test
+  public void executeListFailingTuple(TestContext context) {
+    int batchSize = PostgresClient.getExecuteBatchSize();
+    PostgresClient.setExecuteBatchSize(2);
+    JsonArray ids = new JsonArray().add(randomUuid()).add(randomUuid());
+    List<Tuple> list = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      list.add(Tuple.of(UUID.fromString(i == 3 ? ids.getString(0) : randomUuid())));
+    }
+    PostgresClient postgresClient = insertXAndSingleQuotePojo(context, ids);
+    postgresClient.withTransaction(conn ->
+        postgresClient.execute(conn, "INSERT INTO tenant_raml_module_builder.foo (id, jsonb) VALUES ($1, '{}')", list))
+    .onComplete(x -> PostgresClient.setExecuteBatchSize(batchSize))
+    .onComplete(context.asyncAssertFailure(e -> {
+      context.assertTrue(e instanceof PgBatchException, e.getClass().getName());
+      context.assertEquals(2, ((PgBatchException) e).getFirstIndex());
+      context.assertEquals(3, ((PgBatchException) e).getLastIndex());
+      context.assertTrue(PgExceptionUtil.isUniqueViolation(e));
+      context.assertTrue(e.getMessage().startsWith("tuples 2 to 3: "), e.getMessage());
+    }));
+  }
+
+  @Test
+  public void executeListFailingBatchWithoutTransaction(TestContext context) {
+    int batchSize = PostgresClient.getExecuteBatchSize();
+    PostgresClient.setExecuteBatchSize(2);
+    JsonArray ids = new JsonArray().add(randomUuid()).add(randomUuid());
+    List<String> uuids = new ArrayList<>();
+    List<Tuple> list = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      uuids.add(i == 3 ? ids.getString(0) : randomUuid());
+      list.add(Tuple.of(UUID.fromString(uuids.get(i))));
+    }
+    PostgresClient postgresClient = insertXAndSingleQuotePojo(context, ids);
+    postgresClient.withConnection(conn ->
+        postgresClient.execute(conn, "INSERT INTO tenant_raml_module_builder.foo (id, jsonb) VALUES ($1, '{}')", list))
+    .onComplete(x -> PostgresClient.setExecuteBatchSize(batchSize))
+    .recover(e -> {
+      context.assertEquals(2, ((PgBatchException) e).getFirstIndex());
+      // the first batch is committed, the failed batch is rolled back as a whole, the last batch is not sent
+      return postgresClient.selectSingle("SELECT count(*) FROM tenant_raml_module_builder.foo WHERE id = ANY($1)",
+          Tuple.of(new UUID [] { UUID.fromString(uuids.get(0)), UUID.fromString(uuids.get(1)) }))
+          .compose(row -> {
+            context.assertEquals(2L, row.getLong(0));
+            return postgresClient.selectSingle("SELECT count(*) FROM tenant_raml_module_builder.foo WHERE id = ANY($1)",
+                Tuple.of(new UUID [] { UUID.fromString(uuids.get(2)), UUID.fromString(uuids.get(4)) }));
+          })
+          .map(row -> {
+            context.assertEquals(0L, row.getLong(0));
+            return null;
+          });
+    })
+    .onComplete(context.asyncAssertSuccess(result -> context.assertNull(result)));
+  }
+
+  @Test
+  public void executeListEmpty(TestContext context) {
+    postgresClient().execute("SELECT 1", Collections.emptyList())
+    .onComplete(context.asyncAssertSuccess(result -> context.assertTrue(result.isEmpty())));
+  }
+
+  @Test
+  public void executeListFailureRollsBack(TestContext context) {
+    JsonArray ids = new JsonArray().add(randomUuid()).add(randomUuid());
+    List<Tuple> list = new ArrayList<>();
+    list.add(Tuple.of(UUID.fromString(ids.getString(0))));
+    list.add(Tuple.of("not a uuid"));
+    PostgresClient postgresClient = insertXAndSingleQuotePojo(context, ids);
+    postgresClient.execute("DELETE FROM tenant_raml_module_builder.foo WHERE id=$1", list)
+    .onComplete(context.asyncAssertFailure(e -> {
+      postgresClient.selectSingle("SELECT count(*) FROM tenant_raml_module_builder.foo",
+          context.asyncAssertSuccess(count -> context.assertEquals(2, count.getInteger(0))));
+    }));
+  }
+
   /** @return List containing one empty Tuple */
   private List<Tuple> list1JsonArray() {
     return Collections.singletonList(Tuple.tuple());
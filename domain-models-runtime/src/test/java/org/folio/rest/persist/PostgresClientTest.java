@@ -7,6 +7,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.text.StringContainsInOrder.stringContainsInOrder;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -119,6 +120,28 @@ public class PostgresClientTest {
     PostgresClient.setExplainQueryThreshold(previous);
   }
 
+  @Test
+  public void configExecuteBatchSize() throws Exception {
+    int previous = PostgresClient.getExecuteBatchSize();
+    JsonObject env = new JsonObject().put("DB_EXECUTE_BATCH_SIZE", 50);
+    JsonObject config = PostgresClient.getPostgreSQLClientConfig("footenant", "aSchemaName", env);
+    assertThat(config.containsKey("DB_EXECUTE_BATCH_SIZE"), is(false));
+    assertThat(PostgresClient.getExecuteBatchSize(), is(50));
+    PostgresClient.setExecuteBatchSize(previous);
+    assertThrows(IllegalArgumentException.class, () -> PostgresClient.setExecuteBatchSize(0));
+  }
+
+  @Test
+  public void configCountCacheTtl() throws Exception {
+    long previous = PostgresClient.getCountCacheTtl();
+    JsonObject env = new JsonObject().put("DB_COUNT_CACHE_TTL", 0L);
+    JsonObject config = PostgresClient.getPostgreSQLClientConfig("footenant", "aSchemaName", env);
+    assertThat(config.containsKey("DB_COUNT_CACHE_TTL"), is(false));
+    assertThat(PostgresClient.getCountCacheTtl(), is(0L));
+    PostgresClient.setCountCacheTtl(previous);
+    assertThrows(IllegalArgumentException.class, () -> PostgresClient.setCountCacheTtl(-1));
+  }
+
   @Test
   public void configFile() throws Exception {
     // values from src/test/resources/my-postgres-conf.json
@@ -166,6 +189,11 @@ public class PostgresClientTest {
     assertThat("user", is(options.getUser()));
     assertThat("pass", is(options.getPassword()));
     assertThat("db", is(options.getDatabase()));
+    assertThat(options.getCachePreparedStatements(), is(true));
+    assertThat(options.getPreparedStatementCacheMaxSize(),
+        is(PostgresClient.DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE));
+    assertThat(options.getPreparedStatementCacheSqlLimit(),
+        is(PostgresClient.DEFAULT_PREPARED_STATEMENT_CACHE_SQL_LIMIT));
     // TODO: enable when available in vertx-sql-client/vertx-pg-client
     // https://issues.folio.org/browse/RMB-657
     // assertThat(60000, is(options.getConnectionReleaseDelay()));
@@ -179,7 +207,9 @@ public class PostgresClientTest {
         .put("username", "myuser")
         .put("password", "mypassword")
         .put("database", "mydatabase")
-        .put("connectionReleaseDelay", 1000);
+        .put("connectionReleaseDelay", 1000)
+        .put("preparedStatementCacheMaxSize", 64)
+        .put("preparedStatementCacheSqlLimit", 4096);
 
     PgConnectOptions options = PostgresClient.createPgConnectOptions(conf);
     assertThat("myhost", is(options.getHost()));
@@ -187,11 +217,21 @@ public class PostgresClientTest {
     assertThat("myuser", is(options.getUser()));
     assertThat("mypassword", is(options.getPassword()));
     assertThat("mydatabase", is(options.getDatabase()));
+    assertThat(options.getCachePreparedStatements(), is(true));
+    assertThat(options.getPreparedStatementCacheMaxSize(), is(64));
+    assertThat(options.getPreparedStatementCacheSqlLimit(), is(4096));
     // TODO: enable when available in vertx-sql-client/vertx-pg-client
     // https://issues.folio.org/browse/RMB-657
     // assertThat(1000, is(options.getConnectionReleaseDelay()));
   }
 
+  @Test
+  public void testPgConnectOptionsPreparedStatementCacheDisabled() {
+    JsonObject conf = new JsonObject().put("preparedStatementCacheMaxSize", 0);
+    PgConnectOptions options = PostgresClient.createPgConnectOptions(conf);
+    assertThat(options.getCachePreparedStatements(), is(false));
+  }
+
   @Test
   public void testProcessResults() {
     PostgresClient testClient = PostgresClient.testClient();
@@ -284,6 +324,40 @@ public class PostgresClientTest {
     assertThat(setterMethodName, is("setTestField"));
   }
 
+  @Test
+  public void testGetExternalColumnSettersIsCached() {
+    PostgresClient testClient = PostgresClient.testClient();
+    List<String> columnNames = Arrays.asList("id", "foo", "bar");
+    Map<String, Method> setters = testClient.getExternalColumnSetters(columnNames, TestPojo.class, false);
+    assertThat(setters.keySet().size(), is(2));
+    assertThat(testClient.getExternalColumnSetters(new ArrayList<>(columnNames), TestPojo.class, false) == setters, is(true));
+  }
+
+  private Row idJsonbRow(Object id, JsonObject jsonb) {
+    return idJsonbRow("id", id, jsonb);
+  }
+
+  private Row idJsonbRow(String idField, Object id, JsonObject jsonb) {
+    Row row = new RowImpl(new RowDesc(Arrays.asList(idField, "jsonb")));
+    row.addValue(id);
+    row.addValue(jsonb);
+    return row;
+  }
+
+  @Test
+  public void testIsFacetRow() {
+    JsonObject facet = new JsonObject().put("type", "name")
+        .put("facetValues", new io.vertx.core.json.JsonArray().add(new JsonObject().put("count", 1).put("value", "a")));
+    assertThat(PostgresClient.isFacetRow(idJsonbRow(PostgresClient.FACET_ROW_ID, facet), facet), is(true));
+    assertThat(PostgresClient.isFacetRow(idJsonbRow("00000000-0000-0000-0000-000000000000", facet), facet), is(true));
+    assertThat(PostgresClient.isFacetRow(idJsonbRow(UUID.randomUUID(), facet), facet), is(false));
+    JsonObject record = new JsonObject().put("foo", "bar");
+    assertThat(PostgresClient.isFacetRow(idJsonbRow(PostgresClient.FACET_ROW_ID, record), record), is(false));
+    // FacetManager with an idField other than id
+    assertThat(PostgresClient.isFacetRow(idJsonbRow("_id", PostgresClient.FACET_ROW_ID, facet), facet), is(true));
+    assertThat(PostgresClient.isFacetRow(idJsonbRow("_id", UUID.randomUUID(), facet), facet), is(false));
+  }
+
   public class FakeSqlConnection implements PgConnection {
     final AsyncResult<RowSet<Row>> asyncResult;
     final boolean failExplain;
@@ -497,6 +571,26 @@ public class PostgresClientTest {
     );
   }
 
+  @Test
+  public void rowSetPerRow() {
+    RowSet<Row> rowSet = PostgresClient.rowSetPerRow(getMockTestPojoResultSet(3));
+    List<String> foos = new ArrayList<>();
+    for (RowSet<Row> next = rowSet; next != null; next = next.next()) {
+      assertThat(next.rowCount(), is(1));
+      assertThat(next.size(), is(1));
+      assertThat(next.columnsNames().get(0), is("id"));
+      foos.add(next.iterator().next().getString(1));
+    }
+    assertThat(foos, is(Arrays.asList("foo 0", "foo 1", "foo 2")));
+  }
+
+  @Test
+  public void rowSetPerRowEmpty() {
+    RowSet<Row> rowSet = PostgresClient.rowSetPerRow(getMockTestPojoResultSet(0));
+    assertThat(rowSet.size(), is(0));
+    assertNull(rowSet.next());
+  }
+
   private RowSet<Row> getMockTestPojoResultSet(int total) {
     List<String> columnNames = new ArrayList<String>(Arrays.asList(new String[] {
       "id", "foo", "bar", "biz", "baz"
@@ -0,0 +1,224 @@
+package org.folio.rest.persist;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.persist.PostgresClientIT.StringPojo;
+import org.folio.rest.persist.ResultCache.CachedQuery;
+import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.interfaces.Results;
+import org.folio.rest.tools.monitor.MetricsRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ResultCacheIT extends PostgresClientITBase {
+  private static final String METRIC = "rmb_result_cache_lookups_total{cache=\"book_cache\",result=\"";
+
+  @Rule
+  public Timeout rule = Timeout.seconds(30);
+
+  @Before
+  public void setUp(TestContext context) {
+    ResultCache.clear();
+    MetricsRegistry.clear();
+    execute(context,
+        "DROP TABLE IF EXISTS " + schema + ".book_cache",
+        "DROP TABLE IF EXISTS " + schema + ".book",
+        "CREATE TABLE " + schema + ".book (id uuid PRIMARY KEY, jsonb jsonb NOT NULL)");
+    insert(context, "11111111-1111-1111-1111-111111111111", "a");
+    insert(context, "22222222-2222-2222-2222-222222222222", "b");
+  }
+
+  @After
+  public void tearDown() {
+    ResultCache.clear();
+    MetricsRegistry.clear();
+  }
+
+  private void insert(TestContext context, String id, String key) {
+    execute(context, "INSERT INTO " + schema + ".book VALUES ('" + id + "', "
+        + "'{\"id\": \"" + id + "\", \"key\": \"" + key + "\"}')");
+  }
+
+  private PostgresClient postgresClient() {
+    return PostgresClient.getInstance(vertx, tenant);
+  }
+
+  private Results<StringPojo> get(TestContext context, String cql) {
+    AtomicReference<Results<StringPojo>> result = new AtomicReference<>();
+    Async async = context.async();
+    try {
+      CQLWrapper wrapper = new CQLWrapper(new CQL2PgJSON("book.jsonb"), cql);
+      ResultCache.get(postgresClient(), "book", StringPojo.class, wrapper, context.asyncAssertSuccess(results -> {
+        result.set(results);
+        async.complete();
+      }));
+    } catch (Exception e) {
+      context.fail(e);
+    }
+    async.awaitSuccess(5000);
+    return result.get();
+  }
+
+  /**
+   * Build the snapshot, wait for any running background build.
+   */
+  private void build(TestContext context) {
+    for (int i = 0; i < 50; i++) {
+      AtomicReference<Boolean> built = new AtomicReference<>();
+      Async async = context.async();
+      ResultCache.refresh(postgresClient(), "book").onComplete(context.asyncAssertSuccess(result -> {
+        built.set(result);
+        async.complete();
+      }));
+      async.awaitSuccess(5000);
+      if (built.get()) {
+        return;
+      }
+      sleep(100);
+    }
+    context.fail("snapshot not built");
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void assertMetric(String result, int count) {
+    assertThat(MetricsRegistry.toPrometheus(), containsString(METRIC + result + "\"} " + count + "\n"));
+  }
+
+  @Test
+  public void missThenSnapshot(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key"));
+    // not built yet: answered from the source table
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertMetric(ResultCache.MISS, 1);
+    build(context);
+    insert(context, "33333333-3333-3333-3333-333333333333", "a");
+    // the snapshot doesn't contain the new record
+    Results<StringPojo> results = get(context, "key==a");
+    assertThat(results.getResults().size(), is(1));
+    assertThat(results.getResultInfo().getTotalRecords(), is(1));
+    assertThat(results.getResults().get(0).key, is("a"));
+    assertMetric(ResultCache.TABLE_HIT, 1);
+    build(context);
+    assertThat(get(context, "key==a sortBy key").getResults().size(), is(2));
+    assertThat(get(context, "cql.allRecords=1").getResults().size(), is(3));
+    assertMetric(ResultCache.TABLE_HIT, 3);
+  }
+
+  @Test
+  public void notRouted(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key"));
+    build(context);
+    insert(context, "33333333-3333-3333-3333-333333333333", "a");
+    // id is not a declared field, the source table answers
+    assertThat(get(context, "id=* and key==a").getResults().size(), is(2));
+    assertThat(MetricsRegistry.toPrometheus(), not(containsString(METRIC)));
+  }
+
+  @Test
+  public void filter(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setCql("key==a").setFields("key", "id"));
+    build(context);
+    execute(context, "DELETE FROM " + schema + ".book");
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertThat(get(context, "key==a and id==11111111-1111-1111-1111-111111111111").getResults().size(), is(1));
+    assertMetric(ResultCache.TABLE_HIT, 2);
+    // not starting with the filter: answered from the source table
+    assertThat(get(context, "key==b").getResults().size(), is(0));
+    assertMetric(ResultCache.TABLE_HIT, 2);
+  }
+
+  @Test
+  public void staleWhileRefresh(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key").setTtlMillis(0));
+    build(context);
+    insert(context, "33333333-3333-3333-3333-333333333333", "a");
+    // expired: starts a background refresh and is answered from the stale snapshot
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    int size = 1;
+    for (int i = 0; i < 50 && size == 1; i++) {
+      sleep(100);
+      size = get(context, "key==a").getResults().size();
+    }
+    assertThat(size, is(2));
+    assertThat(MetricsRegistry.toPrometheus(), not(containsString(METRIC + ResultCache.MISS)));
+    build(context);
+  }
+
+  @Test
+  public void noHeapTierByDefault(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key"));
+    build(context);
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    // an empty result must not be kept in the heap either
+    assertThat(get(context, "key==x").getResults().size(), is(0));
+    assertThat(get(context, "key==x").getResults().size(), is(0));
+    assertMetric(ResultCache.TABLE_HIT, 4);
+    assertThat(MetricsRegistry.toPrometheus(), not(containsString(METRIC + ResultCache.HEAP_HIT)));
+  }
+
+  @Test
+  public void heapTier(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key").setHeapMaxRows(1));
+    build(context);
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertMetric(ResultCache.TABLE_HIT, 1);
+    assertMetric(ResultCache.HEAP_HIT, 1);
+    // more than heapMaxRows records: not kept in the heap
+    assertThat(get(context, "cql.allRecords=1").getResults().size(), is(2));
+    assertThat(get(context, "cql.allRecords=1").getResults().size(), is(2));
+    assertMetric(ResultCache.TABLE_HIT, 3);
+    assertMetric(ResultCache.HEAP_HIT, 1);
+  }
+
+  @Test
+  public void heapInvalidatedByRefresh(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key").setHeapMaxRows(5));
+    build(context);
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    insert(context, "33333333-3333-3333-3333-333333333333", "a");
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertMetric(ResultCache.HEAP_HIT, 1);
+    build(context);
+    assertThat(get(context, "key==a").getResults().size(), is(2));
+    assertMetric(ResultCache.HEAP_HIT, 1);
+    assertMetric(ResultCache.TABLE_HIT, 2);
+  }
+
+  @Test
+  public void reRegisterForgetsSnapshot(TestContext context) {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key").setHeapMaxRows(5));
+    build(context);
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("key").setHeapMaxRows(5));
+    assertThat(get(context, "key==a").getResults().size(), is(1));
+    assertMetric(ResultCache.MISS, 1);
+    assertThat(MetricsRegistry.toPrometheus(), not(containsString(METRIC + ResultCache.HEAP_HIT)));
+    // the miss has started a background build
+    build(context);
+  }
+}
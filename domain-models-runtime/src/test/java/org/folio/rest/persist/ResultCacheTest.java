@@ -0,0 +1,102 @@
+package org.folio.rest.persist;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.folio.dbschema.Index;
+import org.folio.dbschema.Table;
+import org.folio.rest.persist.ResultCache.CachedQuery;
+import org.junit.After;
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+  @After
+  public void tearDown() {
+    ResultCache.clear();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidName() {
+    new CachedQuery("x; DROP TABLE y", "book");
+  }
+
+  @Test
+  public void routeAllRecords() {
+    CachedQuery cachedQuery = new CachedQuery("book_cache", "book").setFields("title", "author");
+    ResultCache.register(cachedQuery);
+    assertThat(ResultCache.route("book", "cql.allRecords=1"), is(sameInstance(cachedQuery)));
+    assertThat(ResultCache.route("book", "title=a and author=b sortBy title/sort.descending"),
+        is(sameInstance(cachedQuery)));
+    assertThat(ResultCache.route("book", "title=a or isbn=b"), is(nullValue()));
+    assertThat(ResultCache.route("book", "title=a sortBy isbn"), is(nullValue()));
+    assertThat(ResultCache.route("book", "title=(a"), is(nullValue()));
+    assertThat(ResultCache.route("book", null), is(nullValue()));
+    assertThat(ResultCache.route("author", "title=a"), is(nullValue()));
+  }
+
+  @Test
+  public void routeFilter() {
+    CachedQuery cachedQuery = new CachedQuery("book_cache", "book")
+        .setCql("status==available").setFields("status", "title");
+    ResultCache.register(cachedQuery);
+    assertThat(ResultCache.route("book", "status==available"), is(sameInstance(cachedQuery)));
+    assertThat(ResultCache.route("book", "status == available sortBy title"), is(sameInstance(cachedQuery)));
+    assertThat(ResultCache.route("book", "status==available and title=a"), is(sameInstance(cachedQuery)));
+    assertThat(ResultCache.route("book", "title=a and status==available"), is(nullValue()));
+    assertThat(ResultCache.route("book", "status==available or title=a"), is(nullValue()));
+    assertThat(ResultCache.route("book", "status==lost"), is(nullValue()));
+    assertThat(ResultCache.route("book", "title=a"), is(nullValue()));
+  }
+
+  @Test
+  public void unregister() {
+    ResultCache.register(new CachedQuery("book_cache", "book").setFields("title"));
+    ResultCache.unregister("book");
+    assertThat(ResultCache.route("book", "title=a"), is(nullValue()));
+  }
+
+  @Test
+  public void indexesWithoutSchema() {
+    CachedQuery cachedQuery = new CachedQuery("book_cache", "book").setFields("title");
+    assertThat(ResultCache.indexes(cachedQuery, null, "s.book_cache_new"),
+        is(Collections.singletonList("CREATE INDEX ON s.book_cache_new (id)")));
+  }
+
+  private static Index index(String fieldName) {
+    Index index = new Index();
+    index.setFieldName(fieldName);
+    return index;
+  }
+
+  @Test
+  public void indexes() {
+    Table table = new Table();
+    table.setTableName("book");
+    Index status = index("status");
+    status.setWhereClause("WHERE jsonb->>'status' IS NOT NULL");
+    table.setIndex(Arrays.asList(status, index("isbn")));
+    table.setLikeIndex(Collections.singletonList(index("title")));
+    table.setGinIndex(Collections.singletonList(index("author")));
+    table.setFullTextIndex(Collections.singletonList(index("note")));
+    table.setup();
+    CachedQuery cachedQuery = new CachedQuery("book_cache", "book")
+        .setFields("status", "title", "author", "note");
+    List<String> indexes = ResultCache.indexes(cachedQuery, table, "s.book_cache_new");
+    assertThat(indexes.size(), is(5));
+    assertThat(indexes, hasItems(
+        "CREATE INDEX ON s.book_cache_new (id)",
+        "CREATE INDEX ON s.book_cache_new ((left(lower(f_unaccent(jsonb->>'status')),600)))"
+            + " WHERE jsonb->>'status' IS NOT NULL",
+        "CREATE INDEX ON s.book_cache_new ((lower(f_unaccent(jsonb->>'title'))) text_pattern_ops)",
+        "CREATE INDEX ON s.book_cache_new USING GIN ((lower(f_unaccent(jsonb->>'author'))) public.gin_trgm_ops)",
+        "CREATE INDEX ON s.book_cache_new USING GIN (get_tsvector(f_unaccent(jsonb->>'note')))"));
+  }
+}
@@ -0,0 +1,63 @@
+package org.folio.rest.persist;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.pgclient.PgConnection;
+import org.junit.Test;
+
+public class RoleGuardTest {
+
+  @Test
+  public void isRoleChange() {
+    assertThat(RoleGuard.isRoleChange(null), is(false));
+    assertThat(RoleGuard.isRoleChange("SELECT jsonb FROM item"), is(false));
+    assertThat(RoleGuard.isRoleChange("RESET ROLE"), is(true));
+    assertThat(RoleGuard.isRoleChange("select 1; reset role"), is(true));
+    assertThat(RoleGuard.isRoleChange("SET ROLE folio"), is(true));
+    assertThat(RoleGuard.isRoleChange("set\n session\trole folio"), is(true));
+    assertThat(RoleGuard.isRoleChange("SET LOCAL ROLE folio"), is(true));
+    assertThat(RoleGuard.isRoleChange("SET SESSION AUTHORIZATION folio"), is(true));
+    assertThat(RoleGuard.isRoleChange("RESET SESSION AUTHORIZATION"), is(true));
+    assertThat(RoleGuard.isRoleChange("SELECT set_config('role', 'folio', false)"), is(true));
+    assertThat(RoleGuard.isRoleChange("SELECT SET_CONFIG( ' role ', 'none', true)"), is(true));
+    assertThat(RoleGuard.isRoleChange("SELECT set_config('rmb.set_wise_batch', 'on', true)"), is(false));
+    assertThat(RoleGuard.isRoleChange("SELECT * FROM item WHERE jsonb->>'title' = 'reset role'"), is(false));
+    assertThat(RoleGuard.isRoleChange("SELECT 'it''s set role' AS x"), is(false));
+    assertThat(RoleGuard.isRoleChange("UPDATE item SET roles = '[]'"), is(false));
+    assertThat(RoleGuard.isRoleChange("SELECT offset_role FROM item"), is(false));
+  }
+
+  @Test
+  public void rejectsRoleChange() {
+    PgConnection conn = mock(PgConnection.class);
+    PgConnection guarded = RoleGuard.wrap(conn);
+    assertThrows(IllegalArgumentException.class, () -> guarded.query("RESET ROLE"));
+    assertThrows(IllegalArgumentException.class, () -> guarded.preparedQuery("SET ROLE folio"));
+    assertThrows(IllegalArgumentException.class, () -> guarded.prepare("reset role"));
+    verify(conn, never()).query(anyString());
+    verify(conn, never()).preparedQuery(anyString());
+    verify(conn, never()).prepare(anyString());
+  }
+
+  @Test
+  public void delegates() {
+    PgConnection conn = mock(PgConnection.class);
+    when(conn.noticeHandler(null)).thenReturn(conn);
+    PgConnection guarded = RoleGuard.wrap(conn);
+    guarded.query("SELECT 1");
+    verify(conn).query("SELECT 1");
+    guarded.preparedQuery("SELECT $1");
+    verify(conn).preparedQuery("SELECT $1");
+    // fluent methods return the wrapper
+    assertThat(guarded.noticeHandler(null) == guarded, is(true));
+    guarded.close();
+    verify(conn).close();
+  }
+}
@@ -40,6 +40,21 @@ public class CQLWrapperTest {
     assertThat(wrapper.toString(), is("WHERE false"));
   }
 
+  @Test
+  public void totalRecords() {
+    CQLWrapper wrapper = new CQLWrapper();
+    assertThat(wrapper.getTotalRecords(), is(TotalRecords.ESTIMATED));
+    assertThat(wrapper.setTotalRecords(TotalRecords.fromString("None")).getTotalRecords(), is(TotalRecords.NONE));
+    assertThat(wrapper.setTotalRecords(TotalRecords.fromString("exact")).getTotalRecords(), is(TotalRecords.EXACT));
+    assertThat(wrapper.setTotalRecords(null).getTotalRecords(), is(TotalRecords.ESTIMATED));
+    assertThat(TotalRecords.fromString(""), is(TotalRecords.ESTIMATED));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void totalRecordsInvalid() {
+    TotalRecords.fromString("all");
+  }
+
   @Test(expected = IllegalStateException.class)
   public void invalidCQL() throws FieldException {
     CQLWrapper wrapper = new CQLWrapper().setField(cql2pgJson).setQuery("or name=miller");
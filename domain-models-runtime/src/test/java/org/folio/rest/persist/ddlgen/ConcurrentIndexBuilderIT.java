@@ -0,0 +1,164 @@
+package org.folio.rest.persist.ddlgen;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.dbschema.Schema;
+import org.folio.dbschema.TenantOperation;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.PostgresClientITBase;
+import org.folio.util.ResourceUtil;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ConcurrentIndexBuilderIT extends PostgresClientITBase {
+  /** deferred indexes of test_indexes.json, the unique index is not deferred */
+  private static final int DEFERRED = 5;
+
+  @Rule
+  public Timeout rule = Timeout.seconds(30);
+
+  @Before
+  public void wipeAll(TestContext context) {
+    dropSchemaAndRole(context);
+  }
+
+  private void runSchema(TestContext context, TenantOperation tenantOperation) {
+    try {
+      SchemaMaker schemaMaker = new SchemaMaker(tenant, PostgresClient.getModuleName(),
+          tenantOperation, "mod-foo-18.2.3", "mod-foo-18.2.4");
+      String json = ResourceUtil.asString("templates/db_scripts/test_indexes.json");
+      schemaMaker.setSchema(ObjectMapperTool.getMapper().readValue(json, Schema.class));
+      schemaMaker.setDeferIndexes(true);
+      if (tenantOperation == TenantOperation.CREATE) {
+        runSqlFileAsSuperuser(context, schemaMaker.generateCreate());
+      }
+      runSqlFileAsSuperuser(context, schemaMaker.generateSchemas());
+    } catch (Exception e) {
+      context.fail(e);
+    }
+  }
+
+  private int selectInteger(TestContext context, String sql) {
+    AtomicInteger i = new AtomicInteger();
+    Async async = context.async();
+    PostgresClient.getInstance(vertx, tenant).selectSingle(sql, context.asyncAssertSuccess(result -> {
+      i.set(result.getInteger(0));
+      async.complete();
+    }));
+    async.awaitSuccess(5000);
+    return i.get();
+  }
+
+  private int count(TestContext context, String status) {
+    return selectInteger(context, "SELECT count(*) FROM rmb_internal_index_build WHERE status = '" + status + "'");
+  }
+
+  private int validIndexes(TestContext context) {
+    return selectInteger(context, "SELECT count(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+        + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+        + "WHERE n.nspname = '" + schema + "' AND i.indisvalid AND c.relname LIKE 'item\\_%'");
+  }
+
+  private int invalidIndexes(TestContext context) {
+    return selectInteger(context, "SELECT count(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+        + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+        + "WHERE n.nspname = '" + schema + "' AND NOT i.indisvalid");
+  }
+
+  private List<String> build(TestContext context, int parallelism) {
+    List<String> failed = new ArrayList<>();
+    Async async = context.async();
+    new ConcurrentIndexBuilder(PostgresClient.getInstance(vertx), schema, parallelism).build()
+    .onComplete(context.asyncAssertSuccess(result -> {
+      failed.addAll(result);
+      async.complete();
+    }));
+    async.awaitSuccess(20000);
+    return failed;
+  }
+
+  @Test
+  public void buildQueue(TestContext context) {
+    runSchema(context, TenantOperation.CREATE);
+    assertThat(count(context, "pending"), is(DEFERRED));
+    // only the unique index and the primary key exist
+    assertThat(validIndexes(context), is(2));
+
+    assertThat(build(context, 2), is(new ArrayList<>()));
+    assertThat(count(context, "done"), is(DEFERRED));
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_index_build "
+        + "WHERE started IS NULL OR runtime_ms IS NULL OR error IS NOT NULL"), is(0));
+    assertThat(validIndexes(context), is(2 + DEFERRED));
+    // the built indexes are recorded so that the next upgrade doesn't queue them again
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_index i "
+        + "JOIN rmb_internal_index_build b USING (name) WHERE i.def = b.def AND NOT i.remove"), is(DEFERRED));
+    // nothing left to build
+    assertThat(build(context, 2), is(new ArrayList<>()));
+  }
+
+  @Test
+  public void retryAfterInvalidIndex(TestContext context) {
+    runSchema(context, TenantOperation.CREATE);
+    assertThat(build(context, 1), is(new ArrayList<>()));
+    execute(context,
+        "INSERT INTO " + schema + ".item (id, jsonb) VALUES ('11111111-1111-1111-1111-111111111111', '{\"n\": \"0\"}')",
+        "INSERT INTO " + schema + ".rmb_internal_index_build (name, tablename, def, status) VALUES "
+        + "('item_n_idx', 'item', 'CREATE INDEX IF NOT EXISTS item_n_idx ON " + schema + ".item "
+        + "((1 / (jsonb->>''n'')::int))', 'pending')");
+
+    // division by zero
+    List<String> failed = build(context, 1);
+    assertThat(failed.size(), is(1));
+    assertThat(failed.get(0), containsString("CREATE INDEX CONCURRENTLY IF NOT EXISTS item_n_idx"));
+    assertThat(count(context, "failed"), is(1));
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_index_build "
+        + "WHERE name = 'item_n_idx' AND error LIKE '%division by zero%'"), is(1));
+    // the invalid index of the failed CREATE INDEX CONCURRENTLY has been dropped
+    assertThat(invalidIndexes(context), is(0));
+    assertThat(selectInteger(context, "SELECT count(*) FROM pg_indexes WHERE indexname = 'item_n_idx'"), is(0));
+
+    execute(context,
+        "UPDATE " + schema + ".item SET jsonb = '{\"n\": \"1\"}'",
+        "UPDATE " + schema + ".rmb_internal_index_build SET status = 'pending' WHERE name = 'item_n_idx'");
+    assertThat(build(context, 1), is(new ArrayList<>()));
+    assertThat(count(context, "failed"), is(0));
+    assertThat(selectInteger(context, "SELECT count(*) FROM pg_indexes WHERE indexname = 'item_n_idx'"), is(1));
+    assertThat(invalidIndexes(context), is(0));
+  }
+
+  @Test
+  public void upgradeClearsQueue(TestContext context) {
+    runSchema(context, TenantOperation.CREATE);
+    assertThat(build(context, 3), is(new ArrayList<>()));
+    execute(context, "INSERT INTO " + schema + ".rmb_internal_index_build (name, tablename, def, status, error) "
+        + "VALUES ('item_x_idx', 'item', 'CREATE INDEX item_x_idx ON item (x)', 'failed', 'column x does not exist')");
+
+    runSchema(context, TenantOperation.UPDATE);
+    // the built indexes are unchanged and not queued again, the old entries are gone
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_index_build"), is(0));
+    assertThat(validIndexes(context), is(2 + DEFERRED));
+
+    // an index that is missing is queued again
+    execute(context, "DROP INDEX " + schema + ".item_title_idx",
+        "DELETE FROM " + schema + ".rmb_internal_index WHERE name = 'item_title_idx'");
+    runSchema(context, TenantOperation.UPDATE);
+    assertThat(count(context, "pending"), is(1));
+    assertThat(build(context, 3), is(new ArrayList<>()));
+    assertThat(validIndexes(context), is(2 + DEFERRED));
+  }
+}
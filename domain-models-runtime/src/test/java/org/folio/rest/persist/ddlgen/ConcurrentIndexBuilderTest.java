@@ -0,0 +1,27 @@
+package org.folio.rest.persist.ddlgen;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ConcurrentIndexBuilderTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "CREATE INDEX IF NOT EXISTS a_idx ON s.a (x),        CREATE INDEX CONCURRENTLY IF NOT EXISTS a_idx ON s.a (x)",
+    "CREATE UNIQUE INDEX IF NOT EXISTS a_idx ON s.a (x), CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS a_idx ON s.a (x)",
+    "CREATE INDEX IF NOT EXISTS a_idx_gin ON s.a USING GIN (x), CREATE INDEX CONCURRENTLY IF NOT EXISTS a_idx_gin ON s.a USING GIN (x)",
+  })
+  void concurrently(String def, String expected) {
+    assertThat(ConcurrentIndexBuilder.concurrently(def), is(expected));
+  }
+
+  @Test
+  void parallelism() {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrentIndexBuilder(null, "s", 0));
+  }
+}
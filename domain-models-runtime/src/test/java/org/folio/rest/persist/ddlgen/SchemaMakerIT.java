@@ -2,21 +2,30 @@ package org.folio.rest.persist.ddlgen;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.vertx.core.Future;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
 
 import org.folio.dbschema.Schema;
 import org.folio.dbschema.TenantOperation;
+import org.folio.rest.persist.AuditPartitions;
+import org.folio.rest.persist.MaterializedViews;
+import org.folio.rest.persist.PgExceptionUtil;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.PostgresClientITBase;
 import org.folio.dbschema.ObjectMapperTool;
@@ -369,6 +378,44 @@ public class SchemaMakerIT extends PostgresClientITBase {
     assertThat(countCasetableIndexes(context), is(1));
   }
 
+  private int facetCount(TestContext context, String value) {
+    return selectInteger(context, "SELECT coalesce((SELECT count::int FROM facettable_status_name_facet "
+        + "WHERE value = '" + value + "'), 0)");
+  }
+
+  private void insertFacettable(TestContext context, int id, String status) {
+    execute(context, "INSERT INTO facettable VALUES (md5('" + id + "')::uuid, "
+        + "jsonb_build_object('status', jsonb_build_object('name', " + status + "::text)))");
+  }
+
+  @Test
+  public void facetIndex(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "facetIndex.json");
+    insertFacettable(context, 1, "'a'");
+    insertFacettable(context, 2, "'a'");
+    insertFacettable(context, 3, "'b'");
+    insertFacettable(context, 4, "null");
+    assertThat(facetCount(context, "a"), is(2));
+    assertThat(facetCount(context, "b"), is(1));
+
+    execute(context, "UPDATE facettable SET jsonb = '{\"status\": {\"name\": \"a\"}}' WHERE id = md5('3')::uuid");
+    execute(context, "DELETE FROM facettable WHERE id = md5('1')::uuid");
+    assertThat(facetCount(context, "a"), is(2));
+    assertThat(facetCount(context, "b"), is(0));
+
+    // upgrade fills a missing count table
+    executeSuperuser(context, "DROP TABLE " + schema + ".facettable_status_name_facet");
+    runSchema(context, TenantOperation.UPDATE, "facetIndex.json");
+    assertThat(facetCount(context, "a"), is(2));
+
+    execute(context, "TRUNCATE facettable");
+    assertThat(facetCount(context, "a"), is(0));
+
+    runSchema(context, TenantOperation.UPDATE, "facetIndexDelete.json");
+    assertThat(selectInteger(context, "SELECT count(*) FROM pg_catalog.pg_tables "
+        + "WHERE tablename = 'facettable_status_name_facet' AND schemaname = '" + schema + "'"), is(0));
+  }
+
   @Test
   public void replacePublicSchemaFunctions(TestContext context) throws InterruptedException {
     runSchema(context, TenantOperation.CREATE, "schema.json");
@@ -435,6 +482,183 @@ public class SchemaMakerIT extends PostgresClientITBase {
     assertThat("tab_ol_fail has version 1", selectInteger(context, String.format(sql, olVersion, "tab_ol_fail")), is(5));
   }
   
+  private static String saveBatch(String table, String records, boolean upsert) {
+    return "SELECT * FROM " + table + "_save_batch('" + records + "', " + upsert + ")";
+  }
+
+  @Test
+  public void canSaveBatchSetWise(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "schemaWithSetWiseBatch.json");
+    String id1 = UUID.randomUUID().toString();
+    String id2 = UUID.randomUUID().toString();
+    String user = UUID.randomUUID().toString();
+    String sql = "SELECT %s FROM tab_sw_fail WHERE id = '%s'";
+    execute(context, saveBatch("tab_sw_fail", "[{\"id\": \"" + id1 + "\", \"metadata\": "
+        + "{\"createdDate\": \"2020-01-01T12:00:00.000+01:00\", \"createdByUserId\": \"" + user + "\"}}, "
+        + "{\"id\": \"" + id2 + "\"}]", false));
+    assertThat(selectText(context, String.format(sql, "jsonb->'metadata'->>'createdDate'", id1)),
+        is("2020-01-01T11:00:00"));
+    assertThat(selectText(context, String.format(sql, "created_by", id1)), is(user));
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'_version')::int", id1)), is(1));
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'_version')::int", id2)), is(1));
+
+    // upsert keeps createdDate and createdByUserId and increments _version
+    execute(context, saveBatch("tab_sw_fail", "[{\"id\": \"" + id1 + "\", \"_version\": 1, \"metadata\": "
+        + "{\"createdDate\": \"2021-06-06T06:06:06.000+00:00\", \"updatedDate\": \"2021-06-06T06:06:06.000+00:00\"}}]", true));
+    assertThat(selectText(context, String.format(sql, "jsonb->'metadata'->>'createdDate'", id1)),
+        is("2020-01-01T11:00:00"));
+    assertThat(selectText(context, String.format(sql, "jsonb->'metadata'->>'createdByUserId'", id1)), is(user));
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'_version')::int", id1)), is(2));
+
+    // stale _version
+    Async async = context.async();
+    PostgresClient.getInstance(vertx, tenant).execute(
+        saveBatch("tab_sw_fail", "[{\"id\": \"" + id1 + "\", \"_version\": 1}]", true),
+        context.asyncAssertFailure(cause -> {
+          context.assertTrue(PgExceptionUtil.isVersionConflict(cause), cause.getMessage());
+          async.complete();
+        }));
+    async.awaitSuccess(5000);
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'_version')::int", id1)), is(2));
+
+    // logOnConflict updates anyway
+    execute(context, saveBatch("tab_sw_log", "[{\"id\": \"" + id1 + "\", \"_version\": 7}]", true));
+    execute(context, saveBatch("tab_sw_log", "[{\"id\": \"" + id1 + "\", \"_version\": 7}]", true));
+    assertThat(selectInteger(context, "SELECT (jsonb->>'_version')::int FROM tab_sw_log"), is(2));
+
+    // the row triggers still work for other statements
+    execute(context, "UPDATE tab_sw_fail SET jsonb = jsonb_set(jsonb, '{_version}', '2') WHERE id = '" + id1 + "'");
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'_version')::int", id1)), is(3));
+  }
+
+  @Test
+  public void canUpsertBatchSetWiseConcurrently(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "schemaWithSetWiseBatch.json");
+    String id = UUID.randomUUID().toString();
+    String records = "[{\"id\": \"" + id + "\", \"_version\": 1, \"n\": %d}]";
+    PostgresClient postgresClient = PostgresClient.getInstance(vertx, tenant);
+    Async async = context.async();
+    postgresClient.getConnection().onComplete(context.asyncAssertSuccess(conn1 ->
+      conn1.begin().onComplete(context.asyncAssertSuccess(tx ->
+        conn1.query(saveBatch("tab_sw_fail", String.format(records, 1), true)).execute()
+        .onComplete(context.asyncAssertSuccess(inserted ->
+          postgresClient.getConnection().onComplete(context.asyncAssertSuccess(conn2 -> {
+            // the INSERT of the same new id waits for the uncommitted INSERT of conn1,
+            // then ON CONFLICT updates the record instead of failing with a unique violation
+            Future<RowSet<Row>> upserted = conn2.query(saveBatch("tab_sw_fail", String.format(records, 2), true)).execute();
+            vertx.setTimer(200, timer -> tx.commit()
+                .compose(committed -> upserted)
+                .eventually(x -> conn1.close().eventually(y -> conn2.close()))
+                .onComplete(context.asyncAssertSuccess(x -> async.complete())));
+          })))))));
+    async.awaitSuccess(10000);
+    String sql = "SELECT %s FROM tab_sw_fail WHERE id = '" + id + "'";
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'n')::int")), is(2));
+    assertThat(selectInteger(context, String.format(sql, "(jsonb->>'_version')::int")), is(2));
+  }
+
+  private boolean refresh(TestContext context, String view) {
+    AtomicBoolean refreshed = new AtomicBoolean();
+    Async async = context.async();
+    MaterializedViews.refresh(PostgresClient.getInstance(vertx), schema, view)
+    .onComplete(context.asyncAssertSuccess(result -> {
+      refreshed.set(result);
+      async.complete();
+    }));
+    async.awaitSuccess(5000);
+    return refreshed.get();
+  }
+
+  @Test
+  public void canRefreshMaterializedView(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "schemaWithMaterializedView.json");
+    String instanceId = UUID.randomUUID().toString();
+    execute(context, "INSERT INTO instance VALUES ('" + instanceId + "', '{\"title\": \"Moby Dick\"}')");
+    execute(context, "INSERT INTO holdings VALUES ('" + UUID.randomUUID() + "', "
+        + "'{\"instanceId\": \"" + instanceId + "\"}')");
+    String count = "SELECT count(*) FROM instance_holdings_mv WHERE jsonb->>'title' = 'Moby Dick'";
+    assertThat(selectInteger(context, count), is(0));
+    assertThat(refresh(context, "instance_holdings_mv"), is(true));
+    assertThat(selectInteger(context, count), is(1));
+    assertThat(refresh(context, "instance_holdings_view"), is(false));
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_materialized_view "
+        + "WHERE name = 'instance_holdings_mv' AND last_refresh IS NOT NULL"), is(1));
+
+    // upgrade keeps the data and the indexes
+    runSchema(context, TenantOperation.UPDATE, "schemaWithMaterializedView.json");
+    assertThat(selectInteger(context, count), is(1));
+    assertThat(selectInteger(context, "SELECT count(*) FROM pg_indexes WHERE tablename = 'instance_holdings_mv'"), is(4));
+  }
+
+  @Test
+  public void canDeleteMaterializedView(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "schemaWithMaterializedView.json");
+    String relkinds = "SELECT string_agg(relkind::text, '' ORDER BY relkind) FROM pg_class "
+        + "WHERE oid IN (to_regclass('instance_holdings_mv'), to_regclass('instance_holdings_view'))";
+    assertThat(selectText(context, relkinds), is("mv"));
+
+    runSchema(context, TenantOperation.UPDATE, "schemaWithMaterializedViewDeleted.json");
+    assertThat(selectInteger(context, "SELECT count(*) FROM pg_class "
+        + "WHERE oid IN (to_regclass('instance_holdings_mv'), to_regclass('instance_holdings_view'))"), is(0));
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_materialized_view"), is(0));
+    assertThat(selectInteger(context, "SELECT count(*) FROM rmb_internal_index WHERE name LIKE 'instance_holdings_mv%'"), is(0));
+
+    // deleting again is a no-op
+    runSchema(context, TenantOperation.UPDATE, "schemaWithMaterializedViewDeleted.json");
+  }
+
+  private List<String> maintainDue(TestContext context) {
+    List<String> maintained = new ArrayList<>();
+    Async async = context.async();
+    AuditPartitions.maintainDue(PostgresClient.getInstance(vertx))
+    .onComplete(context.asyncAssertSuccess(result -> {
+      maintained.addAll(result);
+      async.complete();
+    }));
+    async.awaitSuccess(5000);
+    return maintained;
+  }
+
+  @Test
+  public void canMaintainAuditPartitions(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "schemaWithStatementAudit.json");
+    String partitions = "SELECT count(*) FROM pg_inherits WHERE inhparent = 'audit_loan'::regclass";
+    // current week, 3 premade weeks, default partition
+    assertThat(selectInteger(context, partitions), is(5));
+    execute(context, "INSERT INTO loan (id, jsonb) VALUES ('" + UUID.randomUUID() + "', '{}')");
+    assertThat(selectInteger(context, "SELECT count(*) FROM audit_loan"), is(1));
+    assertThat(selectInteger(context, "SELECT count(*) FROM audit_loan_default"), is(0));
+
+    // a record beyond the premade partitions goes into the default partition
+    execute(context, "INSERT INTO audit_loan (id, jsonb, created_date) "
+        + "VALUES ('" + UUID.randomUUID() + "', '{}', current_timestamp + interval '60 days')");
+    assertThat(selectInteger(context, "SELECT count(*) FROM audit_loan_default"), is(1));
+    // the audit trigger doesn't run the maintenance
+    execute(context, "UPDATE rmb_internal_audit_partition SET next_run = '-infinity'");
+    execute(context, "INSERT INTO loan (id, jsonb) VALUES ('" + UUID.randomUUID() + "', '{}')");
+    assertThat(selectInteger(context, partitions), is(5));
+
+    assertThat(maintainDue(context), containsInAnyOrder(schema + ".audit_loan", schema + ".audit_request"));
+    // the record has been moved out of the default partition into its own partition
+    assertThat(selectInteger(context, "SELECT count(*) FROM audit_loan_default"), is(0));
+    assertThat(selectInteger(context, "SELECT count(*) FROM audit_loan"), is(3));
+    assertThat(selectInteger(context, partitions), is(6));
+    assertThat(maintainDue(context).size(), is(0));
+  }
+
+  @Test
+  public void auditPartitionNameFitsIdentifierLimit(TestContext context) {
+    runSchema(context, TenantOperation.CREATE, "schemaWithStatementAudit.json");
+    assertThat(selectText(context, "SELECT rmb_audit_partition_prefix('audit_loan')"), is("audit_loan"));
+    String longName = "audit_" + "x".repeat(56);
+    String prefix = "SELECT rmb_audit_partition_prefix('%s')";
+    assertThat(selectInteger(context, "SELECT octet_length(rmb_audit_partition_prefix('" + longName + "1') "
+        + "|| '_p20260101')"), is(63));
+    // names that differ after the cut get different prefixes
+    assertThat(selectText(context, String.format(prefix, longName + "1")),
+        is(not(selectText(context, String.format(prefix, longName + "2")))));
+  }
+
   private static void executeAndExpectFailure(TestContext context, String sqlStatement, String ... errMessages) {
       PostgresClient postgresClient = PostgresClient.getInstance(vertx, tenant);
       postgresClient.execute(sqlStatement, context.asyncAssertFailure(cause -> {
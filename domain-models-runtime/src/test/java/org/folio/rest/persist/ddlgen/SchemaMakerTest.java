@@ -100,6 +100,89 @@ public class SchemaMakerTest {
                              containsString("var1 TEXT;"), containsString("var2 TEXT;"), containsString("var3 TEXT;")));
   }
 
+  @Test
+  public void canCreateStatementAuditedTable() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      "mod-foo-18.2.3", null, "templates/db_scripts/schemaWithStatementAudit.json");
+    String result = tidy(schemaMaker.generateSchemas());
+
+    assertThat(result, containsString("CREATE OR REPLACE FUNCTION harvard_circ.rmb_audit_partitions(atable text)"));
+    assertThat(result, containsString("created_date timestamptz NOT NULL DEFAULT current_timestamp)PARTITION BY RANGE(created_date);"));
+    assertThat(result, containsString("CREATE TABLE IF NOT EXISTS harvard_circ.audit_loan_default PARTITION OF harvard_circ.audit_loan DEFAULT;"));
+    assertThat(result, containsString("VALUES('audit_loan', 'week', 52, 3, true, '-infinity')"));
+    assertThat(result, containsString("VALUES('audit_request', 'month', 0, 2, false, '-infinity')"));
+    assertThat(result, containsString("SELECT harvard_circ.rmb_audit_partitions('audit_loan');"));
+    // the partition maintenance doesn't run in the audit trigger
+    assertThat(result, not(containsString("PERFORM harvard_circ.rmb_audit_partitions")));
+    assertThat(result, containsString("CREATE TRIGGER audit_loan_insert AFTER INSERT ON harvard_circ.loan "
+        + "REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT"));
+    assertThat(result, containsString("CREATE TRIGGER audit_loan_delete AFTER DELETE ON harvard_circ.loan "
+        + "REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT"));
+    assertThat(result, not(containsString("audit_loan_changes()RETURNS TRIGGER")));
+    // row mode is unchanged
+    assertThat(result, containsString("CREATE TABLE IF NOT EXISTS harvard_circ.audit_fine(id UUID PRIMARY KEY"));
+    assertThat(result, containsString("CREATE TRIGGER audit_fine AFTER INSERT OR UPDATE OR DELETE"));
+  }
+
+  @Test
+  public void noAuditPartitionsWithoutStatementAuditing() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      "mod-foo-18.2.3", null, "templates/db_scripts/schemaWithAudit.json");
+    assertThat(schemaMaker.generateSchemas(), not(containsString("rmb_audit_partitions")));
+  }
+
+  @Test
+  public void canCreateSetWiseBatch() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      "mod-foo-18.2.3", null, "templates/db_scripts/schemaWithSetWiseBatch.json");
+    String result = tidy(schemaMaker.generateSchemas());
+    String when = " FOR EACH ROW WHEN(current_setting('rmb.set_wise_batch', true)IS DISTINCT FROM 'on')EXECUTE PROCEDURE ";
+
+    assertThat(result, containsString("CREATE TRIGGER set_tab_sw_fail_md_trigger BEFORE INSERT ON harvard_circ.tab_sw_fail" + when));
+    assertThat(result, containsString("CREATE TRIGGER set_tab_sw_fail_md_json_trigger BEFORE UPDATE ON harvard_circ.tab_sw_fail" + when));
+    assertThat(result, containsString("CREATE TRIGGER set_tab_sw_fail_ol_version_trigger BEFORE INSERT OR UPDATE ON harvard_circ.tab_sw_fail" + when));
+    assertThat(result, containsString("CREATE OR REPLACE FUNCTION harvard_circ.tab_sw_fail_save_batch(records jsonb, upsert boolean)"));
+    assertThat(result, containsString("CREATE OR REPLACE FUNCTION harvard_circ.tab_sw_log_save_batch(records jsonb, upsert boolean)"));
+    assertThat(result, containsString("RAISE WARNING 'Cannot update record %"));
+    assertThat(result, containsString("DROP FUNCTION IF EXISTS harvard_circ.tab_sw_none_save_batch(jsonb, boolean);"));
+    assertThat(result, containsString("CREATE TRIGGER set_tab_sw_none_ol_version_trigger BEFORE INSERT OR UPDATE ON harvard_circ.tab_sw_none FOR EACH ROW EXECUTE PROCEDURE "));
+  }
+
+  @Test
+  public void canCreateMaterializedView() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      "mod-foo-18.2.3", null, "templates/db_scripts/schemaWithMaterializedView.json");
+    String result = tidy(schemaMaker.generateSchemas());
+
+    assertThat(result, containsString("CREATE TABLE IF NOT EXISTS harvard_circ.rmb_internal_materialized_view("));
+    assertThat(result, containsString("CREATE MATERIALIZED VIEW harvard_circ.instance_holdings_mv AS select "
+        + "instance.id, holdings.id as holdings_id, instance.jsonb as jsonb, holdings.jsonb as ho_jsonb from"));
+    assertThat(result, containsString("CREATE UNIQUE INDEX instance_holdings_mv_idx_refresh "
+        + "ON harvard_circ.instance_holdings_mv(id, holdings_id);"));
+    assertThat(result, containsString("CREATE INDEX IF NOT EXISTS instance_holdings_mv_hrid_idx ON harvard_circ.instance_holdings_mv "));
+    assertThat(result, containsString("CREATE INDEX IF NOT EXISTS instance_holdings_mv_title_idx_gin ON harvard_circ.instance_holdings_mv USING GIN "));
+    assertThat(result, containsString("CREATE INDEX IF NOT EXISTS instance_holdings_mv_subject_idx_ft ON harvard_circ.instance_holdings_mv USING GIN "));
+    assertThat(result, containsString("VALUES('instance_holdings_mv', 300)"));
+    assertThat(result, containsString("CREATE OR REPLACE VIEW harvard_circ.instance_holdings_view AS select "
+        + "instance.id, instance.jsonb as jsonb, holdings.jsonb as ho_jsonb from"));
+    assertThat(result, containsString("DELETE FROM harvard_circ.rmb_internal_materialized_view WHERE name = 'instance_holdings_view';"));
+  }
+
+  @Test
+  public void indexesOnlyOfMaterializedView() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      "mod-foo-18.2.3", null, "templates/db_scripts/schemaWithMaterializedView.json");
+    assertThat(tidy(schemaMaker.generateIndexesOnly()),
+        containsString("CREATE INDEX IF NOT EXISTS instance_holdings_mv_hrid_idx ON harvard_circ.instance_holdings_mv "));
+  }
+
+  @Test
+  public void noMaterializedViewTable() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      "mod-foo-18.2.3", null, "templates/db_scripts/schemaWithSetWiseBatch.json");
+    assertThat(schemaMaker.generateSchemas(), not(containsString("rmb_internal_materialized_view")));
+  }
+
   @Test
   public void canCreateIndexPath() throws IOException, TemplateException {
     SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.UPDATE,
@@ -330,6 +413,22 @@ public class SchemaMakerTest {
     assertThat(ddl, containsString("GIN ' || $rmb$(get_tsvector((jsonb->>'author')))"));
   }
 
+  @Test
+  public void deferIndexes() throws IOException, TemplateException {
+    SchemaMaker schemaMaker = schemaMaker("harvard", "circ", TenantOperation.CREATE,
+      null, null, "templates/db_scripts/test_indexes.json");
+    assertThat(tidy(schemaMaker.generateSchemas()), not(containsString("PERFORM rmb_internal_index_defer(")));
+
+    schemaMaker.setDeferIndexes(true);
+    String ddl = tidy(schemaMaker.generateSchemas());
+    assertThat(ddl, containsString("CREATE TABLE IF NOT EXISTS harvard_circ.rmb_internal_index_build"));
+    assertThat(ddl, containsString("PERFORM rmb_internal_index_defer('item', 'item_title_idx', "));
+    assertThat(ddl, containsString("PERFORM rmb_internal_index_defer('item', 'item_type_idx_like', "));
+    assertThat(ddl, containsString("PERFORM rmb_internal_index_defer('item', 'item_title_idx_gin', "));
+    assertThat(ddl, containsString("PERFORM rmb_internal_index_defer('item', 'item_title_idx_ft', "));
+    assertThat(ddl, containsString("PERFORM rmb_internal_index('item', 'item_name_idx_unique', "));
+  }
+
   @Test
   public void deleteOldTables() throws Exception {
     SchemaMaker schemaMaker = schemaMaker("myTenant", "myModule", TenantOperation.UPDATE,
@@ -0,0 +1,96 @@
+package org.folio.rest.persist.facets;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import io.vertx.pgclient.impl.RowImpl;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.impl.RowDesc;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.folio.rest.jaxrs.model.Facet;
+import org.folio.rest.persist.helpers.LocalRowSet;
+import org.junit.Test;
+
+public class FacetQueryTest {
+  private static final String MAIN = "SELECT jsonb,id FROM s.t";
+  private static final List<FacetField> FACETS = Arrays.asList(
+      new FacetField("jsonb->>'edition'", 3),
+      new FacetField("jsonb->'status'->>'name'", 5));
+
+  @Test
+  public void aggregate() {
+    String sql = FacetQuery.build("s", MAIN, FACETS, Collections.emptyMap());
+    assertThat(sql, containsString("WITH facets AS (SELECT jsonb,id FROM s.t LIMIT 10000)"));
+    assertThat(sql, containsString("(SELECT 0 AS facet, to_jsonb(v)::text AS value, count(*)::int AS count"
+        + " FROM (SELECT jsonb->>'edition' AS v FROM facets) x"
+        + " WHERE v IS NOT NULL GROUP BY v ORDER BY count(*) DESC, v LIMIT 3)"));
+    assertThat(sql, containsString("(SELECT 1 AS facet"));
+    assertThat(sql, containsString("UNION ALL"));
+    assertThat(sql, not(containsString("_facet ")));
+  }
+
+  @Test
+  public void countTable() {
+    Map<String, String> countTables = Collections.singletonMap(
+        FacetQuery.normalize("jsonb -> 'status' ->> 'name'"), "t_status_name_facet");
+    String sql = FacetQuery.build("s", MAIN, FACETS, countTables);
+    assertThat(sql, containsString("(SELECT 1 AS facet, to_jsonb(value)::text AS value, count::int AS count"
+        + " FROM s.t_status_name_facet WHERE count > 0 ORDER BY count DESC, value LIMIT 5)"));
+    assertThat(sql, containsString("FROM (SELECT jsonb->>'edition' AS v FROM facets)"));
+  }
+
+  @Test
+  public void calculateOnAll() {
+    int calculateOnFirst = FacetManager.getCalculateOnFirst();
+    try {
+      FacetManager.setCalculateOnFirst(0);
+      assertThat(FacetQuery.build("s", MAIN, FACETS, Collections.emptyMap()),
+          containsString("WITH facets AS (SELECT jsonb,id FROM s.t)"));
+    } finally {
+      FacetManager.setCalculateOnFirst(calculateOnFirst);
+    }
+  }
+
+  @Test
+  public void unknownTable() {
+    String sql = FacetQuery.build("s", "notInSchemaJson", MAIN, true, FACETS);
+    assertThat(sql, not(containsString("_facet ")));
+  }
+
+  private Row row(int facet, String value, int count) {
+    Row row = new RowImpl(new RowDesc(Arrays.asList("facet", "value", "count")));
+    row.addInteger(facet);
+    row.addString(value);
+    row.addInteger(count);
+    return row;
+  }
+
+  @Test
+  public void toFacets() {
+    LocalRowSet rowSet = new LocalRowSet(4).withRows(Arrays.asList(
+        row(0, "\"First edition\"", 3),
+        row(0, "\"Second edition\"", 1),
+        row(1, "{\"a\": 1}", 2),
+        row(1, "7", 1)));
+    List<Facet> facets = FacetQuery.toFacets(rowSet, FACETS);
+    assertThat(facets.size(), is(2));
+    assertThat(facets.get(0).getType(), is("edition"));
+    assertThat(facets.get(0).getFacetValues().size(), is(2));
+    assertThat(facets.get(0).getFacetValues().get(0).getValue(), is("First edition"));
+    assertThat(facets.get(0).getFacetValues().get(0).getCount(), is(3));
+    assertThat(facets.get(1).getType(), is("name"));
+    assertThat(facets.get(1).getFacetValues().get(0).getValue(), is(Collections.singletonMap("a", 1)));
+    assertThat(facets.get(1).getFacetValues().get(1).getValue(), is(7));
+  }
+
+  @Test
+  public void toFacetsEmpty() {
+    assertThat(FacetQuery.toFacets(new LocalRowSet(0), FACETS).isEmpty(), is(true));
+  }
+}
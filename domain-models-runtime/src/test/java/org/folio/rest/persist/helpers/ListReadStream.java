@@ -0,0 +1,67 @@
+package org.folio.rest.persist.helpers;
+
+import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * ReadStream that emits the elements of a List and honors pause and resume.
+ */
+public class ListReadStream<T> implements ReadStream<T> {
+  private final Iterator<T> iterator;
+  private Handler<T> handler;
+  private Handler<Void> endHandler;
+  private boolean paused;
+  private boolean ended;
+
+  public ListReadStream(List<T> list) {
+    iterator = list.iterator();
+  }
+
+  @Override
+  public ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> handler(Handler<T> handler) {
+    this.handler = handler;
+    emit();
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> pause() {
+    paused = true;
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> resume() {
+    paused = false;
+    emit();
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> fetch(long amount) {
+    return resume();
+  }
+
+  @Override
+  public ReadStream<T> endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  private void emit() {
+    while (! paused && handler != null && iterator.hasNext()) {
+      handler.handle(iterator.next());
+    }
+    if (! paused && handler != null && ! iterator.hasNext() && ! ended && endHandler != null) {
+      ended = true;
+      endHandler.handle(null);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package org.folio.rest.tools.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class ResponseCacheTest {
+  private static final long TTL = 60000;
+
+  private final List<CompletableFuture<Response>> requests = new ArrayList<>();
+  private final List<Map<String, String>> requestHeaders = new ArrayList<>();
+  private final Function<Map<String, String>, CompletableFuture<Response>> loader = headers -> {
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    requests.add(future);
+    requestHeaders.add(headers);
+    return future;
+  };
+
+  private static ResponseCache.Key key(String tenant) {
+    return ResponseCache.key(tenant, HttpMethod.GET, "/users/1",
+        Collections.singletonMap("X-Okapi-Tenant", tenant));
+  }
+
+  private static Response response(int code, String... headers) {
+    Response response = new Response();
+    response.code = code;
+    response.body = code == 200 ? new JsonObject().put("id", "1") : null;
+    response.bodyLength = code == 200 ? "{\"id\":\"1\"}".length() : 0;
+    response.headers = MultiMap.caseInsensitiveMultiMap();
+    for (int i = 0; i < headers.length; i += 2) {
+      response.headers.add(headers[i], headers[i + 1]);
+    }
+    return response;
+  }
+
+  @Test
+  public void coalesce() {
+    ResponseCache cache = new ResponseCache(10000, 1000);
+    CompletableFuture<Response> first = cache.get(key("a"), TTL, loader);
+    CompletableFuture<Response> second = cache.get(key("a"), TTL, loader);
+    assertThat(requests.size(), is(1));
+    Response response = response(200);
+    requests.get(0).complete(response);
+    assertThat(first.join(), is(sameInstance(response)));
+    assertThat(second.join(), is(sameInstance(response)));
+    assertThat(cache.get(key("a"), TTL, loader).join(), is(sameInstance(response)));
+    assertThat(requests.size(), is(1));
+    assertThat(cache.getCoalescedCount(), is(1L));
+    assertThat(cache.stats().hitCount(), is(2L));
+    assertThat(cache.stats().missCount(), is(1L));
+    assertThat(cache.stats().loadSuccessCount(), is(1L));
+  }
+
+  @Test
+  public void tenant() {
+    ResponseCache cache = new ResponseCache(10000, 1000);
+    cache.get(key("a"), TTL, loader);
+    requests.get(0).complete(response(200));
+    cache.get(key("b"), TTL, loader);
+    assertThat(requests.size(), is(2));
+    assertThat(key("a"), is(key("a")));
+    assertThat(key("a"), is(not(key("b"))));
+  }
+
+  @Test
+  public void error() {
+    ResponseCache cache = new ResponseCache(10000, 1000);
+    cache.get(key("a"), TTL, loader);
+    requests.get(0).complete(response(500));
+    cache.get(key("a"), TTL, loader);
+    assertThat(requests.size(), is(2));
+    assertThat(cache.stats().loadExceptionCount(), is(1L));
+  }
+
+  @Test
+  public void noStore() {
+    ResponseCache cache = new ResponseCache(10000, 1000);
+    cache.get(key("a"), TTL, loader);
+    requests.get(0).complete(response(200, "Cache-Control", "private, no-store"));
+    assertThat(cache.size(), is(0L));
+  }
+
+  @Test
+  public void tooHeavy() {
+    ResponseCache cache = new ResponseCache(10000, 5);
+    cache.get(key("a"), TTL, loader);
+    requests.get(0).complete(response(200));
+    assertThat(cache.size(), is(0L));
+  }
+
+  @Test
+  public void revalidate() {
+    ResponseCache cache = new ResponseCache(10000, 1000);
+    cache.get(key("a"), TTL, loader);
+    Response response = response(200, "Cache-Control", "max-age=0", "ETag", "\"v1\"");
+    requests.get(0).complete(response);
+    assertThat(requestHeaders.get(0).isEmpty(), is(true));
+
+    CompletableFuture<Response> revalidated = cache.get(key("a"), TTL, loader);
+    assertThat(requests.size(), is(2));
+    assertThat(requestHeaders.get(1).get("If-None-Match"), is("\"v1\""));
+    requests.get(1).complete(response(304, "Cache-Control", "max-age=60"));
+    assertThat(revalidated.join(), is(sameInstance(response)));
+    assertThat(cache.getRevalidatedCount(), is(1L));
+
+    assertThat(cache.get(key("a"), TTL, loader).join(), is(sameInstance(response)));
+    assertThat(requests.size(), is(2));
+  }
+
+  @Test
+  public void exception() {
+    ResponseCache cache = new ResponseCache(10000, 1000);
+    CompletableFuture<Response> future = cache.get(key("a"), TTL, headers -> {
+      throw new IllegalStateException("closed");
+    });
+    assertThat(future.isCompletedExceptionally(), is(true));
+    assertThat(cache.stats().loadExceptionCount(), is(1L));
+  }
+}
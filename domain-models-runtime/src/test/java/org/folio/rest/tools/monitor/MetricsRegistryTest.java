@@ -0,0 +1,123 @@
+package org.folio.rest.tools.monitor;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+
+  @AfterEach
+  void clear() {
+    MetricsRegistry.clear();
+  }
+
+  @Test
+  void histogram() {
+    Histogram histogram = new Histogram(new long[] { 10, 20 });
+    histogram.record(5);
+    histogram.record(10);
+    histogram.record(11);
+    histogram.record(99);
+    assertThat(histogram.getCumulativeCounts(), is(new long[] { 2, 3, 4 }));
+    assertThat(histogram.getSum(), is(125L));
+  }
+
+  @Test
+  void histogramInvalidBounds() {
+    assertThrows(IllegalArgumentException.class, () -> new Histogram(new long[] { 2, 2 }));
+  }
+
+  @Test
+  void prometheus() {
+    MetricsRegistry.recordRequest("GET", "/books/{id}", 200, 3_000_000);
+    MetricsRegistry.recordRequest("GET", "/books/{id}", 200, 70_000_000_000L);
+    MetricsRegistry.recordSql("get", "book", 500_000);
+    MetricsRegistry.recordRows("get", null, 7);
+    MetricsRegistry.recordPoolWait("diku", 1);
+    String text = MetricsRegistry.toPrometheus();
+    assertThat(text, containsString("# TYPE rmb_http_server_requests_seconds histogram\n"));
+    assertThat(text, containsString(
+        "rmb_http_server_requests_seconds_bucket{method=\"GET\",path=\"/books/{id}\",status=\"200\",le=\"0.001\"} 0\n"));
+    assertThat(text, containsString(
+        "rmb_http_server_requests_seconds_bucket{method=\"GET\",path=\"/books/{id}\",status=\"200\",le=\"0.005\"} 1\n"));
+    assertThat(text, containsString(
+        "rmb_http_server_requests_seconds_bucket{method=\"GET\",path=\"/books/{id}\",status=\"200\",le=\"60\"} 1\n"));
+    assertThat(text, containsString(
+        "rmb_http_server_requests_seconds_bucket{method=\"GET\",path=\"/books/{id}\",status=\"200\",le=\"+Inf\"} 2\n"));
+    assertThat(text, containsString(
+        "rmb_http_server_requests_seconds_sum{method=\"GET\",path=\"/books/{id}\",status=\"200\"} 70.003\n"));
+    assertThat(text, containsString(
+        "rmb_http_server_requests_seconds_count{method=\"GET\",path=\"/books/{id}\",status=\"200\"} 2\n"));
+    assertThat(text, containsString("rmb_sql_seconds_bucket{method=\"get\",table=\"book\",le=\"0.001\"} 1\n"));
+    assertThat(text, containsString("rmb_sql_rows_bucket{method=\"get\",table=\"\",le=\"1\"} 0\n"));
+    assertThat(text, containsString("rmb_sql_rows_bucket{method=\"get\",table=\"\",le=\"10\"} 1\n"));
+    assertThat(text, containsString("rmb_db_pool_wait_seconds_count{tenant=\"diku\"} 1\n"));
+  }
+
+  @Test
+  void resultCache() {
+    MetricsRegistry.recordResultCache("book_cache", "heap_hit");
+    MetricsRegistry.recordResultCache("book_cache", "heap_hit");
+    MetricsRegistry.recordResultCache("book_cache", "miss");
+    assertThat(MetricsRegistry.RESULT_CACHE.get("book_cache", "heap_hit"), is(2L));
+    assertThat(MetricsRegistry.RESULT_CACHE.get("book_cache", "table_hit"), is(0L));
+    String text = MetricsRegistry.toPrometheus();
+    assertThat(text, containsString("# TYPE rmb_result_cache_lookups_total counter\n"));
+    assertThat(text, containsString("rmb_result_cache_lookups_total{cache=\"book_cache\",result=\"heap_hit\"} 2\n"));
+    assertThat(text, containsString("rmb_result_cache_lookups_total{cache=\"book_cache\",result=\"miss\"} 1\n"));
+    MetricsRegistry.clear();
+    assertThat(MetricsRegistry.RESULT_CACHE.get("book_cache", "heap_hit"), is(0L));
+  }
+
+  @Test
+  void escape() {
+    assertThat(MetricsRegistry.escape("a\\b\"c\nd"), is("a\\\\b\\\"c\\nd"));
+  }
+
+  @Test
+  void maxSeries() {
+    for (int i = 0; i < MetricsRegistry.MAX_SERIES + 5; i++) {
+      MetricsRegistry.recordSql("execute", "t" + i, 1);
+    }
+    assertThat(MetricsRegistry.SQL.get("execute", "t0"), is(notNullValue()));
+    assertThat(MetricsRegistry.SQL.get(MetricsRegistry.OTHER, MetricsRegistry.OTHER).getCumulativeCounts()[0], is(5L));
+    assertThat(MetricsRegistry.toPrometheus(), not(containsString("table=\"t1004\"")));
+    // an existing combination is still recorded into its own series
+    MetricsRegistry.recordSql("execute", "t0", 1);
+    assertThat(MetricsRegistry.SQL.get("execute", "t0").getCumulativeCounts()[0], is(2L));
+  }
+
+  @Test
+  void series() {
+    MetricsRegistry.Series<LongAdder> one = new MetricsRegistry.Series<>(1, LongAdder::new);
+    assertThat(one.get("a", "ignored", null), is(sameInstance(one.get("a", null, null))));
+    assertThat(one.get(null, null, null), is(sameInstance(one.find(""))));
+    MetricsRegistry.Series<LongAdder> three = new MetricsRegistry.Series<>(3, LongAdder::new);
+    LongAdder abc = three.get("a", "b", "c");
+    assertThat(three.get("a", "b", "c"), is(sameInstance(abc)));
+    assertThat(three.get("a", "b", "d"), is(not(sameInstance(abc))));
+    assertThat(three.find("a", "b", "c"), is(sameInstance(abc)));
+    assertThat(three.getAll().size(), is(2));
+    three.clear();
+    assertThat(three.find("a", "b", "c"), is(nullValue()));
+    assertThrows(IllegalArgumentException.class, () -> new MetricsRegistry.Series<>(4, LongAdder::new));
+  }
+
+  @Test
+  void status() {
+    assertThat(MetricsRegistry.status(200), is("200"));
+    assertThat(MetricsRegistry.status(200), is(sameInstance(MetricsRegistry.status(200))));
+    assertThat(MetricsRegistry.status(599), is("599"));
+    assertThat(MetricsRegistry.status(600), is("600"));
+    assertThat(MetricsRegistry.status(99), is("99"));
+  }
+}
@@ -0,0 +1,143 @@
+package org.folio.rest.tools.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.io.IOException;
+import java.util.function.BiConsumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class BodyReadStreamTest {
+
+  @Rule
+  public Timeout timeout = Timeout.seconds(5);
+
+  private Vertx vertx;
+  private HttpServer server;
+  private BiConsumer<BodyReadStream, HttpServerResponse> bodyHandler;
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    server = vertx.createHttpServer().requestHandler(request -> {
+      // like RestVerticle: the request is paused until the function sets a handler
+      request.pause();
+      bodyHandler.accept(new BodyReadStream(vertx, request), request.response());
+    });
+    server.listen(0, context.asyncAssertSuccess());
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  private static Buffer body() {
+    Buffer buffer = Buffer.buffer();
+    for (int i = 0; i < 10000; i++) {
+      buffer.appendString(i + ",");
+    }
+    return buffer;
+  }
+
+  private Future<Buffer> post(Buffer body) {
+    return vertx.createHttpClient()
+        .request(HttpMethod.POST, server.actualPort(), "localhost", "/")
+        .compose(request -> request.send(body))
+        .compose(response -> response.body());
+  }
+
+  @Test
+  public void pauseResume(TestContext context) {
+    Buffer expected = body();
+    bodyHandler = (body, response) -> {
+      Buffer received = Buffer.buffer();
+      int [] chunks = { 0 };
+      body.pause();
+      body.handler(chunk -> {
+        received.appendBuffer(chunk);
+        chunks[0]++;
+        // pause after each chunk and resume later
+        body.pause();
+        vertx.setTimer(1, timer -> body.resume());
+      });
+      body.endHandler(end -> {
+        context.assertTrue(chunks[0] > 0);
+        context.assertEquals(expected, received);
+        response.end("ok");
+      });
+      // paused before the handler has been set: no chunk must arrive until resume
+      vertx.setTimer(100, timer -> {
+        context.assertEquals(0, received.length());
+        body.resume();
+      });
+    };
+    post(expected).onComplete(context.asyncAssertSuccess(response ->
+        assertThat(response.toString(), is("ok"))));
+  }
+
+  @Test
+  public void handlerResumes(TestContext context) {
+    Buffer expected = body();
+    bodyHandler = (body, response) -> {
+      Buffer received = Buffer.buffer();
+      body.handler(received::appendBuffer);
+      body.endHandler(end -> response.end(Integer.toString(received.length())));
+    };
+    post(expected).onComplete(context.asyncAssertSuccess(response ->
+        assertThat(response.toString(), is(Integer.toString(expected.length())))));
+  }
+
+  @Test
+  public void spillToDisk(TestContext context) {
+    Buffer expected = body();
+    bodyHandler = (body, response) -> body.spillToDisk()
+        .onComplete(context.asyncAssertSuccess(path -> {
+          context.assertEquals(expected, vertx.fileSystem().readFileBlocking(path));
+          vertx.fileSystem().deleteBlocking(path);
+          response.end("ok");
+        }));
+    post(expected).onComplete(context.asyncAssertSuccess(response ->
+        assertThat(response.toString(), is("ok"))));
+  }
+
+  @Test
+  public void closedRequest(TestContext context) {
+    Async async = context.async();
+    bodyHandler = (body, response) -> {
+      body.exceptionHandler(e -> async.complete());
+      body.endHandler(end -> context.fail("end handler called for an incomplete body"));
+      body.handler(chunk -> { });
+    };
+    vertx.createNetClient().connect(server.actualPort(), "localhost", context.asyncAssertSuccess(socket -> {
+      socket.write("POST / HTTP/1.1\r\n"
+          + "Host: localhost\r\n"
+          + "Content-Length: 100\r\n"
+          + "\r\n"
+          + "0123456789");
+      vertx.setTimer(100, timer -> socket.close());
+    }));
+  }
+
+  @Test
+  public void blockingRead() {
+    BodyReadStream body = new BodyReadStream(null, null);
+    assertThrows(IOException.class, () -> body.read());
+  }
+}
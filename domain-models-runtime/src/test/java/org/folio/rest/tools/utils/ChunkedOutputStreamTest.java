@@ -0,0 +1,83 @@
+package org.folio.rest.tools.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.folio.dbschema.ObjectMapperTool;
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+public class ChunkedOutputStreamTest {
+  private List<Buffer> chunks = new ArrayList<>();
+
+  private String lengths() {
+    StringBuilder s = new StringBuilder();
+    for (Buffer chunk : chunks) {
+      s.append(chunk.length()).append(' ');
+    }
+    return s.toString().trim();
+  }
+
+  private String all() {
+    Buffer buffer = Buffer.buffer();
+    chunks.forEach(buffer::appendBuffer);
+    return buffer.toString();
+  }
+
+  @Test
+  public void chunks() {
+    ChunkedOutputStream out = new ChunkedOutputStream(chunks::add, 4);
+    out.write("abcdefghij".getBytes(StandardCharsets.UTF_8), 0, 10);
+    assertThat(lengths(), is("4 4"));
+    out.write('k');
+    out.write('l');
+    assertThat(lengths(), is("4 4 4"));
+    out.write('m');
+    out.close();
+    assertThat(lengths(), is("4 4 4 1"));
+    assertThat(all(), is("abcdefghijklm"));
+    assertThat(out.getCount(), is(13L));
+  }
+
+  @Test
+  public void flushAndClose() {
+    ChunkedOutputStream out = new ChunkedOutputStream(chunks::add, 4);
+    out.flush();
+    out.write("ab".getBytes(StandardCharsets.UTF_8), 1, 1);
+    out.flush();
+    out.flush();
+    out.close();
+    out.close();
+    assertThat(lengths(), is("1"));
+    assertThat(all(), is("b"));
+    assertThrows(IllegalStateException.class, () -> out.write('x'));
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new ChunkedOutputStream(chunks::add, 0));
+    ChunkedOutputStream out = new ChunkedOutputStream(chunks::add);
+    assertThrows(IndexOutOfBoundsException.class, () -> out.write(new byte [2], 1, 2));
+  }
+
+  @Test
+  public void jackson() throws IOException {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      value.append("ä");
+    }
+    JsonObject expected = new JsonObject().put("a", value.toString());
+    ChunkedOutputStream out = new ChunkedOutputStream(chunks::add, 1000);
+    ObjectMapperTool.getMapper().writer().writeValue(out, expected.getMap());
+    assertThat(chunks.size(), is(21));
+    assertThat(new JsonObject(all()), is(expected));
+  }
+}
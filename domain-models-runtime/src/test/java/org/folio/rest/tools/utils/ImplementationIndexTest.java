@@ -0,0 +1,95 @@
+package org.folio.rest.tools.utils;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.folio.rest.testing.UtilityClassTester;
+import org.folio.rest.tools.AnnotationGrabber;
+import org.folio.rest.tools.PomReader;
+import org.folio.rest.tools.RTFConsts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+class ImplementationIndexTest {
+  private static final String IMPL = RTFConsts.PACKAGE_OF_IMPLEMENTATIONS;
+
+  @AfterEach
+  void reset() {
+    ImplementationIndex.set(null);
+  }
+
+  @Test
+  void isUtilityClass() {
+    UtilityClassTester.assertUtilityClass(ImplementationIndex.class);
+  }
+
+  @Test
+  void create() throws Exception {
+    JsonObject index = ImplementationIndex.create();
+    assertThat(index.getString(ImplementationIndex.IMPL_DIR), is(IMPL));
+    assertThat(index.getJsonObject(ImplementationIndex.MAPPINGS).getJsonObject("^/admin"), is(notNullValue()));
+    JsonObject implementations = index.getJsonObject(ImplementationIndex.IMPLEMENTATIONS);
+    assertThat(implementations.getJsonArray(RTFConsts.INTERFACE_PACKAGE + ".Admin"),
+        is(new JsonArray().add(IMPL + ".AdminAPI")));
+    assertThat(implementations.getJsonArray(RTFConsts.PACKAGE_OF_HOOK_INTERFACES + ".PeriodicAPI").getList(),
+        hasItem(IMPL + ".MaterializedViewRefreshAPI"));
+  }
+
+  @Test
+  void noResource() {
+    ImplementationIndex.set(ImplementationIndex.load("doesNotExist.json"));
+    assertThat(ImplementationIndex.getMappings(), is(nullValue()));
+    assertThat(ImplementationIndex.getImplementations(IMPL, "org.example.Foo"), is(nullValue()));
+  }
+
+  @Test
+  void resourceIsModuleSpecific() {
+    assertThat(ImplementationIndex.resource(),
+        is(ImplementationIndex.RESOURCE_DIR + "/" + PomReader.INSTANCE.getModuleName() + ".json"));
+  }
+
+  @Test
+  void verify() {
+    JsonObject index = new JsonObject().put(ImplementationIndex.MAPPINGS, new JsonObject()
+        .put("^/admin", new JsonObject().put(AnnotationGrabber.CLASS_NAME, RTFConsts.INTERFACE_PACKAGE + ".Admin")));
+    assertThat(ImplementationIndex.verify("x.json", index), is(index));
+    // an index of a different module maps interfaces that don't exist in this module
+    index.getJsonObject(ImplementationIndex.MAPPINGS)
+        .put("^/foo", new JsonObject().put(AnnotationGrabber.CLASS_NAME, "org.example.Foo"));
+    assertThat(ImplementationIndex.verify("x.json", index), is(new JsonObject()));
+  }
+
+  @Test
+  void lookup() throws Exception {
+    ImplementationIndex.set(new JsonObject()
+        .put(ImplementationIndex.IMPL_DIR, IMPL)
+        .put(ImplementationIndex.MAPPINGS, new JsonObject().put("^/foo", new JsonObject()))
+        .put(ImplementationIndex.IMPLEMENTATIONS, new JsonObject()
+            .put("org.example.None", new JsonArray())
+            .put("org.example.Two", new JsonArray().add("java.lang.String").add("java.lang.Integer"))
+            .put("org.example.Outdated", new JsonArray().add("org.example.Removed"))));
+    ImplementationIndex.getMappings().put("^/bar", new JsonObject());
+    assertThat(ImplementationIndex.getMappings().fieldNames(), is(Collections.singleton("^/foo")));
+    assertThat(ImplementationIndex.getImplementations(IMPL, "org.example.Two"),
+        is(Arrays.asList("java.lang.String", "java.lang.Integer")));
+    assertThat(ImplementationIndex.getImplementations(IMPL, "org.example.Unknown"), is(nullValue()));
+    assertThat(ImplementationIndex.getImplementations("org.example", "org.example.Two"), is(nullValue()));
+
+    assertThat(InterfaceToImpl.convert2Impl(IMPL, "org.example.Two", true),
+        is(Arrays.asList(String.class, Integer.class)));
+    assertThrows(ClassNotFoundException.class, () -> InterfaceToImpl.convert2Impl(IMPL, "org.example.None", false));
+    // outdated index: fall back to the classpath scan
+    assertThrows(ClassNotFoundException.class,
+        () -> InterfaceToImpl.convert2Impl(IMPL, "org.example.Outdated", false));
+  }
+}
@@ -0,0 +1,92 @@
+package org.folio.rest.tools.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.folio.dbschema.ObjectMapperTool;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class JsonChunksTest {
+  private static final ObjectWriter WRITER = ObjectMapperTool.getMapper().writer();
+
+  public static class Failing {
+    public String getValue() {
+      throw new IllegalStateException("getter failed");
+    }
+  }
+
+  private List<Buffer> all(JsonChunks jsonChunks) throws IOException {
+    List<Buffer> chunks = new ArrayList<>();
+    Buffer chunk;
+    while ((chunk = jsonChunks.next()) != null) {
+      chunks.add(chunk);
+    }
+    assertThat(jsonChunks.next(), is(nullValue()));
+    return chunks;
+  }
+
+  private String join(List<Buffer> chunks) {
+    Buffer buffer = Buffer.buffer();
+    chunks.forEach(buffer::appendBuffer);
+    return buffer.toString();
+  }
+
+  @Test
+  public void small() throws IOException {
+    List<Buffer> chunks = all(new JsonChunks(WRITER, Collections.singletonMap("a", "b"), 100));
+    assertThat(chunks.size(), is(1));
+    assertThat(chunks.get(0).toString(), is("{\"a\":\"b\"}"));
+  }
+
+  @Test
+  public void jsonObject() throws IOException {
+    JsonArray array = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      array.add(new JsonObject().put("id", i).put("name", "ä" + i).put("price", i / 3.0));
+    }
+    JsonObject expected = new JsonObject().put("items", array).put("totalRecords", 1000);
+    JsonChunks jsonChunks = new JsonChunks(WRITER, expected, 1000);
+    // a chunk is generated on demand, not the complete JSON at once
+    List<Buffer> chunks = new ArrayList<>();
+    chunks.add(jsonChunks.next());
+    assertThat(chunks.get(0).length(), is(1000));
+    chunks.addAll(all(jsonChunks));
+    for (int i = 0; i < chunks.size() - 1; i++) {
+      assertThat(chunks.get(i).length(), is(1000));
+    }
+    assertThat(chunks.size() > 30, is(true));
+    assertThat(new JsonObject(join(chunks)), is(expected));
+  }
+
+  @Test
+  public void content() throws IOException {
+    JsonObject expected = new JsonObject().put("a", new JsonArray().add(1).add("x").addNull().add(true))
+        .put("b", new JsonObject().put("c", 1.5).put("d", Long.MAX_VALUE));
+    assertThat(new JsonObject(join(all(new JsonChunks(WRITER, expected, 3)))), is(expected));
+  }
+
+  @Test
+  public void pretty() throws IOException {
+    ObjectWriter pretty = ObjectMapperTool.getMapper().writerWithDefaultPrettyPrinter();
+    Object value = Collections.singletonMap("a", "b");
+    assertThat(join(all(new JsonChunks(pretty, value, 5))), is(pretty.writeValueAsString(value)));
+  }
+
+  @Test
+  public void failingGetter() {
+    assertThrows(IOException.class, () -> new JsonChunks(WRITER, new Failing(), 100));
+  }
+}
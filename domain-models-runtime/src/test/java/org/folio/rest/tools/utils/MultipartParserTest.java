@@ -0,0 +1,120 @@
+package org.folio.rest.tools.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import io.vertx.core.buffer.Buffer;
+import java.util.ArrayList;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JUnitParamsRunner.class)
+public class MultipartParserTest {
+  private static final String BODY =
+      "preamble\r\n"
+      + "--AaB03x\r\n"
+      + "Content-Disposition: form-data; name=\"field1\"\r\n"
+      + "\r\n"
+      + "Joe Blow\r\n--AaB03 almost a delimiter\r\n"
+      + "--AaB03x  \r\n"
+      + "Content-Disposition: form-data; name=\"file1\"; filename=\"a.txt\"\r\n"
+      + "Content-Type: text/plain\r\n"
+      + "\r\n"
+      + "line 1\r\nline 2\r\n"
+      + "--AaB03x--\r\n"
+      + "epilogue";
+
+  private final List<String> events = new ArrayList<>();
+  private StringBuilder data;
+
+  private MultipartParser parser(String boundary) {
+    return new MultipartParser(boundary)
+        .partHandler(headers -> {
+          events.add("part " + headers.get("content-disposition"));
+          data = new StringBuilder();
+        })
+        .dataHandler(buffer -> data.append(buffer.toString()))
+        .partEndHandler(x -> events.add("data " + data))
+        .endHandler(x -> events.add("end"))
+        .exceptionHandler(e -> events.add("exception " + e.getMessage()));
+  }
+
+  private void parse(String body, int chunkSize) {
+    MultipartParser parser = parser("AaB03x");
+    Buffer buffer = Buffer.buffer(body);
+    for (int i = 0; i < buffer.length(); i += chunkSize) {
+      parser.handle(buffer.slice(i, Math.min(buffer.length(), i + chunkSize)));
+    }
+    parser.end();
+  }
+
+  @Test
+  @Parameters({ "1", "2", "3", "7", "10", "11", "12", "13", "50", "1000" })
+  public void chunks(int chunkSize) {
+    parse(BODY, chunkSize);
+    assertThat(events.size(), is(5));
+    assertThat(events.get(0), is("part form-data; name=\"field1\""));
+    assertThat(events.get(1), is("data Joe Blow\r\n--AaB03 almost a delimiter"));
+    assertThat(events.get(2), is("part form-data; name=\"file1\"; filename=\"a.txt\""));
+    assertThat(events.get(3), is("data line 1\r\nline 2"));
+    assertThat(events.get(4), is("end"));
+  }
+
+  @Test
+  @Parameters({ "1", "5", "1000" })
+  public void noHeaders(int chunkSize) {
+    parse("--AaB03x\r\n\r\nabc\r\n--AaB03x--", chunkSize);
+    assertThat(events.toString(), is("[part null, data abc, end]"));
+  }
+
+  @Test
+  public void missingCloseDelimiter() {
+    parse("--AaB03x\r\n\r\nabc", 1000);
+    assertThat(events.toString(),
+        is("[part null, exception Unexpected end of multipart body, close delimiter is missing]"));
+  }
+
+  @Test
+  public void invalidHeader() {
+    parse("--AaB03x\r\nfoo\r\n\r\nabc\r\n--AaB03x--", 1000);
+    assertThat(events.toString(), is("[exception Invalid multipart header line: foo]"));
+  }
+
+  @Test
+  public void headerTooLong() {
+    MultipartParser parser = parser("AaB03x").setMaxHeaderSize(10);
+    parser.handle(Buffer.buffer("--AaB03x\r\nContent-Type: text/plain"));
+    assertThat(events.toString(), is("[exception Multipart headers exceed 10 bytes]"));
+  }
+
+  @Test
+  public void invalidDelimiterSuffix() {
+    parse("--AaB03x!\r\n\r\nabc\r\n--AaB03x--", 1000);
+    assertThat(events.toString(), is("[exception Invalid character after multipart delimiter]"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void noBoundary() {
+    new MultipartParser(null);
+  }
+
+  @Test
+  @Parameters({
+    "multipart/form-data; boundary=AaB03x, AaB03x",
+    "multipart/form-data;boundary=\"a b\";charset=UTF-8, a b",
+    "multipart/form-data; BOUNDARY=x, x",
+  })
+  public void boundary(String contentType, String expected) {
+    assertThat(MultipartParser.boundary(contentType), is(expected));
+  }
+
+  @Test
+  public void boundaryMissing() {
+    assertThat(MultipartParser.boundary("multipart/form-data"), is(nullValue()));
+    assertThat(MultipartParser.boundary(null), is(nullValue()));
+  }
+}
@@ -45,9 +45,19 @@ public class TenantLoadingTest {
   int port;
   int putStatus; // for our fake server
   int postStatus; // for our fake server
+  int batchStatus; // for our fake server
 
   Set<String> ids = new HashSet<>();
 
+  private void fakeBatchHandler(RoutingContext ctx) {
+    ctx.request().bodyHandler(body -> {
+      if (batchStatus == 201) {
+        body.toJsonObject().getJsonArray("items").forEach(item -> ids.add(((JsonObject) item).getString("id")));
+      }
+      ctx.response().setStatusCode(batchStatus).end();
+    });
+  }
+
   private void fakeHttpServerHandler(RoutingContext ctx) {
     ctx.response().setChunked(true);
     Buffer buffer = Buffer.buffer();
@@ -83,8 +93,10 @@ public class TenantLoadingTest {
     Router router = Router.router(vertx);
     router.post("/data").handler(this::fakeHttpServerHandler);
     router.putWithRegex("/data/.*").handler(this::fakeHttpServerHandler);
+    router.post("/data-batch").handler(this::fakeBatchHandler);
     putStatus = 200;
     postStatus = 201;
+    batchStatus = 201;
     ids.clear();
     HttpServerOptions so = new HttpServerOptions().setHandle100ContinueAutomatically(true);
     vertx.createHttpServer(so)
@@ -143,6 +155,93 @@ public class TenantLoadingTest {
         .onComplete(context.asyncAssertSuccess(cnt -> context.assertEquals(12, cnt)));
   }
 
+  private TenantAttributes loadRef() {
+    List<Parameter> parameters = new LinkedList<>();
+    parameters.add(new Parameter().withKey("loadRef").withValue("true"));
+    return new TenantAttributes()
+        .withModuleTo("mod-1.0.0")
+        .withParameters(parameters);
+  }
+
+  private Map<String, String> okapiHeaders() {
+    Map<String, String> headers = new HashMap<String, String>();
+    headers.put("X-Okapi-Url-to", "http://localhost:" + Integer.toString(port));
+    return headers;
+  }
+
+  @Test
+  public void testConcurrency(TestContext context) {
+    TenantLoading tl = new TenantLoading()
+        .withKey("loadRef")
+        .withLead("tenant-load-ref")
+        .withConcurrency(5)
+        .add("data");
+    tl.perform(loadRef(), okapiHeaders(), vertx, context.asyncAssertSuccess(res -> {
+      context.assertEquals(2, res);
+      context.assertTrue(ids.contains("1"));
+      context.assertTrue(ids.contains("2"));
+      context.assertEquals(1, tl.getStats().size());
+      context.assertEquals(2, tl.getStats().get(0).getRecords());
+      context.assertEquals(2, tl.getStats().get(0).getRequests());
+    }));
+  }
+
+  @Test
+  public void testConcurrencyInvalid(TestContext context) {
+    TenantLoading tl = new TenantLoading();
+    try {
+      tl.withConcurrency(0);
+      context.fail();
+    } catch (IllegalArgumentException e) {
+      context.assertTrue(e.getMessage().contains("concurrency"));
+    }
+  }
+
+  @Test
+  public void testBatch(TestContext context) {
+    TenantLoading tl = new TenantLoading()
+        .withKey("loadRef")
+        .withLead("tenant-load-ref")
+        .withBatch("data-batch", "items", 10)
+        .add("data");
+    tl.perform(loadRef(), okapiHeaders(), vertx, context.asyncAssertSuccess(res -> {
+      context.assertEquals(2, res);
+      context.assertTrue(ids.contains("1"));
+      context.assertTrue(ids.contains("2"));
+      context.assertEquals(2, tl.getStats().get(0).getRecords());
+      context.assertEquals(1, tl.getStats().get(0).getRequests());
+    }));
+  }
+
+  @Test
+  public void testBatchNotFound(TestContext context) {
+    batchStatus = 404;
+    TenantLoading tl = new TenantLoading()
+        .withKey("loadRef")
+        .withLead("tenant-load-ref")
+        .withBatch("data-batch", "items", 1)
+        .withConcurrency(2)
+        .add("data");
+    tl.perform(loadRef(), okapiHeaders(), vertx, context.asyncAssertSuccess(res -> {
+      context.assertEquals(2, res);
+      context.assertTrue(ids.contains("1"));
+      context.assertTrue(ids.contains("2"));
+      context.assertEquals(2, tl.getStats().get(0).getRecords());
+    }));
+  }
+
+  @Test
+  public void testBatchFail(TestContext context) {
+    batchStatus = 500;
+    TenantLoading tl = new TenantLoading()
+        .withKey("loadRef")
+        .withLead("tenant-load-ref")
+        .withBatch("data-batch", "items", 10)
+        .add("data");
+    tl.perform(loadRef(), okapiHeaders(), vertx, context.asyncAssertFailure(cause ->
+        context.assertTrue(cause.getMessage().contains("data-batch returned status 500"), cause.getMessage())));
+  }
+
   public String myFilter(String content) {
     JsonObject obj = new JsonObject(content);
     String id = obj.getString("id");